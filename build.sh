@@ -255,6 +255,29 @@ build_maven_project() {
     cd - > /dev/null
 }
 
+# 安装共享模块到本地仓库（先安装父POM，供各服务模块单独构建时解析依赖）
+install_shared_module() {
+    local project_dir=$1
+    
+    log_info "安装共享模块 $project_dir..."
+    mvn -N clean install -DskipTests
+    if [ $? -ne 0 ]; then
+        log_error "父POM安装失败"
+        return 1
+    fi
+    
+    cd "$project_dir"
+    mvn clean install -DskipTests
+    if [ $? -eq 0 ]; then
+        log_success "$project_dir 安装成功"
+    else
+        log_error "$project_dir 安装失败"
+        return 1
+    fi
+    
+    cd - > /dev/null
+}
+
 # 启动Java服务
 start_java_service() {
     local project_dir=$1
@@ -399,6 +422,10 @@ main() {
     # 4. 构建和启动MCP服务器
     log_info "=== 步骤 4: 构建和启动MCP服务器 ==="
     
+    # 安装共享观测模块和检查点模块
+    install_shared_module "multi-agent-observability"
+    install_shared_module "multi-agent-checkpoint"
+    
     # 构建feedback-mcp-server
     build_maven_project "feedback-mcp-server" "feedback-mcp-server"
     start_java_service "feedback-mcp-server" "feedback-mcp-server-1.0.0.jar" 10004 "feedback-mcp-server"
@@ -180,5 +180,11 @@ public interface ProductMapper {
      */
     @Select("SELECT COUNT(*) FROM products WHERE name = #{name}")
     int existsByName(@Param("name") String name);
+    
+    /**
+     * 查询产品表变更版本，由行数、最近更新时间和库存总和组成，任一变化都说明产品数据有更新
+     */
+    @Select("SELECT CONCAT(COUNT(*), '-', COALESCE(MAX(updated_at), ''), '-', COALESCE(SUM(stock), 0)) FROM products")
+    String selectChangeVersion();
 }
 
@@ -17,9 +17,9 @@
 package com.alibaba.cloud.ai.demo.service;
 
 import com.alibaba.cloud.ai.demo.entity.Product;
-import com.alibaba.cloud.ai.demo.mapper.ProductMapper;
 import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
 import com.alibaba.cloud.ai.dashscope.rag.DashScopeDocumentRetrieverOptions;
+import io.micrometer.core.annotation.Timed;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,12 +30,21 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 咨询知识库服务类
  * 提供奶茶店产品和店铺信息的检索服务
  */
 @Service
+@Timed("service.method")
 public class ConsultService {
     
     private static final Logger logger = LoggerFactory.getLogger(ConsultService.class);
@@ -55,10 +64,36 @@ public class ConsultService {
     @Value("${spring.ai.dashscope.api-key}")
     private String apiKey;
 
+    /**
+     * 本地知识库索引的使用方式：primary 优先使用本地索引；fallback 远程检索超时或失败时降级到本地索引
+     */
+    @Value("${agent.consult.local-index.mode:fallback}")
+    private String localIndexMode;
+
+    @Value("${agent.consult.local-index.remote-timeout-ms:3000}")
+    private long remoteTimeoutMillis;
+
+    /**
+     * 带超时的远程检索线程数与排队上限，远程检索堆积时直接降级到本地索引，而不是无限创建线程
+     */
+    @Value("${agent.consult.local-index.remote-threads:16}")
+    private int remoteThreads;
+
+    @Value("${agent.consult.local-index.remote-queue-capacity:64}")
+    private int remoteQueueCapacity;
+
     private DashScopeApi dashscopeApi;
     
     @Autowired
-    private ProductMapper productMapper;
+    private ProductCatalog productCatalog;
+
+    @Autowired
+    private SemanticRetrievalCache retrievalCache;
+
+    @Autowired
+    private LocalKnowledgeIndex localKnowledgeIndex;
+
+    private ThreadPoolExecutor remoteRetrievalExecutor;
 
     public ConsultService() {}
     
@@ -69,29 +104,29 @@ public class ConsultService {
     @PostConstruct
     public void initRetriever() {
         this.dashscopeApi = DashScopeApi.builder().apiKey(apiKey).build();
+        int threads = Math.max(1, remoteThreads);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.remoteRetrievalExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, remoteQueueCapacity)), r -> {
+                    Thread thread = new Thread(r, "consult-remote-retrieval-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.remoteRetrievalExecutor.allowCoreThreadTimeOut(true);
     }
 
     /**
      * 根据查询内容检索知识库
      */
     public String searchKnowledge(String query) {
-        logger.info("=== ConsultService.searchKnowledge 入口 ===");
-        logger.info("请求参数 - query: {}", query);
-        
         try {
-            DashScopeDocumentRetrieverOptions options = DashScopeDocumentRetrieverOptions.builder().
-                    withEnableReranking(enableReranking).
-                    withRerankTopN(rerankTopN).
-                    withRerankMinScore(rerankMinScore).
-                    build();
-            List<Document> documents = dashscopeApi.retriever(indexID, query, options);
+            // 语义相近的问题直接复用缓存结果，未命中时才调用远程检索
+            List<Document> documents = retrievalCache.retrieve(indexID, query, this::retrieve);
 
             logger.info("检索到文档数量: {}", documents.size());
 
             if (documents.isEmpty()) {
                 String result = "未找到相关资料，查询内容：" + query;
-                logger.info("=== ConsultService.searchKnowledge 出口 ===");
-                logger.info("返回结果: {}", result);
                 return result;
             }
             
@@ -112,31 +147,68 @@ public class ConsultService {
             }
             
             String finalResult = result.toString();
-            logger.info("=== ConsultService.searchKnowledge 出口 ===");
-            logger.info("返回结果长度: {} 字符", finalResult.length());
-            logger.info("返回结果预览: {}", finalResult.length() > 200 ? finalResult.substring(0, 200) + "..." : finalResult);
             
             return finalResult;
         } catch (Exception e) {
             logger.error("知识库检索异常", e);
             String errorResult = "知识库检索失败: " + e.getMessage() + "，查询内容：" + query;
-            logger.info("=== ConsultService.searchKnowledge 出口 ===");
-            logger.info("返回错误结果: {}", errorResult);
             return errorResult;
         }
     }
     
+    /**
+     * 按本地索引的使用方式选择检索来源；queryVector 为语义缓存已计算的查询向量，本地索引直接复用。
+     * 远程检索不可用时降级到本地索引，降级结果不进入语义缓存
+     */
+    private SemanticRetrievalCache.Retrieval retrieve(String query, float[] queryVector) {
+        if (!localKnowledgeIndex.isReady()) {
+            return SemanticRetrievalCache.Retrieval.of(retrieveRemote(query));
+        }
+        if ("primary".equalsIgnoreCase(localIndexMode)) {
+            return SemanticRetrievalCache.Retrieval.of(searchLocal(query, queryVector));
+        }
+        Future<List<Document>> remote;
+        try {
+            remote = remoteRetrievalExecutor.submit(() -> retrieveRemote(query));
+        } catch (RejectedExecutionException e) {
+            logger.warn("远程知识库检索排队已满，降级到本地索引");
+            return SemanticRetrievalCache.Retrieval.fallback(searchLocal(query, queryVector));
+        }
+        try {
+            return SemanticRetrievalCache.Retrieval.of(remote.get(remoteTimeoutMillis, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException | ExecutionException e) {
+            remote.cancel(true);
+            logger.warn("远程知识库检索超时或失败，降级到本地索引: {}", e.toString());
+            return SemanticRetrievalCache.Retrieval.fallback(searchLocal(query, queryVector));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            remote.cancel(true);
+            return SemanticRetrievalCache.Retrieval.fallback(searchLocal(query, queryVector));
+        }
+    }
+
+    private List<Document> searchLocal(String query, float[] queryVector) {
+        return localKnowledgeIndex.search(query, queryVector, rerankTopN, rerankMinScore);
+    }
+    
+    /**
+     * 调用 DashScope 知识库检索（含重排序）
+     */
+    private List<Document> retrieveRemote(String query) {
+        DashScopeDocumentRetrieverOptions options = DashScopeDocumentRetrieverOptions.builder().
+                withEnableReranking(enableReranking).
+                withRerankTopN(rerankTopN).
+                withRerankMinScore(rerankMinScore).
+                build();
+        return dashscopeApi.retriever(indexID, query, options);
+    }
+    
     /**
      * 获取所有可用产品列表
      */
     public List<Product> getAllProducts() {
-        logger.info("=== ConsultService.getAllProducts 入口 ===");
-        
         try {
-            List<Product> products = productMapper.selectAllAvailable();
-            
-            logger.info("=== ConsultService.getAllProducts 出口 ===");
-            logger.info("返回结果 - 产品总数: {}", products.size());
+            List<Product> products = productCatalog.getAllAvailable();
             
             return products;
         } catch (Exception e) {
@@ -149,14 +221,8 @@ public class ConsultService {
      * 根据产品名称获取产品详情
      */
     public Product getProductByName(String productName) {
-        logger.info("=== ConsultService.getProductByName 入口 ===");
-        logger.info("请求参数 - productName: {}", productName);
-        
         try {
-            Product product = productMapper.selectByNameAndStatus(productName, 1);
-            
-            logger.info("=== ConsultService.getProductByName 出口 ===");
-            logger.info("返回结果 - product: {}", product != null ? product.getName() : "null");
+            Product product = productCatalog.getByName(productName);
             
             return product;
         } catch (Exception e) {
@@ -169,14 +235,8 @@ public class ConsultService {
      * 根据产品名称模糊搜索产品列表
      */
     public List<Product> searchProductsByName(String productName) {
-        logger.info("=== ConsultService.searchProductsByName 入口 ===");
-        logger.info("请求参数 - productName: {}", productName);
-        
         try {
-            List<Product> products = productMapper.selectByNameLike(productName);
-            
-            logger.info("=== ConsultService.searchProductsByName 出口 ===");
-            logger.info("返回结果 - 产品总数: {}", products.size());
+            List<Product> products = productCatalog.searchByName(productName);
             
             return products;
         } catch (Exception e) {
@@ -189,14 +249,8 @@ public class ConsultService {
      * 验证产品是否存在且可用
      */
     public boolean validateProduct(String productName) {
-        logger.info("=== ConsultService.validateProduct 入口 ===");
-        logger.info("请求参数 - productName: {}", productName);
-        
         try {
-            boolean exists = productMapper.existsByNameAndStatusTrue(productName) > 0;
-            
-            logger.info("=== ConsultService.validateProduct 出口 ===");
-            logger.info("返回结果 - exists: {}", exists);
+            boolean exists = productCatalog.getByName(productName) != null;
             
             return exists;
         } catch (Exception e) {
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * HNSW（Hierarchical Navigable Small World）近似最近邻索引
+ * 向量按行存放在 FloatBuffer 中（可以是内存映射文件），要求已归一化，相似度为内积（即余弦相似度）。
+ * 索引构建完成后只读，search 可并发调用。
+ */
+final class HnswIndex {
+
+    private final FloatBuffer vectors;
+
+    private final int dimension;
+
+    private final int maxConnections;
+
+    private final int maxConnectionsLevel0;
+
+    private final int efConstruction;
+
+    private final double levelMultiplier;
+
+    /**
+     * 固定种子，保证相同输入构建出相同的索引，检索结果可复现
+     */
+    private final Random random = new Random(42);
+
+    private final List<List<List<Integer>>> neighbors = new ArrayList<>();
+
+    private int entryPoint = -1;
+
+    private int maxLevel = -1;
+
+    HnswIndex(FloatBuffer vectors, int dimension, int maxConnections, int efConstruction) {
+        this.vectors = vectors;
+        this.dimension = dimension;
+        this.maxConnections = Math.max(2, maxConnections);
+        this.maxConnectionsLevel0 = this.maxConnections * 2;
+        this.efConstruction = Math.max(this.maxConnections, efConstruction);
+        this.levelMultiplier = 1 / Math.log(this.maxConnections);
+    }
+
+    /**
+     * 按顺序插入前 count 个向量
+     */
+    static HnswIndex build(FloatBuffer vectors, int dimension, int count, int maxConnections, int efConstruction) {
+        HnswIndex index = new HnswIndex(vectors, dimension, maxConnections, efConstruction);
+        for (int i = 0; i < count; i++) {
+            index.insert(i);
+        }
+        return index;
+    }
+
+    int size() {
+        return neighbors.size();
+    }
+
+    /**
+     * 检索与查询向量最相似的 k 个向量
+     *
+     * @param query    已归一化的查询向量
+     * @param k        返回数量
+     * @param efSearch 检索时的候选集大小，越大召回越高
+     * @return 按相似度从高到低排列的结果
+     */
+    List<Candidate> search(float[] query, int k, int efSearch) {
+        if (entryPoint < 0 || k <= 0) {
+            return List.of();
+        }
+        int current = entryPoint;
+        for (int level = maxLevel; level > 0; level--) {
+            current = greedySearch(query, current, level);
+        }
+        List<Candidate> candidates = searchLayer(query, current, Math.max(efSearch, k), 0);
+        return candidates.size() > k ? candidates.subList(0, k) : candidates;
+    }
+
+    private void insert(int id) {
+        int level = (int) Math.floor(-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        List<List<Integer>> links = new ArrayList<>(level + 1);
+        for (int l = 0; l <= level; l++) {
+            links.add(new ArrayList<>());
+        }
+        neighbors.add(links);
+
+        if (entryPoint < 0) {
+            entryPoint = id;
+            maxLevel = level;
+            return;
+        }
+
+        float[] vector = vector(id);
+        int current = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            current = greedySearch(vector, current, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(vector, current, efConstruction, l);
+            int limit = l == 0 ? maxConnectionsLevel0 : maxConnections;
+            for (int i = 0; i < Math.min(limit, candidates.size()); i++) {
+                int neighbor = candidates.get(i).id;
+                links.get(l).add(neighbor);
+                connect(neighbor, id, l, limit);
+            }
+            current = candidates.get(0).id;
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = id;
+        }
+    }
+
+    /**
+     * 添加反向连接，超过上限时只保留与该节点最相似的邻居
+     */
+    private void connect(int node, int neighbor, int level, int limit) {
+        List<Integer> links = neighbors.get(node).get(level);
+        links.add(neighbor);
+        if (links.size() <= limit) {
+            return;
+        }
+        float[] vector = vector(node);
+        links.sort(Comparator.comparingDouble((Integer other) -> similarity(vector, other)).reversed());
+        links.subList(limit, links.size()).clear();
+    }
+
+    private int greedySearch(float[] query, int start, int level) {
+        int current = start;
+        double best = similarity(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : neighbors.get(current).get(level)) {
+                double score = similarity(query, neighbor);
+                if (score > best) {
+                    best = score;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+        Set<Integer> visited = new HashSet<>();
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble(Candidate::score).reversed());
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Comparator.comparingDouble(Candidate::score));
+
+        Candidate first = new Candidate(start, similarity(query, start));
+        visited.add(start);
+        candidates.add(first);
+        results.add(first);
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (results.size() >= ef && closest.score < results.peek().score) {
+                break;
+            }
+            List<List<Integer>> links = neighbors.get(closest.id);
+            if (level >= links.size()) {
+                continue;
+            }
+            for (int neighbor : links.get(level)) {
+                if (!visited.add(neighbor)) {
+                    continue;
+                }
+                double score = similarity(query, neighbor);
+                if (results.size() < ef || score > results.peek().score) {
+                    Candidate candidate = new Candidate(neighbor, score);
+                    candidates.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingDouble(Candidate::score).reversed());
+        return sorted;
+    }
+
+    private float[] vector(int id) {
+        float[] vector = new float[dimension];
+        vectors.get(id * dimension, vector);
+        return vector;
+    }
+
+    private double similarity(float[] query, int id) {
+        int offset = id * dimension;
+        double sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += query[i] * vectors.get(offset + i);
+        }
+        return sum;
+    }
+
+    /**
+     * 检索结果：向量序号及相似度
+     */
+    record Candidate(int id, double score) {
+    }
+}
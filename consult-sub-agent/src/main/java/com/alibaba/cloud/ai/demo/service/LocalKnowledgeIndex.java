@@ -0,0 +1,313 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 本地知识库索引
+ * 启动时将本地 Markdown 知识文档按标题切分为文本块并向量化，向量存放在内存映射文件中（内容不变时重启直接复用，
+ * 无需重新向量化），在其上构建 HNSW 索引提供 top-k 检索，可作为远程 DashScope 知识库的替代或降级方案。
+ */
+@Component
+public class LocalKnowledgeIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKnowledgeIndex.class);
+
+    /**
+     * 向量文件头：魔数、维度、向量数量
+     */
+    private static final int FILE_MAGIC = 0x4B4E4958;
+
+    private static final int HEADER_BYTES = 12;
+
+    /**
+     * 每次向量化请求的文本数量
+     */
+    private static final int EMBED_BATCH_SIZE = 10;
+
+    private final EmbeddingModel embeddingModel;
+
+    /**
+     * 向量模型名称，与维度一起计入向量文件指纹，更换模型后不会复用旧向量
+     */
+    private final String embeddingModelName;
+
+    private final boolean enabled;
+
+    private final String documentsPattern;
+
+    private final Path storageDir;
+
+    private final int chunkSize;
+
+    private final int maxConnections;
+
+    private final int efConstruction;
+
+    private final int efSearch;
+
+    private volatile Snapshot snapshot;
+
+    public LocalKnowledgeIndex(@Qualifier("dashscopeEmbeddingModel") EmbeddingModel embeddingModel,
+                               @Value("${spring.ai.dashscope.embedding.options.model:text-embedding-v1}") String embeddingModelName,
+                               @Value("${agent.consult.local-index.enabled:false}") boolean enabled,
+                               @Value("${agent.consult.local-index.documents:classpath*:kownledge/*.md}") String documentsPattern,
+                               @Value("${agent.consult.local-index.storage-dir:data/knowledge-index}") String storageDir,
+                               @Value("${agent.consult.local-index.chunk-size:400}") int chunkSize,
+                               @Value("${agent.consult.local-index.max-connections:16}") int maxConnections,
+                               @Value("${agent.consult.local-index.ef-construction:100}") int efConstruction,
+                               @Value("${agent.consult.local-index.ef-search:50}") int efSearch) {
+        this.embeddingModel = embeddingModel;
+        this.embeddingModelName = embeddingModelName;
+        this.enabled = enabled;
+        this.documentsPattern = documentsPattern;
+        this.storageDir = Paths.get(storageDir);
+        this.chunkSize = Math.max(100, chunkSize);
+        this.maxConnections = maxConnections;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * 构建索引，失败时仅记录日志，检索继续使用远程知识库
+     */
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            this.snapshot = load();
+            logger.info("本地知识库索引构建完成，文本块数量: {}，耗时: {} ms", snapshot.chunks().size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("本地知识库索引构建失败，将仅使用远程知识库检索", e);
+        }
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * 检索与查询最相似的文本块
+     *
+     * @param query       查询内容
+     * @param queryVector 已归一化的查询向量，为 null 或维度不符时重新向量化
+     * @param topK        返回数量
+     * @param minScore    最低相似度（余弦相似度）
+     * @return 按相似度从高到低排列的文档
+     */
+    public List<Document> search(String query, float[] queryVector, int topK, double minScore) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return List.of();
+        }
+        if (queryVector == null || queryVector.length != current.dimension()) {
+            queryVector = Vectors.normalize(embeddingModel.embed(query));
+        }
+        List<Document> documents = new ArrayList<>();
+        for (HnswIndex.Candidate candidate : current.index().search(queryVector, topK, efSearch)) {
+            if (candidate.score() < minScore) {
+                continue;
+            }
+            Chunk chunk = current.chunks().get(candidate.id());
+            documents.add(Document.builder()
+                    .id(chunk.id())
+                    .text(chunk.text())
+                    .metadata(Map.of("source", chunk.source()))
+                    .score(candidate.score())
+                    .build());
+        }
+        return documents;
+    }
+
+    private Snapshot load() throws IOException, NoSuchAlgorithmException {
+        List<Chunk> chunks = loadChunks();
+        if (chunks.isEmpty()) {
+            throw new IllegalStateException("未找到本地知识文档: " + documentsPattern);
+        }
+        Files.createDirectories(storageDir);
+        int expectedDimension = embeddingModel.dimensions();
+        Path vectorFile = storageDir.resolve("knowledge-" + fingerprint(chunks, expectedDimension) + ".vec");
+
+        MappedByteBuffer buffer = mapVectorFile(vectorFile, chunks.size(), expectedDimension);
+        if (buffer == null) {
+            logger.info("向量文件 {} 不存在或已过期，开始向量化 {} 个文本块", vectorFile, chunks.size());
+            writeVectorFile(vectorFile, chunks);
+            buffer = Objects.requireNonNull(mapVectorFile(vectorFile, chunks.size(), expectedDimension), "向量文件写入失败");
+        }
+
+        int dimension = buffer.getInt(4);
+        FloatBuffer vectors = buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES).asFloatBuffer();
+        HnswIndex index = HnswIndex.build(vectors, dimension, chunks.size(), maxConnections, efConstruction);
+        return new Snapshot(chunks, index, dimension);
+    }
+
+    /**
+     * 以只读方式映射向量文件，文件头与文本块数量或模型维度不匹配时返回 null
+     */
+    private MappedByteBuffer mapVectorFile(Path vectorFile, int count, int expectedDimension) throws IOException {
+        if (!Files.exists(vectorFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(vectorFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int dimension = buffer.getInt(4);
+            boolean valid = buffer.getInt(0) == FILE_MAGIC && dimension == expectedDimension && buffer.getInt(8) == count
+                    && channel.size() == HEADER_BYTES + (long) count * dimension * Float.BYTES;
+            return valid ? buffer : null;
+        }
+    }
+
+    private void writeVectorFile(Path vectorFile, List<Chunk> chunks) throws IOException {
+        List<float[]> embeddings = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i += EMBED_BATCH_SIZE) {
+            List<String> batch = chunks.subList(i, Math.min(i + EMBED_BATCH_SIZE, chunks.size())).stream()
+                    .map(Chunk::text)
+                    .collect(Collectors.toList());
+            embeddings.addAll(embeddingModel.embed(batch));
+        }
+        int dimension = embeddings.get(0).length;
+        long size = HEADER_BYTES + (long) chunks.size() * dimension * Float.BYTES;
+
+        Path tempFile = vectorFile.resolveSibling(vectorFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(FILE_MAGIC).putInt(dimension).putInt(chunks.size());
+            for (float[] embedding : embeddings) {
+                for (float value : Vectors.normalize(embedding)) {
+                    buffer.putFloat(value);
+                }
+            }
+            buffer.force();
+        }
+        Files.move(tempFile, vectorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<Chunk> loadChunks() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(documentsPattern);
+        // 固定文档顺序，保证相同内容得到相同的文本块编号与向量文件
+        Arrays.sort(resources, Comparator.comparing(resource -> String.valueOf(resource.getFilename())));
+        List<Chunk> chunks = new ArrayList<>();
+        for (Resource resource : resources) {
+            try (InputStream inputStream = resource.getInputStream()) {
+                String content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                chunkMarkdown(resource.getFilename(), content, chunks);
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * 按标题切分 Markdown，每个文本块以所属标题路径开头；段落过长时在空行处继续切分
+     */
+    private void chunkMarkdown(String source, String content, List<Chunk> chunks) {
+        String[] headings = new String[7];
+        StringBuilder body = new StringBuilder();
+        for (String line : content.split("\r?\n")) {
+            int level = headingLevel(line);
+            if (level > 0) {
+                addChunk(source, headings, body, chunks);
+                headings[level] = line.substring(level).trim();
+                Arrays.fill(headings, level + 1, headings.length, null);
+                continue;
+            }
+            body.append(line).append('\n');
+            if (body.length() >= chunkSize && (line.isBlank() || body.length() >= chunkSize * 2)) {
+                addChunk(source, headings, body, chunks);
+            }
+        }
+        addChunk(source, headings, body, chunks);
+    }
+
+    private static void addChunk(String source, String[] headings, StringBuilder body, List<Chunk> chunks) {
+        String text = body.toString().trim();
+        body.setLength(0);
+        if (text.isEmpty()) {
+            return;
+        }
+        String title = Arrays.stream(headings).filter(Objects::nonNull).collect(Collectors.joining(" > "));
+        String chunkText = title.isEmpty() ? text : title + "\n" + text;
+        chunks.add(new Chunk(source + "#" + chunks.size(), source, chunkText));
+    }
+
+    private static int headingLevel(String line) {
+        int level = 0;
+        while (level < line.length() && level < 6 && line.charAt(level) == '#') {
+            level++;
+        }
+        return level > 0 && level < line.length() && line.charAt(level) == ' ' ? level : 0;
+    }
+
+    /**
+     * 向量文件指纹：模型名称、维度与全部文本块内容，任一变化都重新向量化
+     */
+    private String fingerprint(List<Chunk> chunks, int dimension) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update((embeddingModelName + "/" + dimension).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        for (Chunk chunk : chunks) {
+            digest.update(chunk.text().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest()).substring(0, 16);
+    }
+
+    private record Chunk(String id, String source, String text) {
+    }
+
+    private record Snapshot(List<Chunk> chunks, HnswIndex index, int dimension) {
+    }
+}
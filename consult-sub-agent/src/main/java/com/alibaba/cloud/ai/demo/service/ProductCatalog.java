@@ -0,0 +1,181 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import com.alibaba.cloud.ai.demo.entity.Product;
+import com.alibaba.cloud.ai.demo.mapper.ProductMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 产品目录
+ * 将上架产品加载为不可变快照，并按产品名称的单字与相邻双字（n-gram）建立倒排索引，
+ * 模糊搜索、按名称查询与产品校验直接在内存中完成，不再对产品表执行 LIKE '%name%' 全表扫描。
+ * 定时轮询产品表的变更版本，发生变化时整体重新加载。
+ */
+@Component
+public class ProductCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private final ProductMapper productMapper;
+
+    /**
+     * 不可变快照，刷新时整体替换，读取无需加锁
+     */
+    private volatile Snapshot snapshot;
+
+    public ProductCatalog(ProductMapper productMapper) {
+        this.productMapper = productMapper;
+    }
+
+    /**
+     * 所有上架产品，按名称排序
+     */
+    public List<Product> getAllAvailable() {
+        return current().products();
+    }
+
+    /**
+     * 按名称精确查找上架产品（忽略大小写）
+     */
+    public Product getByName(String name) {
+        if (name == null) {
+            return null;
+        }
+        return current().byName().get(normalize(name));
+    }
+
+    /**
+     * 按名称模糊搜索上架产品，语义与 name LIKE '%name%' 一致，结果按名称排序
+     */
+    public List<Product> searchByName(String name) {
+        Snapshot current = current();
+        String keyword = name == null ? "" : normalize(name);
+        if (keyword.isEmpty()) {
+            return current.products();
+        }
+
+        // 取查询词中倒排列表最短的 gram 作为候选集，再逐个校验是否包含完整查询词
+        int[] candidates = null;
+        for (String gram : grams(keyword)) {
+            int[] postings = current.index().get(gram);
+            if (postings == null) {
+                return List.of();
+            }
+            if (candidates == null || postings.length < candidates.length) {
+                candidates = postings;
+            }
+        }
+
+        List<Product> result = new ArrayList<>();
+        for (int position : candidates) {
+            Product product = current.products().get(position);
+            if (normalize(product.getName()).contains(keyword)) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 定时检查产品表变更版本，有变化时重新加载快照
+     */
+    @Scheduled(fixedDelayString = "${agent.product-catalog.poll-interval-ms:30000}")
+    public void refreshIfChanged() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        try {
+            String version = productMapper.selectChangeVersion();
+            if (!Objects.equals(version, current.version())) {
+                reload();
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to poll product catalog version, keep previous snapshot", e);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    private synchronized Snapshot reload() {
+        // 先读版本再读数据：两次读取之间的更新会让下次轮询看到新版本，不会丢失
+        String version = productMapper.selectChangeVersion();
+        List<Product> products = productMapper.selectAllAvailable();
+
+        Map<String, Product> byName = new HashMap<>();
+        Map<String, List<Integer>> postings = new HashMap<>();
+        for (int position = 0; position < products.size(); position++) {
+            Product product = products.get(position);
+            String name = normalize(product.getName());
+            byName.put(name, product);
+            // 同时索引单字与双字，单字用于长度为 1 的查询词
+            Set<String> grams = new HashSet<>(grams(name));
+            for (int i = 0; i < name.length(); i++) {
+                grams.add(name.substring(i, i + 1));
+            }
+            for (String gram : grams) {
+                postings.computeIfAbsent(gram, key -> new ArrayList<>()).add(position);
+            }
+        }
+
+        Map<String, int[]> index = new HashMap<>();
+        postings.forEach((gram, list) -> index.put(gram, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        Snapshot loaded = new Snapshot(version, List.copyOf(products), Map.copyOf(byName), Map.copyOf(index));
+        snapshot = loaded;
+        logger.info("Product catalog loaded, {} products, {} grams, version {}", products.size(), index.size(), version);
+        return loaded;
+    }
+
+    /**
+     * 长度为 1 的查询词使用单字，否则使用相邻双字
+     */
+    private static List<String> grams(String text) {
+        if (text.length() <= 1) {
+            return List.of(text);
+        }
+        List<String> grams = new ArrayList<>(text.length() - 1);
+        for (int i = 0; i + 2 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Snapshot(String version, List<Product> products, Map<String, Product> byName,
+                            Map<String, int[]> index) {
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+/**
+ * 知识库语义检索缓存
+ * 以查询语句的向量为键，在进程内缓存检索结果；新的查询与已缓存查询的余弦相似度达到阈值时直接返回缓存结果，
+ * 从而让同一问题的不同说法复用一次远程检索与重排序。缓存按 LRU + TTL 淘汰，索引ID变化时整体失效。
+ * 远程检索不可用时由本地索引降级得到的结果不写入缓存，远程恢复后同一问题重新走远程检索。
+ */
+@Component
+public class SemanticRetrievalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SemanticRetrievalCache.class);
+
+    private final EmbeddingModel embeddingModel;
+
+    private final boolean enabled;
+
+    private final double similarityThreshold;
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    /**
+     * 按访问顺序排列的缓存条目，键为归一化后的查询语句
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private String currentIndexId;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    private final Counter degradedCounter;
+
+    private final Timer savedLatencyTimer;
+
+    public SemanticRetrievalCache(@Qualifier("dashscopeEmbeddingModel") EmbeddingModel embeddingModel,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${agent.consult.retrieval-cache.enabled:true}") boolean enabled,
+                                  @Value("${agent.consult.retrieval-cache.similarity-threshold:0.92}") double similarityThreshold,
+                                  @Value("${agent.consult.retrieval-cache.max-entries:500}") int maxEntries,
+                                  @Value("${agent.consult.retrieval-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.embeddingModel = embeddingModel;
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+        this.hitCounter = Counter.builder("consult.retrieval.cache.requests")
+                .tag("result", "hit")
+                .description("知识库语义缓存命中次数")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("consult.retrieval.cache.requests")
+                .tag("result", "miss")
+                .description("知识库语义缓存未命中次数")
+                .register(meterRegistry);
+        this.degradedCounter = Counter.builder("consult.retrieval.cache.skipped")
+                .tag("reason", "degraded")
+                .description("降级检索结果未写入缓存的次数")
+                .register(meterRegistry);
+        this.savedLatencyTimer = Timer.builder("consult.retrieval.cache.saved.latency")
+                .description("缓存命中时节省的远程检索耗时")
+                .register(meterRegistry);
+        Gauge.builder("consult.retrieval.cache.size", this, SemanticRetrievalCache::size)
+                .description("知识库语义缓存条目数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 检索知识库，语义相近的查询直接返回缓存结果
+     *
+     * @param indexId 当前知识库索引ID，与缓存时不一致时清空缓存
+     * @param query   查询内容
+     * @param loader  实际的检索调用，仅在未命中时执行；第二个参数为已计算的归一化查询向量（缓存关闭或向量化失败时为 null），
+     *                本地索引可直接复用，避免同一次查询重复向量化
+     * @return 检索到的文档
+     */
+    public List<Document> retrieve(String indexId, String query, BiFunction<String, float[], Retrieval> loader) {
+        if (!enabled) {
+            return loader.apply(query, null).documents();
+        }
+        String key = normalize(query);
+        float[] embedding = null;
+        Entry hit;
+        synchronized (this) {
+            resetIfIndexChanged(indexId);
+            hit = lookupExact(key);
+        }
+        if (hit == null) {
+            embedding = embed(query);
+            if (embedding != null) {
+                synchronized (this) {
+                    hit = lookupSimilar(embedding);
+                }
+            }
+        }
+        if (hit != null) {
+            hitCounter.increment();
+            savedLatencyTimer.record(Duration.ofNanos(hit.loadNanos));
+            return hit.documents;
+        }
+
+        missCounter.increment();
+        long start = System.nanoTime();
+        Retrieval retrieval = loader.apply(query, embedding);
+        long loadNanos = System.nanoTime() - start;
+        List<Document> documents = retrieval.documents();
+        if (retrieval.degraded()) {
+            degradedCounter.increment();
+        } else if (embedding != null && documents != null && !documents.isEmpty()) {
+            synchronized (this) {
+                if (Objects.equals(currentIndexId, indexId)) {
+                    entries.put(key, new Entry(embedding, List.copyOf(documents), loadNanos));
+                    evictOverflow();
+                }
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * 清空缓存，知识库内容更新后调用
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void resetIfIndexChanged(String indexId) {
+        if (!Objects.equals(currentIndexId, indexId)) {
+            if (!entries.isEmpty()) {
+                logger.info("知识库索引ID由 {} 变更为 {}，清空语义检索缓存", currentIndexId, indexId);
+            }
+            entries.clear();
+            currentIndexId = indexId;
+        }
+    }
+
+    private Entry lookupExact(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(ttlMillis)) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * 线性扫描所有条目，返回相似度最高且超过阈值的条目；条目数量有上限，扫描开销远小于一次远程检索
+     */
+    private Entry lookupSimilar(float[] embedding) {
+        String bestKey = null;
+        double bestScore = similarityThreshold;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> candidate = iterator.next();
+            if (candidate.getValue().isExpired(ttlMillis)) {
+                iterator.remove();
+                continue;
+            }
+            double score = Vectors.dot(embedding, candidate.getValue().embedding);
+            if (score >= bestScore) {
+                bestScore = score;
+                bestKey = candidate.getKey();
+            }
+        }
+        // 通过 get 访问以更新 LRU 顺序
+        return bestKey != null ? entries.get(bestKey) : null;
+    }
+
+    private void evictOverflow() {
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private float[] embed(String query) {
+        try {
+            return Vectors.normalize(embeddingModel.embed(query));
+        } catch (Exception e) {
+            // 向量化失败时不影响检索，只是本次不使用缓存
+            logger.warn("查询向量化失败，跳过语义缓存: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String normalize(String query) {
+        return query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一次实际检索的结果；degraded 表示远程检索超时、失败或排队已满时由本地索引降级得到
+     */
+    public record Retrieval(List<Document> documents, boolean degraded) {
+
+        public static Retrieval of(List<Document> documents) {
+            return new Retrieval(documents, false);
+        }
+
+        public static Retrieval fallback(List<Document> documents) {
+            return new Retrieval(documents, true);
+        }
+    }
+
+    private static final class Entry {
+
+        private final float[] embedding;
+
+        private final List<Document> documents;
+
+        private final long loadNanos;
+
+        private final long createdAt = System.currentTimeMillis();
+
+        Entry(float[] embedding, List<Document> documents, long loadNanos) {
+            this.embedding = embedding;
+            this.documents = documents;
+            this.loadNanos = loadNanos;
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - createdAt > ttlMillis;
+        }
+    }
+}
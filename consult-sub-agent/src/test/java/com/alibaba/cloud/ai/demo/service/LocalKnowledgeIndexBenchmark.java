@@ -0,0 +1,228 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import com.alibaba.cloud.ai.dashscope.api.DashScopeApi;
+import com.alibaba.cloud.ai.dashscope.embedding.DashScopeEmbeddingModel;
+import com.alibaba.cloud.ai.dashscope.rag.DashScopeDocumentRetrieverOptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 本地知识库索引基准测试，通过 mvn test -Pbenchmark 运行，结果输出到日志
+ * 1. 固定种子生成的聚类向量上，对比 HNSW 与精确检索（逐条计算内积）的召回率和单次检索耗时，结果可复现；
+ * 2. 设置 DASHSCOPE_API_KEY 与 DASHSCOPE_INDEX_ID 时，用同一组问题对比本地索引与远程知识库检索的耗时，
+ *    并以远程结果为基准计算本地结果的召回率（两段文本的字符二元组 Jaccard 相似度不低于 0.5 视为同一段落）。
+ */
+@Tag("benchmark")
+class LocalKnowledgeIndexBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalKnowledgeIndexBenchmark.class);
+
+    private static final int DIMENSION = 256;
+
+    private static final int VECTORS = 10_000;
+
+    private static final int CLUSTERS = 100;
+
+    private static final int QUERIES = 500;
+
+    private static final int TOP_K = 10;
+
+    private static final List<String> KNOWLEDGE_QUERIES = List.of(
+            "云边茉莉多少钱", "桂花云露是什么茶底", "冬季有什么新品", "云雾观音用的什么奶",
+            "华南地区能买到哪些产品", "秋冬限定有哪些", "云边普洱的口感", "云桃乌龙适合什么季节",
+            "品牌理念是什么", "云谷燕麦的原料", "云山红韵在哪些地区有售", "制作一杯云边茉莉要多久");
+
+    @TempDir
+    Path storageDir;
+
+    @Test
+    void hnswRecallAndLatencyAgainstExactSearch() {
+        Random random = new Random(20250101L);
+        float[][] centroids = new float[CLUSTERS][];
+        for (int i = 0; i < CLUSTERS; i++) {
+            centroids[i] = randomUnitVector(random);
+        }
+        FloatBuffer vectors = FloatBuffer.allocate(VECTORS * DIMENSION);
+        float[][] rows = new float[VECTORS][];
+        for (int i = 0; i < VECTORS; i++) {
+            rows[i] = perturb(centroids[random.nextInt(CLUSTERS)], 0.6f, random);
+            vectors.put(rows[i]);
+        }
+        vectors.flip();
+        float[][] queries = new float[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = perturb(centroids[random.nextInt(CLUSTERS)], 0.6f, random);
+        }
+
+        long buildStart = System.nanoTime();
+        HnswIndex index = HnswIndex.build(vectors, DIMENSION, VECTORS, 16, 100);
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        long[] exactNanos = new long[QUERIES];
+        List<Set<Integer>> truth = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            truth.add(exactTopK(rows, queries[i]));
+            exactNanos[i] = System.nanoTime() - start;
+        }
+        logger.info("{} vectors x {} dims, {} queries, top {}: HNSW build {} ms, exact search p50={}us p99={}us",
+                VECTORS, DIMENSION, QUERIES, TOP_K, buildMillis, percentileMicros(exactNanos, 0.5),
+                percentileMicros(exactNanos, 0.99));
+
+        for (int efSearch : new int[] {20, 50, 100, 200}) {
+            long[] nanos = new long[QUERIES];
+            int found = 0;
+            for (int i = 0; i < QUERIES; i++) {
+                long start = System.nanoTime();
+                List<HnswIndex.Candidate> candidates = index.search(queries[i], TOP_K, efSearch);
+                nanos[i] = System.nanoTime() - start;
+                for (HnswIndex.Candidate candidate : candidates) {
+                    if (truth.get(i).contains(candidate.id())) {
+                        found++;
+                    }
+                }
+            }
+            logger.info("HNSW ef-search={}: recall@{}={}, p50={}us p99={}us", efSearch, TOP_K,
+                    String.format("%.3f", found / (double) (QUERIES * TOP_K)), percentileMicros(nanos, 0.5),
+                    percentileMicros(nanos, 0.99));
+        }
+    }
+
+    @Test
+    void localIndexAgainstRemoteKnowledgeBase() throws Exception {
+        String apiKey = System.getenv("DASHSCOPE_API_KEY");
+        String indexId = System.getenv("DASHSCOPE_INDEX_ID");
+        assumeTrue(apiKey != null && !apiKey.isBlank() && indexId != null && !indexId.isBlank(),
+                "需要 DASHSCOPE_API_KEY 与 DASHSCOPE_INDEX_ID");
+
+        DashScopeApi dashScopeApi = DashScopeApi.builder().apiKey(apiKey).build();
+        LocalKnowledgeIndex localIndex = new LocalKnowledgeIndex(new DashScopeEmbeddingModel(dashScopeApi),
+                "text-embedding-v1", true, "classpath*:kownledge/*.md", storageDir.toString(), 400, 16, 100, 50);
+        localIndex.init();
+        DashScopeDocumentRetrieverOptions options = DashScopeDocumentRetrieverOptions.builder()
+                .withEnableReranking(true)
+                .withRerankTopN(5)
+                .withRerankMinScore(0.3f)
+                .build();
+
+        int queries = KNOWLEDGE_QUERIES.size();
+        long[] remoteNanos = new long[queries];
+        long[] localNanos = new long[queries];
+        int relevant = 0;
+        int recalled = 0;
+        for (int i = 0; i < queries; i++) {
+            String query = KNOWLEDGE_QUERIES.get(i);
+            long start = System.nanoTime();
+            List<Document> remote = dashScopeApi.retriever(indexId, query, options);
+            remoteNanos[i] = System.nanoTime() - start;
+
+            // 本地耗时包含查询向量化，与线上降级路径一致
+            start = System.nanoTime();
+            List<Document> local = localIndex.search(query, null, 5, -1);
+            localNanos[i] = System.nanoTime() - start;
+
+            for (Document expected : remote) {
+                relevant++;
+                if (local.stream().anyMatch(actual -> samePassage(expected.getText(), actual.getText()))) {
+                    recalled++;
+                }
+            }
+        }
+        logger.info("{} knowledge queries: remote p50={}ms p95={}ms, local p50={}ms p95={}ms, "
+                        + "local recall of remote top 5={}", queries,
+                percentileMicros(remoteNanos, 0.5) / 1000, percentileMicros(remoteNanos, 0.95) / 1000,
+                percentileMicros(localNanos, 0.5) / 1000, percentileMicros(localNanos, 0.95) / 1000,
+                relevant == 0 ? "n/a" : String.format("%.3f", recalled / (double) relevant));
+    }
+
+    private static Set<Integer> exactTopK(float[][] rows, float[] query) {
+        Integer[] ids = new Integer[rows.length];
+        double[] scores = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            ids[i] = i;
+            scores[i] = Vectors.dot(query, rows[i]);
+        }
+        Arrays.sort(ids, (a, b) -> Double.compare(scores[b], scores[a]));
+        return new HashSet<>(Arrays.asList(ids).subList(0, TOP_K));
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return Vectors.normalize(vector);
+    }
+
+    private static float[] perturb(float[] centroid, float noise, Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = centroid[i] + noise * (float) random.nextGaussian() / (float) Math.sqrt(DIMENSION);
+        }
+        return Vectors.normalize(vector);
+    }
+
+    private static long percentileMicros(long[] nanos, double percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1000;
+    }
+
+    /**
+     * 字符二元组 Jaccard 相似度不低于 0.5 视为同一段落；本地与远程切分方式不同，不能按文本相等比较
+     */
+    private static boolean samePassage(String a, String b) {
+        Set<String> left = bigrams(a);
+        Set<String> right = bigrams(b);
+        if (left.isEmpty() || right.isEmpty()) {
+            return false;
+        }
+        Set<String> intersection = new HashSet<>(left);
+        intersection.retainAll(right);
+        return intersection.size() / (double) (left.size() + right.size() - intersection.size()) >= 0.5;
+    }
+
+    private static Set<String> bigrams(String text) {
+        Set<String> bigrams = new HashSet<>();
+        if (text == null) {
+            return bigrams;
+        }
+        String compact = text.replaceAll("\\s+", "");
+        for (int i = 0; i + 1 < compact.length(); i++) {
+            bigrams.add(compact.substring(i, i + 2));
+        }
+        return bigrams;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 向量文件按模型与维度区分，查询向量可由调用方传入以避免重复向量化
+ */
+class LocalKnowledgeIndexTest {
+
+    private static final int DIMENSION = 8;
+
+    @TempDir
+    Path storageDir;
+
+    private final EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+
+    @BeforeEach
+    void setUp() {
+        when(embeddingModel.dimensions()).thenReturn(DIMENSION);
+        when(embeddingModel.embed(anyList())).thenAnswer(invocation -> {
+            List<float[]> embeddings = new ArrayList<>();
+            for (Object text : invocation.<List<?>>getArgument(0)) {
+                embeddings.add(embed(String.valueOf(text)));
+            }
+            return embeddings;
+        });
+        when(embeddingModel.embed(anyString())).thenAnswer(invocation -> embed(invocation.getArgument(0)));
+    }
+
+    @Test
+    void restartWithSameModelReusesVectorFile() throws Exception {
+        index("text-embedding-v1").init();
+        clearInvocations(embeddingModel);
+
+        LocalKnowledgeIndex restarted = index("text-embedding-v1");
+        restarted.init();
+
+        assertThat(restarted.isReady()).isTrue();
+        verify(embeddingModel, never()).embed(anyList());
+        assertThat(vectorFiles()).hasSize(1);
+    }
+
+    @Test
+    void changingModelDoesNotReuseVectorFile() throws Exception {
+        index("text-embedding-v1").init();
+        clearInvocations(embeddingModel);
+
+        LocalKnowledgeIndex switched = index("text-embedding-v3");
+        switched.init();
+
+        assertThat(switched.isReady()).isTrue();
+        verify(embeddingModel, atLeastOnce()).embed(anyList());
+        assertThat(vectorFiles()).hasSize(2);
+    }
+
+    @Test
+    void searchUsesProvidedQueryVector() throws Exception {
+        LocalKnowledgeIndex index = index("text-embedding-v1");
+        index.init();
+        clearInvocations(embeddingModel);
+
+        List<Document> documents = index.search("茉莉", Vectors.normalize(embed("茉莉")), 3, -1);
+
+        assertThat(documents).isNotEmpty();
+        verify(embeddingModel, never()).embed(anyString());
+    }
+
+    private LocalKnowledgeIndex index(String modelName) {
+        return new LocalKnowledgeIndex(embeddingModel, modelName, true, "classpath*:kownledge/*.md",
+                storageDir.toString(), 400, 16, 100, 50);
+    }
+
+    private List<Path> vectorFiles() throws Exception {
+        try (Stream<Path> files = Files.list(storageDir)) {
+            return files.filter(file -> file.toString().endsWith(".vec")).toList();
+        }
+    }
+
+    /**
+     * 按字符哈希生成的确定性向量
+     */
+    private static float[] embed(String text) {
+        float[] vector = new float[DIMENSION];
+        for (char c : text.toCharArray()) {
+            vector[c % DIMENSION] += 1;
+        }
+        return vector;
+    }
+}
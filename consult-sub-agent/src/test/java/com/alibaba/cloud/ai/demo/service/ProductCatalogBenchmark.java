@@ -0,0 +1,201 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import com.alibaba.cloud.ai.demo.entity.Product;
+import com.alibaba.cloud.ai.demo.mapper.ProductMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 产品模糊搜索基准测试：n-gram 倒排索引对比 name LIKE '%name%'
+ * 通过 mvn test -Pbenchmark 运行，结果输出到日志
+ * 1. 固定种子生成不同规模的产品目录，对比倒排索引与逐行匹配（LIKE 在数据库内的等价计算）的单次查询耗时；
+ * 2. 设置 DB_HOST 时，连接 application.yml 中同一个 MySQL，对比 ProductMapper 的 LIKE 查询（含网络往返）与内存目录。
+ */
+@Tag("benchmark")
+class ProductCatalogBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalogBenchmark.class);
+
+    private static final String LIKE_SQL =
+            "SELECT id, name FROM products WHERE name LIKE CONCAT('%', ?, '%') AND status = 1 ORDER BY name";
+
+    private static final String CHARACTERS = "云边茉莉桂花露青胭脂涌顶冰雾观音山红韵桃乌龙普洱峰茶谷燕麦芝士奶盖柠檬葡萄芒果椰抹";
+
+    private static final int QUERIES = 2_000;
+
+    @Test
+    void ngramIndexAgainstLikeScan() {
+        for (int size : new int[] {100, 1_000, 10_000, 100_000}) {
+            Random random = new Random(size);
+            List<Product> products = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                products.add(product(i, randomName(random)));
+            }
+            products.sort(Comparator.comparing(Product::getName));
+            ProductCatalog catalog = catalog(products);
+            catalog.getAllAvailable();
+
+            String[] keywords = new String[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                // 一半取自已有名称的子串，一半随机组合（大多无结果）
+                keywords[i] = i % 2 == 0 ? substring(products.get(random.nextInt(size)).getName(), random)
+                        : randomName(random).substring(0, 2);
+            }
+            for (String keyword : keywords) {
+                assertThat(catalog.searchByName(keyword)).isEqualTo(likeScan(products, keyword));
+            }
+
+            long[] indexNanos = new long[QUERIES];
+            long[] scanNanos = new long[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                long start = System.nanoTime();
+                catalog.searchByName(keywords[i]);
+                indexNanos[i] = System.nanoTime() - start;
+                start = System.nanoTime();
+                likeScan(products, keywords[i]);
+                scanNanos[i] = System.nanoTime() - start;
+            }
+            logger.info("{} products, {} queries: n-gram index p50={}us p99={}us, LIKE scan p50={}us p99={}us",
+                    size, QUERIES, percentileMicros(indexNanos, 0.5), percentileMicros(indexNanos, 0.99),
+                    percentileMicros(scanNanos, 0.5), percentileMicros(scanNanos, 0.99));
+        }
+    }
+
+    @Test
+    void catalogAgainstMysqlLikeQuery() throws Exception {
+        String host = System.getenv("DB_HOST");
+        assumeTrue(host != null && !host.isBlank(), "需要 DB_HOST 等数据库连接环境变量");
+        String url = "jdbc:mysql://" + host + ":" + env("DB_PORT", "3306") + "/" + env("DB_NAME", "multi-agent-demo")
+                + "?useUnicode=true&characterEncoding=utf8&useSSL=false&serverTimezone=Asia/Shanghai"
+                + "&allowPublicKeyRetrieval=true";
+
+        try (Connection connection = DriverManager.getConnection(url, env("DB_USERNAME", "multi_agent_demo"),
+                env("DB_PASSWORD", "multi_agent_demo@321"))) {
+            List<Product> products = like(connection, "");
+            assumeTrue(!products.isEmpty(), "产品表为空");
+            ProductCatalog catalog = catalog(products);
+            catalog.getAllAvailable();
+
+            Random random = new Random(42);
+            long[] sqlNanos = new long[QUERIES / 10];
+            long[] indexNanos = new long[QUERIES / 10];
+            for (int i = 0; i < sqlNanos.length; i++) {
+                String keyword = substring(products.get(random.nextInt(products.size())).getName(), random);
+                long start = System.nanoTime();
+                List<Product> expected = like(connection, keyword);
+                sqlNanos[i] = System.nanoTime() - start;
+                start = System.nanoTime();
+                List<Product> actual = catalog.searchByName(keyword);
+                indexNanos[i] = System.nanoTime() - start;
+                assertThat(actual).extracting(Product::getId)
+                        .containsExactlyInAnyOrderElementsOf(expected.stream().map(Product::getId).toList());
+            }
+            logger.info("{} products, {} queries: MySQL LIKE p50={}us p99={}us, n-gram index p50={}us p99={}us",
+                    products.size(), sqlNanos.length, percentileMicros(sqlNanos, 0.5),
+                    percentileMicros(sqlNanos, 0.99), percentileMicros(indexNanos, 0.5),
+                    percentileMicros(indexNanos, 0.99));
+        }
+    }
+
+    private static List<Product> like(Connection connection, String keyword) throws Exception {
+        List<Product> products = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(LIKE_SQL)) {
+            statement.setString(1, keyword);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    products.add(product(resultSet.getLong("id"), resultSet.getString("name")));
+                }
+            }
+        }
+        return products;
+    }
+
+    private static ProductCatalog catalog(List<Product> products) {
+        ProductMapper productMapper = mock(ProductMapper.class);
+        when(productMapper.selectChangeVersion()).thenReturn("benchmark");
+        when(productMapper.selectAllAvailable()).thenReturn(products);
+        return new ProductCatalog(productMapper);
+    }
+
+    /**
+     * 逐行匹配，与 name LIKE '%keyword%' 在数据库内的计算一致
+     */
+    private static List<Product> likeScan(List<Product> products, String keyword) {
+        String normalized = keyword.trim().toLowerCase(Locale.ROOT);
+        List<Product> result = new ArrayList<>();
+        for (Product product : products) {
+            if (product.getName().trim().toLowerCase(Locale.ROOT).contains(normalized)) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    private static String randomName(Random random) {
+        int length = 3 + random.nextInt(4);
+        StringBuilder name = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            name.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        }
+        return name.toString();
+    }
+
+    private static String substring(String name, Random random) {
+        int start = random.nextInt(name.length());
+        int end = start + 1 + random.nextInt(name.length() - start);
+        return name.substring(start, end);
+    }
+
+    private static Product product(long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+
+    private static long percentileMicros(long[] nanos, double percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1000;
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import com.alibaba.cloud.ai.demo.entity.Product;
+import com.alibaba.cloud.ai.demo.mapper.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * n-gram 倒排索引的搜索结果与 LIKE '%name%' 逐个比对一致，产品表版本变化时重新加载
+ */
+class ProductCatalogTest {
+
+    private final ProductMapper productMapper = mock(ProductMapper.class);
+
+    private final ProductCatalog catalog = new ProductCatalog(productMapper);
+
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        products = products("云边茉莉", "桂花云露", "青云胭脂", "云涌茉莉", "Latte 云顶", "茉莉", "冰");
+        when(productMapper.selectChangeVersion()).thenReturn("v1");
+        when(productMapper.selectAllAvailable()).thenReturn(products);
+    }
+
+    @Test
+    void searchMatchesLikeSemanticsForEverySubstring() {
+        Set<String> keywords = new LinkedHashSet<>(List.of("", "不存在", "茉莉花", "latte", "LATTE 云", " 云 "));
+        for (Product product : products) {
+            String name = product.getName();
+            for (int start = 0; start < name.length(); start++) {
+                for (int end = start + 1; end <= name.length(); end++) {
+                    keywords.add(name.substring(start, end));
+                }
+            }
+        }
+
+        for (String keyword : keywords) {
+            assertThat(catalog.searchByName(keyword))
+                    .as("keyword '%s'", keyword)
+                    .containsExactlyElementsOf(like(keyword));
+        }
+    }
+
+    @Test
+    void getByNameIgnoresCaseAndSurroundingBlanks() {
+        assertThat(catalog.getByName(" latte 云顶 ")).extracting(Product::getName).isEqualTo("Latte 云顶");
+        assertThat(catalog.getByName("茉")).isNull();
+        assertThat(catalog.getByName(null)).isNull();
+    }
+
+    @Test
+    void reloadsOnlyWhenVersionChanges() {
+        catalog.getAllAvailable();
+        catalog.refreshIfChanged();
+        verify(productMapper, times(1)).selectAllAvailable();
+
+        List<Product> updated = new ArrayList<>(products);
+        updated.addAll(products("云朵芝士"));
+        when(productMapper.selectChangeVersion()).thenReturn("v2");
+        when(productMapper.selectAllAvailable()).thenReturn(updated);
+        catalog.refreshIfChanged();
+
+        verify(productMapper, times(2)).selectAllAvailable();
+        assertThat(catalog.searchByName("芝士")).extracting(Product::getName).containsExactly("云朵芝士");
+    }
+
+    /**
+     * 逐个比对的参照实现，与 name LIKE '%keyword%' 一致
+     */
+    private List<Product> like(String keyword) {
+        String normalized = keyword.trim().toLowerCase(Locale.ROOT);
+        return products.stream()
+                .filter(product -> product.getName().trim().toLowerCase(Locale.ROOT).contains(normalized))
+                .toList();
+    }
+
+    private static List<Product> products(String... names) {
+        List<Product> products = new ArrayList<>();
+        for (String name : names) {
+            Product product = new Product();
+            product.setId((long) name.hashCode());
+            product.setName(name);
+            products.add(product);
+        }
+        products.sort(Comparator.comparing(Product::getName));
+        return products;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 使用假的向量模型和检索器验证语义缓存的命中、未命中、失效，以及降级结果不缓存
+ */
+class SemanticRetrievalCacheTest {
+
+    private static final String INDEX_ID = "index-1";
+
+    private final EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * 查询语句到向量的映射，说法相近的问题向量相近
+     */
+    private final Map<String, float[]> vectors = new HashMap<>();
+
+    /**
+     * 假检索器收到的查询
+     */
+    private final List<String> retrieved = new ArrayList<>();
+
+    /**
+     * 假检索器收到的查询向量
+     */
+    private final List<float[]> retrievedVectors = new ArrayList<>();
+
+    private final BiFunction<String, float[], SemanticRetrievalCache.Retrieval> fakeRetriever = (query, queryVector) -> {
+        retrieved.add(query);
+        retrievedVectors.add(queryVector);
+        return SemanticRetrievalCache.Retrieval.of(List.of(new Document("云边茉莉：茉莉花茶底，中杯 16 元")));
+    };
+
+    @BeforeEach
+    void setUp() {
+        vectors.put("茉莉奶茶多少钱", new float[] {1f, 0.1f, 0f});
+        vectors.put("茉莉奶茶的价格是多少", new float[] {0.98f, 0.12f, 0.01f});
+        vectors.put("怎么办会员卡", new float[] {0f, 0.1f, 1f});
+        when(embeddingModel.embed(anyString())).thenAnswer(invocation -> vectors.get(invocation.<String>getArgument(0)));
+    }
+
+    @Test
+    void paraphrasedQueryHitsCache() {
+        SemanticRetrievalCache cache = cache(0.92, 600);
+
+        cache.retrieve(INDEX_ID, "茉莉奶茶多少钱", fakeRetriever);
+        List<Document> documents = cache.retrieve(INDEX_ID, "茉莉奶茶的价格是多少", fakeRetriever);
+
+        assertThat(retrieved).containsExactly("茉莉奶茶多少钱");
+        assertThat(documents).hasSize(1);
+        assertThat(meterRegistry.get("consult.retrieval.cache.requests").tag("result", "hit").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void unrelatedQueryMissesCache() {
+        SemanticRetrievalCache cache = cache(0.92, 600);
+
+        cache.retrieve(INDEX_ID, "茉莉奶茶多少钱", fakeRetriever);
+        cache.retrieve(INDEX_ID, "怎么办会员卡", fakeRetriever);
+
+        assertThat(retrieved).containsExactly("茉莉奶茶多少钱", "怎么办会员卡");
+    }
+
+    @Test
+    void exactRepeatSkipsEmbedding() {
+        SemanticRetrievalCache cache = cache(0.92, 600);
+
+        cache.retrieve(INDEX_ID, "茉莉奶茶多少钱", fakeRetriever);
+        cache.retrieve(INDEX_ID, "  茉莉奶茶多少钱 ", fakeRetriever);
+
+        assertThat(retrieved).hasSize(1);
+        verify(embeddingModel, times(1)).embed(anyString());
+    }
+
+    @Test
+    void missPassesNormalizedQueryVectorToRetriever() {
+        SemanticRetrievalCache cache = cache(0.92, 600);
+
+        cache.retrieve(INDEX_ID, "怎么办会员卡", fakeRetriever);
+
+        float[] vector = retrievedVectors.get(0);
+        assertThat(vector).isNotNull();
+        assertThat(Vectors.dot(vector, vector)).isCloseTo(1.0, within(1e-6));
+        verify(embeddingModel, times(1)).embed(anyString());
+    }
+
+    @Test
+    void indexChangeClearsCache() {
+        SemanticRetrievalCache cache = cache(0.92, 600);
+
+        cache.retrieve(INDEX_ID, "茉莉奶茶多少钱", fakeRetriever);
+        cache.retrieve("index-2", "茉莉奶茶多少钱", fakeRetriever);
+
+        assertThat(retrieved).hasSize(2);
+    }
+
+    @Test
+    void emptyResultIsNotCached() {
+        SemanticRetrievalCache cache = cache(0.92, 600);
+        BiFunction<String, float[], SemanticRetrievalCache.Retrieval> emptyRetriever = (query, queryVector) -> {
+            retrieved.add(query);
+            return SemanticRetrievalCache.Retrieval.of(List.of());
+        };
+
+        cache.retrieve(INDEX_ID, "茉莉奶茶多少钱", emptyRetriever);
+        cache.retrieve(INDEX_ID, "茉莉奶茶多少钱", emptyRetriever);
+
+        assertThat(retrieved).hasSize(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void degradedResultIsNotCached() {
+        SemanticRetrievalCache cache = cache(0.92, 600);
+        BiFunction<String, float[], SemanticRetrievalCache.Retrieval> degradedRetriever = (query, queryVector) -> {
+            retrieved.add(query);
+            return SemanticRetrievalCache.Retrieval.fallback(List.of(new Document("本地索引：云边茉莉")));
+        };
+
+        List<Document> degraded = cache.retrieve(INDEX_ID, "茉莉奶茶多少钱", degradedRetriever);
+        // 远程恢复后同一问题重新检索，拿到远程结果
+        List<Document> recovered = cache.retrieve(INDEX_ID, "茉莉奶茶多少钱", fakeRetriever);
+
+        assertThat(degraded).extracting(Document::getText).containsExactly("本地索引：云边茉莉");
+        assertThat(recovered).extracting(Document::getText).containsExactly("云边茉莉：茉莉花茶底，中杯 16 元");
+        assertThat(retrieved).hasSize(2);
+        assertThat(meterRegistry.get("consult.retrieval.cache.skipped").tag("reason", "degraded").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void expiredEntryIsReloaded() {
+        SemanticRetrievalCache cache = cache(0.92, 0);
+
+        cache.retrieve(INDEX_ID, "茉莉奶茶多少钱", fakeRetriever);
+        sleep(5);
+        cache.retrieve(INDEX_ID, "茉莉奶茶的价格是多少", fakeRetriever);
+
+        assertThat(retrieved).hasSize(2);
+    }
+
+    private SemanticRetrievalCache cache(double threshold, long ttlSeconds) {
+        return new SemanticRetrievalCache(embeddingModel, meterRegistry, true, threshold, 500, ttlSeconds);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
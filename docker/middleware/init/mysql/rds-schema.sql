@@ -286,6 +286,7 @@ INSERT INTO `feedback` (`order_id`, `user_id`, `feedback_type`, `rating`, `conte
 -- 为订单表创建复合索引
 CREATE INDEX `idx_orders_user_created` ON `orders` (`user_id`, `created_at`);
 CREATE INDEX `idx_orders_product_created` ON `orders` (`product_id`, `created_at`);
+CREATE INDEX `idx_orders_user_product_created` ON `orders` (`user_id`, `product_id`, `created_at`);
 
 -- 为反馈表创建复合索引
 CREATE INDEX `idx_feedback_user_type` ON `feedback` (`user_id`, `feedback_type`);
@@ -18,6 +18,7 @@ package com.alibaba.cloud.ai.feedback.service;
 
 import com.alibaba.cloud.ai.feedback.entity.Feedback;
 import com.alibaba.cloud.ai.feedback.mapper.FeedbackMapper;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +30,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed("service.method")
 public class FeedbackService {
     private static final Logger logger = LoggerFactory.getLogger(FeedbackService.class);
     
@@ -41,8 +43,6 @@ public class FeedbackService {
     @Transactional
     public Feedback createFeedback(Feedback feedback) {
         try {
-            logger.info("创建反馈记录，用户ID: {}, 反馈类型: {}", feedback.getUserId(), feedback.getFeedbackType());
-            
             // 设置创建时间
             feedback.onCreate();
             
@@ -65,7 +65,6 @@ public class FeedbackService {
      */
     public Optional<Feedback> getFeedbackById(Long id) {
         try {
-            logger.info("查询反馈记录，ID: {}", id);
             Feedback feedback = feedbackMapper.selectById(id);
             return Optional.ofNullable(feedback);
         } catch (Exception e) {
@@ -79,7 +78,6 @@ public class FeedbackService {
      */
     public List<Feedback> getFeedbacksByUserId(Long userId) {
         try {
-            logger.info("查询用户反馈记录，用户ID: {}", userId);
             return feedbackMapper.selectByUserId(userId);
         } catch (Exception e) {
             logger.error("查询用户反馈记录时发生错误，用户ID: {}", userId, e);
@@ -92,7 +90,6 @@ public class FeedbackService {
      */
     public List<Feedback> getFeedbacksByOrderId(String orderId) {
         try {
-            logger.info("查询订单反馈记录，订单ID: {}", orderId);
             return feedbackMapper.selectByOrderId(orderId);
         } catch (Exception e) {
             logger.error("查询订单反馈记录时发生错误，订单ID: {}", orderId, e);
@@ -105,7 +102,6 @@ public class FeedbackService {
      */
     public List<Feedback> getFeedbacksByType(Integer feedbackType) {
         try {
-            logger.info("查询反馈类型记录，类型: {}", feedbackType);
             return feedbackMapper.selectByFeedbackType(feedbackType);
         } catch (Exception e) {
             logger.error("查询反馈类型记录时发生错误，类型: {}", feedbackType, e);
@@ -119,8 +115,6 @@ public class FeedbackService {
     @Transactional
     public Feedback updateFeedback(Feedback feedback) {
         try {
-            logger.info("更新反馈记录，ID: {}", feedback.getId());
-            
             // 设置更新时间
             feedback.onUpdate();
             
@@ -144,8 +138,6 @@ public class FeedbackService {
     @Transactional
     public boolean updateFeedbackSolution(Long id, String solution) {
         try {
-            logger.info("更新反馈解决方案，ID: {}, 解决方案: {}", id, solution);
-            
             int result = feedbackMapper.updateSolution(id, solution, LocalDateTime.now());
             if (result > 0) {
                 logger.info("反馈解决方案更新成功，ID: {}", id);
@@ -166,8 +158,6 @@ public class FeedbackService {
     @Transactional
     public boolean deleteFeedback(Long id) {
         try {
-            logger.info("删除反馈记录，ID: {}", id);
-            
             int result = feedbackMapper.deleteById(id);
             if (result > 0) {
                 logger.info("反馈记录删除成功，ID: {}", id);
@@ -187,7 +177,6 @@ public class FeedbackService {
      */
     public List<Feedback> getAllFeedbacks() {
         try {
-            logger.info("查询所有反馈记录");
             return feedbackMapper.selectAll();
         } catch (Exception e) {
             logger.error("查询所有反馈记录时发生错误", e);
@@ -200,7 +189,6 @@ public class FeedbackService {
      */
     public int countFeedbacksByUserId(Long userId) {
         try {
-            logger.info("统计用户反馈数量，用户ID: {}", userId);
             return feedbackMapper.countByUserId(userId);
         } catch (Exception e) {
             logger.error("统计用户反馈数量时发生错误，用户ID: {}", userId, e);
@@ -213,7 +201,6 @@ public class FeedbackService {
      */
     public int countFeedbacksByType(Integer feedbackType) {
         try {
-            logger.info("统计反馈类型数量，类型: {}", feedbackType);
             return feedbackMapper.countByFeedbackType(feedbackType);
         } catch (Exception e) {
             logger.error("统计反馈类型数量时发生错误，类型: {}", feedbackType, e);
@@ -28,6 +28,8 @@ public class Mem0Config {
     
     private Api api = new Api();
     private Client client = new Client();
+    private SearchCache searchCache = new SearchCache();
+    private WriteBuffer writeBuffer = new WriteBuffer();
     
     public Api getApi() {
         return api;
@@ -45,6 +47,22 @@ public class Mem0Config {
         this.client = client;
     }
     
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+    
+    public void setSearchCache(SearchCache searchCache) {
+        this.searchCache = searchCache;
+    }
+    
+    public WriteBuffer getWriteBuffer() {
+        return writeBuffer;
+    }
+    
+    public void setWriteBuffer(WriteBuffer writeBuffer) {
+        this.writeBuffer = writeBuffer;
+    }
+    
     public static class Api {
         private String url = "https://api.mem0.ai";
         private String key = "";
@@ -69,6 +87,11 @@ public class Mem0Config {
     public static class Client {
         private int timeoutSeconds = 30;
         private int maxRetryAttempts = 3;
+        private int connectTimeoutSeconds = 10;
+        private int maxConnections = 200;
+        private int maxConnectionsPerRoute = 100;
+        private int idleEvictSeconds = 30;
+        private int connectionTtlSeconds = 300;
         
         public int getTimeoutSeconds() {
             return timeoutSeconds;
@@ -85,5 +108,168 @@ public class Mem0Config {
         public void setMaxRetryAttempts(int maxRetryAttempts) {
             this.maxRetryAttempts = maxRetryAttempts;
         }
+        
+        public int getConnectTimeoutSeconds() {
+            return connectTimeoutSeconds;
+        }
+        
+        public void setConnectTimeoutSeconds(int connectTimeoutSeconds) {
+            this.connectTimeoutSeconds = connectTimeoutSeconds;
+        }
+        
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+        
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+        
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+        
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+        
+        public int getIdleEvictSeconds() {
+            return idleEvictSeconds;
+        }
+        
+        public void setIdleEvictSeconds(int idleEvictSeconds) {
+            this.idleEvictSeconds = idleEvictSeconds;
+        }
+        
+        public int getConnectionTtlSeconds() {
+            return connectionTtlSeconds;
+        }
+        
+        public void setConnectionTtlSeconds(int connectionTtlSeconds) {
+            this.connectionTtlSeconds = connectionTtlSeconds;
+        }
+    }
+    
+    public static class SearchCache {
+        private boolean enabled = true;
+        private long maximumSize = 10000;
+        private int ttlSeconds = 60;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+        
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+        
+        public int getTtlSeconds() {
+            return ttlSeconds;
+        }
+        
+        public void setTtlSeconds(int ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+    }
+    
+    public static class WriteBuffer {
+        private int batchSize = 10;
+        private long flushIntervalMillis = 2000;
+        private int maxPending = 1000;
+        private long offerTimeoutMillis = 500;
+        private int flushThreads = 2;
+        private String journalPath = "data/memory-write.journal";
+        private int maxAttempts = 8;
+        private long initialBackoffMillis = 1000;
+        private long maxBackoffMillis = 60000;
+        private String deadLetterPath = "data/memory-write.dead-letter";
+        
+        public int getBatchSize() {
+            return batchSize;
+        }
+        
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+        
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+        
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+        
+        public int getMaxPending() {
+            return maxPending;
+        }
+        
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+        
+        public long getOfferTimeoutMillis() {
+            return offerTimeoutMillis;
+        }
+        
+        public void setOfferTimeoutMillis(long offerTimeoutMillis) {
+            this.offerTimeoutMillis = offerTimeoutMillis;
+        }
+        
+        public int getFlushThreads() {
+            return flushThreads;
+        }
+        
+        public void setFlushThreads(int flushThreads) {
+            this.flushThreads = flushThreads;
+        }
+        
+        public String getJournalPath() {
+            return journalPath;
+        }
+        
+        public void setJournalPath(String journalPath) {
+            this.journalPath = journalPath;
+        }
+        
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+        
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+        
+        public long getInitialBackoffMillis() {
+            return initialBackoffMillis;
+        }
+        
+        public void setInitialBackoffMillis(long initialBackoffMillis) {
+            this.initialBackoffMillis = initialBackoffMillis;
+        }
+        
+        public long getMaxBackoffMillis() {
+            return maxBackoffMillis;
+        }
+        
+        public void setMaxBackoffMillis(long maxBackoffMillis) {
+            this.maxBackoffMillis = maxBackoffMillis;
+        }
+        
+        public String getDeadLetterPath() {
+            return deadLetterPath;
+        }
+        
+        public void setDeadLetterPath(String deadLetterPath) {
+            this.deadLetterPath = deadLetterPath;
+        }
     }
 }
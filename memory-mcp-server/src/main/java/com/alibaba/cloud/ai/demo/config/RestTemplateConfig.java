@@ -16,15 +16,25 @@
 
 package com.alibaba.cloud.ai.demo.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.reactive.function.client.WebClient;
 
 /**
- * WebClient 配置类
+ * RestTemplate 配置类
+ * 访问 Mem0 的请求使用连接池复用 keep-alive 连接，避免每次搜索/存储记忆都重新建立 TCP/TLS 连接
  */
 @Configuration
 public class RestTemplateConfig {
@@ -32,11 +42,49 @@ public class RestTemplateConfig {
     @Autowired
     private Mem0Config mem0Config;
 
+    /**
+     * Mem0 连接池，连接统计通过 /api/memory/connection-pool 和 httpcomponents.httpclient.pool.* 指标查看
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(10000); // 10 seconds
-        factory.setReadTimeout(30000); // 30 seconds
-        return new RestTemplate(factory);
+    public PoolingHttpClientConnectionManager mem0ConnectionManager() {
+        Mem0Config.Client client = mem0Config.getClient();
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofSeconds(client.getConnectTimeoutSeconds()))
+                .setSocketTimeout(Timeout.ofSeconds(client.getTimeoutSeconds()))
+                .setTimeToLive(TimeValue.ofSeconds(client.getConnectionTtlSeconds()))
+                .build();
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(client.getMaxConnections())
+                .setMaxConnPerRoute(client.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+    }
+
+    /**
+     * 连接池的租用、空闲、等待连接数等指标，标签 httpclient=mem0
+     */
+    @Bean
+    public MeterBinder mem0ConnectionPoolMetrics(PoolingHttpClientConnectionManager mem0ConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(mem0ConnectionManager, "mem0");
+    }
+
+    @Bean
+    public CloseableHttpClient mem0HttpClient(PoolingHttpClientConnectionManager mem0ConnectionManager) {
+        Mem0Config.Client client = mem0Config.getClient();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofSeconds(client.getConnectTimeoutSeconds()))
+                .setResponseTimeout(Timeout.ofSeconds(client.getTimeoutSeconds()))
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(mem0ConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(client.getIdleEvictSeconds()))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient mem0HttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(mem0HttpClient));
     }
 }
@@ -16,8 +16,13 @@
 
 package com.alibaba.cloud.ai.demo.controller;
 
+import com.alibaba.cloud.ai.demo.service.MemorySearchCache;
 import com.alibaba.cloud.ai.demo.service.MemoryService;
+import com.alibaba.cloud.ai.demo.service.MemoryWritePipeline;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
@@ -33,17 +38,27 @@ public class MemoryController {
     @Autowired
     private MemoryService memoryService;
     
+    @Autowired
+    private PoolingHttpClientConnectionManager mem0ConnectionManager;
+    
+    @Autowired
+    private MemorySearchCache memorySearchCache;
+    
+    @Autowired
+    private MemoryWritePipeline memoryWritePipeline;
+    
     /**
      * 存储用户记忆 - 异步处理
      */
     @PostMapping("/store")
     public ResponseEntity<Map<String, Object>> storeMemory(@RequestBody StoreMemoryRequest request) {
         Map<String, Object> response = new HashMap<>();
-        // 异步存储记忆，立即返回成功状态
-        String result = memoryService.storeMemory(request.getUserId(), request.getContent());
-        response.put("success", true);
-        response.put("message", result);
-        return ResponseEntity.ok(response);
+        // 写入缓冲队列后立即返回，队列已满或日志写入失败时返回 503
+        boolean accepted = memoryService.submitMemory(request.getUserId(), request.getContent());
+        response.put("success", accepted);
+        response.put("message", accepted ? MemoryService.STORED_MESSAGE : MemoryService.BUSY_MESSAGE);
+        return accepted ? ResponseEntity.ok(response)
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
     }
     
     /**
@@ -58,6 +73,46 @@ public class MemoryController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * 查看 Mem0 连接池统计
+     */
+    @GetMapping("/connection-pool")
+    public ResponseEntity<Map<String, Object>> connectionPoolStats() {
+        PoolStats stats = mem0ConnectionManager.getTotalStats();
+        Map<String, Object> data = new HashMap<>();
+        data.put("leased", stats.getLeased());
+        data.put("available", stats.getAvailable());
+        data.put("pending", stats.getPending());
+        data.put("max", stats.getMax());
+        data.put("routes", mem0ConnectionManager.getRoutes().size());
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 查看记忆检索缓存统计
+     */
+    @GetMapping("/search-cache")
+    public ResponseEntity<Map<String, Object>> searchCacheStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", memorySearchCache.stats());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 查看记忆写入管道统计
+     */
+    @GetMapping("/write-pipeline")
+    public ResponseEntity<Map<String, Object>> writePipelineStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", memoryWritePipeline.stats());
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * 存储记忆请求DTO
      */
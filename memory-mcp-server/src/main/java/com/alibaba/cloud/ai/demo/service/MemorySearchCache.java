@@ -0,0 +1,140 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import com.alibaba.cloud.ai.demo.config.Mem0Config;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 记忆检索缓存
+ * 以"用户ID + 归一化后的查询语句"为键缓存 Mem0 检索结果，容量受限（Caffeine W-TinyLFU 淘汰）并带短 TTL；
+ * 用户存储新记忆成功后失效该用户的全部缓存；失效时递增该用户的代数，加载期间代数发生变化的结果不写入缓存。
+ * 命中、未命中、淘汰次数通过 cache.* 指标（cache=mem0.search）发布到 Prometheus。
+ */
+@Component
+public class MemorySearchCache {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    /**
+     * 代数的保留时长，远大于单次 Mem0 检索耗时，过期后重新从 0 开始不影响判断
+     */
+    private static final Duration GENERATION_RETENTION = Duration.ofMinutes(10);
+
+    private final boolean enabled;
+    private final Cache<String, String> cache;
+
+    /**
+     * 每个用户的失效代数
+     */
+    private final Cache<String, AtomicLong> generations;
+
+    public MemorySearchCache(Mem0Config config, MeterRegistry meterRegistry) {
+        Mem0Config.SearchCache settings = config.getSearchCache();
+        this.enabled = settings.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(Duration.ofSeconds(settings.getTtlSeconds()))
+                .recordStats()
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterAccess(GENERATION_RETENTION)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "mem0.search");
+    }
+
+    /**
+     * 读取缓存，未命中时调用 loader 加载；loader 返回空表示本次结果不可缓存（如调用失败）
+     */
+    public String get(String userId, String query, Supplier<Optional<String>> loader) {
+        if (!enabled) {
+            return loader.get().orElse(null);
+        }
+        String key = key(userId, query);
+        String cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadGeneration = generation(userId).get();
+        Optional<String> loaded = loader.get();
+        // 加载期间该用户发生过失效时保留原值，避免把失效前读到的旧结果重新写入缓存
+        loaded.ifPresent(value -> cache.asMap().compute(key,
+                (k, old) -> generation(userId).get() == loadGeneration ? value : old));
+        return loaded.orElse(null);
+    }
+
+    /**
+     * 失效指定用户的全部检索缓存；先递增代数再删除，正在进行的加载不会再写入
+     */
+    public void invalidateUser(String userId) {
+        generation(userId).incrementAndGet();
+        String prefix = userKeyPrefix(userId);
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private AtomicLong generation(String userId) {
+        return generations.get(userId == null ? "" : userId, k -> new AtomicLong());
+    }
+
+    /**
+     * 缓存统计：命中、未命中、淘汰次数及当前条目数
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> data = new HashMap<>();
+        data.put("enabled", enabled);
+        data.put("size", cache.estimatedSize());
+        data.put("hitCount", stats.hitCount());
+        data.put("missCount", stats.missCount());
+        data.put("hitRate", stats.hitRate());
+        data.put("evictionCount", stats.evictionCount());
+        return data;
+    }
+
+    private static String key(String userId, String query) {
+        return userKeyPrefix(userId) + normalize(query);
+    }
+
+    private static String userKeyPrefix(String userId) {
+        return (userId == null ? "" : userId) + KEY_SEPARATOR;
+    }
+
+    /**
+     * 查询归一化：去除首尾空白及结尾标点、合并连续空白、统一小写
+     */
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        String normalized = query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return normalized.replaceAll("[\\p{Punct}？。！，、；：]+$", "");
+    }
+}
@@ -17,15 +17,12 @@
 package com.alibaba.cloud.ai.demo.service;
 
 import com.alibaba.cloud.ai.demo.config.Mem0Config;
-import com.alibaba.cloud.ai.demo.dto.*;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.http.*;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -36,23 +33,37 @@ import java.util.*;
 @Service
 public class MemoryService {
     private static final Logger logger = LoggerFactory.getLogger(MemoryService.class);
-    private static final String MEMORIES_URI_V1 = "/v1/memories/";
     private static final String MEMORIES_URI_V2 = "/v2/memories/search/";
 
+    public static final String STORED_MESSAGE = "成功存储用户喜好";
+
+    public static final String BUSY_MESSAGE = "记忆存储繁忙，请稍后重试";
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     private final Mem0Config config;
-    private final ApplicationContext applicationContext;
+    private final MemorySearchCache searchCache;
+    private final MemoryWritePipeline writePipeline;
 
     @Autowired
-    public MemoryService(RestTemplate restTemplate, Mem0Config config, ApplicationContext applicationContext) {
+    public MemoryService(RestTemplate restTemplate, Mem0Config config, MemorySearchCache searchCache,
+                         MemoryWritePipeline writePipeline) {
         this.restTemplate = restTemplate;
         this.objectMapper = new ObjectMapper();
         this.config = config;
-        this.applicationContext = applicationContext;
+        this.searchCache = searchCache;
+        this.writePipeline = writePipeline;
     }
 
     public String searchMemory(String userId, String query) {
+        String result = searchCache.get(userId, query, () -> fetchMemory(userId, query));
+        return result != null ? result : "未找到用户历史喜好";
+    }
+
+    /**
+     * 调用 Mem0 检索用户记忆，调用失败时返回空，避免把失败结果写入缓存
+     */
+    private Optional<String> fetchMemory(String userId, String query) {
         try {
             // 计算时间范围：今天的两周前到明天
             LocalDate today = LocalDate.now();
@@ -114,70 +125,31 @@ public class MemoryService {
                     }
                 }
                 logger.info("Found {} memories for user: {} in date range {} to {}", memories.size(), userId, startDate, endDate);
-                return result.toString();
+                return Optional.of(result.toString());
             } else {
                 logger.warn("No memories found for user: {} in date range {} to {}", userId, startDate, endDate);
-                return "未找到用户历史喜好";
+                return Optional.of("未找到用户历史喜好");
             }
         } catch (Exception e) {
             logger.error("Error searching memories for user: {}", userId, e);
-            return "未找到用户历史喜好";
+            return Optional.empty();
         }
     }
 
     /**
-     * 存储用户记忆 - 异步方法，立即返回成功状态
+     * 存储用户记忆 - 写入缓冲队列后立即返回，由 MemoryWritePipeline 按用户合并后批量写入 Mem0
      */
     public String storeMemory(String userId, String content) {
-        // 立即返回成功状态
-        logger.info("Memory storage request received for user: {}, content: {}", userId, content);
-        
-        // 通过ApplicationContext获取代理对象来调用异步方法
-        MemoryService self = applicationContext.getBean(MemoryService.class);
-        self.storeMemoryAsync(userId, content);
-
-        return "成功存储用户喜好";
+        return submitMemory(userId, content) ? STORED_MESSAGE : BUSY_MESSAGE;
     }
-    
+
     /**
-     * 异步存储用户记忆 - 后台执行
+     * 提交记忆写入
+     *
+     * @return true 表示已写入本地日志并进入写入队列；false 表示队列已满或日志写入失败
      */
-    @Async("memoryTaskExecutor")
-    public void storeMemoryAsync(String userId, String content) {
-        try {
-            logger.info("Starting async memory storage for user: {}", userId);
-            
-            // 创建消息
-            Message message = new Message("user", content);
-            List<Message> messages = Arrays.asList(message);
-            
-            // 使用 Builder 模式创建请求
-            Mem0ServerRequest.MemoryCreate memoryCreate = Mem0ServerRequest.MemoryCreate.builder()
-                    .messages(messages)
-                    .userId(userId != null && !userId.trim().isEmpty() ? userId : "default_user")
-                    .build();
-
-            String requestJson = objectMapper.writeValueAsString(memoryCreate);
-            logger.info("Sending async memory request: {}", requestJson);
-
-            // 使用 RestTemplate 进行同步调用，避免在异步方法中使用阻塞操作
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Token " + config.getApi().getKey());
-            HttpEntity<String> requestEntity = new HttpEntity<>(requestJson, headers);
-            
-            String url = config.getApi().getUrl() + MEMORIES_URI_V1;
-            ResponseEntity<String> responseEntity = restTemplate.postForEntity(url, requestEntity, String.class);
-            String response = responseEntity.getBody();
-
-            if (response != null) {
-                logger.info("Successfully added memory with {} messages for user: {}", memoryCreate.getMessages().size(), userId);
-                logger.debug("Memory creation response: {}", response);
-            }
-            
-            logger.info("Async memory storage completed successfully for user: {}", userId);
-        } catch (Exception e) {
-            logger.error("Error in async memory storage for user: {}", userId, e);
-        }
+    public boolean submitMemory(String userId, String content) {
+        logger.info("Memory storage request received for user: {}, content: {}", userId, content);
+        return writePipeline.submit(userId, content);
     }
-}
\ No newline at end of file
+}
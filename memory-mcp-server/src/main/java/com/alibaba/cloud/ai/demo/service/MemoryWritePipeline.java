@@ -0,0 +1,489 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import com.alibaba.cloud.ai.demo.config.Mem0Config;
+import com.alibaba.cloud.ai.demo.dto.Mem0ServerRequest;
+import com.alibaba.cloud.ai.demo.dto.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 记忆写入管道（write-behind）
+ * 待写入的记忆按用户合并为一个 messages 列表，达到批量大小或超过刷新间隔时一次写入 Mem0；
+ * 待写入总数有上限，队列满时调用方在超时时间内等待，仍无空位则明确返回失败而不是静默丢弃；
+ * 每条记忆入队前先追加到本地日志文件，写入成功后追加确认记录，重启时重放未确认的记忆；
+ * 写入失败的批次按指数退避重试，超过最大尝试次数或遇到不可重试的 4xx 响应时写入死信文件并确认。
+ */
+@Component
+public class MemoryWritePipeline {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryWritePipeline.class);
+    private static final String MEMORIES_URI_V1 = "/v1/memories/";
+    private static final String DEFAULT_USER = "default_user";
+    private static final String OP_ADD = "add";
+    private static final String OP_ACK = "ack";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final Mem0Config config;
+    private final MemorySearchCache searchCache;
+    private final MeterRegistry meterRegistry;
+    private final Mem0Config.WriteBuffer settings;
+    private final Path journalPath;
+    private final Path deadLetterPath;
+
+    private final ConcurrentMap<String, UserBatch> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object journalLock = new Object();
+
+    private Semaphore pendingPermits;
+    private BufferedWriter journal;
+    private boolean journalDirty;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService flushExecutor;
+    private Counter deadLetterCounter;
+
+    public MemoryWritePipeline(RestTemplate restTemplate, Mem0Config config, MemorySearchCache searchCache,
+                               MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = new ObjectMapper();
+        this.config = config;
+        this.searchCache = searchCache;
+        this.meterRegistry = meterRegistry;
+        this.settings = config.getWriteBuffer();
+        this.journalPath = Paths.get(settings.getJournalPath());
+        this.deadLetterPath = Paths.get(settings.getDeadLetterPath());
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        List<PendingMemory> recovered = recoverJournal();
+        // 恢复的记忆可能超过上限，此时许可数为负，新的写入需等待恢复的记忆写完
+        this.pendingPermits = new Semaphore(settings.getMaxPending() - recovered.size());
+        recovered.forEach(this::enqueue);
+        if (!recovered.isEmpty()) {
+            logger.info("Recovered {} pending memories from journal {}", recovered.size(), journalPath);
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("memory-flush-timer"));
+        // 刷新线程池的队列长度、活跃线程数等通过 executor.* 指标暴露（name=memory-flush）
+        this.flushExecutor = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newFixedThreadPool(Math.max(1, settings.getFlushThreads()), daemonThreadFactory("memory-flush")),
+                "memory-flush");
+        Gauge.builder("memory.write.pending", this, MemoryWritePipeline::pendingMemories)
+                .description("等待写入 Mem0 的记忆数")
+                .register(meterRegistry);
+        Gauge.builder("memory.write.pending.users", pending, Map::size)
+                .description("有待写入记忆的用户数")
+                .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("memory.write.dead.letter")
+                .description("重试耗尽或不可重试而转入死信文件的记忆数")
+                .register(meterRegistry);
+        long tick = Math.max(100, settings.getFlushIntervalMillis() / 2);
+        scheduler.scheduleWithFixedDelay(this::flushExpired, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 提交一条待写入记忆
+     *
+     * @return true 表示已持久化到本地日志并进入写入队列；false 表示队列已满或日志写入失败
+     */
+    public boolean submit(String userId, String content) {
+        String user = userId != null && !userId.trim().isEmpty() ? userId : DEFAULT_USER;
+        try {
+            if (!pendingPermits.tryAcquire(settings.getOfferTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Memory write queue is full, rejecting memory for user: {}", user);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        PendingMemory memory = new PendingMemory(sequence.incrementAndGet(), user, content);
+        try {
+            appendJournal(JournalEntry.add(memory));
+        } catch (IOException e) {
+            pendingPermits.release();
+            logger.error("Failed to append memory to journal for user: {}", user, e);
+            return false;
+        }
+        enqueue(memory);
+        return true;
+    }
+
+    /**
+     * 写入管道统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("pendingMemories", pendingMemories());
+        data.put("pendingUsers", pending.size());
+        data.put("maxPending", settings.getMaxPending());
+        return data;
+    }
+
+    private int pendingMemories() {
+        return settings.getMaxPending() - pendingPermits.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdownNow();
+        // 停机前尽量写完，写入失败的记忆仍保留在日志中，下次启动时恢复
+        for (String user : new ArrayList<>(pending.keySet())) {
+            flushExecutor.execute(() -> flush(user));
+        }
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(config.getClient().getTimeoutSeconds(), TimeUnit.SECONDS);
+        synchronized (journalLock) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close memory journal {}", journalPath, e);
+            }
+        }
+    }
+
+    private void enqueue(PendingMemory memory) {
+        boolean[] full = {false};
+        pending.compute(memory.userId, (user, batch) -> {
+            if (batch == null) {
+                batch = new UserBatch();
+            }
+            batch.memories.add(memory);
+            // 退避中的批次即使已满也等到下次重试时间再写
+            full[0] = batch.memories.size() >= settings.getBatchSize()
+                    && batch.nextAttemptAt <= System.currentTimeMillis();
+            return batch;
+        });
+        if (full[0] && flushExecutor != null) {
+            flushExecutor.execute(() -> flush(memory.userId));
+        }
+    }
+
+    /**
+     * 定时刷新：写入等待时间超过刷新间隔、或已到重试时间的批次，空闲时压缩日志
+     */
+    private void flushExpired() {
+        long now = System.currentTimeMillis();
+        pending.forEach((user, batch) -> {
+            boolean due = batch.attempts > 0
+                    ? now >= batch.nextAttemptAt
+                    : now - batch.createdAt >= settings.getFlushIntervalMillis();
+            if (due) {
+                flushExecutor.execute(() -> flush(user));
+            }
+        });
+        compactJournalIfIdle();
+    }
+
+    private void flush(String user) {
+        UserBatch batch = pending.remove(user);
+        if (batch == null) {
+            return;
+        }
+        try {
+            post(user, batch.memories);
+            acknowledge(batch.memories);
+            // 新记忆写入后，该用户的检索缓存不再准确
+            searchCache.invalidateUser(user);
+        } catch (Exception e) {
+            batch.attempts++;
+            if (!isRetryable(e) || batch.attempts >= settings.getMaxAttempts()) {
+                deadLetter(user, batch, e);
+                return;
+            }
+            long backoff = backoffMillis(batch.attempts);
+            batch.nextAttemptAt = System.currentTimeMillis() + backoff;
+            logger.warn("Failed to write {} memories for user: {} (attempt {}), retry in {} ms",
+                    batch.memories.size(), user, batch.attempts, backoff, e);
+            requeue(user, batch);
+        }
+    }
+
+    /**
+     * 失败的批次放回队首，期间新提交的记忆并入该批次，到重试时间后一起写入
+     */
+    private void requeue(String user, UserBatch batch) {
+        pending.merge(user, batch, (newer, failed) -> {
+            failed.memories.addAll(newer.memories);
+            return failed;
+        });
+    }
+
+    /**
+     * 4xx 表示请求本身有问题（如鉴权失败、参数错误），重试结果相同；仅超时和限流可以重试
+     */
+    private static boolean isRetryable(Exception e) {
+        if (e instanceof HttpClientErrorException clientError) {
+            int status = clientError.getStatusCode().value();
+            return status == 408 || status == 429;
+        }
+        return true;
+    }
+
+    private long backoffMillis(int attempts) {
+        long backoff = settings.getInitialBackoffMillis() << Math.min(attempts - 1, 20);
+        return Math.min(backoff, settings.getMaxBackoffMillis());
+    }
+
+    /**
+     * 放弃写入的批次追加到死信文件后确认，避免日志和待写入队列被永久占用；
+     * 死信文件格式与日志的 add 记录一致，排查后可追加回日志重放
+     */
+    private void deadLetter(String user, UserBatch batch, Exception e) {
+        logger.error("Giving up writing {} memories for user: {} after {} attempt(s), moved to dead-letter file {}",
+                batch.memories.size(), user, batch.attempts, deadLetterPath, e);
+        List<String> lines = new ArrayList<>(batch.memories.size());
+        try {
+            for (PendingMemory memory : batch.memories) {
+                lines.add(objectMapper.writeValueAsString(JournalEntry.add(memory)));
+            }
+            synchronized (journalLock) {
+                Files.write(deadLetterPath, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            }
+        } catch (IOException ioe) {
+            // 死信写入失败时不确认，按最大退避间隔放回队列，下次失败后再尝试写入死信
+            logger.error("Failed to write dead-letter file {}, memories stay in journal", deadLetterPath, ioe);
+            batch.nextAttemptAt = System.currentTimeMillis() + settings.getMaxBackoffMillis();
+            requeue(user, batch);
+            return;
+        }
+        deadLetterCounter.increment(batch.memories.size());
+        acknowledge(batch.memories);
+    }
+
+    private void post(String user, List<PendingMemory> memories) throws IOException {
+        List<Message> messages = new ArrayList<>(memories.size());
+        for (PendingMemory memory : memories) {
+            messages.add(new Message("user", memory.content));
+        }
+
+        // 使用 Builder 模式创建请求
+        Mem0ServerRequest.MemoryCreate memoryCreate = Mem0ServerRequest.MemoryCreate.builder()
+                .messages(messages)
+                .userId(user)
+                .build();
+
+        String requestJson = objectMapper.writeValueAsString(memoryCreate);
+        logger.info("Sending batched memory request: {}", requestJson);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Token " + config.getApi().getKey());
+        HttpEntity<String> requestEntity = new HttpEntity<>(requestJson, headers);
+
+        String url = config.getApi().getUrl() + MEMORIES_URI_V1;
+        ResponseEntity<String> responseEntity = restTemplate.postForEntity(url, requestEntity, String.class);
+        logger.info("Successfully added memory with {} messages for user: {}", messages.size(), user);
+        logger.debug("Memory creation response: {}", responseEntity.getBody());
+    }
+
+    private void acknowledge(List<PendingMemory> memories) {
+        List<Long> ids = new ArrayList<>(memories.size());
+        for (PendingMemory memory : memories) {
+            ids.add(memory.id);
+        }
+        try {
+            appendJournal(JournalEntry.ack(ids));
+        } catch (IOException e) {
+            // 确认记录写入失败只会导致重启后重复写入，不影响本次结果
+            logger.warn("Failed to append ack to memory journal {}", journalPath, e);
+        }
+        pendingPermits.release(memories.size());
+    }
+
+    private void appendJournal(JournalEntry entry) throws IOException {
+        String line = objectMapper.writeValueAsString(entry);
+        synchronized (journalLock) {
+            journal.write(line);
+            journal.newLine();
+            journal.flush();
+            if (OP_ACK.equals(entry.op)) {
+                journalDirty = true;
+            }
+        }
+    }
+
+    /**
+     * 所有记忆均已确认时清空日志，避免文件无限增长；许可全部归还说明没有正在写入日志的记忆
+     */
+    private void compactJournalIfIdle() {
+        synchronized (journalLock) {
+            if (!journalDirty || pendingPermits.availablePermits() != settings.getMaxPending()) {
+                return;
+            }
+            try {
+                journal.close();
+                journal = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                journalDirty = false;
+            } catch (IOException e) {
+                logger.warn("Failed to compact memory journal {}", journalPath, e);
+            }
+        }
+    }
+
+    /**
+     * 读取日志中未确认的记忆，并将日志重写为只包含这些记忆
+     */
+    private List<PendingMemory> recoverJournal() throws IOException {
+        Path parent = journalPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path deadLetterParent = deadLetterPath.toAbsolutePath().getParent();
+        if (deadLetterParent != null) {
+            Files.createDirectories(deadLetterParent);
+        }
+        Map<Long, PendingMemory> unacknowledged = new LinkedHashMap<>();
+        long maxId = 0;
+        if (Files.exists(journalPath)) {
+            for (String line : Files.readAllLines(journalPath, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JournalEntry entry = objectMapper.readValue(line, JournalEntry.class);
+                    if (OP_ADD.equals(entry.op)) {
+                        unacknowledged.put(entry.id, new PendingMemory(entry.id, entry.userId, entry.content));
+                        maxId = Math.max(maxId, entry.id);
+                    } else if (OP_ACK.equals(entry.op) && entry.ids != null) {
+                        entry.ids.forEach(unacknowledged::remove);
+                    }
+                } catch (Exception e) {
+                    // 最后一行可能在进程中断时只写入了一半，忽略即可
+                    logger.warn("Skip broken memory journal line in {}", journalPath);
+                }
+            }
+        }
+        sequence.set(maxId);
+
+        Path compacted = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (PendingMemory memory : unacknowledged.values()) {
+                writer.write(objectMapper.writeValueAsString(JournalEntry.add(memory)));
+                writer.newLine();
+            }
+        }
+        Files.move(compacted, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.journal = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        return new ArrayList<>(unacknowledged.values());
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 单条待写入记忆
+     */
+    private static final class PendingMemory {
+        private final long id;
+        private final String userId;
+        private final String content;
+
+        PendingMemory(long id, String userId, String content) {
+            this.id = id;
+            this.userId = userId;
+            this.content = content;
+        }
+    }
+
+    /**
+     * 单个用户的待写入批次
+     */
+    private static final class UserBatch {
+        private final List<PendingMemory> memories = new ArrayList<>();
+        private final long createdAt = System.currentTimeMillis();
+        private int attempts;
+        private long nextAttemptAt;
+    }
+
+    /**
+     * 日志记录：add 为待写入记忆，ack 为已写入的记忆ID列表
+     */
+    static final class JournalEntry {
+        public String op;
+        public long id;
+        public String userId;
+        public String content;
+        public List<Long> ids;
+
+        static JournalEntry add(PendingMemory memory) {
+            JournalEntry entry = new JournalEntry();
+            entry.op = OP_ADD;
+            entry.id = memory.id;
+            entry.userId = memory.userId;
+            entry.content = memory.content;
+            return entry;
+        }
+
+        static JournalEntry ack(List<Long> ids) {
+            JournalEntry entry = new JournalEntry();
+            entry.op = OP_ACK;
+            entry.ids = ids;
+            return entry;
+        }
+    }
+}
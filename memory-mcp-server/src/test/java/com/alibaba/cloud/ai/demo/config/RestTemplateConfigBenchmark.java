@@ -0,0 +1,142 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mem0 客户端基准测试：本地桩服务上 200 个并发用户各发起若干次搜索，对比连接池化客户端与每次新建连接的总耗时
+ * 通过 mvn test -Pbenchmark 运行，结果输出到日志
+ */
+@Tag("benchmark")
+class RestTemplateConfigBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestTemplateConfigBenchmark.class);
+
+    private static final int USERS = 200;
+
+    private static final int REQUESTS_PER_USER = 5;
+
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+
+    private HttpServer mem0Stub;
+
+    private ExecutorService stubExecutor;
+
+    private String searchUrl;
+
+    @BeforeEach
+    void startMem0Stub() throws Exception {
+        mem0Stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        mem0Stub.createContext("/v2/memories/search/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = "[{\"memory\":\"喜欢云边茉莉\"}]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubExecutor = Executors.newFixedThreadPool(64);
+        mem0Stub.setExecutor(stubExecutor);
+        mem0Stub.start();
+        searchUrl = "http://127.0.0.1:" + mem0Stub.getAddress().getPort() + "/v2/memories/search/";
+    }
+
+    @AfterEach
+    void stopMem0Stub() {
+        mem0Stub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void pooledVersusConnectionPerRequest() throws Exception {
+        Mem0Config mem0Config = new Mem0Config();
+        mem0Config.getClient().setMaxConnections(MAX_CONNECTIONS_PER_ROUTE);
+        mem0Config.getClient().setMaxConnectionsPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        RestTemplateConfig config = new RestTemplateConfig();
+        ReflectionTestUtils.setField(config, "mem0Config", mem0Config);
+
+        PoolingHttpClientConnectionManager connectionManager = config.mem0ConnectionManager();
+        long pooled;
+        try (CloseableHttpClient httpClient = config.mem0HttpClient(connectionManager)) {
+            RestTemplate restTemplate = config.restTemplate(httpClient);
+            runUsers(restTemplate);
+            pooled = runUsers(restTemplate);
+        }
+
+        RestTemplate simple = new RestTemplate(new SimpleClientHttpRequestFactory());
+        simple.getInterceptors().add((request, body, execution) -> {
+            request.getHeaders().set(HttpHeaders.CONNECTION, "close");
+            return execution.execute(request, body);
+        });
+        runUsers(simple);
+        long perRequest = runUsers(simple);
+
+        logger.info("{} users x {} searches: pooled {} ms, connection per request {} ms", USERS, REQUESTS_PER_USER,
+                pooled, perRequest);
+    }
+
+    /**
+     * 每个用户串行发起若干次搜索，返回全部完成的耗时（毫秒）
+     */
+    private long runUsers(RestTemplate restTemplate) throws Exception {
+        ExecutorService users = Executors.newFixedThreadPool(USERS);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                String userId = "user-" + i;
+                futures.add(users.submit(() -> {
+                    for (int j = 0; j < REQUESTS_PER_USER; j++) {
+                        restTemplate.postForObject(searchUrl, "{\"query\":\"茶\",\"user_id\":\"" + userId + "\"}",
+                                String.class);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            users.shutdownNow();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.controller;
+
+import com.alibaba.cloud.ai.demo.service.MemoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 存储记忆接口按写入管道是否接收返回成功或 503
+ */
+class MemoryControllerTest {
+
+    private final MemoryService memoryService = mock(MemoryService.class);
+
+    private final MemoryController controller = new MemoryController();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "memoryService", memoryService);
+    }
+
+    @Test
+    void acceptedWriteReturnsSuccess() {
+        when(memoryService.submitMemory("u1", "喜欢茉莉花茶")).thenReturn(true);
+
+        ResponseEntity<Map<String, Object>> response = controller.storeMemory(request("u1", "喜欢茉莉花茶"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsEntry("success", true)
+                .containsEntry("message", MemoryService.STORED_MESSAGE);
+    }
+
+    @Test
+    void rejectedWriteReturnsServiceUnavailable() {
+        when(memoryService.submitMemory("u1", "喜欢茉莉花茶")).thenReturn(false);
+
+        ResponseEntity<Map<String, Object>> response = controller.storeMemory(request("u1", "喜欢茉莉花茶"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getBody()).containsEntry("success", false)
+                .containsEntry("message", MemoryService.BUSY_MESSAGE);
+    }
+
+    private static MemoryController.StoreMemoryRequest request(String userId, String content) {
+        MemoryController.StoreMemoryRequest request = new MemoryController.StoreMemoryRequest();
+        request.setUserId(userId);
+        request.setContent(content);
+        return request;
+    }
+}
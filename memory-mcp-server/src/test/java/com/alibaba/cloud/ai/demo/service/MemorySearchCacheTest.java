@@ -0,0 +1,114 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import com.alibaba.cloud.ai.demo.config.Mem0Config;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 检索与失效并发时不把失效前的旧结果写回缓存，命中与未命中次数发布为缓存指标
+ */
+class MemorySearchCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MemorySearchCache cache = new MemorySearchCache(new Mem0Config(), meterRegistry);
+
+    @Test
+    void cachesNormalizedQueriesPerUser() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("u1", "喜欢什么茶？", () -> Optional.of("茉莉" + loads.incrementAndGet()));
+        String second = cache.get("u1", "  喜欢什么茶  ", () -> Optional.of("茉莉" + loads.incrementAndGet()));
+        cache.get("u2", "喜欢什么茶", () -> Optional.of("乌龙" + loads.incrementAndGet()));
+
+        assertThat(second).isEqualTo("茉莉1");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void hitsAndMissesArePublishedAsCacheMetrics() {
+        cache.get("u1", "喜欢什么茶", () -> Optional.of("茉莉"));
+        cache.get("u1", "喜欢什么茶", () -> Optional.of("茉莉"));
+        cache.get("u1", "喜欢什么茶", () -> Optional.of("茉莉"));
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "mem0.search").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "mem0.search").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "mem0.search").functionCounter().count())
+                .isZero();
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("u1", "茶", () -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        cache.get("u1", "茶", () -> Optional.of("茉莉" + loads.incrementAndGet()));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void searchRacingWithInvalidationDoesNotRecacheStaleResult() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+
+        CompletableFuture<String> staleSearch = CompletableFuture.supplyAsync(() -> cache.get("u1", "喜欢什么茶", () -> {
+            loading.countDown();
+            try {
+                invalidated.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of("旧记忆");
+        }));
+
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        // 用户在检索进行中存储了新记忆
+        cache.invalidateUser("u1");
+        invalidated.countDown();
+        assertThat(staleSearch.get(5, TimeUnit.SECONDS)).isEqualTo("旧记忆");
+
+        String next = cache.get("u1", "喜欢什么茶", () -> Optional.of("新记忆"));
+        assertThat(next).isEqualTo("新记忆");
+    }
+
+    @Test
+    void invalidationOnlyAffectsThatUser() {
+        cache.get("u1", "茶", () -> Optional.of("茉莉"));
+        cache.get("u2", "茶", () -> Optional.of("乌龙"));
+
+        cache.invalidateUser("u1");
+
+        assertThat(cache.get("u1", "茶", () -> Optional.of("新茉莉"))).isEqualTo("新茉莉");
+        assertThat(cache.get("u2", "茶", () -> Optional.of("新乌龙"))).isEqualTo("乌龙");
+    }
+}
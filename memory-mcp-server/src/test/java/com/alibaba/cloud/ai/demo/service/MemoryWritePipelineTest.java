@@ -0,0 +1,190 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import com.alibaba.cloud.ai.demo.config.Mem0Config;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 写入失败时的退避重试、次数上限和死信处理，以及重启后从日志重放未确认的记忆
+ */
+class MemoryWritePipelineTest {
+
+    @TempDir
+    Path dataDir;
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Mem0Config config;
+
+    private MemoryWritePipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        config = new Mem0Config();
+        Mem0Config.WriteBuffer settings = config.getWriteBuffer();
+        settings.setFlushIntervalMillis(100);
+        settings.setMaxAttempts(3);
+        settings.setInitialBackoffMillis(300);
+        settings.setMaxBackoffMillis(300);
+        settings.setJournalPath(dataDir.resolve("memory-write.journal").toString());
+        settings.setDeadLetterPath(dataDir.resolve("memory-write.dead-letter").toString());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void nonRetryableClientErrorGoesStraightToDeadLetter() throws Exception {
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
+        startPipeline();
+
+        assertThat(pipeline.submit("u1", "喜欢茉莉花茶")).isTrue();
+
+        awaitTrue(() -> pendingMemories() == 0);
+        assertThat(postCount()).isEqualTo(1);
+        assertThat(deadLetters()).singleElement().asString().contains("喜欢茉莉花茶");
+        assertThat(meterRegistry.get("memory.write.dead.letter").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void retriesWithBackoffAndDeadLettersAfterMaxAttempts() throws Exception {
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+        startPipeline();
+        long start = System.currentTimeMillis();
+
+        pipeline.submit("u1", "喜欢茉莉花茶");
+        pipeline.submit("u1", "不喜欢太甜");
+
+        awaitTrue(() -> pendingMemories() == 0);
+        long elapsed = System.currentTimeMillis() - start;
+        // 定时器每 100ms 检查一次；没有退避时 3 次尝试约 300ms 内完成
+        assertThat(postCount()).isEqualTo(3);
+        assertThat(elapsed).isGreaterThanOrEqualTo(2 * 300);
+        assertThat(deadLetters()).hasSize(2);
+    }
+
+    @Test
+    void transientFailureIsRetriedWithoutDeadLetter() throws Exception {
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY))
+                .thenReturn(ResponseEntity.ok("{}"));
+        startPipeline();
+
+        pipeline.submit("u1", "喜欢茉莉花茶");
+
+        awaitTrue(() -> pendingMemories() == 0);
+        assertThat(postCount()).isEqualTo(2);
+        assertThat(Files.exists(dataDir.resolve("memory-write.dead-letter"))).isFalse();
+    }
+
+    @Test
+    void unacknowledgedMemoriesAreReplayedAfterRestart() throws Exception {
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+        startPipeline();
+        pipeline.submit("u1", "喜欢茉莉花茶");
+        pipeline.submit("u2", "不喜欢太甜");
+        // 停机时 Mem0 仍不可用，记忆保留在日志中
+        pipeline.shutdown();
+        pipeline = null;
+
+        RestTemplate recovered = mock(RestTemplate.class);
+        when(recovered.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+                .thenReturn(ResponseEntity.ok("{}"));
+        pipeline = new MemoryWritePipeline(recovered, config, new MemorySearchCache(config, meterRegistry),
+                meterRegistry);
+        pipeline.start();
+
+        awaitTrue(() -> pendingMemories() == 0);
+        ArgumentCaptor<HttpEntity<?>> requests = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(recovered, times(2)).postForEntity(anyString(), requests.capture(), eq(String.class));
+        assertThat(requests.getAllValues()).extracting(request -> String.valueOf(request.getBody()))
+                .anySatisfy(body -> assertThat(body).contains("喜欢茉莉花茶").contains("u1"))
+                .anySatisfy(body -> assertThat(body).contains("不喜欢太甜").contains("u2"));
+        pipeline.shutdown();
+
+        // 已确认的记忆不会在下一次启动时重复写入
+        RestTemplate afterAck = mock(RestTemplate.class);
+        pipeline = new MemoryWritePipeline(afterAck, config, new MemorySearchCache(config, meterRegistry),
+                meterRegistry);
+        pipeline.start();
+        assertThat(pendingMemories()).isZero();
+    }
+
+    private void startPipeline() throws Exception {
+        pipeline = new MemoryWritePipeline(restTemplate, config, new MemorySearchCache(config, meterRegistry), meterRegistry);
+        pipeline.start();
+    }
+
+    private int pendingMemories() {
+        return (int) pipeline.stats().get("pendingMemories");
+    }
+
+    private long postCount() {
+        return mockingDetails(restTemplate).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("postForEntity"))
+                .count();
+    }
+
+    private List<String> deadLetters() throws Exception {
+        return Files.readAllLines(dataDir.resolve("memory-write.dead-letter"), StandardCharsets.UTF_8);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.checkpoint;
+
+import java.nio.file.Paths;
+
+import com.alibaba.cloud.ai.graph.CompileConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.BaseCheckpointSaver;
+import com.alibaba.cloud.ai.graph.checkpoint.config.SaverConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.constant.SaverEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 检查点自动配置
+ * 按 agent.checkpoint.type 创建内存或文件检查点存储，并提供注册了该存储的 CompileConfig，
+ * 智能体在构建时通过 compileConfig(...) 使用，使同一 threadId 的状态跨轮次保留；
+ * 多个图共用一个存储时由调用方保证 threadId 按图区分（如 chat_id:图名）。
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(CheckpointProperties.class)
+public class CheckpointAutoConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointAutoConfiguration.class);
+
+    /**
+     * 容器中只有一个 ChatModel 时用它在后台生成摘要，否则退化为截取原文
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MessageWindowCompactor messageWindowCompactor(CheckpointProperties properties,
+                                                         ObjectProvider<ChatModel> chatModel) {
+        return new MessageWindowCompactor(properties.getCompaction(), chatModel.getIfUnique());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public BaseCheckpointSaver agentCheckpointSaver(CheckpointProperties properties, MessageWindowCompactor compactor) {
+        if ("file".equalsIgnoreCase(properties.getType())) {
+            logger.info("Agent checkpoints are persisted to {}", properties.getFile().getDir());
+            return new FileCheckpointSaver(compactor, properties.getMaxCheckpointsPerThread(),
+                    properties.getMaxThreads(), properties.getIdleTtl(), Paths.get(properties.getFile().getDir()),
+                    properties.getFile().getSnapshotInterval());
+        }
+        return new InMemoryCheckpointSaver(compactor, properties.getMaxCheckpointsPerThread(),
+                properties.getMaxThreads(), properties.getIdleTtl());
+    }
+
+    /**
+     * 以 memory 类型注册，替换框架默认的 MemorySaver
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CompileConfig agentCompileConfig(BaseCheckpointSaver agentCheckpointSaver) {
+        return CompileConfig.builder()
+                .saverConfig(SaverConfig.builder().register(SaverEnum.MEMORY.getValue(), agentCheckpointSaver).build())
+                .build();
+    }
+}
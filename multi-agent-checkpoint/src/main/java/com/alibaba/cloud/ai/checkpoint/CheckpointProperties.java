@@ -0,0 +1,215 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.checkpoint;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 会话状态检查点配置
+ * 按 threadId（即 chat_id）保存智能体状态，支持内存和本地文件两种存储，
+ * 并在消息过多时把较早的对话压缩为摘要，使每轮提示词长度保持稳定。
+ */
+@ConfigurationProperties(prefix = "agent.checkpoint")
+public class CheckpointProperties {
+
+    /**
+     * 存储类型：memory（进程内）或 file（本地文件，重启后可恢复）
+     */
+    private String type = "memory";
+
+    /**
+     * 每个会话保留的历史检查点数量，超出的旧检查点被丢弃
+     */
+    private int maxCheckpointsPerThread = 10;
+
+    /**
+     * 内存中保留的最大会话数，超出时淘汰最久未访问的会话
+     */
+    private int maxThreads = 10000;
+
+    /**
+     * 会话超过该时长未访问时移出内存；文件存储的会话再次访问时从文件恢复
+     */
+    private Duration idleTtl = Duration.ofMinutes(30);
+
+    private File file = new File();
+
+    private Compaction compaction = new Compaction();
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getMaxCheckpointsPerThread() {
+        return maxCheckpointsPerThread;
+    }
+
+    public void setMaxCheckpointsPerThread(int maxCheckpointsPerThread) {
+        this.maxCheckpointsPerThread = maxCheckpointsPerThread;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public Duration getIdleTtl() {
+        return idleTtl;
+    }
+
+    public void setIdleTtl(Duration idleTtl) {
+        this.idleTtl = idleTtl;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    public Compaction getCompaction() {
+        return compaction;
+    }
+
+    public void setCompaction(Compaction compaction) {
+        this.compaction = compaction;
+    }
+
+    /**
+     * 文件存储配置
+     */
+    public static class File {
+
+        /**
+         * 检查点文件目录，每个会话一个文件
+         */
+        private String dir = "data/checkpoints";
+
+        /**
+         * 追加多少条增量记录后把文件重写为一份完整快照
+         */
+        private int snapshotInterval = 20;
+
+        public String getDir() {
+            return dir;
+        }
+
+        public void setDir(String dir) {
+            this.dir = dir;
+        }
+
+        public int getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(int snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+    }
+
+    /**
+     * 消息窗口压缩配置
+     */
+    public static class Compaction {
+
+        private boolean enabled = true;
+
+        /**
+         * 保存消息列表的状态键
+         */
+        private String messagesKey = "messages";
+
+        /**
+         * 消息数超过该值时触发压缩
+         */
+        private int maxMessages = 20;
+
+        /**
+         * 压缩后保留的最近消息数（会向后对齐到一条用户消息，避免拆开工具调用）
+         */
+        private int keepRecent = 8;
+
+        /**
+         * 摘要的最大字数
+         */
+        private int summaryMaxChars = 1500;
+
+        /**
+         * 后台调用模型生成摘要的线程数
+         */
+        private int summaryThreads = 2;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getMessagesKey() {
+            return messagesKey;
+        }
+
+        public void setMessagesKey(String messagesKey) {
+            this.messagesKey = messagesKey;
+        }
+
+        public int getMaxMessages() {
+            return maxMessages;
+        }
+
+        public void setMaxMessages(int maxMessages) {
+            this.maxMessages = maxMessages;
+        }
+
+        public int getKeepRecent() {
+            return keepRecent;
+        }
+
+        public void setKeepRecent(int keepRecent) {
+            this.keepRecent = keepRecent;
+        }
+
+        public int getSummaryMaxChars() {
+            return summaryMaxChars;
+        }
+
+        public void setSummaryMaxChars(int summaryMaxChars) {
+            this.summaryMaxChars = summaryMaxChars;
+        }
+
+        public int getSummaryThreads() {
+            return summaryThreads;
+        }
+
+        public void setSummaryThreads(int summaryThreads) {
+            this.summaryThreads = summaryThreads;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.checkpoint;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 本地文件检查点存储
+ * 每个会话一个 JSON Lines 文件，每次写入只追加与上一个检查点相比发生变化的状态：
+ * 列表只是在末尾追加元素时（如新增对话消息）只记录新增部分，其余变化记录新值或删除的键。
+ * 追加达到 snapshotInterval 条后把文件重写为一条完整快照；进程重启或会话被淘汰后首次访问时回放文件恢复最新检查点。
+ * 各回调均在对应会话的锁内执行，不同会话的文件读写互不阻塞。
+ */
+public class FileCheckpointSaver extends InMemoryCheckpointSaver {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileCheckpointSaver.class);
+
+    private static final String SNAPSHOT = "snapshot";
+
+    private static final String DELTA = "delta";
+
+    private final Path dir;
+
+    private final int snapshotInterval;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final StateCodec codec = new StateCodec(objectMapper);
+
+    /**
+     * 已从文件加载的会话，以及每个会话最后一次写入文件的状态和文件中的记录数；
+     * 与内存中的会话同时淘汰，淘汰后再次访问时重新回放文件
+     */
+    private final Map<String, PersistedThread> threads = new ConcurrentHashMap<>();
+
+    public FileCheckpointSaver(MessageWindowCompactor compactor, int maxCheckpointsPerThread, int maxThreads,
+                               Duration idleTtl, Path dir, int snapshotInterval) {
+        super(compactor, maxCheckpointsPerThread, maxThreads, idleTtl);
+        this.dir = dir;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create checkpoint directory " + dir, e);
+        }
+    }
+
+    @Override
+    protected void onLoad(String threadId, LinkedList<Checkpoint> checkpoints) {
+        PersistedThread thread = new PersistedThread();
+        threads.put(threadId, thread);
+        Checkpoint restored = restore(threadId, thread);
+        if (restored != null && checkpoints.isEmpty()) {
+            checkpoints.push(restored);
+        }
+    }
+
+    @Override
+    protected void onPut(String threadId, Checkpoint checkpoint) throws IOException {
+        PersistedThread thread = threads.computeIfAbsent(threadId, key -> new PersistedThread());
+        Map<String, Object> state = checkpoint.getState();
+
+        if (thread.records + 1 >= snapshotInterval) {
+            ObjectNode snapshot = record(SNAPSHOT, checkpoint);
+            snapshot.set("set", codec.encode(state));
+            Path file = file(threadId);
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, objectMapper.writeValueAsString(snapshot) + "\n", StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            thread.records = 1;
+        } else {
+            Files.writeString(file(threadId), objectMapper.writeValueAsString(delta(thread.state, checkpoint)) + "\n",
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            thread.records++;
+        }
+        thread.state = copyOf(state);
+    }
+
+    @Override
+    protected void onClear(String threadId) {
+        threads.remove(threadId);
+        try {
+            Files.deleteIfExists(file(threadId));
+        } catch (IOException e) {
+            logger.warn("Failed to delete checkpoint file of thread {}: {}", threadId, e.getMessage());
+        }
+    }
+
+    @Override
+    protected void onEvict(String threadId) {
+        threads.remove(threadId);
+    }
+
+    private ObjectNode delta(Map<String, Object> previous, Checkpoint checkpoint) {
+        ObjectNode record = record(DELTA, checkpoint);
+        ObjectNode set = record.putObject("set");
+        ObjectNode append = record.putObject("append");
+        for (Map.Entry<String, Object> entry : checkpoint.getState().entrySet()) {
+            Object before = previous.get(entry.getKey());
+            Object after = entry.getValue();
+            if (previous.containsKey(entry.getKey()) && Objects.equals(before, after)) {
+                continue;
+            }
+            if (before instanceof List<?> oldList && after instanceof List<?> newList
+                    && newList.size() > oldList.size() && newList.subList(0, oldList.size()).equals(oldList)) {
+                append.set(entry.getKey(), codec.encode(newList.subList(oldList.size(), newList.size())));
+            } else {
+                set.set(entry.getKey(), codec.encode(after));
+            }
+        }
+        ArrayNode removed = record.putArray("remove");
+        previous.keySet().stream()
+                .filter(key -> !checkpoint.getState().containsKey(key))
+                .forEach(removed::add);
+        return record;
+    }
+
+    private ObjectNode record(String type, Checkpoint checkpoint) {
+        ObjectNode record = objectMapper.createObjectNode();
+        record.put("type", type);
+        record.put("id", checkpoint.getId());
+        record.put("nodeId", checkpoint.getNodeId());
+        record.put("nextNodeId", checkpoint.getNextNodeId());
+        return record;
+    }
+
+    /**
+     * 依次回放文件中的快照和增量记录，得到最新的检查点
+     */
+    @SuppressWarnings("unchecked")
+    private Checkpoint restore(String threadId, PersistedThread thread) {
+        Path file = file(threadId);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Map<String, Object> state = new LinkedHashMap<>();
+        JsonNode last = null;
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode record;
+                try {
+                    record = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    // 最后一行可能在进程中断时只写入了一半，忽略即可
+                    logger.warn("Skip broken checkpoint line of thread {}", threadId);
+                    continue;
+                }
+                if (SNAPSHOT.equals(record.path("type").asText())) {
+                    state.clear();
+                }
+                Iterator<Map.Entry<String, JsonNode>> set = record.path("set").fields();
+                while (set.hasNext()) {
+                    Map.Entry<String, JsonNode> entry = set.next();
+                    state.put(entry.getKey(), codec.decode(entry.getValue()));
+                }
+                Iterator<Map.Entry<String, JsonNode>> append = record.path("append").fields();
+                while (append.hasNext()) {
+                    Map.Entry<String, JsonNode> entry = append.next();
+                    List<Object> list = state.get(entry.getKey()) instanceof List<?> existing
+                            ? new ArrayList<>((List<Object>) existing) : new ArrayList<>();
+                    list.addAll((List<Object>) codec.decode(entry.getValue()));
+                    state.put(entry.getKey(), list);
+                }
+                record.path("remove").forEach(key -> state.remove(key.asText()));
+                last = record;
+                thread.records++;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read checkpoint file of thread {}: {}", threadId, e.getMessage());
+            return null;
+        }
+        if (last == null) {
+            return null;
+        }
+        thread.state = copyOf(state);
+        logger.info("Restored checkpoint {} of thread {} from {} records", last.path("id").asText(), threadId,
+                thread.records);
+        return Checkpoint.builder()
+                .id(last.path("id").asText())
+                .state(state)
+                .nodeId(text(last, "nodeId"))
+                .nextNodeId(text(last, "nextNodeId"))
+                .build();
+    }
+
+    /**
+     * 复制一层列表和 Map，避免图执行过程中原地修改状态导致下一次比较时看不到变化
+     */
+    private static Map<String, Object> copyOf(Map<String, Object> state) {
+        Map<String, Object> copy = new HashMap<>();
+        state.forEach((key, value) -> {
+            if (value instanceof List<?> list) {
+                copy.put(key, new ArrayList<>(list));
+            } else if (value instanceof Map<?, ?> map) {
+                copy.put(key, new LinkedHashMap<>(map));
+            } else {
+                copy.put(key, value);
+            }
+        });
+        return copy;
+    }
+
+    private static String text(JsonNode record, String field) {
+        JsonNode node = record.get(field);
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    /**
+     * 文件名使用 threadId 的 URL 安全 Base64 编码，避免特殊字符和路径穿越
+     */
+    private Path file(String threadId) {
+        String name = Base64.getUrlEncoder().withoutPadding().encodeToString(threadId.getBytes(StandardCharsets.UTF_8));
+        return dir.resolve(name + ".jsonl");
+    }
+
+    private static class PersistedThread {
+
+        private Map<String, Object> state = new HashMap<>();
+
+        private int records;
+    }
+}
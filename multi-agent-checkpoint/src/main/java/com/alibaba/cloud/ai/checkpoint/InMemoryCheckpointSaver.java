@@ -0,0 +1,250 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.checkpoint;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import com.alibaba.cloud.ai.graph.checkpoint.savers.MemorySaver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 进程内检查点存储
+ * 在框架 MemorySaver 的基础上，写入前压缩消息窗口，并限制每个会话保留的检查点数量，
+ * 使长对话的内存占用和下一轮的提示词长度都保持稳定。
+ * 检查点按会话分别加锁；需要模型生成的消息摘要在后台完成，写入不等待模型，摘要完成后由之后的写入套用；
+ * 会话超过 idleTtl 未访问或会话数超过 maxThreads 时按最久未访问淘汰。
+ */
+public class InMemoryCheckpointSaver extends MemorySaver {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryCheckpointSaver.class);
+
+    private final MessageWindowCompactor compactor;
+
+    private final int maxCheckpointsPerThread;
+
+    private final int maxThreads;
+
+    private final long idleTtlNanos;
+
+    /**
+     * 按访问顺序排列的会话，最久未访问的在最前面
+     */
+    private final Map<String, ThreadCheckpoints> threads = new LinkedHashMap<>(16, 0.75f, true);
+
+    public InMemoryCheckpointSaver(MessageWindowCompactor compactor, int maxCheckpointsPerThread, int maxThreads,
+                                   Duration idleTtl) {
+        this.compactor = compactor;
+        this.maxCheckpointsPerThread = Math.max(1, maxCheckpointsPerThread);
+        this.maxThreads = Math.max(1, maxThreads);
+        this.idleTtlNanos = idleTtl.toNanos();
+    }
+
+    @Override
+    public RunnableConfig put(RunnableConfig config, Checkpoint checkpoint) throws Exception {
+        String threadId = threadId(config);
+        ThreadCheckpoints thread = lock(threadId);
+        try {
+            Checkpoint compacted = compact(threadId, checkpoint);
+            RunnableConfig result = super.put(config, compacted);
+            while (thread.checkpoints.size() > maxCheckpointsPerThread) {
+                // 新检查点在链表头部，超出部分从尾部丢弃
+                thread.checkpoints.removeLast();
+            }
+            onPut(threadId, compacted);
+            return result;
+        } finally {
+            thread.lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Checkpoint> get(RunnableConfig config) {
+        ThreadCheckpoints thread = lock(threadId(config));
+        try {
+            return super.get(config);
+        } finally {
+            thread.lock.unlock();
+        }
+    }
+
+    @Override
+    public Collection<Checkpoint> list(RunnableConfig config) {
+        ThreadCheckpoints thread = lock(threadId(config));
+        try {
+            // 复制一份，调用方在锁外遍历时不受并发写入影响
+            return List.copyOf(super.list(config));
+        } finally {
+            thread.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean clear(RunnableConfig config) {
+        String threadId = threadId(config);
+        ThreadCheckpoints thread = lock(threadId);
+        try {
+            boolean cleared = super.clear(config);
+            compactor.forget(threadId);
+            onClear(threadId);
+            synchronized (threads) {
+                thread.removed = true;
+                threads.remove(threadId, thread);
+            }
+            return cleared;
+        } finally {
+            thread.lock.unlock();
+        }
+    }
+
+    /**
+     * 框架 MemorySaver 的读写都经过这里，改为返回本类管理的会话检查点
+     */
+    @Override
+    protected LinkedList<Checkpoint> getCheckpoints(RunnableConfig config) {
+        return thread(threadId(config)).checkpoints;
+    }
+
+    /**
+     * 会话首次访问（或被淘汰后再次访问）时的回调，子类可在此从持久化存储恢复检查点
+     */
+    protected void onLoad(String threadId, LinkedList<Checkpoint> checkpoints) throws Exception {
+    }
+
+    /**
+     * 检查点写入内存后的回调，子类可在此持久化
+     */
+    protected void onPut(String threadId, Checkpoint checkpoint) throws Exception {
+    }
+
+    /**
+     * 会话检查点清空后的回调
+     */
+    protected void onClear(String threadId) {
+    }
+
+    /**
+     * 会话因长时间未访问或会话数超限被移出内存后的回调
+     */
+    protected void onEvict(String threadId) {
+    }
+
+    protected static String threadId(RunnableConfig config) {
+        return config.threadId().orElse(THREAD_ID_DEFAULT);
+    }
+
+    /**
+     * 获取会话并加锁，首次访问时加载；加锁前会话恰好被淘汰时重新获取
+     */
+    private ThreadCheckpoints lock(String threadId) {
+        while (true) {
+            ThreadCheckpoints thread = thread(threadId);
+            thread.lock.lock();
+            if (thread.removed) {
+                thread.lock.unlock();
+                continue;
+            }
+            if (!thread.loaded) {
+                thread.loaded = true;
+                try {
+                    onLoad(threadId, thread.checkpoints);
+                } catch (Exception e) {
+                    logger.warn("Failed to load checkpoints of thread {}: {}", threadId, e.getMessage());
+                }
+            }
+            return thread;
+        }
+    }
+
+    /**
+     * 获取或创建会话并刷新访问时间，顺带淘汰空闲和超出数量上限的会话
+     */
+    private ThreadCheckpoints thread(String threadId) {
+        synchronized (threads) {
+            long now = System.nanoTime();
+            ThreadCheckpoints thread = threads.computeIfAbsent(threadId, key -> new ThreadCheckpoints());
+            thread.lastAccess = now;
+            evict(threadId, now);
+            return thread;
+        }
+    }
+
+    /**
+     * 从最久未访问的会话开始淘汰，正在读写的会话（拿不到锁）跳过
+     */
+    private void evict(String current, long now) {
+        Iterator<Map.Entry<String, ThreadCheckpoints>> iterator = threads.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, ThreadCheckpoints> entry = iterator.next();
+            ThreadCheckpoints thread = entry.getValue();
+            if (threads.size() <= maxThreads && now - thread.lastAccess <= idleTtlNanos) {
+                break;
+            }
+            if (entry.getKey().equals(current) || !thread.lock.tryLock()) {
+                continue;
+            }
+            try {
+                thread.removed = true;
+                iterator.remove();
+                compactor.forget(entry.getKey());
+                onEvict(entry.getKey());
+            } finally {
+                thread.lock.unlock();
+            }
+        }
+    }
+
+    private Checkpoint compact(String threadId, Checkpoint checkpoint) {
+        Map<String, Object> state = checkpoint.getState();
+        Map<String, Object> compacted = compactor.compact(threadId, state);
+        if (compacted == state) {
+            return checkpoint;
+        }
+        return Checkpoint.builder()
+                .id(checkpoint.getId())
+                .state(compacted)
+                .nodeId(checkpoint.getNodeId())
+                .nextNodeId(checkpoint.getNextNodeId())
+                .build();
+    }
+
+    /**
+     * 单个会话的检查点，读写时持有该会话的锁
+     */
+    private static class ThreadCheckpoints {
+
+        private final LinkedList<Checkpoint> checkpoints = new LinkedList<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private boolean loaded;
+
+        private volatile boolean removed;
+
+        private long lastAccess;
+    }
+}
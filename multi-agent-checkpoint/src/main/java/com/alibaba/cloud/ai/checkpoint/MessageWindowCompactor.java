@@ -0,0 +1,317 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.checkpoint;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.model.ChatModel;
+
+/**
+ * 消息窗口压缩
+ * 状态中的消息数超过 maxMessages 时，只保留最近 keepRecent 条（起点对齐到用户消息，保证工具调用与结果成对），
+ * 更早的消息连同上一次的摘要合并为一条新的摘要系统消息放在窗口最前面。
+ * 配置了 ChatModel 时由模型在后台线程生成摘要，写入检查点时不等待模型：摘要完成前按原样保存，
+ * 完成后同一会话之后的写入直接套用已有摘要（只要消息列表仍以被摘要的那些消息开头），
+ * 窗口再次超过 maxMessages 时才生成下一份摘要，每个会话同时最多一份摘要在生成。
+ * 没有 ChatModel 时退化为截取较早对话的文本，直接在写入时完成。
+ */
+public class MessageWindowCompactor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageWindowCompactor.class);
+
+    static final String SUMMARY_PREFIX = "【此前对话摘要】\n";
+
+    private static final String SUMMARY_PROMPT = """
+            请把下面的对话记录压缩成一段简洁的中文摘要，保留用户身份、订单号、产品、偏好、未解决的问题等后续对话需要的事实，
+            不要编造内容，不超过 %d 字。
+            %s
+            """;
+
+    private final CheckpointProperties.Compaction properties;
+
+    private final ChatModel chatModel;
+
+    private final ExecutorService summaryExecutor;
+
+    /**
+     * 各会话最近一份摘要及生成状态，会话被淘汰或清空时移除
+     */
+    private final Map<String, ThreadSummary> summaries = new ConcurrentHashMap<>();
+
+    public MessageWindowCompactor(CheckpointProperties.Compaction properties, ChatModel chatModel) {
+        this.properties = properties;
+        this.chatModel = chatModel;
+        this.summaryExecutor = chatModel == null ? null
+                : Executors.newFixedThreadPool(Math.max(1, properties.getSummaryThreads()), runnable -> {
+                    Thread thread = new Thread(runnable, "checkpoint-summary");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 压缩会话状态中的消息列表，不会阻塞等待模型
+     *
+     * @return 需要压缩且已有可用摘要时返回新的状态，否则返回原状态
+     */
+    public Map<String, Object> compact(String threadId, Map<String, Object> state) {
+        if (!properties.isEnabled() || state == null) {
+            return state;
+        }
+        Object value = state.get(properties.getMessagesKey());
+        if (!(value instanceof List<?> list) || list.size() <= properties.getMaxMessages()
+                || !list.stream().allMatch(Message.class::isInstance)) {
+            return state;
+        }
+        @SuppressWarnings("unchecked")
+        List<Message> messages = (List<Message>) list;
+
+        ThreadSummary thread = summaries.computeIfAbsent(threadId, key -> new ThreadSummary());
+        // 先套用已完成的摘要，窗口仍然过长时再生成下一份
+        Summary latest = thread.latest;
+        List<Message> window = latest != null ? latest.applyTo(messages) : null;
+        List<Summary.Covered> covered = window != null ? latest.covered : List.of();
+        if (window == null) {
+            window = messages;
+        }
+        if (window.size() > properties.getMaxMessages()) {
+            Summary next = nextSummary(thread, covered, window);
+            List<Message> applied = next != null ? next.applyTo(messages) : null;
+            if (applied != null) {
+                window = applied;
+            }
+        }
+        if (window == messages) {
+            return state;
+        }
+
+        logger.debug("Compacted {} messages of thread {} into a summary, {} messages kept", messages.size(),
+                threadId, window.size());
+        Map<String, Object> result = new HashMap<>(state);
+        result.put(properties.getMessagesKey(), window);
+        return result;
+    }
+
+    /**
+     * 会话被淘汰或清空后丢弃其摘要
+     */
+    public void forget(String threadId) {
+        summaries.remove(threadId);
+    }
+
+    @Override
+    public void close() {
+        if (summaryExecutor != null) {
+            summaryExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 为窗口中较早的消息生成摘要：没有模型时直接截取并返回；有模型时提交后台生成并返回空，
+     * 同一会话已有摘要在生成时不重复提交
+     *
+     * @param covered 窗口开头的摘要已覆盖的原始消息
+     */
+    private Summary nextSummary(ThreadSummary thread, List<Summary.Covered> covered, List<Message> window) {
+        int head = 0;
+        String previousSummary = null;
+        while (head < window.size() && window.get(head).getMessageType() == MessageType.SYSTEM) {
+            String text = window.get(head).getText();
+            if (text != null && text.startsWith(SUMMARY_PREFIX)) {
+                previousSummary = text.substring(SUMMARY_PREFIX.length());
+            }
+            head++;
+        }
+
+        int cut = Math.max(head, window.size() - Math.max(1, properties.getKeepRecent()));
+        while (cut < window.size() && window.get(cut).getMessageType() != MessageType.USER) {
+            cut++;
+        }
+        if (cut >= window.size() || cut <= head) {
+            return null;
+        }
+
+        List<Summary.Covered> nextCovered = new ArrayList<>(covered);
+        List<Message> dropped = List.copyOf(window.subList(head, cut));
+        dropped.forEach(message -> nextCovered.add(new Summary.Covered(message)));
+        String transcript = transcript(previousSummary, dropped);
+        List<Summary.Covered> allCovered = List.copyOf(nextCovered);
+        int baseCovered = covered.size();
+        String baseText = previousSummary;
+        if (summaryExecutor == null) {
+            Summary summary = new Summary(allCovered, baseText, baseCovered, truncateTranscript(transcript));
+            thread.latest = summary;
+            return summary;
+        }
+        if (thread.summarizing.compareAndSet(false, true)) {
+            try {
+                summaryExecutor.execute(() -> {
+                    try {
+                        thread.latest = new Summary(allCovered, baseText, baseCovered, summarize(transcript));
+                    } finally {
+                        thread.summarizing.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                thread.summarizing.set(false);
+            }
+        }
+        return null;
+    }
+
+    private static String transcript(String previousSummary, List<Message> dropped) {
+        StringBuilder transcript = new StringBuilder();
+        if (previousSummary != null) {
+            transcript.append("此前摘要：").append(previousSummary).append('\n');
+        }
+        for (Message message : dropped) {
+            String text = message.getText();
+            if (text == null || text.isBlank()) {
+                continue;
+            }
+            transcript.append(role(message.getMessageType())).append("：").append(text).append('\n');
+        }
+        return transcript.toString();
+    }
+
+    private String summarize(String transcript) {
+        int maxChars = properties.getSummaryMaxChars();
+        try {
+            String summary = chatModel.call(SUMMARY_PROMPT.formatted(maxChars, transcript));
+            if (summary != null && !summary.isBlank()) {
+                return truncate(summary.trim(), maxChars);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to summarize conversation with model, fall back to truncation: {}", e.getMessage());
+        }
+        return truncateTranscript(transcript);
+    }
+
+    /**
+     * 没有模型或模型调用失败时保留最近的部分原文
+     */
+    private String truncateTranscript(String transcript) {
+        int maxChars = properties.getSummaryMaxChars();
+        String text = transcript.trim();
+        return text.length() <= maxChars ? text : text.substring(text.length() - maxChars);
+    }
+
+    private static String role(MessageType type) {
+        return switch (type) {
+            case USER -> "用户";
+            case ASSISTANT -> "助手";
+            case TOOL -> "工具";
+            default -> "系统";
+        };
+    }
+
+    private static String truncate(String text, int maxChars) {
+        return text.length() <= maxChars ? text : text.substring(0, maxChars);
+    }
+
+    /**
+     * 单个会话的摘要状态
+     */
+    private static class ThreadSummary {
+
+        private volatile Summary latest;
+
+        private final AtomicBoolean summarizing = new AtomicBoolean();
+    }
+
+    /**
+     * 一份摘要及其覆盖的原始消息（按顺序，不含系统消息）
+     *
+     * @param covered     摘要覆盖的全部原始消息
+     * @param baseText    生成时并入的上一份摘要，可能为空
+     * @param baseCovered covered 中由上一份摘要覆盖的条数
+     */
+    private record Summary(List<Covered> covered, String baseText, int baseCovered, String text) {
+
+        /**
+         * 消息列表去掉开头的系统消息后以覆盖的消息开头，或开头是上一份摘要且紧接着上一份摘要之后覆盖的消息时，
+         * 返回用本摘要替换这些消息后的窗口，否则返回空
+         */
+        List<Message> applyTo(List<Message> messages) {
+            int head = 0;
+            boolean basedOnHead = false;
+            while (head < messages.size() && messages.get(head).getMessageType() == MessageType.SYSTEM) {
+                basedOnHead |= baseText != null && (SUMMARY_PREFIX + baseText).equals(messages.get(head).getText());
+                head++;
+            }
+            int from = startsWith(messages, head, 0) ? 0
+                    : basedOnHead && startsWith(messages, head, baseCovered) ? baseCovered : -1;
+            if (from < 0) {
+                return null;
+            }
+            int end = head + covered.size() - from;
+            List<Message> window = new ArrayList<>(messages.size() - end + head + 1);
+            for (Message message : messages.subList(0, head)) {
+                String content = message.getText();
+                if (content == null || !content.startsWith(SUMMARY_PREFIX)) {
+                    window.add(message);
+                }
+            }
+            window.add(new SystemMessage(SUMMARY_PREFIX + text));
+            window.addAll(messages.subList(end, messages.size()));
+            return window;
+        }
+
+        /**
+         * messages 从 head 起是否依次是 covered 从 from 起的消息
+         */
+        private boolean startsWith(List<Message> messages, int head, int from) {
+            if (messages.size() - head < covered.size() - from) {
+                return false;
+            }
+            for (int i = from; i < covered.size(); i++) {
+                if (!covered.get(i).matches(messages.get(head + i - from))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 被摘要的消息，按类型和文本比对，从文件恢复的消息与原消息视为相同
+         */
+        record Covered(MessageType type, String text) {
+
+            Covered(Message message) {
+                this(message.getMessageType(), message.getText());
+            }
+
+            boolean matches(Message message) {
+                return type == message.getMessageType() && Objects.equals(text, message.getText());
+            }
+        }
+    }
+}
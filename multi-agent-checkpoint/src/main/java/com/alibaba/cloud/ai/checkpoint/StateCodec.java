@@ -0,0 +1,121 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.checkpoint;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+/**
+ * 状态值与 JSON 之间的转换
+ * 对话消息按类型保存文本、工具调用和工具结果，其余值（字符串、数字、集合、Map 等）直接交给 Jackson。
+ */
+class StateCodec {
+
+    private static final String MESSAGE_TYPE = "@message";
+
+    private final ObjectMapper objectMapper;
+
+    StateCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    JsonNode encode(Object value) {
+        if (value instanceof Message message) {
+            return encodeMessage(message);
+        }
+        if (value instanceof List<?> list) {
+            ArrayNode array = objectMapper.createArrayNode();
+            list.forEach(item -> array.add(encode(item)));
+            return array;
+        }
+        if (value instanceof Map<?, ?> map) {
+            ObjectNode object = objectMapper.createObjectNode();
+            map.forEach((key, item) -> object.set(String.valueOf(key), encode(item)));
+            return object;
+        }
+        return objectMapper.valueToTree(value);
+    }
+
+    Object decode(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (node.isObject() && node.has(MESSAGE_TYPE)) {
+            return decodeMessage(node);
+        }
+        if (node.isArray()) {
+            List<Object> list = new ArrayList<>(node.size());
+            node.forEach(item -> list.add(decode(item)));
+            return list;
+        }
+        if (node.isObject()) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                map.put(field.getKey(), decode(field.getValue()));
+            }
+            return map;
+        }
+        return objectMapper.convertValue(node, Object.class);
+    }
+
+    private JsonNode encodeMessage(Message message) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put(MESSAGE_TYPE, message.getMessageType().name());
+        node.put("text", message.getText());
+        if (message instanceof AssistantMessage assistant && assistant.hasToolCalls()) {
+            node.set("toolCalls", objectMapper.valueToTree(assistant.getToolCalls()));
+        }
+        if (message instanceof ToolResponseMessage toolResponse) {
+            node.set("responses", objectMapper.valueToTree(toolResponse.getResponses()));
+        }
+        return node;
+    }
+
+    private Message decodeMessage(JsonNode node) {
+        String text = node.path("text").isNull() ? null : node.path("text").asText();
+        return switch (node.get(MESSAGE_TYPE).asText()) {
+            case "USER" -> new UserMessage(text);
+            case "SYSTEM" -> new SystemMessage(text);
+            case "TOOL" -> new ToolResponseMessage(readList(node.get("responses"), ToolResponseMessage.ToolResponse.class));
+            default -> new AssistantMessage(text, Map.of(),
+                    readList(node.get("toolCalls"), AssistantMessage.ToolCall.class));
+        };
+    }
+
+    private <T> List<T> readList(JsonNode node, Class<T> type) {
+        if (node == null || !node.isArray()) {
+            return List.of();
+        }
+        return objectMapper.convertValue(node,
+                objectMapper.getTypeFactory().constructCollectionType(List.class, type));
+    }
+}
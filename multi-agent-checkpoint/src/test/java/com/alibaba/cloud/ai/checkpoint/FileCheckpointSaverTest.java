@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.checkpoint;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 本地文件检查点存储：会话被淘汰出内存后再次访问时从文件恢复
+ */
+class FileCheckpointSaverTest {
+
+    @TempDir
+    Path dir;
+
+    private MessageWindowCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        CheckpointProperties.Compaction properties = new CheckpointProperties.Compaction();
+        properties.setEnabled(false);
+        compactor = new MessageWindowCompactor(properties, null);
+    }
+
+    @Test
+    void evictedThreadIsRestoredFromFile() throws Exception {
+        FileCheckpointSaver saver = new FileCheckpointSaver(compactor, 10, 1, Duration.ofMinutes(30), dir, 20);
+        saver.put(config("a"), checkpoint("1", List.of("查询订单")));
+        saver.put(config("a"), checkpoint("2", List.of("查询订单", "订单已发货")));
+
+        // 会话数上限为 1，写入会话 b 时会话 a 被移出内存
+        saver.put(config("b"), checkpoint("1", List.of("我要反馈")));
+
+        Checkpoint restored = saver.get(config("a")).orElseThrow();
+        assertThat(restored.getId()).isEqualTo("2");
+        assertThat(restored.getState()).containsEntry("history", List.of("查询订单", "订单已发货"));
+
+        // 恢复后继续按增量追加，新的存储实例回放文件得到最新状态
+        saver.put(config("a"), checkpoint("3", List.of("查询订单", "订单已发货", "谢谢")));
+        FileCheckpointSaver reopened = new FileCheckpointSaver(compactor, 10, 1, Duration.ofMinutes(30), dir, 20);
+        assertThat(reopened.get(config("a"))).get()
+                .extracting(Checkpoint::getState)
+                .isEqualTo(Map.of("chat_id", "a", "history", List.of("查询订单", "订单已发货", "谢谢")));
+    }
+
+    @Test
+    void clearedThreadIsNotRestored() throws Exception {
+        FileCheckpointSaver saver = new FileCheckpointSaver(compactor, 10, 1, Duration.ofMinutes(30), dir, 20);
+        saver.put(config("a"), checkpoint("1", List.of("查询订单")));
+        saver.clear(config("a"));
+
+        assertThat(saver.get(config("a"))).isEmpty();
+        assertThat(new FileCheckpointSaver(compactor, 10, 1, Duration.ofMinutes(30), dir, 20).get(config("a")))
+                .isEmpty();
+    }
+
+    private static RunnableConfig config(String threadId) {
+        return RunnableConfig.builder().threadId(threadId).build();
+    }
+
+    private static Checkpoint checkpoint(String id, List<String> history) {
+        return Checkpoint.builder()
+                .id(id)
+                .state(Map.of("chat_id", "a", "history", history))
+                .nodeId("agent")
+                .nextNodeId("__END__")
+                .build();
+    }
+}
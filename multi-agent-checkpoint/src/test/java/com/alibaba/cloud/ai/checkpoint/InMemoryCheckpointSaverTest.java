@@ -0,0 +1,206 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.checkpoint;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.checkpoint.Checkpoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 进程内检查点存储：摘要在后台生成且每个窗口只生成一次、空闲与超量会话淘汰
+ */
+class InMemoryCheckpointSaverTest {
+
+    private final CountDownLatch summarizing = new CountDownLatch(1);
+
+    private final CountDownLatch releaseSummary = new CountDownLatch(1);
+
+    private final List<String> prompts = new CopyOnWriteArrayList<>();
+
+    private MessageWindowCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        CheckpointProperties.Compaction properties = new CheckpointProperties.Compaction();
+        properties.setMaxMessages(4);
+        properties.setKeepRecent(2);
+
+        // 模拟耗时的模型摘要：进入后等待测试放行
+        ChatModel chatModel = mock(ChatModel.class);
+        when(chatModel.call(anyString())).thenAnswer(invocation -> {
+            prompts.add(invocation.getArgument(0));
+            summarizing.countDown();
+            releaseSummary.await(10, TimeUnit.SECONDS);
+            return "用户查询过订单";
+        });
+        compactor = new MessageWindowCompactor(properties, chatModel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseSummary.countDown();
+        compactor.close();
+    }
+
+    @Test
+    void putDoesNotWaitForTheModelSummary() throws Exception {
+        InMemoryCheckpointSaver saver = new InMemoryCheckpointSaver(compactor, 10, 100, Duration.ofMinutes(30));
+        List<Message> history = conversation(6);
+
+        // 模型摘要被阻塞时写入立即完成，先按原样保存
+        CompletableFuture.runAsync(() -> {
+            try {
+                saver.put(config("a"), checkpoint("1", history));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(1, TimeUnit.SECONDS);
+        assertThat(summarizing.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(messages(saver.get(config("a")).orElseThrow())).hasSize(6);
+
+        releaseSummary.countDown();
+        Checkpoint latest = awaitCompacted(saver, history);
+
+        List<Message> messages = messages(latest);
+        assertThat(messages.get(0).getMessageType()).isEqualTo(MessageType.SYSTEM);
+        assertThat(messages.get(0).getText()).endsWith("用户查询过订单");
+        assertThat(messages).hasSize(3);
+    }
+
+    @Test
+    void summaryIsGeneratedOncePerWindowAndFoldedIntoTheNext() throws Exception {
+        InMemoryCheckpointSaver saver = new InMemoryCheckpointSaver(compactor, 10, 100, Duration.ofMinutes(30));
+        List<Message> history = conversation(6);
+
+        // 同一轮内多个节点写入同样超长的状态，只生成一份摘要
+        for (int i = 0; i < 3; i++) {
+            saver.put(config("a"), checkpoint(String.valueOf(i), history));
+        }
+        assertThat(summarizing.await(5, TimeUnit.SECONDS)).isTrue();
+        releaseSummary.countDown();
+        List<Message> compacted = messages(awaitCompacted(saver, history));
+        saver.put(config("a"), checkpoint("3", history));
+        assertThat(prompts).hasSize(1);
+
+        // 下一轮从压缩后的状态继续，窗口再次超长时把上一份摘要并入新摘要
+        List<Message> nextTurn = new ArrayList<>(compacted);
+        nextTurn.add(new UserMessage("查询订单 6"));
+        nextTurn.add(new AssistantMessage("订单状态 6"));
+        awaitCompacted(saver, nextTurn);
+        assertThat(prompts).hasSize(2);
+        assertThat(prompts.get(1)).contains("此前摘要：用户查询过订单").contains("查询订单 4").doesNotContain("查询订单 0");
+    }
+
+    @Test
+    void keepsOnlyLatestCheckpointsOfEachThread() throws Exception {
+        InMemoryCheckpointSaver saver = new InMemoryCheckpointSaver(compactor, 2, 100, Duration.ofMinutes(30));
+        for (int i = 1; i <= 3; i++) {
+            saver.put(config("a"), checkpoint(String.valueOf(i), conversation(2)));
+        }
+
+        assertThat(saver.list(config("a"))).extracting(Checkpoint::getId).containsExactly("3", "2");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedThreadBeyondMaxThreads() throws Exception {
+        InMemoryCheckpointSaver saver = new InMemoryCheckpointSaver(compactor, 10, 2, Duration.ofMinutes(30));
+        saver.put(config("a"), checkpoint("1", conversation(2)));
+        saver.put(config("b"), checkpoint("1", conversation(2)));
+        saver.get(config("a"));
+        saver.put(config("c"), checkpoint("1", conversation(2)));
+
+        assertThat(saver.get(config("a"))).isPresent();
+        assertThat(saver.get(config("c"))).isPresent();
+        assertThat(saver.get(config("b"))).isEmpty();
+    }
+
+    @Test
+    void evictsIdleThreads() throws Exception {
+        InMemoryCheckpointSaver saver = new InMemoryCheckpointSaver(compactor, 10, 100, Duration.ofMillis(20));
+        saver.put(config("a"), checkpoint("1", conversation(2)));
+        Thread.sleep(50);
+        saver.put(config("b"), checkpoint("1", conversation(2)));
+
+        assertThat(saver.get(config("b"))).isPresent();
+        assertThat(saver.get(config("a"))).isEmpty();
+    }
+
+    /**
+     * 反复写入同一状态，直到后台摘要完成并被套用
+     */
+    private static Checkpoint awaitCompacted(InMemoryCheckpointSaver saver, List<Message> history) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            saver.put(config("a"), checkpoint("compacted", history));
+            Checkpoint latest = saver.get(config("a")).orElseThrow();
+            if (messages(latest).size() < history.size() || System.nanoTime() > deadline) {
+                return latest;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static RunnableConfig config(String threadId) {
+        return RunnableConfig.builder().threadId(threadId).build();
+    }
+
+    private static Checkpoint checkpoint(String id, List<Message> messages) {
+        return Checkpoint.builder()
+                .id(id)
+                .state(Map.of("messages", messages))
+                .nodeId("agent")
+                .nextNodeId("__END__")
+                .build();
+    }
+
+    /**
+     * 用户与助手交替的对话
+     */
+    private static List<Message> conversation(int size) {
+        List<Message> messages = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            messages.add(i % 2 == 0 ? new UserMessage("查询订单 " + i) : new AssistantMessage("订单状态 " + i));
+        }
+        return messages;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Message> messages(Checkpoint checkpoint) {
+        return (List<Message>) checkpoint.getState().get("messages");
+    }
+}
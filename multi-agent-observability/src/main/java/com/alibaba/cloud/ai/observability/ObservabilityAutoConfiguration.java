@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.observability;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.ibatis.plugin.Interceptor;
+import org.springframework.ai.chat.observation.ChatModelMeterObservationHandler;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 观测组件自动配置
+ * 引入本模块的应用自动获得：@Timed 服务方法计时切面、MCP 工具调用指标（存在 Spring AI 时）、
+ * MyBatis SQL 耗时拦截器（存在 MyBatis 时），指标通过 /actuator/prometheus 暴露。
+ * LLM 调用耗时与 token 用量来自 Spring AI 的 ChatModel 观测：耗时计时器 gen_ai.client.operation 由 Spring Boot
+ * 默认的观测处理器生成，token 计数器 gen_ai.client.token.usage 由 ChatModelMeterObservationHandler 生成，
+ * 使用方未引入 Spring AI 的观测自动配置时由本模块注册该处理器。
+ */
+@AutoConfiguration(after = CompositeMeterRegistryAutoConfiguration.class,
+        afterName = "org.springframework.ai.model.chat.observation.autoconfigure.ChatObservationAutoConfiguration")
+@ConditionalOnBean(MeterRegistry.class)
+@EnableConfigurationProperties(ObservabilityProperties.class)
+public class ObservabilityAutoConfiguration {
+
+    /**
+     * 支持在服务类上标注 @Timed，按方法记录耗时（标签：class、method、exception），替代入口/出口日志
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.ai.tool.annotation.Tool")
+    static class ToolMetricsConfiguration {
+
+        @Bean
+        public ToolInvocationMetricsAspect toolInvocationMetricsAspect(MeterRegistry meterRegistry) {
+            return new ToolInvocationMetricsAspect(meterRegistry);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(ChatModelMeterObservationHandler.class)
+    static class ChatModelMetricsConfiguration {
+
+        /**
+         * 按 gen_ai.token.type（input、output、total）统计每次大模型调用的 token 用量
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public ChatModelMeterObservationHandler chatModelMeterObservationHandler(MeterRegistry meterRegistry) {
+            return new ChatModelMeterObservationHandler(meterRegistry);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Interceptor.class)
+    @ConditionalOnProperty(prefix = "observability.sql", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class SqlTimingConfiguration {
+
+        /**
+         * mybatis-spring-boot-starter 会自动把容器中的 Interceptor 注册到 SqlSessionFactory
+         */
+        @Bean
+        public SqlTimingInterceptor sqlTimingInterceptor(MeterRegistry meterRegistry, ObservabilityProperties properties) {
+            return new SqlTimingInterceptor(meterRegistry, properties.getSql());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.observability;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 观测配置
+ * 默认（开发）模式下仅记录指标；生产模式通过 production profile 切换为异步日志、SQL 采样日志，并关闭逐行 SQL 输出。
+ */
+@ConfigurationProperties(prefix = "observability")
+public class ObservabilityProperties {
+
+    private Sql sql = new Sql();
+
+    public Sql getSql() {
+        return sql;
+    }
+
+    public void setSql(Sql sql) {
+        this.sql = sql;
+    }
+
+    /**
+     * SQL 耗时统计与采样日志配置
+     */
+    public static class Sql {
+
+        /**
+         * 是否统计每个 Mapper 方法的执行耗时
+         */
+        private boolean enabled = true;
+
+        /**
+         * 普通 SQL 的日志采样率（0-1），0 表示只记录慢 SQL
+         */
+        private double logSampleRate = 0.0;
+
+        /**
+         * 慢 SQL 阈值，超过时总是以 WARN 级别记录
+         */
+        private long slowThresholdMillis = 500;
+
+        /**
+         * 日志中 SQL 语句的最大长度
+         */
+        private int maxSqlLength = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getLogSampleRate() {
+            return logSampleRate;
+        }
+
+        public void setLogSampleRate(double logSampleRate) {
+            this.logSampleRate = logSampleRate;
+        }
+
+        public long getSlowThresholdMillis() {
+            return slowThresholdMillis;
+        }
+
+        public void setSlowThresholdMillis(long slowThresholdMillis) {
+            this.slowThresholdMillis = slowThresholdMillis;
+        }
+
+        public int getMaxSqlLength() {
+            return maxSqlLength;
+        }
+
+        public void setMaxSqlLength(int maxSqlLength) {
+            this.maxSqlLength = maxSqlLength;
+        }
+    }
+}
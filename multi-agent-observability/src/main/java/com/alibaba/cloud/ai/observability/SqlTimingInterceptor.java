@@ -0,0 +1,138 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis SQL 耗时拦截器
+ * 按 Mapper 方法记录 Micrometer 计时器 mybatis.statement（标签：statement、type、outcome），
+ * 慢 SQL 总是记录 WARN 日志，其余 SQL 按采样率记录 INFO 日志，替代逐条同步输出到控制台的 StdOutImpl。
+ * 流式游标查询只统计打开游标的耗时。
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "query",
+            args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "query",
+            args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+    @Signature(type = Executor.class, method = "queryCursor",
+            args = {MappedStatement.class, Object.class, RowBounds.class}),
+    @Signature(type = Executor.class, method = "update",
+            args = {MappedStatement.class, Object.class})
+})
+public class SqlTimingInterceptor implements Interceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlTimingInterceptor.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObservabilityProperties.Sql properties;
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public SqlTimingInterceptor(MeterRegistry meterRegistry, ObservabilityProperties.Sql properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        Object parameter = invocation.getArgs()[1];
+        long start = System.nanoTime();
+        String outcome = "success";
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            timer(statement, outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+            log(statement, parameter, result, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+    }
+
+    private Timer timer(MappedStatement statement, String outcome) {
+        String key = statement.getId() + '#' + outcome;
+        return timers.computeIfAbsent(key, k -> Timer.builder("mybatis.statement")
+                .description("MyBatis Mapper 方法执行耗时")
+                .tag("statement", statement.getId())
+                .tag("type", statement.getSqlCommandType().name())
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private void log(MappedStatement statement, Object parameter, Object result, long elapsedMillis) {
+        boolean slow = elapsedMillis >= properties.getSlowThresholdMillis();
+        if (!slow && !sampled()) {
+            return;
+        }
+        String sql = abbreviate(statement.getBoundSql(parameter).getSql());
+        if (slow) {
+            logger.warn("慢SQL {} 耗时 {} ms, 结果: {}, SQL: {}", statement.getId(), elapsedMillis, describe(result), sql);
+        } else {
+            logger.info("SQL {} 耗时 {} ms, 结果: {}, SQL: {}", statement.getId(), elapsedMillis, describe(result), sql);
+        }
+    }
+
+    private boolean sampled() {
+        double rate = properties.getLogSampleRate();
+        return rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private String abbreviate(String sql) {
+        String compact = sql.replaceAll("\\s+", " ").trim();
+        int maxLength = properties.getMaxSqlLength();
+        return compact.length() > maxLength ? compact.substring(0, maxLength) + "..." : compact;
+    }
+
+    private String describe(Object result) {
+        if (result instanceof List<?> rows) {
+            return rows.size() + " 行";
+        }
+        if (result instanceof Cursor<?>) {
+            return "游标";
+        }
+        if (result instanceof Integer affected) {
+            return "影响 " + affected + " 行";
+        }
+        return String.valueOf(result);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.ai.tool.annotation.Tool;
+
+/**
+ * MCP 工具调用指标切面
+ * 按 @Tool 名称记录计时器 mcp.tool.invocations（标签：tool、outcome），调用次数即计时器的 count。
+ * 工具方法通常自行捕获异常并返回错误文本，因此 outcome=error 只统计抛出到框架的异常。
+ */
+@Aspect
+public class ToolInvocationMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    public ToolInvocationMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(tool)")
+    public Object timeTool(ProceedingJoinPoint joinPoint, Tool tool) throws Throwable {
+        String toolName = tool.name().isEmpty() ? joinPoint.getSignature().getName() : tool.name();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("mcp.tool.invocations")
+                    .description("MCP 工具调用耗时")
+                    .tag("tool", toolName)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.observability;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.ibatis.plugin.Interceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.observation.ChatModelObservationContext;
+import org.springframework.ai.chat.observation.ChatModelObservationDocumentation;
+import org.springframework.ai.chat.observation.DefaultChatModelObservationConvention;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 自动配置接入应用后，服务方法计时、MCP 工具指标、大模型调用耗时与 token 用量和 SQL 拦截器生效，
+ * 指标通过 /actuator/prometheus 暴露
+ */
+@SpringBootTest(
+        classes = ObservabilityAutoConfigurationTest.TestApplication.class,
+        properties = "management.endpoints.web.exposure.include=prometheus")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class ObservabilityAutoConfigurationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TimedService timedService;
+
+    @Autowired
+    private SampleTool sampleTool;
+
+    @Autowired
+    private List<Interceptor> interceptors;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Test
+    void registersSqlTimingInterceptor() {
+        assertThat(interceptors).hasAtLeastOneElementOfType(SqlTimingInterceptor.class);
+    }
+
+    @Test
+    void exposesServiceAndToolTimersOnPrometheusEndpoint() throws Exception {
+        timedService.work();
+        sampleTool.lookup("ORDER_1");
+
+        String body = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(line(body, "service_method_seconds_count{"))
+                .contains("class=\"" + TimedService.class.getName())
+                .contains("method=\"work\"")
+                .endsWith(" 1.0");
+        assertThat(line(body, "mcp_tool_invocations_seconds_count{"))
+                .contains("tool=\"order-lookup\"")
+                .contains("outcome=\"success\"")
+                .endsWith(" 1.0");
+    }
+
+    @Test
+    void exposesChatModelLatencyAndTokenUsageOnPrometheusEndpoint() throws Exception {
+        // 与 ChatModel 实现相同的观测方式，模拟一次返回 token 用量的调用
+        ChatModelObservationContext context = ChatModelObservationContext.builder()
+                .prompt(new Prompt("我的订单到哪了", ChatOptions.builder().model("qwen-plus").build()))
+                .provider("dashscope")
+                .build();
+        ChatModelObservationDocumentation.CHAT_MODEL_OPERATION
+                .observation(null, new DefaultChatModelObservationConvention(), () -> context, observationRegistry)
+                .observe(() -> context.setResponse(new ChatResponse(
+                        List.of(new Generation(new AssistantMessage("订单已发货"))),
+                        ChatResponseMetadata.builder().model("qwen-plus").usage(new DefaultUsage(12, 5)).build())));
+
+        String body = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(line(body, "gen_ai_client_operation_seconds_count{"))
+                .contains("gen_ai_request_model=\"qwen-plus\"")
+                .contains("gen_ai_system=\"dashscope\"")
+                .endsWith(" 1.0");
+        assertThat(line(body, "gen_ai_client_token_usage_total{", "gen_ai_token_type=\"input\""))
+                .endsWith(" 12.0");
+        assertThat(line(body, "gen_ai_client_token_usage_total{", "gen_ai_token_type=\"output\""))
+                .endsWith(" 5.0");
+    }
+
+    private static String line(String body, String prefix) {
+        return line(body, prefix, "");
+    }
+
+    private static String line(String body, String prefix, String label) {
+        return Arrays.stream(body.split("\n"))
+                .filter(line -> line.startsWith(prefix) && line.contains(label))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("未找到指标 " + prefix + "\n" + body));
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    static class TestApplication {
+
+        @Bean
+        TimedService timedService() {
+            return new TimedService();
+        }
+
+        @Bean
+        SampleTool sampleTool() {
+            return new SampleTool();
+        }
+    }
+
+    @Timed("service.method")
+    static class TimedService {
+
+        public String work() {
+            return "done";
+        }
+    }
+
+    static class SampleTool {
+
+        @Tool(name = "order-lookup", description = "查询订单")
+        public String lookup(String orderId) {
+            return "order " + orderId;
+        }
+    }
+}
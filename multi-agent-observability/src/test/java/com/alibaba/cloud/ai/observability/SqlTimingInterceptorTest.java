@@ -0,0 +1,152 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.observability;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * SQL 耗时拦截器：按 Mapper 方法与结果计时，慢 SQL 记录 WARN，普通 SQL 按采样率记录 INFO
+ */
+class SqlTimingInterceptorTest {
+
+    private static final String STATEMENT_ID = "com.example.mapper.OrderMapper.updateRemark";
+
+    private final Configuration configuration = new Configuration();
+
+    private final Logger interceptorLogger = (Logger) LoggerFactory.getLogger(SqlTimingInterceptor.class);
+
+    private final ListAppender<ILoggingEvent> captured = new ListAppender<>();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ObservabilityProperties.Sql properties;
+
+    private Executor executor;
+
+    private MappedStatement statement;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new ObservabilityProperties.Sql();
+        executor = mock(Executor.class);
+        statement = new MappedStatement.Builder(configuration, STATEMENT_ID,
+                new StaticSqlSource(configuration, "UPDATE orders\n   SET remark = ?\n WHERE order_id = ?"),
+                SqlCommandType.UPDATE).build();
+
+        captured.start();
+        interceptorLogger.addAppender(captured);
+        interceptorLogger.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        interceptorLogger.detachAppender(captured);
+        interceptorLogger.setLevel(null);
+    }
+
+    @Test
+    void recordsTimerTaggedByStatementTypeAndOutcome() throws Throwable {
+        when(executor.update(any(), any())).thenReturn(1);
+        SqlTimingInterceptor interceptor = new SqlTimingInterceptor(meterRegistry, properties);
+
+        assertThat(interceptor.intercept(update())).isEqualTo(1);
+        interceptor.intercept(update());
+
+        Timer timer = meterRegistry.find("mybatis.statement")
+                .tags("statement", STATEMENT_ID, "type", "UPDATE", "outcome", "success")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(captured.list).isEmpty();
+    }
+
+    @Test
+    void recordsFailuresUnderErrorOutcome() throws Throwable {
+        when(executor.update(any(), any())).thenThrow(new SQLException("deadlock"));
+        SqlTimingInterceptor interceptor = new SqlTimingInterceptor(meterRegistry, properties);
+
+        assertThatThrownBy(() -> interceptor.intercept(update())).hasRootCauseInstanceOf(SQLException.class);
+
+        assertThat(meterRegistry.find("mybatis.statement").tags("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("mybatis.statement").tags("outcome", "success").timer()).isNull();
+    }
+
+    @Test
+    void logsSlowStatementsAtWarnWithCompactedSql() throws Throwable {
+        when(executor.update(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return 1;
+        });
+        properties.setSlowThresholdMillis(10);
+        SqlTimingInterceptor interceptor = new SqlTimingInterceptor(meterRegistry, properties);
+
+        interceptor.intercept(update());
+
+        assertThat(captured.list).hasSize(1);
+        ILoggingEvent event = captured.list.get(0);
+        assertThat(event.getLevel()).isEqualTo(Level.WARN);
+        assertThat(event.getFormattedMessage())
+                .contains(STATEMENT_ID)
+                .contains("影响 1 行")
+                .contains("UPDATE orders SET remark = ? WHERE order_id = ?");
+    }
+
+    @Test
+    void logsSampledStatementsAtInfoAndTruncatesLongSql() throws Throwable {
+        when(executor.update(any(), any())).thenReturn(3);
+        properties.setLogSampleRate(1.0);
+        properties.setMaxSqlLength(12);
+        SqlTimingInterceptor interceptor = new SqlTimingInterceptor(meterRegistry, properties);
+
+        interceptor.intercept(update());
+
+        assertThat(captured.list).hasSize(1);
+        ILoggingEvent event = captured.list.get(0);
+        assertThat(event.getLevel()).isEqualTo(Level.INFO);
+        assertThat(event.getFormattedMessage()).contains("影响 3 行").endsWith("SQL: UPDATE order...");
+    }
+
+    private Invocation update() throws NoSuchMethodException {
+        Method method = Executor.class.getMethod("update", MappedStatement.class, Object.class);
+        return new Invocation(executor, method, new Object[] {statement, "ORDER_1"});
+    }
+}
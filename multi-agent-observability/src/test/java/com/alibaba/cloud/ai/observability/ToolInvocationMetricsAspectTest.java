@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.observability;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * MCP 工具调用指标：按 @Tool 名称计时，未指定名称时使用方法名，抛出到框架的异常记为 error
+ */
+class ToolInvocationMetricsAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SampleTools tools;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleTools());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ToolInvocationMetricsAspect(meterRegistry));
+        tools = factory.getProxy();
+    }
+
+    @Test
+    void recordsSuccessfulInvocationsByToolName() {
+        tools.lookup("A");
+        tools.lookup("B");
+
+        Timer timer = meterRegistry.find("mcp.tool.invocations")
+                .tags("tool", "order-lookup", "outcome", "success")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Test
+    void fallsBackToMethodNameWhenToolNameIsEmpty() {
+        tools.unnamed();
+
+        assertThat(meterRegistry.find("mcp.tool.invocations").tags("tool", "unnamed").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void recordsThrownExceptionsAsError() {
+        assertThatThrownBy(() -> tools.failing()).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.find("mcp.tool.invocations")
+                .tags("tool", "failing-tool", "outcome", "error")
+                .timer()
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.find("mcp.tool.invocations").tags("outcome", "success").timer()).isNull();
+    }
+
+    @Test
+    void ignoresMethodsWithoutToolAnnotation() {
+        tools.helper();
+
+        assertThat(meterRegistry.find("mcp.tool.invocations").timers()).isEmpty();
+    }
+
+    static class SampleTools {
+
+        @Tool(name = "order-lookup", description = "查询订单")
+        public String lookup(String orderId) {
+            return "order " + orderId;
+        }
+
+        @Tool(description = "未指定名称的工具")
+        public String unnamed() {
+            return "ok";
+        }
+
+        @Tool(name = "failing-tool", description = "总是失败的工具")
+        public String failing() {
+            throw new IllegalStateException("boom");
+        }
+
+        public String helper() {
+            return "not a tool";
+        }
+    }
+}
@@ -17,11 +17,14 @@
 package com.alibaba.cloud.ai.order;
 
 import com.alibaba.cloud.ai.order.model.OrderCreateRequest;
+import com.alibaba.cloud.ai.order.model.OrderCursorPage;
 import com.alibaba.cloud.ai.order.model.OrderQueryRequest;
 import com.alibaba.cloud.ai.order.model.OrderResponse;
+import com.alibaba.cloud.ai.order.model.OrderSummary;
 import com.alibaba.cloud.ai.order.entity.Order;
 import com.alibaba.cloud.ai.order.entity.Product;
 import com.alibaba.cloud.ai.order.service.OrderService;
+import com.alibaba.cloud.ai.order.service.OrderStreamService;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +32,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -38,8 +42,18 @@ import java.util.List;
 @Service
 public class OrderMcpTools {
 
+    /**
+     * 订单明细模式默认返回条数与最大条数
+     */
+    private static final int DEFAULT_TOOL_ROWS = 20;
+    private static final int MAX_TOOL_ROWS = 100;
+
     @Autowired
     private OrderService orderService;
+
+    @Autowired
+    private OrderStreamService orderStreamService;
+
     /**
      * 创建订单工具（新接口，支持用户ID）
      */
@@ -129,29 +143,65 @@ public class OrderMcpTools {
 
     /**
      * 获取所有订单工具（兼容原有接口）
+     * 默认返回汇总统计；明细模式通过流式游标读取最近的订单，并限制返回条数，避免全表载入和过长的提示词
      */
-    @Tool(name = "order-get-orders", description = "获取系统中所有订单的列表，包括订单ID、产品信息、价格和创建时间。用于查看订单历史和统计信息。")
-    public String getAllOrders() {
+    @Tool(name = "order-get-orders", description = "获取系统中订单的整体情况。默认返回汇总统计（订单数、用户数、总杯数、总金额、热销产品）；mode 为 list 时返回最近的订单明细，包括订单ID、产品信息、价格和创建时间。用于查看订单历史和统计信息。")
+    public String getAllOrders(
+            @ToolParam(description = "返回方式，可选，summary-汇总统计（默认），list-最近订单明细") String mode,
+            @ToolParam(description = "明细模式下返回的最大订单数，可选，默认20，最大100") Integer limit) {
         try {
-            List<Order> orders = orderService.getAllOrders();
-            if (orders.isEmpty()) {
-                return "当前没有任何订单记录。";
+            if (!"list".equalsIgnoreCase(mode)) {
+                return formatSummary(orderStreamService.summarize());
             }
             
-            StringBuilder result = new StringBuilder("所有订单列表:\n");
-            for (Order order : orders) {
-                result.append(String.format("- 订单ID: %s, 产品: %s, 甜度: %s, 冰量: %s, 数量: %d, 价格: %.2f元, 创建时间: %s\n",
+            int maxRows = limit != null && limit > 0 ? Math.min(limit, MAX_TOOL_ROWS) : DEFAULT_TOOL_ROWS;
+            List<String> lines = new ArrayList<>();
+            int count = orderStreamService.forEachLatest(maxRows + 1, order -> {
+                if (lines.size() >= maxRows) {
+                    return;
+                }
+                lines.add(String.format("- 订单ID: %s, 产品: %s, 甜度: %s, 冰量: %s, 数量: %d, 价格: %.2f元, 创建时间: %s\n",
                         order.getOrderId(), order.getProductName(), order.getSweetnessText(),
                         order.getIceLevelText(), order.getQuantity(), order.getTotalPrice(), 
                         order.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
+            });
+            if (count == 0) {
+                return "当前没有任何订单记录。";
             }
             
+            StringBuilder result = new StringBuilder("最近订单列表:\n");
+            lines.forEach(result::append);
+            if (count > maxRows) {
+                result.append("仅显示最近 ").append(maxRows).append(" 条订单，如需了解整体情况请使用 summary 模式。");
+            }
             return result.toString();
         } catch (Exception e) {
             return "获取订单列表失败: " + e.getMessage();
         }
     }
     
+    /**
+     * 将订单汇总统计格式化为简短文本
+     */
+    private String formatSummary(OrderSummary summary) {
+        if (summary.getOrderCount() == null || summary.getOrderCount() == 0) {
+            return "当前没有任何订单记录。";
+        }
+        
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        StringBuilder result = new StringBuilder("订单汇总统计:\n");
+        result.append(String.format("- 订单总数: %d, 下单用户数: %d, 总杯数: %d, 总金额: %.2f元\n",
+                summary.getOrderCount(), summary.getUserCount(), summary.getTotalQuantity(), summary.getTotalAmount()));
+        result.append(String.format("- 时间范围: %s 至 %s\n",
+                summary.getFirstOrderAt().format(formatter), summary.getLastOrderAt().format(formatter)));
+        result.append("热销产品:\n");
+        for (OrderSummary.ProductSales sales : summary.getTopProducts()) {
+            result.append(String.format("- %s: %d单, %d杯, %.2f元\n",
+                    sales.getProductName(), sales.getOrderCount(), sales.getTotalQuantity(), sales.getTotalAmount()));
+        }
+        return result.toString();
+    }
+    
     /**
      * 根据用户ID获取订单列表工具
      */
@@ -177,6 +227,40 @@ public class OrderMcpTools {
         }
     }
     
+    /**
+     * 按游标分页获取用户订单工具
+     */
+    @Tool(name = "order-get-orders-by-user-page", description = "按页获取用户的订单列表，按创建时间倒序。首次查询不传游标，结果末尾会给出下一页游标，传入该游标即可继续查询下一页。适用于订单较多的用户。")
+    public String getOrdersByUserPage(
+            @ToolParam(description = "用户ID，必须为正整数") Long userId,
+            @ToolParam(description = "分页游标，可选，首次查询不传，后续传入上一页返回的下一页游标") String cursor,
+            @ToolParam(description = "每页条数，可选，默认10，最大100") Integer size) {
+        try {
+            int pageSize = size != null && size > 0 ? size : 10;
+            OrderCursorPage page = orderService.getOrdersByUserIdWithCursor(userId, cursor, pageSize, false);
+            if (page.getContent().isEmpty()) {
+                return "用户 " + userId + " 没有更多订单记录。";
+            }
+            
+            StringBuilder result = new StringBuilder("用户 " + userId + " 的订单列表（本页 " + page.getContent().size() + " 条）:\n");
+            for (OrderResponse order : page.getContent()) {
+                result.append(String.format("- 订单ID: %s, 产品: %s, 甜度: %s, 冰量: %s, 数量: %d, 价格: %.2f元, 创建时间: %s\n",
+                        order.getOrderId(), order.getProductName(), order.getSweetnessText(),
+                        order.getIceLevelText(), order.getQuantity(), order.getTotalPrice(), 
+                        order.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))));
+            }
+            
+            if (page.isHasMore()) {
+                result.append("下一页游标: ").append(page.getNextCursor());
+            } else {
+                result.append("已是最后一页。");
+            }
+            return result.toString();
+        } catch (Exception e) {
+            return "分页获取用户订单列表失败: " + e.getMessage();
+        }
+    }
+    
     /**
      * 多维度查询用户订单工具
      */
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.config;
+
+import com.alibaba.cloud.ai.order.service.OrderIdGenerator;
+import com.alibaba.cloud.ai.order.service.SnowflakeOrderIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 订单ID生成器配置
+ * 默认使用雪花算法，节点ID优先取 order.id.node-id；生产环境（order.id.require-node-id=true）必须显式配置，
+ * 其他环境未配置时由本机唯一的 IPv4 地址低 10 位推导，存在多个候选地址（如同时有 docker 网桥）时无法确定节点，启动失败，
+ * 避免多个实例使用相同节点ID生成重复订单号。
+ * 如需替换实现，自行声明 OrderIdGenerator 类型的 Bean 即可。
+ */
+@Configuration
+public class OrderIdGeneratorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdGeneratorConfig.class);
+
+    @Bean
+    @ConditionalOnMissingBean(OrderIdGenerator.class)
+    public OrderIdGenerator orderIdGenerator(@Value("${order.id.node-id:}") String nodeId,
+                                             @Value("${order.id.require-node-id:false}") boolean requireNodeId) {
+        if (StringUtils.hasText(nodeId)) {
+            return new SnowflakeOrderIdGenerator(Long.parseLong(nodeId.trim()));
+        }
+        if (requireNodeId) {
+            throw new IllegalStateException("order.id.node-id 未配置，请为每个实例配置不同的节点ID（0-"
+                    + SnowflakeOrderIdGenerator.MAX_NODE_ID + "）");
+        }
+        long derived = deriveNodeId(localAddresses());
+        logger.warn("order.id.node-id 未配置，使用本机 IPv4 地址推导的节点ID: {}；集群部署时请为每个实例显式配置", derived);
+        return new SnowflakeOrderIdGenerator(derived);
+    }
+
+    /**
+     * 由本机 IPv4 地址的低 10 位推导节点ID，候选地址推导出的节点ID不唯一时无法确定，直接失败
+     */
+    static long deriveNodeId(List<Inet4Address> addresses) {
+        Set<Long> nodeIds = new TreeSet<>();
+        for (Inet4Address address : addresses) {
+            byte[] bytes = address.getAddress();
+            nodeIds.add((((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF)) & SnowflakeOrderIdGenerator.MAX_NODE_ID);
+        }
+        if (nodeIds.isEmpty()) {
+            throw new IllegalStateException("没有可用于推导订单节点ID的 IPv4 地址，请配置 order.id.node-id");
+        }
+        if (nodeIds.size() > 1) {
+            throw new IllegalStateException("本机有多个 IPv4 地址 " + addresses + "，无法确定订单节点ID，请配置 order.id.node-id");
+        }
+        return nodeIds.iterator().next();
+    }
+
+    /**
+     * 所有已启用、非回环网卡上的 IPv4 地址
+     */
+    private static List<Inet4Address> localAddresses() {
+        List<Inet4Address> addresses = new ArrayList<>();
+        try {
+            for (NetworkInterface networkInterface : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                if (networkInterface.isLoopback() || !networkInterface.isUp()) {
+                    continue;
+                }
+                for (InetAddress address : Collections.list(networkInterface.getInetAddresses())) {
+                    if (address instanceof Inet4Address inet4Address) {
+                        addresses.add(inet4Address);
+                    }
+                }
+            }
+        } catch (SocketException e) {
+            throw new IllegalStateException("无法读取本机网卡地址推导订单节点ID，请配置 order.id.node-id", e);
+        }
+        return addresses;
+    }
+}
@@ -17,18 +17,26 @@
 package com.alibaba.cloud.ai.order.controller;
 
 import com.alibaba.cloud.ai.order.model.OrderCreateRequest;
+import com.alibaba.cloud.ai.order.model.OrderCursorPage;
 import com.alibaba.cloud.ai.order.model.OrderQueryRequest;
 import com.alibaba.cloud.ai.order.model.OrderResponse;
+import com.alibaba.cloud.ai.order.model.OrderSummary;
 import com.alibaba.cloud.ai.order.entity.Order;
 import com.alibaba.cloud.ai.order.entity.Product;
 import com.alibaba.cloud.ai.order.service.OrderService;
+import com.alibaba.cloud.ai.order.service.OrderStreamService;
+import com.alibaba.cloud.ai.order.service.ProductCache;
+import com.alibaba.cloud.ai.order.service.RecentOrderCache;
+import com.alibaba.cloud.ai.order.service.UserValidationCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
@@ -44,6 +52,18 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderStreamService orderStreamService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private UserValidationCache userValidationCache;
+
+    @Autowired
+    private RecentOrderCache recentOrderCache;
+
     /**
      * 创建订单
      */
@@ -80,15 +100,27 @@ public class OrderController {
 
     /**
      * 分页查询用户订单
+     * 默认按游标分页：首次请求不传 cursor，之后传入上一页返回的 nextCursor；includeTotal 为 true 时才统计总数，
+     * 深翻页不再扫描跳过的行。传入 page 参数时保留原有的页码分页方式（每页都会统计总数，深翻页较慢），供老调用方使用。
      */
     @GetMapping("/user/{userId}/page")
-    public ResponseEntity<Page<OrderResponse>> getOrdersByUserIdWithPagination(
+    public ResponseEntity<?> getOrdersByUserIdWithPagination(
             @PathVariable Long userId,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<OrderResponse> orders = orderService.getOrdersByUserIdWithPagination(userId, pageable);
-        return ResponseEntity.ok(orders);
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if (page != null) {
+            Pageable pageable = PageRequest.of(page, size);
+            Page<OrderResponse> orders = orderService.getOrdersByUserIdWithPagination(userId, pageable);
+            return ResponseEntity.ok(orders);
+        }
+        try {
+            OrderCursorPage orders = orderService.getOrdersByUserIdWithCursor(userId, cursor, size, includeTotal);
+            return ResponseEntity.ok(orders);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     /**
@@ -140,11 +172,19 @@ public class OrderController {
 
     /**
      * 获取所有订单（兼容原有接口）
+     * 以 NDJSON 流式输出，每行一个订单，按创建时间倒序分批读取，最多返回 limit 条
      */
-    @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderResponse> getAllOrders(@RequestParam(defaultValue = "1000") int limit) {
+        return orderStreamService.streamOrders(limit);
+    }
+
+    /**
+     * 订单汇总统计
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<OrderSummary> getOrderSummary() {
+        return ResponseEntity.ok(orderStreamService.summarize());
     }
 
     /**
@@ -204,4 +244,48 @@ public class OrderController {
                 "exists", exists
         ));
     }
+
+    /**
+     * 更新产品库存（补货），同时使产品缓存和内存库存计数器失效
+     */
+    @PutMapping("/products/{productId}/stock")
+    public ResponseEntity<?> updateProductStock(
+            @PathVariable Long productId,
+            @RequestBody Map<String, Integer> request) {
+        Integer stock = request.get("stock");
+        if (stock == null || stock < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "库存必须为非负整数"));
+        }
+        Product product = new Product();
+        product.setId(productId);
+        product.setStock(stock);
+        if (productCache.updateProduct(product) == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("productId", productId, "stock", stock));
+    }
+
+    /**
+     * 查看产品缓存统计
+     */
+    @GetMapping("/products/cache/stats")
+    public ResponseEntity<Map<String, Object>> getProductCacheStats() {
+        return ResponseEntity.ok(productCache.stats());
+    }
+
+    /**
+     * 查看用户校验缓存统计
+     */
+    @GetMapping("/users/cache/stats")
+    public ResponseEntity<Map<String, Object>> getUserCacheStats() {
+        return ResponseEntity.ok(userValidationCache.stats());
+    }
+
+    /**
+     * 查看用户最近订单缓存统计
+     */
+    @GetMapping("/recent/cache/stats")
+    public ResponseEntity<Map<String, Object>> getRecentOrderCacheStats() {
+        return ResponseEntity.ok(recentOrderCache.stats());
+    }
 }
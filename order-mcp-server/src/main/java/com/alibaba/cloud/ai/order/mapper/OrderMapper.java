@@ -17,7 +17,9 @@
 package com.alibaba.cloud.ai.order.mapper;
 
 import com.alibaba.cloud.ai.order.entity.Order;
+import com.alibaba.cloud.ai.order.model.OrderSummary;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -118,9 +120,11 @@ public interface OrderMapper {
     Order selectByUserIdAndOrderId(@Param("userId") Long userId, @Param("orderId") String orderId);
     
     /**
-     * 查找所有订单
+     * 以流式游标读取最近的订单，最多 limit 条
+     * fetchSize 为 Integer.MIN_VALUE 时 MySQL 驱动逐行读取结果集，不会一次性载入内存；需在事务内遍历
      */
-    @Select("SELECT * FROM orders ORDER BY created_at DESC")
+    @Select("SELECT * FROM orders ORDER BY created_at DESC, id DESC LIMIT #{limit}")
+    @Options(fetchSize = Integer.MIN_VALUE)
     @Results({
         @Result(property = "id", column = "id"),
         @Result(property = "orderId", column = "order_id"),
@@ -136,7 +140,51 @@ public interface OrderMapper {
         @Result(property = "createdAt", column = "created_at"),
         @Result(property = "updatedAt", column = "updated_at")
     })
-    List<Order> selectAll();
+    Cursor<Order> selectLatestAsCursor(@Param("limit") int limit);
+    
+    /**
+     * 按游标分页读取全部订单（键集分页），按 (created_at, id) 倒序，游标为空时从最新订单开始
+     */
+    @Select("<script>" +
+            "SELECT * FROM orders" +
+            "<if test='cursorCreatedAt != null and cursorId != null'>" +
+            " WHERE created_at &lt; #{cursorCreatedAt} OR (created_at = #{cursorCreatedAt} AND id &lt; #{cursorId})" +
+            "</if>" +
+            " ORDER BY created_at DESC, id DESC LIMIT #{limit}" +
+            "</script>")
+    @Results({
+        @Result(property = "id", column = "id"),
+        @Result(property = "orderId", column = "order_id"),
+        @Result(property = "userId", column = "user_id"),
+        @Result(property = "productId", column = "product_id"),
+        @Result(property = "productName", column = "product_name"),
+        @Result(property = "sweetness", column = "sweetness"),
+        @Result(property = "iceLevel", column = "ice_level"),
+        @Result(property = "quantity", column = "quantity"),
+        @Result(property = "unitPrice", column = "unit_price"),
+        @Result(property = "totalPrice", column = "total_price"),
+        @Result(property = "remark", column = "remark"),
+        @Result(property = "createdAt", column = "created_at"),
+        @Result(property = "updatedAt", column = "updated_at")
+    })
+    List<Order> selectAllAfterCursor(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                     @Param("cursorId") Long cursorId,
+                                     @Param("limit") int limit);
+    
+    /**
+     * 汇总全部订单的数量、用户数、杯数和金额
+     */
+    @Select("SELECT COUNT(*) AS order_count, COUNT(DISTINCT user_id) AS user_count, " +
+            "COALESCE(SUM(quantity), 0) AS total_quantity, COALESCE(SUM(total_price), 0) AS total_amount, " +
+            "MIN(created_at) AS first_order_at, MAX(created_at) AS last_order_at FROM orders")
+    OrderSummary selectSummary();
+    
+    /**
+     * 按订单数统计销量最高的产品
+     */
+    @Select("SELECT product_name, COUNT(*) AS order_count, SUM(quantity) AS total_quantity, SUM(total_price) AS total_amount " +
+            "FROM orders GROUP BY product_name ORDER BY order_count DESC, total_amount DESC LIMIT #{limit}")
+    List<OrderSummary.ProductSales> selectTopProducts(@Param("limit") int limit);
     
     /**
      * 根据用户ID查找所有订单
@@ -180,12 +228,50 @@ public interface OrderMapper {
     })
     List<Order> selectByUserIdWithPagination(@Param("userId") Long userId, @Param("offset") int offset, @Param("size") int size);
     
+    /**
+     * 根据用户ID按游标分页查找订单（键集分页）
+     * 按 (created_at, id) 倒序，从游标位置之后继续读取，可直接沿 idx_orders_user_created 索引定位，
+     * 翻页深度不影响查询耗时；游标为空时返回第一页
+     */
+    @Select("<script>" +
+            "SELECT * FROM orders WHERE user_id = #{userId}" +
+            "<if test='cursorCreatedAt != null and cursorId != null'>" +
+            " AND (created_at &lt; #{cursorCreatedAt} OR (created_at = #{cursorCreatedAt} AND id &lt; #{cursorId}))" +
+            "</if>" +
+            " ORDER BY created_at DESC, id DESC LIMIT #{limit}" +
+            "</script>")
+    @Results({
+        @Result(property = "id", column = "id"),
+        @Result(property = "orderId", column = "order_id"),
+        @Result(property = "userId", column = "user_id"),
+        @Result(property = "productId", column = "product_id"),
+        @Result(property = "productName", column = "product_name"),
+        @Result(property = "sweetness", column = "sweetness"),
+        @Result(property = "iceLevel", column = "ice_level"),
+        @Result(property = "quantity", column = "quantity"),
+        @Result(property = "unitPrice", column = "unit_price"),
+        @Result(property = "totalPrice", column = "total_price"),
+        @Result(property = "remark", column = "remark"),
+        @Result(property = "createdAt", column = "created_at"),
+        @Result(property = "updatedAt", column = "updated_at")
+    })
+    List<Order> selectByUserIdAfterCursor(@Param("userId") Long userId,
+                                          @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                          @Param("cursorId") Long cursorId,
+                                          @Param("limit") int limit);
+    
     /**
      * 统计用户订单数量
      */
     @Select("SELECT COUNT(*) FROM orders WHERE user_id = #{userId}")
     long countByUserId(Long userId);
     
+    /**
+     * 查询用户订单水位（订单数与最新创建时间），仅读取 idx_orders_user_created 索引，用于校验最近订单缓存是否过期
+     */
+    @Select("SELECT COUNT(*) AS order_count, MAX(created_at) AS last_order_at FROM orders WHERE user_id = #{userId}")
+    OrderSummary selectUserOrderWatermark(@Param("userId") Long userId);
+    
     /**
      * 统计用户指定时间范围内的订单数量
      */
@@ -200,11 +286,13 @@ public interface OrderMapper {
     
     /**
      * 根据用户ID和多个条件查找订单
+     * 产品条件为已解析的产品ID列表（非空），可沿 idx_orders_user_product_created 索引定位，不再对产品名称做前后模糊匹配
      */
     @Select("<script>" +
             "SELECT * FROM orders WHERE user_id = #{userId} " +
-            "<if test='productName != null and productName != \"\"'>" +
-            "AND product_name LIKE CONCAT('%', #{productName}, '%') " +
+            "<if test='productIds != null'>" +
+            "AND product_id IN " +
+            "<foreach collection='productIds' item='productId' open='(' separator=',' close=')'>#{productId}</foreach> " +
             "</if>" +
             "<if test='sweetness != null'>" +
             "AND sweetness = #{sweetness} " +
@@ -236,7 +324,7 @@ public interface OrderMapper {
         @Result(property = "updatedAt", column = "updated_at")
     })
     List<Order> selectByUserIdAndConditions(@Param("userId") Long userId,
-                                           @Param("productName") String productName,
+                                           @Param("productIds") List<Long> productIds,
                                            @Param("sweetness") Integer sweetness,
                                            @Param("iceLevel") Integer iceLevel,
                                            @Param("startTime") LocalDateTime startTime,
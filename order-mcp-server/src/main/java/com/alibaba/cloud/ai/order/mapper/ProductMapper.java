@@ -41,6 +41,12 @@ public interface ProductMapper {
     @Update("UPDATE products SET stock = #{stock}, updated_at = #{updatedAt} WHERE id = #{id}")
     int updateById(Product product);
     
+    /**
+     * 条件扣减库存，仅在库存充足时扣减，返回受影响行数（0 表示库存不足）
+     */
+    @Update("UPDATE products SET stock = stock - #{quantity}, updated_at = NOW() WHERE id = #{id} AND stock >= #{quantity}")
+    int decreaseStock(@Param("id") Long id, @Param("quantity") Integer quantity);
+    
     /**
      * 根据ID删除产品
      */
@@ -162,6 +168,16 @@ public interface ProductMapper {
     })
     List<Product> selectByStatusTrueAndStockGreaterThanOrderByName(Integer stock);
     
+    /**
+     * 查询全部产品的ID和名称（含已下架产品，用于按名称解析历史订单中的产品ID）
+     */
+    @Select("SELECT id, name FROM products")
+    @Results({
+        @Result(property = "id", column = "id"),
+        @Result(property = "name", column = "name")
+    })
+    List<Product> selectAllIdAndName();
+    
     /**
      * 检查产品是否存在且上架
      */
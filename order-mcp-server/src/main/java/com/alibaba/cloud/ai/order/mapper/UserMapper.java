@@ -19,6 +19,7 @@ package com.alibaba.cloud.ai.order.mapper;
 import com.alibaba.cloud.ai.order.entity.User;
 import org.apache.ibatis.annotations.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -117,6 +118,28 @@ public interface UserMapper {
     @Select("SELECT COUNT(*) FROM users WHERE id = #{id}")
     int existsById(@Param("id") Long id);
     
+    /**
+     * 查询全部用户ID
+     */
+    @Select("SELECT id FROM users")
+    List<Long> selectAllIds();
+    
+    /**
+     * 查询指定时间之后创建的用户ID及创建时间，一次查询同时得到新增用户和新的同步水位
+     */
+    @Select("SELECT id, created_at FROM users WHERE created_at >= #{since}")
+    @Results({
+        @Result(property = "id", column = "id"),
+        @Result(property = "createdAt", column = "created_at")
+    })
+    List<User> selectIdsCreatedSince(@Param("since") LocalDateTime since);
+    
+    /**
+     * 查询最新的用户创建时间，作为布隆过滤器增量同步的水位
+     */
+    @Select("SELECT MAX(created_at) FROM users")
+    LocalDateTime selectMaxCreatedAt();
+    
     /**
      * 检查用户名是否存在
      */
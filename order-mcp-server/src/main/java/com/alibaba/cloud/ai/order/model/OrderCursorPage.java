@@ -0,0 +1,84 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.model;
+
+import java.util.List;
+
+/**
+ * 订单游标分页结果DTO
+ * nextCursor 为不透明游标，原样传回即可获取下一页；total 仅在请求时统计，未统计时为 null
+ */
+public class OrderCursorPage {
+    
+    private List<OrderResponse> content;
+    private String nextCursor;
+    private boolean hasMore;
+    private int size;
+    private Long total;
+    
+    // 构造函数
+    public OrderCursorPage() {}
+    
+    public OrderCursorPage(List<OrderResponse> content, String nextCursor, boolean hasMore, int size, Long total) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.size = size;
+        this.total = total;
+    }
+    
+    // Getter和Setter方法
+    public List<OrderResponse> getContent() {
+        return content;
+    }
+    
+    public void setContent(List<OrderResponse> content) {
+        this.content = content;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+    
+    public Long getTotal() {
+        return total;
+    }
+    
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+}
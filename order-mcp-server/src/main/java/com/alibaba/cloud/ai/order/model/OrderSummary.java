@@ -0,0 +1,136 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 订单汇总统计DTO
+ * 由数据库聚合得到，供 LLM 了解订单整体情况，避免逐条返回订单明细
+ */
+public class OrderSummary {
+    
+    private Long orderCount;
+    private Long userCount;
+    private Long totalQuantity;
+    private BigDecimal totalAmount;
+    private LocalDateTime firstOrderAt;
+    private LocalDateTime lastOrderAt;
+    private List<ProductSales> topProducts;
+    
+    // Getter和Setter方法
+    public Long getOrderCount() {
+        return orderCount;
+    }
+    
+    public void setOrderCount(Long orderCount) {
+        this.orderCount = orderCount;
+    }
+    
+    public Long getUserCount() {
+        return userCount;
+    }
+    
+    public void setUserCount(Long userCount) {
+        this.userCount = userCount;
+    }
+    
+    public Long getTotalQuantity() {
+        return totalQuantity;
+    }
+    
+    public void setTotalQuantity(Long totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+    
+    public LocalDateTime getFirstOrderAt() {
+        return firstOrderAt;
+    }
+    
+    public void setFirstOrderAt(LocalDateTime firstOrderAt) {
+        this.firstOrderAt = firstOrderAt;
+    }
+    
+    public LocalDateTime getLastOrderAt() {
+        return lastOrderAt;
+    }
+    
+    public void setLastOrderAt(LocalDateTime lastOrderAt) {
+        this.lastOrderAt = lastOrderAt;
+    }
+    
+    public List<ProductSales> getTopProducts() {
+        return topProducts;
+    }
+    
+    public void setTopProducts(List<ProductSales> topProducts) {
+        this.topProducts = topProducts;
+    }
+    
+    /**
+     * 单个产品的销量统计
+     */
+    public static class ProductSales {
+        
+        private String productName;
+        private Long orderCount;
+        private Long totalQuantity;
+        private BigDecimal totalAmount;
+        
+        public String getProductName() {
+            return productName;
+        }
+        
+        public void setProductName(String productName) {
+            this.productName = productName;
+        }
+        
+        public Long getOrderCount() {
+            return orderCount;
+        }
+        
+        public void setOrderCount(Long orderCount) {
+            this.orderCount = orderCount;
+        }
+        
+        public Long getTotalQuantity() {
+            return totalQuantity;
+        }
+        
+        public void setTotalQuantity(Long totalQuantity) {
+            this.totalQuantity = totalQuantity;
+        }
+        
+        public BigDecimal getTotalAmount() {
+            return totalAmount;
+        }
+        
+        public void setTotalAmount(BigDecimal totalAmount) {
+            this.totalAmount = totalAmount;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+/**
+ * 订单ID生成器
+ * 生成的订单ID必须以 ORDER_ 开头，便于大模型工具识别
+ */
+public interface OrderIdGenerator {
+
+    String ORDER_ID_PREFIX = "ORDER_";
+
+    /**
+     * 生成下一个全局唯一的订单ID
+     */
+    String nextId();
+}
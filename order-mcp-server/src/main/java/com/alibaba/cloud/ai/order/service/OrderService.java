@@ -17,6 +17,7 @@
 package com.alibaba.cloud.ai.order.service;
 
 import com.alibaba.cloud.ai.order.model.OrderCreateRequest;
+import com.alibaba.cloud.ai.order.model.OrderCursorPage;
 import com.alibaba.cloud.ai.order.model.OrderQueryRequest;
 import com.alibaba.cloud.ai.order.model.OrderResponse;
 import com.alibaba.cloud.ai.order.entity.Order;
@@ -24,7 +25,7 @@ import com.alibaba.cloud.ai.order.entity.Product;
 import com.alibaba.cloud.ai.order.entity.User;
 import com.alibaba.cloud.ai.order.mapper.OrderMapper;
 import com.alibaba.cloud.ai.order.mapper.ProductMapper;
-import com.alibaba.cloud.ai.order.mapper.UserMapper;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,6 +36,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -43,11 +47,17 @@ import java.util.stream.Collectors;
  * 提供订单相关的业务逻辑
  */
 @Service
+@Timed("service.method")
 @Transactional
 public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
+    /**
+     * 游标分页单页最大条数
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Autowired
     private OrderMapper orderMapper;
     
@@ -55,29 +65,35 @@ public class OrderService {
     private ProductMapper productMapper;
     
     @Autowired
-    private UserMapper userMapper;
+    private StockReservationService stockReservationService;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private UserValidationCache userValidationCache;
+    
+    @Autowired
+    private RecentOrderCache recentOrderCache;
+    
+    @Autowired
+    private OrderIdGenerator orderIdGenerator;
 
     /**
      * 验证用户是否存在，如果不存在则抛出异常
      */
     public User validateUser(Long userId) {
-        logger.info("=== OrderService.validateUser 入口 ===");
-        logger.info("请求参数 - userId: {}", userId);
-        
         if (userId == null) {
             throw new IllegalArgumentException("用户ID不能为空，请提供有效的用户ID");
         }
         
         try {
-            // 检查用户是否存在
-            User existingUser = userMapper.selectById(userId);
+            // 检查用户是否存在（布隆过滤器快速排除 + 已校验用户缓存）
+            User existingUser = userValidationCache.find(userId);
             if (existingUser == null) {
                 throw new IllegalArgumentException("用户不存在，用户ID: " + userId + "，请先注册用户");
             }
             
-            logger.info("=== OrderService.validateUser 出口 ===");
-            logger.info("返回结果 - 用户验证成功: {}", existingUser.getUsername());
-            
             return existingUser;
         } catch (IllegalArgumentException e) {
             throw e;
@@ -92,32 +108,28 @@ public class OrderService {
      * 创建订单（兼容原有MCP接口）
      */
     public Order createOrder(String productName, String sweetness, String iceLevel, int quantity) {
-        logger.info("=== OrderService.createOrder 入口 ===");
-        logger.info("请求参数 - productName: {}, sweetness: {}, iceLevel: {}, quantity: {}", 
-                productName, sweetness, iceLevel, quantity);
-        
         try {
             // 转换甜度和冰量为数字
             Integer sweetnessLevel = convertSweetnessToNumber(sweetness);
             Integer iceLevelNumber = convertIceLevelToNumber(iceLevel);
             
-            // 从数据库查询产品信息
-            Product product = productMapper.selectByNameAndStatus(productName, 1);
+            // 查询产品信息（短时缓存，库存以预占结果为准）
+            Product product = productCache.getAvailableProduct(productName);
             if (product == null) {
                 throw new IllegalArgumentException("产品不存在或已下架: " + productName);
             }
             
-            // 检查库存
-            if (product.getStock() < quantity) {
+            // 预占库存（内存计数器 + 数据库条件扣减）
+            if (!stockReservationService.reserve(product, quantity)) {
                 String errorMsg = String.format("库存不足，产品: %s, 当前库存: %d, 需要数量: %d", 
-                        productName, product.getStock(), quantity);
+                        productName, stockReservationService.currentStock(product.getId()), quantity);
                 logger.error("创建订单失败: {}", errorMsg);
                 throw new IllegalArgumentException(errorMsg);
             }
             
             BigDecimal unitPrice = product.getPrice();
             BigDecimal totalPrice = unitPrice.multiply(new BigDecimal(quantity));
-            String orderId = "ORDER_" + System.currentTimeMillis();
+            String orderId = orderIdGenerator.nextId();
             
             // 创建订单实体
             Order order = new Order(orderId, null, product.getId(), productName, sweetnessLevel, iceLevelNumber, 
@@ -127,16 +139,6 @@ public class OrderService {
             // 保存到数据库
             orderMapper.insert(order);
             
-            // 更新产品库存
-            product.setStock(product.getStock() - quantity);
-            product.onUpdate();
-            productMapper.updateById(product);
-            
-            logger.info("=== OrderService.createOrder 出口 ===");
-            logger.info("返回结果 - orderId: {}, productName: {}, sweetness: {}, iceLevel: {}, quantity: {}, price: {}", 
-                    order.getOrderId(), order.getProductName(), order.getSweetness(), 
-                    order.getIceLevel(), order.getQuantity(), order.getTotalPrice());
-            
             return order;
         } catch (Exception e) {
             logger.error("创建订单异常", e);
@@ -148,30 +150,27 @@ public class OrderService {
      * 创建订单（新接口）
      */
     public OrderResponse createOrder(OrderCreateRequest request) {
-        logger.info("=== OrderService.createOrder 入口 ===");
-        logger.info("请求参数 - {}", request);
-        
         try {
             // 验证用户是否存在，如果不存在则抛出异常
             User user = validateUser(request.getUserId());
             
-            // 从数据库查询产品信息
-            Product product = productMapper.selectByNameAndStatus(request.getProductName(), 1);
+            // 查询产品信息（短时缓存，库存以预占结果为准）
+            Product product = productCache.getAvailableProduct(request.getProductName());
             if (product == null) {
                 throw new IllegalArgumentException("产品不存在或已下架: " + request.getProductName());
             }
             
-            // 检查库存
-            if (product.getStock() < request.getQuantity()) {
+            // 预占库存（内存计数器 + 数据库条件扣减）
+            if (!stockReservationService.reserve(product, request.getQuantity())) {
                 String errorMsg = String.format("库存不足，产品: %s, 当前库存: %d, 需要数量: %d", 
-                        request.getProductName(), product.getStock(), request.getQuantity());
+                        request.getProductName(), stockReservationService.currentStock(product.getId()), request.getQuantity());
                 logger.error("创建订单失败: {}", errorMsg);
                 throw new IllegalArgumentException(errorMsg);
             }
             
             BigDecimal unitPrice = product.getPrice();
             BigDecimal totalPrice = unitPrice.multiply(new BigDecimal(request.getQuantity()));
-            String orderId = "ORDER_" + System.currentTimeMillis();
+            String orderId = orderIdGenerator.nextId();
             
             // 创建订单实体
             Order order = new Order(orderId, request.getUserId(), product.getId(), 
@@ -181,14 +180,7 @@ public class OrderService {
             
             // 保存到数据库
             orderMapper.insert(order);
-            
-            // 更新产品库存
-            product.setStock(product.getStock() - request.getQuantity());
-            product.onUpdate();
-            productMapper.updateById(product);
-            
-            logger.info("=== OrderService.createOrder 出口 ===");
-            logger.info("返回结果 - orderId: {}", order.getOrderId());
+            recentOrderCache.invalidate(request.getUserId());
             
             return new OrderResponse(order);
         } catch (Exception e) {
@@ -201,30 +193,13 @@ public class OrderService {
      * 查询订单（兼容原有MCP接口）
      */
     public Order getOrder(String orderId) {
-        logger.info("=== OrderService.getOrder 入口 ===");
-        logger.info("请求参数 - orderId: {}", orderId);
-        
-        Order order = orderMapper.selectByOrderId(orderId);
-        
-        logger.info("=== OrderService.getOrder 出口 ===");
-        if (order != null) {
-            logger.info("返回结果 - orderId: {}, productName: {}, sweetness: {}, iceLevel: {}, quantity: {}, price: {}, createTime: {}", 
-                    order.getOrderId(), order.getProductName(), order.getSweetness(), 
-                    order.getIceLevel(), order.getQuantity(), order.getTotalPrice(), order.getCreatedAt());
-        } else {
-            logger.info("返回结果 - 订单不存在");
-        }
-        
-        return order;
+        return orderMapper.selectByOrderId(orderId);
     }
 
     /**
      * 根据用户ID和订单ID查询订单
      */
     public OrderResponse getOrderByUserIdAndOrderId(Long userId, String orderId) {
-        logger.info("=== OrderService.getOrderByUserIdAndOrderId 入口 ===");
-        logger.info("请求参数 - userId: {}, orderId: {}", userId, orderId);
-        
         try {
             // 验证用户是否存在，如果不存在则抛出异常
             validateUser(userId);
@@ -232,12 +207,8 @@ public class OrderService {
             Order order = orderMapper.selectByUserIdAndOrderId(userId, orderId);
             if (order != null) {
                 OrderResponse response = new OrderResponse(order);
-                logger.info("=== OrderService.getOrderByUserIdAndOrderId 出口 ===");
-                logger.info("返回结果 - orderId: {}", response.getOrderId());
                 return response;
             } else {
-                logger.info("=== OrderService.getOrderByUserIdAndOrderId 出口 ===");
-                logger.info("返回结果 - 订单不存在");
                 return null;
             }
         } catch (Exception e) {
@@ -246,27 +217,10 @@ public class OrderService {
         }
     }
 
-    /**
-     * 获取所有订单（兼容原有MCP接口）
-     */
-    public List<Order> getAllOrders() {
-        logger.info("=== OrderService.getAllOrders 入口 ===");
-        
-        List<Order> allOrders = orderMapper.selectAll();
-        
-        logger.info("=== OrderService.getAllOrders 出口 ===");
-        logger.info("返回结果 - 订单总数: {}", allOrders.size());
-        
-        return allOrders;
-    }
-    
     /**
      * 根据用户ID查询订单列表
      */
     public List<OrderResponse> getOrdersByUserId(Long userId) {
-        logger.info("=== OrderService.getOrdersByUserId 入口 ===");
-        logger.info("请求参数 - userId: {}", userId);
-        
         try {
             // 验证用户是否存在，如果不存在则抛出异常
             validateUser(userId);
@@ -276,9 +230,6 @@ public class OrderService {
                     .map(OrderResponse::new)
                     .collect(Collectors.toList());
             
-            logger.info("=== OrderService.getOrdersByUserId 出口 ===");
-            logger.info("返回结果 - 订单总数: {}", responses.size());
-            
             return responses;
         } catch (Exception e) {
             logger.error("查询用户订单异常", e);
@@ -290,29 +241,42 @@ public class OrderService {
      * 多维度查询用户订单
      */
     public List<OrderResponse> queryOrders(OrderQueryRequest request) {
-        logger.info("=== OrderService.queryOrders 入口 ===");
-        logger.info("请求参数 - {}", request);
-        
         try {
             // 验证用户是否存在，如果不存在则抛出异常
             validateUser(request.getUserId());
             
-            List<Order> orders = orderMapper.selectByUserIdAndConditions(
-                    request.getUserId(),
-                    request.getProductName(),
-                    request.getSweetness(),
-                    request.getIceLevel(),
-                    request.getStartTime(),
-                    request.getEndTime()
-            );
+            // 产品名称条件先解析为产品ID，没有匹配的产品时无需查询订单
+            List<Long> productIds = null;
+            if (request.getProductName() != null && !request.getProductName().isEmpty()) {
+                productIds = productCache.findProductIdsByNameKeyword(request.getProductName());
+                if (productIds.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+            
+            // 用户订单已全部缓存时在内存中过滤，否则按条件查询数据库
+            List<Order> cachedOrders = recentOrderCache.getAllIfComplete(request.getUserId());
+            List<Order> orders;
+            if (cachedOrders != null) {
+                Set<Long> productIdSet = productIds != null ? new HashSet<>(productIds) : null;
+                orders = cachedOrders.stream()
+                        .filter(order -> matchesConditions(order, productIdSet, request))
+                        .collect(Collectors.toList());
+            } else {
+                orders = orderMapper.selectByUserIdAndConditions(
+                        request.getUserId(),
+                        productIds,
+                        request.getSweetness(),
+                        request.getIceLevel(),
+                        request.getStartTime(),
+                        request.getEndTime()
+                );
+            }
             
             List<OrderResponse> responses = orders.stream()
                     .map(OrderResponse::new)
                     .collect(Collectors.toList());
             
-            logger.info("=== OrderService.queryOrders 出口 ===");
-            logger.info("返回结果 - 订单总数: {}", responses.size());
-            
             return responses;
         } catch (Exception e) {
             logger.error("查询订单异常", e);
@@ -320,13 +284,29 @@ public class OrderService {
         }
     }
     
+    /**
+     * 判断缓存中的订单是否满足查询条件，与 selectByUserIdAndConditions 的过滤条件保持一致
+     */
+    private boolean matchesConditions(Order order, Set<Long> productIds, OrderQueryRequest request) {
+        if (productIds != null && !productIds.contains(order.getProductId())) {
+            return false;
+        }
+        if (request.getSweetness() != null && !request.getSweetness().equals(order.getSweetness())) {
+            return false;
+        }
+        if (request.getIceLevel() != null && !request.getIceLevel().equals(order.getIceLevel())) {
+            return false;
+        }
+        if (request.getStartTime() != null && order.getCreatedAt().isBefore(request.getStartTime())) {
+            return false;
+        }
+        return request.getEndTime() == null || !order.getCreatedAt().isAfter(request.getEndTime());
+    }
+    
     /**
      * 分页查询用户订单
      */
     public Page<OrderResponse> getOrdersByUserIdWithPagination(Long userId, Pageable pageable) {
-        logger.info("=== OrderService.getOrdersByUserIdWithPagination 入口 ===");
-        logger.info("请求参数 - userId: {}, page: {}, size: {}", userId, pageable.getPageNumber(), pageable.getPageSize());
-        
         try {
             // 验证用户是否存在，如果不存在则抛出异常
             validateUser(userId);
@@ -338,10 +318,6 @@ public class OrderService {
             Page<Order> orderPage = new PageImpl<>(orders, pageable, total);
             Page<OrderResponse> responsePage = orderPage.map(OrderResponse::new);
             
-            logger.info("=== OrderService.getOrdersByUserIdWithPagination 出口 ===");
-            logger.info("返回结果 - 总页数: {}, 当前页: {}, 总记录数: {}", 
-                    responsePage.getTotalPages(), responsePage.getNumber(), responsePage.getTotalElements());
-            
             return responsePage;
         } catch (Exception e) {
             logger.error("分页查询用户订单异常", e);
@@ -349,13 +325,77 @@ public class OrderService {
         }
     }
     
+    /**
+     * 按游标分页查询用户订单
+     * 基于 (created_at, id) 的键集分页，多取一条判断是否还有下一页；总数仅在 includeTotal 为 true 时统计
+     *
+     * @param cursor       上一页返回的 nextCursor，为空时查询第一页
+     * @param includeTotal 是否额外统计订单总数
+     */
+    @Transactional(readOnly = true)
+    public OrderCursorPage getOrdersByUserIdWithCursor(Long userId, String cursor, int size, boolean includeTotal) {
+        try {
+            // 验证用户是否存在，如果不存在则抛出异常
+            validateUser(userId);
+            
+            int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+            LocalDateTime cursorCreatedAt = null;
+            Long cursorId = null;
+            if (cursor != null && !cursor.isBlank()) {
+                String[] position = decodeCursor(cursor);
+                cursorCreatedAt = LocalDateTime.parse(position[0]);
+                cursorId = Long.parseLong(position[1]);
+            }
+            
+            List<Order> orders = orderMapper.selectByUserIdAfterCursor(userId, cursorCreatedAt, cursorId, pageSize + 1);
+            boolean hasMore = orders.size() > pageSize;
+            if (hasMore) {
+                orders = orders.subList(0, pageSize);
+            }
+            String nextCursor = hasMore ? encodeCursor(orders.get(orders.size() - 1)) : null;
+            Long total = includeTotal ? orderMapper.countByUserId(userId) : null;
+            
+            List<OrderResponse> content = orders.stream()
+                    .map(OrderResponse::new)
+                    .collect(Collectors.toList());
+            
+            return new OrderCursorPage(content, nextCursor, hasMore, pageSize, total);
+        } catch (Exception e) {
+            logger.error("游标分页查询用户订单异常", e);
+            throw e;
+        }
+    }
+    
+    /**
+     * 游标编码：将本页最后一条订单的 created_at 和 id 编码为 URL 安全的 Base64 字符串
+     */
+    static String encodeCursor(Order order) {
+        String position = order.getCreatedAt() + "|" + order.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 游标解码，返回 [created_at, id]，游标格式不正确时抛出异常
+     */
+    static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("无效的分页游标: " + cursor);
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的分页游标: " + cursor);
+        }
+    }
+    
     /**
      * 删除订单
      */
     public boolean deleteOrder(Long userId, String orderId) {
-        logger.info("=== OrderService.deleteOrder 入口 ===");
-        logger.info("请求参数 - userId: {}, orderId: {}", userId, orderId);
-        
         try {
             // 验证用户是否存在，如果不存在则抛出异常
             validateUser(userId);
@@ -363,12 +403,9 @@ public class OrderService {
             Order order = orderMapper.selectByUserIdAndOrderId(userId, orderId);
             if (order != null) {
                 orderMapper.deleteByUserIdAndOrderId(userId, orderId);
-                logger.info("=== OrderService.deleteOrder 出口 ===");
-                logger.info("返回结果 - 删除成功");
+                recentOrderCache.invalidate(userId);
                 return true;
             } else {
-                logger.info("=== OrderService.deleteOrder 出口 ===");
-                logger.info("返回结果 - 订单不存在");
                 return false;
             }
         } catch (Exception e) {
@@ -381,9 +418,6 @@ public class OrderService {
      * 更新订单备注
      */
     public OrderResponse updateOrderRemark(Long userId, String orderId, String remark) {
-        logger.info("=== OrderService.updateOrderRemark 入口 ===");
-        logger.info("请求参数 - userId: {}, orderId: {}, remark: {}", userId, orderId, remark);
-        
         try {
             // 验证用户是否存在，如果不存在则抛出异常
             validateUser(userId);
@@ -393,13 +427,10 @@ public class OrderService {
                 order.setRemark(remark);
                 order.onUpdate();
                 orderMapper.updateById(order);
+                recentOrderCache.invalidate(userId);
                 
-                logger.info("=== OrderService.updateOrderRemark 出口 ===");
-                logger.info("返回结果 - 更新成功");
                 return new OrderResponse(order);
             } else {
-                logger.info("=== OrderService.updateOrderRemark 出口 ===");
-                logger.info("返回结果 - 订单不存在");
                 return null;
             }
         } catch (Exception e) {
@@ -412,15 +443,10 @@ public class OrderService {
      * 检查产品库存（兼容原有MCP接口）
      */
     public boolean checkStock(String productName, int quantity) {
-        logger.info("=== OrderService.checkStock 入口 ===");
-        logger.info("请求参数 - productName: {}, quantity: {}", productName, quantity);
-        
         try {
-            // 从数据库查询产品库存
-            boolean available = productMapper.checkStockAvailability(productName, quantity);
-            
-            logger.info("=== OrderService.checkStock 出口 ===");
-            logger.info("返回结果 - available: {}", available);
+            // 产品信息走缓存，库存以内存计数器或数据库为准
+            Product product = productCache.getAvailableProduct(productName);
+            boolean available = product != null && stockReservationService.isAvailable(product, quantity);
             
             return available;
         } catch (Exception e) {
@@ -433,13 +459,8 @@ public class OrderService {
      * 获取所有可用产品
      */
     public List<Product> getAvailableProducts() {
-        logger.info("=== OrderService.getAvailableProducts 入口 ===");
-        
         List<Product> products = productMapper.selectByStatusTrueOrderByName();
         
-        logger.info("=== OrderService.getAvailableProducts 出口 ===");
-        logger.info("返回结果 - 产品总数: {}", products.size());
-        
         return products;
     }
     
@@ -447,13 +468,7 @@ public class OrderService {
      * 根据产品名称获取产品信息
      */
     public Product getProductByName(String productName) {
-        logger.info("=== OrderService.getProductByName 入口 ===");
-        logger.info("请求参数 - productName: {}", productName);
-        
-        Product product = productMapper.selectByNameAndStatus(productName, 1);
-        
-        logger.info("=== OrderService.getProductByName 出口 ===");
-        logger.info("返回结果 - product: {}", product != null ? product.getName() : "null");
+        Product product = productCache.getAvailableProduct(productName);
         
         return product;
     }
@@ -462,13 +477,7 @@ public class OrderService {
      * 验证产品是否存在且可用
      */
     public boolean validateProduct(String productName) {
-        logger.info("=== OrderService.validateProduct 入口 ===");
-        logger.info("请求参数 - productName: {}", productName);
-        
-        boolean exists = productMapper.existsByNameAndStatusTrue(productName);
-        
-        logger.info("=== OrderService.validateProduct 出口 ===");
-        logger.info("返回结果 - exists: {}", exists);
+        boolean exists = productCache.getAvailableProduct(productName) != null;
         
         return exists;
     }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.Order;
+import com.alibaba.cloud.ai.order.mapper.OrderMapper;
+import com.alibaba.cloud.ai.order.model.OrderResponse;
+import com.alibaba.cloud.ai.order.model.OrderSummary;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 订单批量读取服务
+ * 全量订单不再一次性载入内存：MCP 工具通过 MyBatis 流式游标逐行读取，并限制最大行数；
+ * REST 接口按 (created_at, id) 键集分页逐批读取，以 NDJSON 流式输出；整体情况通过数据库聚合得到汇总统计。
+ */
+@Service
+public class OrderStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStreamService.class);
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    /**
+     * 单次导出的最大行数，请求的 limit 超过时按此截断
+     */
+    @Value("${order.stream.max-rows:10000}")
+    private int maxRows;
+
+    /**
+     * NDJSON 导出时每批从数据库读取的行数
+     */
+    @Value("${order.stream.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 汇总统计中返回的热销产品数量
+     */
+    @Value("${order.stream.top-products:5}")
+    private int topProducts;
+
+    /**
+     * 按创建时间倒序流式导出订单，最多 limit 条
+     * 每次下游请求数据时才读取下一批，读取在弹性线程池上执行，不阻塞 Netty 事件循环，也不会长时间占用数据库连接
+     */
+    public Flux<OrderResponse> streamOrders(int limit) {
+        int rowLimit = Math.max(1, Math.min(limit, maxRows));
+        logger.info("流式导出订单 - limit: {}, batchSize: {}", rowLimit, batchSize);
+
+        return Flux.<List<Order>, StreamPosition>generate(StreamPosition::new, (position, sink) -> {
+                    int remaining = rowLimit - position.emitted;
+                    if (position.exhausted || remaining <= 0) {
+                        sink.complete();
+                        return position;
+                    }
+                    int fetchSize = Math.min(batchSize, remaining);
+                    List<Order> batch = orderMapper.selectAllAfterCursor(position.createdAt, position.id, fetchSize);
+                    if (batch.isEmpty()) {
+                        sink.complete();
+                        return position;
+                    }
+                    position.advance(batch, fetchSize);
+                    sink.next(batch);
+                    return position;
+                })
+                .concatMapIterable(batch -> batch)
+                .map(OrderResponse::new)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 通过流式游标按创建时间倒序逐条处理最近的订单，最多 limit 条
+     *
+     * @return 实际处理的订单数
+     */
+    @Transactional(readOnly = true)
+    public int forEachLatest(int limit, Consumer<Order> consumer) {
+        int rowLimit = Math.max(1, Math.min(limit, maxRows));
+        int count = 0;
+        try (Cursor<Order> cursor = orderMapper.selectLatestAsCursor(rowLimit)) {
+            for (Order order : cursor) {
+                consumer.accept(order);
+                count++;
+            }
+        } catch (IOException e) {
+            logger.warn("关闭订单游标失败", e);
+        }
+        return count;
+    }
+
+    /**
+     * 汇总全部订单：订单数、下单用户数、总杯数、总金额、时间范围和热销产品
+     */
+    @Transactional(readOnly = true)
+    public OrderSummary summarize() {
+        OrderSummary summary = orderMapper.selectSummary();
+        summary.setTopProducts(orderMapper.selectTopProducts(Math.max(1, topProducts)));
+        return summary;
+    }
+
+    /**
+     * NDJSON 导出的读取位置，记录上一批最后一条订单
+     */
+    private static final class StreamPosition {
+
+        private LocalDateTime createdAt;
+
+        private Long id;
+
+        private int emitted;
+
+        private boolean exhausted;
+
+        void advance(List<Order> batch, int requested) {
+            Order last = batch.get(batch.size() - 1);
+            this.createdAt = last.getCreatedAt();
+            this.id = last.getId();
+            this.emitted += batch.size();
+            this.exhausted = batch.size() < requested;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.Product;
+import com.alibaba.cloud.ai.order.mapper.ProductMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 产品查询缓存
+ * 按产品名称缓存上架产品（含价格、状态），有效期很短，用于合并同一轮下单中校验、查库存、创建订单对同一产品的重复查询；
+ * 不存在的产品同样缓存，避免反复查询无效名称。缓存中的库存仅供展示，扣减与库存判断以数据库和库存预占服务为准。
+ * 另外维护一份产品ID与名称的目录快照，用于把订单查询中的产品名称关键字解析为产品ID。
+ * 命中、未命中、失效次数与条目数以 order.product.cache.* 指标发布到 Micrometer。
+ */
+@Service
+public class ProductCache implements MeterBinder {
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Value("${order.product-cache.ttl-ms:5000}")
+    private long ttlMillis;
+
+    @Value("${order.product-cache.max-entries:1000}")
+    private int maxEntries;
+
+    /**
+     * 产品名称目录有效期，名称变动很少，可比产品信息缓存更久
+     */
+    @Value("${order.product-cache.catalog-ttl-ms:60000}")
+    private long catalogTtlMillis;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private volatile NameCatalog nameCatalog;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    /**
+     * 按名称获取上架产品，不存在或已下架时返回 null
+     */
+    public Product getAvailableProduct(String productName) {
+        if (productName == null) {
+            return null;
+        }
+        Entry entry = entries.get(productName);
+        if (entry != null && !entry.isExpired(ttlMillis)) {
+            hitCount.incrementAndGet();
+            return entry.product;
+        }
+        missCount.incrementAndGet();
+        Product product = productMapper.selectByNameAndStatus(productName, 1);
+        if (entries.size() >= maxEntries) {
+            evictExpired();
+        }
+        entries.put(productName, new Entry(product));
+        return product;
+    }
+
+    /**
+     * 查找名称包含关键字的全部产品ID（不区分大小写，含已下架产品），用于将订单的产品名称条件转换为产品ID条件
+     */
+    public List<Long> findProductIdsByNameKeyword(String keyword) {
+        NameCatalog catalog = nameCatalog;
+        if (catalog == null || catalog.isExpired(catalogTtlMillis)) {
+            catalog = new NameCatalog(productMapper.selectAllIdAndName());
+            nameCatalog = catalog;
+        }
+        String normalized = keyword.toLowerCase(Locale.ROOT);
+        List<Long> ids = new ArrayList<>();
+        for (Product product : catalog.products) {
+            if (product.getName() != null && product.getName().toLowerCase(Locale.ROOT).contains(normalized)) {
+                ids.add(product.getId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 更新产品并使缓存和内存库存计数器失效，产品信息的修改都应通过该方法进行
+     */
+    public int updateProduct(Product product) {
+        if (product.getUpdatedAt() == null) {
+            product.setUpdatedAt(LocalDateTime.now());
+        }
+        int affected = productMapper.updateById(product);
+        invalidate(product.getId());
+        return affected;
+    }
+
+    /**
+     * 使指定产品的缓存和内存库存计数器失效
+     */
+    public void invalidate(Long productId) {
+        entries.values().removeIf(entry -> entry.product != null && Objects.equals(entry.product.getId(), productId));
+        stockReservationService.invalidate(productId);
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * 清空全部缓存，包括不存在产品的缓存（例如新产品上架后）
+     */
+    public void invalidateAll() {
+        entries.clear();
+        nameCatalog = null;
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * 清理过期条目，仍超过上限时整体清空，防止大量无效名称撑大缓存
+     */
+    private void evictExpired() {
+        entries.values().removeIf(entry -> entry.isExpired(ttlMillis));
+        if (entries.size() >= maxEntries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("order.product.cache.gets", hitCount, AtomicLong::get)
+                .tag("result", "hit")
+                .description("产品缓存命中次数")
+                .register(registry);
+        FunctionCounter.builder("order.product.cache.gets", missCount, AtomicLong::get)
+                .tag("result", "miss")
+                .description("产品缓存未命中次数")
+                .register(registry);
+        FunctionCounter.builder("order.product.cache.invalidations", invalidationCount, AtomicLong::get)
+                .description("产品缓存失效次数")
+                .register(registry);
+        Gauge.builder("order.product.cache.size", entries, Map::size)
+                .description("产品缓存条目数")
+                .register(registry);
+    }
+
+    /**
+     * 缓存统计：命中、未命中、失效次数及当前条目数
+     */
+    public Map<String, Object> stats() {
+        long hits = hitCount.get();
+        long misses = missCount.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("hitCount", hits);
+        stats.put("missCount", misses);
+        stats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("invalidationCount", invalidationCount.get());
+        NameCatalog catalog = nameCatalog;
+        stats.put("catalogSize", catalog == null ? 0 : catalog.products.size());
+        return stats;
+    }
+
+    /**
+     * 缓存条目，product 为 null 表示产品不存在或已下架
+     */
+    private static final class Entry {
+
+        private final Product product;
+
+        private final long loadedAt;
+
+        Entry(Product product) {
+            this.product = product;
+            this.loadedAt = System.currentTimeMillis();
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+
+    /**
+     * 产品ID与名称目录快照
+     */
+    private static final class NameCatalog {
+
+        private final List<Product> products;
+
+        private final long loadedAt;
+
+        NameCatalog(List<Product> products) {
+            this.products = products;
+            this.loadedAt = System.currentTimeMillis();
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
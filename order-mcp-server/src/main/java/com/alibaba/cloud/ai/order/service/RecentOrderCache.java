@@ -0,0 +1,195 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.Order;
+import com.alibaba.cloud.ai.order.mapper.OrderMapper;
+import com.alibaba.cloud.ai.order.model.OrderSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 活跃用户最近订单缓存
+ * 会话期间同一用户往往连续多次按条件查询订单，首次查询时加载该用户最近的订单（按创建时间倒序），
+ * 订单数未超过上限时缓存即为该用户的全部订单，之后的条件查询直接在内存中过滤；订单数超过上限的用户不缓存明细，仍查询数据库。
+ * 本实例内的订单写入在事务结束后使对应用户的缓存失效；其他实例新建或删除的订单通过水位校验发现：
+ * 命中缓存前先读取该用户的订单数与最新创建时间（只读索引），与加载时不一致即重新加载。
+ * 水位无法反映其他实例对已有订单的修改（如备注），这部分由较短的有效期兜底。
+ */
+@Service
+public class RecentOrderCache {
+
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Value("${order.recent-orders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.recent-orders.max-orders-per-user:200}")
+    private int maxOrdersPerUser;
+
+    @Value("${order.recent-orders.max-users:1000}")
+    private int maxUsers;
+
+    @Value("${order.recent-orders.ttl-ms:30000}")
+    private long ttlMillis;
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    /**
+     * 失效代数，加载期间发生过失效时不写入缓存，避免加载到的旧数据覆盖失效结果
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong oversizeCount = new AtomicLong();
+
+    private final AtomicLong staleCount = new AtomicLong();
+
+    /**
+     * 获取用户的全部订单（按创建时间倒序）
+     *
+     * @return 用户订单数未超过上限时返回全部订单；缓存关闭或订单数超过上限时返回 null，由调用方查询数据库
+     */
+    public List<Order> getAllIfComplete(Long userId) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(userId);
+        }
+        if (entry != null && !entry.isExpired(ttlMillis)) {
+            if (entry.orders == null) {
+                // 订单数超过上限，有效期内直接查询数据库，无需校验水位
+                hitCount.incrementAndGet();
+                return null;
+            }
+            if (entry.matches(orderMapper.selectUserOrderWatermark(userId))) {
+                hitCount.incrementAndGet();
+                return entry.orders;
+            }
+            staleCount.incrementAndGet();
+        }
+        missCount.incrementAndGet();
+
+        long loadGeneration = generation.get();
+        List<Order> orders = orderMapper.selectByUserIdAfterCursor(userId, null, null, maxOrdersPerUser + 1);
+        List<Order> cached = orders.size() > maxOrdersPerUser ? null : List.copyOf(orders);
+        if (cached == null) {
+            oversizeCount.incrementAndGet();
+        }
+        synchronized (entries) {
+            if (generation.get() == loadGeneration) {
+                entries.put(userId, new Entry(cached));
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * 使指定用户的缓存失效；处于事务中时在事务结束后再失效一次，防止事务提交前被并发查询重新加载旧数据
+     */
+    public void invalidate(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("enabled", enabled);
+        stats.put("hitCount", hitCount.get());
+        stats.put("missCount", missCount.get());
+        stats.put("oversizeCount", oversizeCount.get());
+        stats.put("staleCount", staleCount.get());
+        return stats;
+    }
+
+    private void evict(Long userId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(userId);
+        }
+    }
+
+    /**
+     * 缓存条目，orders 为 null 表示该用户订单数超过上限，有效期内直接查询数据库
+     */
+    private static final class Entry {
+
+        private final List<Order> orders;
+
+        private final long loadedAt;
+
+        /**
+         * 加载时的最新订单创建时间，订单按创建时间倒序，取第一条即可
+         */
+        private final LocalDateTime lastCreatedAt;
+
+        Entry(List<Order> orders) {
+            this.orders = orders;
+            this.loadedAt = System.currentTimeMillis();
+            this.lastCreatedAt = orders == null || orders.isEmpty() ? null : orders.get(0).getCreatedAt();
+        }
+
+        /**
+         * 当前水位与加载时的订单数、最新创建时间一致时缓存仍然有效
+         */
+        boolean matches(OrderSummary watermark) {
+            return watermark != null
+                    && watermark.getOrderCount() != null
+                    && watermark.getOrderCount() == orders.size()
+                    && Objects.equals(watermark.getLastOrderAt(), lastCreatedAt);
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
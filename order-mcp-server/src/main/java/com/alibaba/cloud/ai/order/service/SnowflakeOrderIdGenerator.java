@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于雪花算法的订单ID生成器
+ * ID 结构：41 位毫秒时间戳 + 10 位节点ID + 12 位序列号，单节点每毫秒可生成 4096 个ID。
+ * 时间戳与序列号保存在同一个 AtomicLong 中，通过 CAS 无锁推进；
+ * 序列号用尽或时钟回拨时借用下一毫秒，保证ID单调递增且不重复。
+ */
+public class SnowflakeOrderIdGenerator implements OrderIdGenerator {
+
+    /**
+     * 起始时间 2025-01-01 00:00:00 UTC
+     */
+    private static final long EPOCH = 1735689600000L;
+
+    private static final int NODE_ID_BITS = 10;
+
+    private static final int SEQUENCE_BITS = 12;
+
+    public static final long MAX_NODE_ID = (1L << NODE_ID_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+
+    /**
+     * 高位为相对时间戳，低 12 位为序列号
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeOrderIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("节点ID必须在 0 到 " + MAX_NODE_ID + " 之间: " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public String nextId() {
+        return ORDER_ID_PREFIX + nextLongId();
+    }
+
+    /**
+     * 生成数值形式的ID
+     */
+    public long nextLongId() {
+        while (true) {
+            long now = System.currentTimeMillis() - EPOCH;
+            long prev = state.get();
+            long prevTimestamp = prev >>> SEQUENCE_BITS;
+
+            long timestamp;
+            long sequence;
+            if (now > prevTimestamp) {
+                timestamp = now;
+                sequence = 0;
+            } else {
+                timestamp = prevTimestamp;
+                sequence = (prev & SEQUENCE_MASK) + 1;
+                if (sequence > SEQUENCE_MASK) {
+                    timestamp++;
+                    sequence = 0;
+                }
+            }
+
+            long next = (timestamp << SEQUENCE_BITS) | sequence;
+            if (state.compareAndSet(prev, next)) {
+                return (timestamp << (NODE_ID_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+}
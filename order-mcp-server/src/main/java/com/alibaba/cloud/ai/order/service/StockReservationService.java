@@ -0,0 +1,188 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.Product;
+import com.alibaba.cloud.ai.order.mapper.ProductMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 库存预占服务
+ * 每个产品维护一个独立的内存库存计数器（按产品分段，互不竞争），通过 CAS 无锁扣减，
+ * 售罄请求直接在内存中拒绝；内存预占成功后再执行数据库条件扣减，数据库结果为最终依据。
+ * 计数器的初始值与重新加载值均取自数据库的最新库存，不使用产品缓存中的库存。
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    /**
+     * 计数器有效期，超过后以数据库最新库存重新加载，避免补货或其他节点扣减造成长期偏差
+     */
+    @Value("${order.stock.counter-ttl-ms:5000}")
+    private long counterTtlMillis;
+
+    private final ConcurrentMap<Long, StockCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 预占库存
+     *
+     * @param product  已查询到的产品，仅使用其ID
+     * @param quantity 需要扣减的数量
+     * @return true 表示预占成功且数据库库存已扣减；false 表示库存不足
+     */
+    public boolean reserve(Product product, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("购买数量必须大于0");
+        }
+        Long productId = product.getId();
+
+        StockCounter counter = acquire(productId, quantity);
+        if (counter == null) {
+            logger.info("内存库存不足，直接拒绝 - productId: {}, quantity: {}", productId, quantity);
+            return false;
+        }
+
+        int affected = productMapper.decreaseStock(productId, quantity);
+        if (affected == 0) {
+            // 数据库库存不足说明内存计数器已过期，丢弃后下次重新加载
+            counters.remove(productId, counter);
+            logger.info("数据库库存不足，预占失败 - productId: {}, quantity: {}", productId, quantity);
+            return false;
+        }
+
+        registerRollbackRelease(counter, quantity);
+        return true;
+    }
+
+    /**
+     * 判断库存是否充足：内存计数器未过期时直接以计数器为准，否则查询数据库
+     */
+    public boolean isAvailable(Product product, int quantity) {
+        StockCounter counter = counters.get(product.getId());
+        if (counter != null && !counter.isExpired(counterTtlMillis)) {
+            return counter.available.get() >= quantity;
+        }
+        return productMapper.checkStockAvailability(product.getName(), quantity);
+    }
+
+    /**
+     * 查询数据库中的最新库存，用于预占失败时的提示信息
+     */
+    public int currentStock(Long productId) {
+        Product product = productMapper.selectById(productId);
+        return product != null && product.getStock() != null ? product.getStock() : 0;
+    }
+
+    /**
+     * 丢弃指定产品的内存计数器，下次预占时按数据库库存重新加载
+     */
+    public void invalidate(Long productId) {
+        counters.remove(productId);
+    }
+
+    /**
+     * 在内存计数器上尝试扣减，失败且计数器已过期时按数据库最新库存重新加载一次；
+     * 数据库查询放在 computeIfAbsent 之外，避免在 ConcurrentHashMap 的桶锁内执行 IO
+     */
+    private StockCounter acquire(Long productId, int quantity) {
+        StockCounter counter = counters.get(productId);
+        if (counter == null) {
+            StockCounter loaded = new StockCounter(currentStock(productId));
+            counter = counters.computeIfAbsent(productId, id -> loaded);
+        }
+        if (counter.tryDecrement(quantity)) {
+            return counter;
+        }
+        if (!counter.isExpired(counterTtlMillis)) {
+            return null;
+        }
+
+        StockCounter reloaded = new StockCounter(currentStock(productId));
+        if (!counters.replace(productId, counter, reloaded)) {
+            // 其他线程已重新加载或已丢弃计数器，使用当前的计数器
+            StockCounter fallback = reloaded;
+            reloaded = counters.computeIfAbsent(productId, id -> fallback);
+        }
+        return reloaded.tryDecrement(quantity) ? reloaded : null;
+    }
+
+    /**
+     * 事务回滚时归还内存库存，数据库侧由事务回滚自动恢复
+     */
+    private void registerRollbackRelease(StockCounter counter, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    counter.release(quantity);
+                }
+            }
+        });
+    }
+
+    /**
+     * 单个产品的内存库存计数器
+     */
+    private static final class StockCounter {
+
+        private final AtomicInteger available;
+
+        private final long loadedAt;
+
+        StockCounter(int stock) {
+            this.available = new AtomicInteger(stock);
+            this.loadedAt = System.currentTimeMillis();
+        }
+
+        boolean tryDecrement(int quantity) {
+            int current;
+            do {
+                current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - quantity));
+            return true;
+        }
+
+        void release(int quantity) {
+            available.addAndGet(quantity);
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.User;
+import com.alibaba.cloud.ai.order.mapper.UserMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 用户校验缓存
+ * 两级校验：第一级为已知用户ID的布隆过滤器，未命中即可确定用户不存在，无需查询数据库；
+ * 第二级为已校验用户的有界 LRU 缓存，命中时直接返回用户信息。
+ * 布隆过滤器启动后首次使用时全量加载，之后以已同步用户的最大创建时间为水位增量补充新用户。
+ * 出现未命中时若距上次同步已超过最小间隔，先增量同步一次（单条查询）再判断；同步间隔内的未命中直接判定为不存在，
+ * 因此其他节点刚创建的用户最多在 min-resync-interval-ms 内不可见；本节点通过 insertUser 写入的用户立即加入过滤器。
+ * 同步失败或过滤器不可用时交由数据库查询兜底。
+ */
+@Service
+public class UserValidationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserValidationCache.class);
+
+    /**
+     * 增量同步时在水位之前多取的时间窗口，覆盖各应用节点之间的时钟偏差以及提交较晚的事务
+     */
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    /**
+     * 表为空时的初始同步起点
+     */
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Value("${order.user-cache.expected-users:100000}")
+    private int expectedUsers;
+
+    @Value("${order.user-cache.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${order.user-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${order.user-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Value("${order.user-cache.min-resync-interval-ms:1000}")
+    private long minResyncIntervalMillis;
+
+    private volatile BloomFilter bloomFilter;
+
+    private int knownUsers;
+
+    /**
+     * 上次同步时从数据库读取的最大创建时间，表为空时为 null
+     */
+    private LocalDateTime syncWatermark;
+
+    /**
+     * 上次同步时间，未命中时先无锁判断是否处于同步间隔内，避免并发的无效ID在同步锁上排队
+     */
+    private volatile long lastSyncAt;
+
+    private final Map<Long, Entry> users = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final AtomicLong bloomRejectCount = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * 查找用户，不存在时返回 null
+     */
+    public User find(Long userId) {
+        if (!mightExist(userId)) {
+            bloomRejectCount.incrementAndGet();
+            return null;
+        }
+        synchronized (users) {
+            Entry entry = users.get(userId);
+            if (entry != null && !entry.isExpired(ttlMillis)) {
+                hitCount.incrementAndGet();
+                return entry.user;
+            }
+        }
+        missCount.incrementAndGet();
+        User user = userMapper.selectById(userId);
+        if (user != null) {
+            // 兜底查询找到了布隆过滤器尚未同步的用户，补充进去
+            BloomFilter current = bloomFilter;
+            if (current != null) {
+                current.add(userId);
+            }
+            synchronized (users) {
+                users.put(userId, new Entry(user));
+            }
+        }
+        return user;
+    }
+
+    /**
+     * 新增用户并加入布隆过滤器，用户写入都应通过该方法或 updateUser 进行
+     */
+    public int insertUser(User user) {
+        int affected = userMapper.insert(user);
+        if (affected > 0 && user.getId() != null) {
+            BloomFilter current = bloomFilter;
+            if (current != null) {
+                current.add(user.getId());
+            }
+            invalidate(user.getId());
+        }
+        return affected;
+    }
+
+    /**
+     * 更新用户并使缓存失效
+     */
+    public int updateUser(User user) {
+        int affected = userMapper.update(user);
+        invalidate(user.getId());
+        return affected;
+    }
+
+    /**
+     * 使指定用户的 LRU 缓存失效；布隆过滤器只增不减，已删除的用户由数据库查询兜底
+     */
+    public void invalidate(Long userId) {
+        synchronized (users) {
+            users.remove(userId);
+        }
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (users) {
+            stats.put("size", users.size());
+        }
+        synchronized (this) {
+            stats.put("knownUsers", knownUsers);
+        }
+        stats.put("bloomRejectCount", bloomRejectCount.get());
+        stats.put("hitCount", hitCount.get());
+        stats.put("missCount", missCount.get());
+        return stats;
+    }
+
+    private boolean mightExist(Long userId) {
+        BloomFilter current = bloomFilter;
+        if (current == null) {
+            current = initialize();
+        }
+        if (current == null) {
+            // 布隆过滤器不可用时不做判断，交由数据库查询
+            return true;
+        }
+        if (current.mightContain(userId)) {
+            return true;
+        }
+        switch (resyncIfStale()) {
+            case FRESH:
+                // 同步间隔内的未命中直接判定为不存在，不再查询数据库
+                return false;
+            case SYNCED:
+                BloomFilter refreshed = bloomFilter;
+                return refreshed == null || refreshed.mightContain(userId);
+            default:
+                // 同步失败，无法确认用户不存在，交由数据库查询
+                return true;
+        }
+    }
+
+    /**
+     * 首次使用时全量加载用户ID
+     */
+    private synchronized BloomFilter initialize() {
+        if (bloomFilter != null) {
+            return bloomFilter;
+        }
+        try {
+            // 先读水位再读数据：两次读取之间创建的用户会在下次增量同步中取到
+            LocalDateTime watermark = userMapper.selectMaxCreatedAt();
+            List<Long> ids = userMapper.selectAllIds();
+            BloomFilter filter = new BloomFilter(Math.max(expectedUsers, ids.size() * 2), falsePositiveRate);
+            ids.forEach(filter::add);
+            knownUsers = ids.size();
+            syncWatermark = watermark;
+            lastSyncAt = System.currentTimeMillis();
+            bloomFilter = filter;
+            logger.info("用户布隆过滤器加载完成，用户数: {}", ids.size());
+            return filter;
+        } catch (Exception e) {
+            logger.warn("用户布隆过滤器加载失败，本次直接查询数据库", e);
+            return null;
+        }
+    }
+
+    /**
+     * 距上次同步超过最小间隔时增量补充新用户
+     */
+    private Sync resyncIfStale() {
+        if (System.currentTimeMillis() - lastSyncAt < minResyncIntervalMillis) {
+            return Sync.FRESH;
+        }
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (now - lastSyncAt < minResyncIntervalMillis) {
+                // 等锁期间其他线程已完成同步
+                return Sync.FRESH;
+            }
+            BloomFilter current = bloomFilter;
+            if (current == null) {
+                return Sync.FAILED;
+            }
+            try {
+                // 水位取自本次查到的用户，而不是另行查询 MAX(created_at)，每次同步只有一条查询
+                List<User> created = userMapper.selectIdsCreatedSince(syncWatermark == null
+                        ? EPOCH : syncWatermark.minusSeconds(SYNC_OVERLAP_SECONDS));
+                for (User user : created) {
+                    current.add(user.getId());
+                    if (user.getCreatedAt() != null
+                            && (syncWatermark == null || user.getCreatedAt().isAfter(syncWatermark))) {
+                        syncWatermark = user.getCreatedAt();
+                    }
+                }
+                // 与上次同步的重叠窗口会重复计数，knownUsers 仅用于估算是否超出容量
+                knownUsers += created.size();
+                lastSyncAt = now;
+                if (knownUsers > current.capacity) {
+                    // 元素数量超过设计容量后误判率上升，下次使用时按新的容量全量重建
+                    bloomFilter = null;
+                }
+                return Sync.SYNCED;
+            } catch (Exception e) {
+                logger.warn("用户布隆过滤器增量同步失败", e);
+                return Sync.FAILED;
+            }
+        }
+    }
+
+    /**
+     * 增量同步结果：FRESH 表示仍在同步间隔内未执行同步，SYNCED 表示已同步，FAILED 表示同步失败
+     */
+    private enum Sync {
+        FRESH, SYNCED, FAILED
+    }
+
+    private static final class Entry {
+
+        private final User user;
+
+        private final long loadedAt;
+
+        Entry(User user) {
+            this.user = user;
+            this.loadedAt = System.currentTimeMillis();
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+
+    /**
+     * 线程安全的布隆过滤器，使用双重哈希生成多个位下标
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+
+        private final long bitCount;
+
+        private final int hashCount;
+
+        private final int capacity;
+
+        BloomFilter(int capacity, double falsePositiveRate) {
+            double p = Math.min(Math.max(falsePositiveRate, 1e-6), 0.5);
+            long m = (long) Math.ceil(-capacity * Math.log(p) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, m);
+            this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.capacity = capacity;
+        }
+
+        void add(long value) {
+            long hash = mix(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+                int word = (int) (index >>> 6);
+                long mask = 1L << (index & 63);
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(long value) {
+            long hash = mix(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((bits.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 64 位混淆函数（SplitMix64），避免连续ID落入相邻位
+         */
+        private static long mix(long value) {
+            long z = value + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 订单节点ID：显式配置优先，生产环境必须配置，由网卡地址推导时候选地址必须唯一
+ */
+class OrderIdGeneratorConfigTest {
+
+    private final OrderIdGeneratorConfig config = new OrderIdGeneratorConfig();
+
+    @Test
+    void usesConfiguredNodeId() {
+        assertThat(config.orderIdGenerator("7", true).nextId()).startsWith("ORDER_");
+    }
+
+    @Test
+    void failsWhenNodeIdIsRequiredButMissing() {
+        assertThatThrownBy(() -> config.orderIdGenerator("", true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("order.id.node-id");
+    }
+
+    @Test
+    void derivesNodeIdFromLowTenBitsOfSingleAddress() throws Exception {
+        assertThat(OrderIdGeneratorConfig.deriveNodeId(List.of(ipv4(10, 0, 3, 7)))).isEqualTo(3 * 256 + 7);
+    }
+
+    @Test
+    void failsWhenAddressesAreAmbiguous() throws Exception {
+        // 业务网卡与 docker 网桥同时存在时无法判断用哪一个
+        List<Inet4Address> addresses = List.of(ipv4(10, 0, 3, 7), ipv4(172, 17, 0, 1));
+
+        assertThatThrownBy(() -> OrderIdGeneratorConfig.deriveNodeId(addresses))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("order.id.node-id");
+    }
+
+    @Test
+    void failsWithoutAnyAddress() {
+        assertThatThrownBy(() -> OrderIdGeneratorConfig.deriveNodeId(List.of()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static Inet4Address ipv4(int a, int b, int c, int d) throws UnknownHostException {
+        return (Inet4Address) InetAddress.getByAddress(new byte[] {(byte) a, (byte) b, (byte) c, (byte) d});
+    }
+}
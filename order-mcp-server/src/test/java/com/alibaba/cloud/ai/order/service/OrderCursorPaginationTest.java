@@ -0,0 +1,172 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.Order;
+import com.alibaba.cloud.ai.order.entity.User;
+import com.alibaba.cloud.ai.order.mapper.OrderMapper;
+import com.alibaba.cloud.ai.order.model.OrderCursorPage;
+import com.alibaba.cloud.ai.order.model.OrderResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 游标编解码往返一致、格式错误的游标被拒绝；按 (created_at, id) 键集翻页在创建时间相同的订单之间不重复、不遗漏，且不统计总数
+ */
+class OrderCursorPaginationTest {
+
+    private static final Long USER_ID = 10000000001L;
+
+    private final List<Order> table = new ArrayList<>();
+
+    private OrderMapper orderMapper;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 10, 0);
+        for (long id = 1; id <= 57; id++) {
+            // 每 4 条订单共用一个创建时间，且 id 与时间顺序交错，覆盖只按时间或只按 id 翻页会出错的情况
+            table.add(order((id * 7) % 57 + 1, base.plusSeconds(id / 4)));
+        }
+        table.add(order(1000L, base.plusSeconds(5).plusNanos(123_456_000)));
+
+        orderMapper = mock(OrderMapper.class);
+        when(orderMapper.selectByUserIdAfterCursor(eq(USER_ID), any(), any(), anyInt())).thenAnswer(invocation -> {
+            LocalDateTime cursorCreatedAt = invocation.getArgument(1);
+            Long cursorId = invocation.getArgument(2);
+            int limit = invocation.getArgument(3);
+            // 与 OrderMapper.selectByUserIdAfterCursor 的 SQL 条件一致：
+            // created_at < #{cursorCreatedAt} OR (created_at = #{cursorCreatedAt} AND id < #{cursorId})
+            return table.stream()
+                    .filter(order -> cursorCreatedAt == null || cursorId == null
+                            || order.getCreatedAt().isBefore(cursorCreatedAt)
+                            || (order.getCreatedAt().isEqual(cursorCreatedAt) && order.getId() < cursorId))
+                    .sorted(newestFirst())
+                    .limit(limit)
+                    .toList();
+        });
+        UserValidationCache userValidationCache = mock(UserValidationCache.class);
+        User user = new User();
+        user.setId(USER_ID);
+        when(userValidationCache.find(USER_ID)).thenReturn(user);
+
+        orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "orderMapper", orderMapper);
+        ReflectionTestUtils.setField(orderService, "userValidationCache", userValidationCache);
+    }
+
+    @Test
+    void cursorRoundTripsCreatedAtAndId() {
+        Order order = order(42L, LocalDateTime.of(2025, 3, 1, 10, 0, 0, 123_456_000));
+        String cursor = OrderService.encodeCursor(order);
+
+        assertThat(cursor).doesNotContain("+", "/", "=");
+        String[] position = OrderService.decodeCursor(cursor);
+        assertThat(LocalDateTime.parse(position[0])).isEqualTo(order.getCreatedAt());
+        assertThat(Long.parseLong(position[1])).isEqualTo(42L);
+
+        // 秒为 0 时 LocalDateTime.toString 省略秒，仍能解析回原值
+        Order onTheMinute = order(7L, LocalDateTime.of(2025, 3, 1, 10, 0));
+        assertThat(LocalDateTime.parse(OrderService.decodeCursor(OrderService.encodeCursor(onTheMinute))[0]))
+                .isEqualTo(onTheMinute.getCreatedAt());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        for (String cursor : List.of("not base64!", encode("2025-03-01T10:00"), encode("2025-03-01T10:00|abc"),
+                encode("yesterday|1"))) {
+            assertThatThrownBy(() -> OrderService.decodeCursor(cursor))
+                    .as("cursor %s", cursor)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("无效的分页游标");
+        }
+        assertThatThrownBy(() -> orderService.getOrdersByUserIdWithCursor(USER_ID, "not base64!", 10, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void seekPagesVisitEveryOrderOnceInOrder() {
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            OrderCursorPage page = orderService.getOrdersByUserIdWithCursor(USER_ID, cursor, 10, false);
+            page.getContent().stream().map(OrderResponse::getId).forEach(visited::add);
+            assertThat(page.getTotal()).isNull();
+            assertThat(page.isHasMore()).isEqualTo(page.getNextCursor() != null);
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        List<Long> expected = table.stream().sorted(newestFirst()).map(Order::getId).toList();
+        assertThat(visited).containsExactlyElementsOf(expected);
+        Set<Long> unique = new HashSet<>(visited);
+        assertThat(unique).hasSize(table.size());
+        assertThat(pages).isEqualTo((table.size() + 9) / 10);
+        verify(orderMapper, never()).countByUserId(anyLong());
+    }
+
+    @Test
+    void totalIsCountedOnlyWhenRequested() {
+        when(orderMapper.countByUserId(USER_ID)).thenReturn((long) table.size());
+
+        OrderCursorPage page = orderService.getOrdersByUserIdWithCursor(USER_ID, null, 10, true);
+
+        assertThat(page.getTotal()).isEqualTo((long) table.size());
+        verify(orderMapper).countByUserId(USER_ID);
+    }
+
+    private static Comparator<Order> newestFirst() {
+        return Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed();
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Order order(Long id, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setId(id);
+        order.setOrderId("ORDER_" + id);
+        order.setUserId(USER_ID);
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+}
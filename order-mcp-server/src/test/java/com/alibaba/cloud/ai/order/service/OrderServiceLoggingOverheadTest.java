@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.alibaba.cloud.ai.order.entity.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 服务方法成功调用时不再输出入口/出口与参数/结果 INFO 日志，耗时由 service.method 计时器记录；
+ * 改动前后的开销对比见 OrderServiceObservabilityBenchmark
+ */
+class OrderServiceLoggingOverheadTest {
+
+    private final Logger serviceLogger = (Logger) LoggerFactory.getLogger(OrderService.class);
+
+    private final ListAppender<ILoggingEvent> captured = new ListAppender<>();
+
+    private Level originalLevel;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("云边茉莉");
+        product.setPrice(new BigDecimal("18.00"));
+        product.setStock(100);
+        product.setStatus(true);
+
+        ProductCache productCache = mock(ProductCache.class);
+        when(productCache.getAvailableProduct(anyString())).thenReturn(product);
+        StockReservationService stockReservationService = mock(StockReservationService.class);
+        when(stockReservationService.isAvailable(any(Product.class), anyInt())).thenReturn(true);
+
+        orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "productCache", productCache);
+        ReflectionTestUtils.setField(orderService, "stockReservationService", stockReservationService);
+
+        originalLevel = serviceLogger.getLevel();
+        serviceLogger.setLevel(Level.INFO);
+        captured.start();
+        serviceLogger.addAppender(captured);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serviceLogger.detachAppender(captured);
+        serviceLogger.setLevel(originalLevel);
+    }
+
+    @Test
+    void successfulCallsEmitNoInfoLogsAtDefaultLevel() {
+        for (int i = 0; i < 1000; i++) {
+            assertThat(orderService.checkStock("云边茉莉", 1)).isTrue();
+            assertThat(orderService.validateProduct("云边茉莉")).isTrue();
+            assertThat(orderService.getProductByName("云边茉莉")).isNotNull();
+        }
+
+        assertThat(captured.list).isEmpty();
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.alibaba.cloud.ai.observability.ObservabilityProperties;
+import com.alibaba.cloud.ai.observability.SqlTimingInterceptor;
+import com.alibaba.cloud.ai.order.entity.Product;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 生产观测模式开销基准测试：同一次 checkStock 调用（含一次产品查询 SQL）在改动前后两种配置下的吞吐
+ * 改动前：入口/参数/出口/结果四行 INFO 日志与 StdOutImpl 逐条 SQL 输出，均同步写出；
+ * 改动后（production profile）：@Timed 经 TimedAspect 代理计时、NoLoggingImpl、SqlTimingInterceptor 按 1% 采样记录 SQL，
+ * 日志经与 logback-production.xml 相同参数的 AsyncAppender 写出。
+ * 日志写入临时文件代替控制台，通过 mvn test -Pbenchmark 运行，结果输出到日志
+ */
+@Tag("benchmark")
+class OrderServiceObservabilityBenchmark {
+
+    private static final org.slf4j.Logger logger = LoggerFactory.getLogger(OrderServiceObservabilityBenchmark.class);
+
+    private static final long DURATION_MILLIS = 1000;
+
+    private static final String SQL = "SELECT * FROM products WHERE name = ? AND status = ?";
+
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+    private final List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+
+    private final List<Logger> loggers = new ArrayList<>();
+
+    @TempDir
+    Path logDir;
+
+    @AfterEach
+    void tearDown() {
+        loggers.forEach(Logger::detachAndStopAllAppenders);
+        appenders.forEach(Appender::stop);
+    }
+
+    @Test
+    void checkStockBeforeAndAfterProductionMode() throws Exception {
+        // 改动前：同步输出的入口/出口日志与 StdOutImpl SQL 输出
+        Logger bannerLogger = logger("before.banner", fileAppender("before.log"));
+        PrintStream stdOut = new PrintStream(new FileOutputStream(logDir.resolve("before-sql.log").toFile()), true,
+                StandardCharsets.UTF_8);
+        OrderService plain = orderService(() -> {
+            stdOut.println("==>  Preparing: " + SQL);
+            stdOut.println("==> Parameters: 云边茉莉(String), 1(Integer)");
+            stdOut.println("<==      Total: 1");
+        });
+        IntConsumer before = i -> {
+            int quantity = i % 5 + 1;
+            bannerLogger.info("=== OrderService.checkStock 入口 ===");
+            bannerLogger.info("请求参数 - productName: {}, quantity: {}", "云边茉莉", quantity);
+            boolean available = plain.checkStock("云边茉莉", quantity);
+            bannerLogger.info("=== OrderService.checkStock 出口 ===");
+            bannerLogger.info("返回结果 - available: {}", available);
+        };
+
+        // 改动后：TimedAspect 代理 + SqlTimingInterceptor 采样日志 + AsyncAppender
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ObservabilityProperties.Sql sqlProperties = new ObservabilityProperties.Sql();
+        sqlProperties.setLogSampleRate(0.01);
+        sqlProperties.setSlowThresholdMillis(200);
+        SqlTimingInterceptor interceptor = new SqlTimingInterceptor(registry, sqlProperties);
+        logger(SqlTimingInterceptor.class.getName(), asyncAppender(fileAppender("after.log")));
+        Invocation query = productQuery();
+        OrderService timed = timedProxy(orderService(() -> {
+            try {
+                interceptor.intercept(query);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }), registry);
+        IntConsumer after = i -> timed.checkStock("云边茉莉", i % 5 + 1);
+
+        // 预热
+        measure(before, 4);
+        measure(after, 4);
+        for (int threads : new int[] {1, 8}) {
+            long beforeOps = measure(before, threads);
+            long afterOps = measure(after, threads);
+            logger.info("threads={}: before {} calls/s ({} ns/call), production mode {} calls/s ({} ns/call)",
+                    threads, beforeOps, nanosPerCall(beforeOps, threads), afterOps, nanosPerCall(afterOps, threads));
+        }
+
+        assertThat(registry.get("service.method").tag("method", "checkStock").timer().count()).isPositive();
+        assertThat(registry.get("mybatis.statement").timer().count()).isPositive();
+        stdOut.close();
+    }
+
+    private static long nanosPerCall(long callsPerSecond, int threads) {
+        return callsPerSecond == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) * threads / callsPerSecond;
+    }
+
+    /**
+     * 返回每秒完成的调用数
+     */
+    private static long measure(IntConsumer call, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        LongAdder calls = new LongAdder();
+        long[] deadline = new long[1];
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    int count = 0;
+                    while (System.nanoTime() < deadline[0]) {
+                        call.accept(count++);
+                    }
+                    calls.add(count);
+                    return null;
+                }));
+            }
+            deadline[0] = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return calls.sum() * 1000 / DURATION_MILLIS;
+    }
+
+    /**
+     * 产品缓存未命中时执行一次产品查询，sql 模拟该查询在两种配置下的日志与计时路径
+     */
+    private static OrderService orderService(Runnable sql) {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("云边茉莉");
+        product.setPrice(new BigDecimal("18.00"));
+        product.setStock(100);
+        product.setStatus(true);
+
+        ProductCache productCache = mock(ProductCache.class);
+        when(productCache.getAvailableProduct(anyString())).thenAnswer(invocation -> {
+            sql.run();
+            return product;
+        });
+        StockReservationService stockReservationService = mock(StockReservationService.class);
+        when(stockReservationService.isAvailable(any(Product.class), anyInt())).thenReturn(true);
+
+        OrderService orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "productCache", productCache);
+        ReflectionTestUtils.setField(orderService, "stockReservationService", stockReservationService);
+        return orderService;
+    }
+
+    /**
+     * 与容器中相同的 @Timed 切面代理
+     */
+    private static OrderService timedProxy(OrderService target, SimpleMeterRegistry registry) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new TimedAspect(registry));
+        return factory.getProxy();
+    }
+
+    private static Invocation productQuery() throws NoSuchMethodException {
+        Configuration configuration = new Configuration();
+        MappedStatement statement = new MappedStatement.Builder(configuration,
+                "com.alibaba.cloud.ai.order.mapper.ProductMapper.selectByNameAndStatus",
+                new StaticSqlSource(configuration, SQL), SqlCommandType.SELECT).build();
+        Method query = Executor.class.getMethod("query", MappedStatement.class, Object.class, RowBounds.class,
+                ResultHandler.class);
+        return new Invocation(mock(Executor.class), query,
+                new Object[] {statement, "云边茉莉", RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER});
+    }
+
+    private Logger logger(String name, Appender<ILoggingEvent> appender) {
+        Logger target = context.getLogger(name);
+        target.setAdditive(false);
+        target.setLevel(Level.INFO);
+        target.addAppender(appender);
+        loggers.add(target);
+        return target;
+    }
+
+    /**
+     * 与控制台相同的格式与同步写出方式
+     */
+    private Appender<ILoggingEvent> fileAppender(String fileName) throws Exception {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %5p [%t] %logger{39} : %m%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(new FileOutputStream(logDir.resolve(fileName).toFile()));
+        appender.start();
+        appenders.add(appender);
+        return appender;
+    }
+
+    /**
+     * 参数与 observability/logback-production.xml 一致
+     */
+    private Appender<ILoggingEvent> asyncAppender(Appender<ILoggingEvent> delegate) {
+        AsyncAppender appender = new AsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(8192);
+        appender.setDiscardingThreshold(20);
+        appender.setIncludeCallerData(false);
+        appender.setNeverBlock(true);
+        appender.addAppender(delegate);
+        appender.start();
+        appenders.add(0, appender);
+        return appender;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.Product;
+import com.alibaba.cloud.ai.order.mapper.ProductMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 产品更新经 updateById 写库后立即失效缓存与库存计数器；命中与未命中发布为 Micrometer 指标
+ */
+class ProductCacheTest {
+
+    private ProductMapper productMapper;
+
+    private StockReservationService stockReservationService;
+
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        productMapper = mock(ProductMapper.class);
+        stockReservationService = mock(StockReservationService.class);
+        when(productMapper.selectByNameAndStatus("云边茉莉", 1)).thenReturn(product(1L, 10));
+
+        cache = new ProductCache();
+        ReflectionTestUtils.setField(cache, "productMapper", productMapper);
+        ReflectionTestUtils.setField(cache, "stockReservationService", stockReservationService);
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "catalogTtlMillis", 60_000L);
+    }
+
+    @Test
+    void updateProductWritesThroughMapperAndInvalidates() {
+        cache.getAvailableProduct("云边茉莉");
+        cache.getAvailableProduct("云边茉莉");
+        verify(productMapper, times(1)).selectByNameAndStatus("云边茉莉", 1);
+
+        when(productMapper.updateById(any())).thenReturn(1);
+        when(productMapper.selectByNameAndStatus("云边茉莉", 1)).thenReturn(product(1L, 50));
+        assertThat(cache.updateProduct(product(1L, 50))).isEqualTo(1);
+
+        verify(productMapper).updateById(any());
+        verify(stockReservationService).invalidate(1L);
+        assertThat(cache.getAvailableProduct("云边茉莉").getStock()).isEqualTo(50);
+        verify(productMapper, times(2)).selectByNameAndStatus("云边茉莉", 1);
+    }
+
+    @Test
+    void hitsAndMissesArePublishedAsMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.getAvailableProduct("云边茉莉");
+        cache.getAvailableProduct("云边茉莉");
+        cache.getAvailableProduct("云边茉莉");
+        cache.invalidate(1L);
+
+        assertThat(registry.get("order.product.cache.gets").tag("result", "hit").functionCounter().count())
+                .isEqualTo(2.0);
+        assertThat(registry.get("order.product.cache.gets").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("order.product.cache.invalidations").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("order.product.cache.size").gauge().value()).isEqualTo(0.0);
+    }
+
+    private static Product product(Long id, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("云边茉莉");
+        product.setStock(stock);
+        return product;
+    }
+}
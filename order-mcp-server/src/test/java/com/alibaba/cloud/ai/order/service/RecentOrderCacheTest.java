@@ -0,0 +1,132 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.Order;
+import com.alibaba.cloud.ai.order.mapper.OrderMapper;
+import com.alibaba.cloud.ai.order.model.OrderSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 命中前校验订单水位：其他实例新建或删除的订单在下一次查询即可见，水位不变时不重新加载
+ */
+class RecentOrderCacheTest {
+
+    private static final Long USER_ID = 10000000001L;
+
+    /**
+     * 模拟订单表，其他实例的写入直接修改该表，不经过本实例的失效逻辑
+     */
+    private final List<Order> table = new CopyOnWriteArrayList<>();
+
+    private OrderMapper orderMapper;
+
+    private RecentOrderCache cache;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 10, 0);
+        for (long id = 1; id <= 3; id++) {
+            table.add(order(id, base.plusMinutes(id)));
+        }
+
+        orderMapper = mock(OrderMapper.class);
+        when(orderMapper.selectByUserIdAfterCursor(eq(USER_ID), isNull(), isNull(), anyInt()))
+                .thenAnswer(invocation -> table.stream()
+                        .sorted(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed())
+                        .limit((int) invocation.getArgument(3))
+                        .toList());
+        when(orderMapper.selectUserOrderWatermark(USER_ID)).thenAnswer(invocation -> {
+            OrderSummary watermark = new OrderSummary();
+            watermark.setOrderCount((long) table.size());
+            watermark.setLastOrderAt(table.stream().map(Order::getCreatedAt).max(LocalDateTime::compareTo)
+                    .orElse(null));
+            return watermark;
+        });
+
+        cache = new RecentOrderCache();
+        ReflectionTestUtils.setField(cache, "orderMapper", orderMapper);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxOrdersPerUser", 200);
+        ReflectionTestUtils.setField(cache, "maxUsers", 100);
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60_000L);
+    }
+
+    @Test
+    void unchangedWatermarkServesFromCache() {
+        assertThat(cache.getAllIfComplete(USER_ID)).hasSize(3);
+        assertThat(cache.getAllIfComplete(USER_ID)).hasSize(3);
+
+        verify(orderMapper, times(1)).selectByUserIdAfterCursor(eq(USER_ID), isNull(), isNull(), anyInt());
+        verify(orderMapper, times(1)).selectUserOrderWatermark(USER_ID);
+    }
+
+    @Test
+    void orderCreatedOnAnotherInstanceIsVisibleOnNextQuery() {
+        cache.getAllIfComplete(USER_ID);
+
+        table.add(order(4L, LocalDateTime.of(2025, 3, 1, 11, 0)));
+
+        assertThat(cache.getAllIfComplete(USER_ID)).extracting(Order::getId).containsExactly(4L, 3L, 2L, 1L);
+        assertThat(cache.stats()).containsEntry("staleCount", 1L);
+    }
+
+    @Test
+    void orderDeletedOnAnotherInstanceIsVisibleOnNextQuery() {
+        cache.getAllIfComplete(USER_ID);
+
+        // 删除较早的订单，最新创建时间不变，由订单数变化发现
+        table.removeIf(order -> order.getId() == 1L);
+
+        assertThat(cache.getAllIfComplete(USER_ID)).extracting(Order::getId).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void oversizedUserSkipsWatermarkCheck() {
+        ReflectionTestUtils.setField(cache, "maxOrdersPerUser", 2);
+
+        assertThat(cache.getAllIfComplete(USER_ID)).isNull();
+        assertThat(cache.getAllIfComplete(USER_ID)).isNull();
+
+        verify(orderMapper, never()).selectUserOrderWatermark(USER_ID);
+    }
+
+    private static Order order(Long id, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(USER_ID);
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 订单ID生成吞吐基准测试：不同线程数、不同节点数（每个节点一个生成器）下每秒生成的ID数
+ * 通过 mvn test -Pbenchmark 运行，结果输出到日志
+ */
+@Tag("benchmark")
+class SnowflakeOrderIdGeneratorBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeOrderIdGeneratorBenchmark.class);
+
+    private static final long DURATION_MILLIS = 1000;
+
+    @Test
+    void throughputAcrossThreadsAndNodes() throws Exception {
+        // 预热
+        measure(1, 4);
+        for (int nodes : new int[] {1, 4}) {
+            for (int threads : new int[] {1, 4, 16, 64}) {
+                long idsPerSecond = measure(nodes, threads);
+                logger.info("nodes={}, threads per node={}: {} ids/s", nodes, threads, idsPerSecond);
+            }
+        }
+    }
+
+    private static long measure(int nodes, int threadsPerNode) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(nodes * threadsPerNode);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        LongAdder generated = new LongAdder();
+        long[] deadline = new long[1];
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int node = 0; node < nodes; node++) {
+                SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(node);
+                for (int thread = 0; thread < threadsPerNode; thread++) {
+                    futures.add(executor.submit(() -> {
+                        startSignal.await();
+                        long count = 0;
+                        while (System.nanoTime() < deadline[0]) {
+                            generator.nextLongId();
+                            count++;
+                        }
+                        generated.add(count);
+                        return null;
+                    }));
+                }
+            }
+            deadline[0] = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return generated.sum() * 1000 / DURATION_MILLIS;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 雪花订单ID：多线程、多节点并发生成不重复，同一节点内单调递增
+ */
+class SnowflakeOrderIdGeneratorTest {
+
+    private static final int NODES = 4;
+
+    private static final int THREADS_PER_NODE = 8;
+
+    private static final int IDS_PER_THREAD = 20_000;
+
+    @Test
+    void idsAreUniqueAcrossThreadsAndNodes() throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int node = 0; node < NODES; node++) {
+                SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(node);
+                for (int thread = 0; thread < THREADS_PER_NODE; thread++) {
+                    futures.add(executor.submit(() -> {
+                        startSignal.await();
+                        for (int i = 0; i < IDS_PER_THREAD; i++) {
+                            ids.add(generator.nextLongId());
+                        }
+                        return null;
+                    }));
+                }
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(NODES * THREADS_PER_NODE * IDS_PER_THREAD);
+    }
+
+    @Test
+    void idsOfOneNodeAreMonotonicAndCarryTheNodeId() {
+        SnowflakeOrderIdGenerator generator = new SnowflakeOrderIdGenerator(513);
+        long previous = -1;
+        // 超过单毫秒 4096 个序列号，覆盖借用下一毫秒的分支
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextLongId();
+            assertThat(id).isGreaterThan(previous);
+            assertThat((id >>> 12) & SnowflakeOrderIdGenerator.MAX_NODE_ID).isEqualTo(513);
+            previous = id;
+        }
+        assertThat(generator.nextId()).startsWith(OrderIdGenerator.ORDER_ID_PREFIX);
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new SnowflakeOrderIdGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SnowflakeOrderIdGenerator(SnowflakeOrderIdGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
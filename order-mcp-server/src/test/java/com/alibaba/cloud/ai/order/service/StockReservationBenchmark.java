@@ -0,0 +1,183 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.Product;
+import com.alibaba.cloud.ai.order.mapper.ProductMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 库存预占基准测试：单个热点 SKU 上并发下单，对比直接条件扣减数据库与先经内存计数器预占两条路径的吞吐
+ * 通过 mvn test -Pbenchmark 运行，结果输出到日志
+ */
+@Tag("benchmark")
+class StockReservationBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationBenchmark.class);
+
+    private static final long PRODUCT_ID = 1L;
+
+    private static final int INITIAL_STOCK = 500;
+
+    private static final int ORDERS = 4000;
+
+    private static final int THREADS = 64;
+
+    private static final int WARMUP_ROUNDS = 2;
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * 模拟数据库中的库存行，条件扣减在行锁内执行并带有固定耗时
+     */
+    private final AtomicInteger dbStock = new AtomicInteger();
+
+    private final AtomicInteger dbDecreaseCalls = new AtomicInteger();
+
+    @Test
+    void databaseOnlyVersusReservation() throws Exception {
+        ProductMapper productMapper = productMapper();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            databaseOnlyRound(productMapper);
+            reservationRound(productMapper);
+        }
+
+        long[] databaseOnly = new long[ROUNDS];
+        long[] reservation = new long[ROUNDS];
+        int databaseOnlyCalls = 0;
+        int reservationCalls = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            databaseOnly[i] = databaseOnlyRound(productMapper);
+            databaseOnlyCalls = dbDecreaseCalls.get();
+            reservation[i] = reservationRound(productMapper);
+            reservationCalls = dbDecreaseCalls.get();
+        }
+
+        logger.info("{} orders / {} threads on one SKU with stock {}: database only {} orders/s ({} db decrements), "
+                        + "reservation {} orders/s ({} db decrements)", ORDERS, THREADS, INITIAL_STOCK,
+                Math.round(ORDERS / (median(databaseOnly) / 1e9)), databaseOnlyCalls,
+                Math.round(ORDERS / (median(reservation) / 1e9)), reservationCalls);
+    }
+
+    private long databaseOnlyRound(ProductMapper productMapper) throws Exception {
+        reset();
+        long start = System.nanoTime();
+        int succeeded = runConcurrently(() -> productMapper.decreaseStock(PRODUCT_ID, 1) > 0);
+        long elapsed = System.nanoTime() - start;
+        assertThat(succeeded).isEqualTo(INITIAL_STOCK);
+        return elapsed;
+    }
+
+    private long reservationRound(ProductMapper productMapper) throws Exception {
+        reset();
+        StockReservationService service = new StockReservationService();
+        ReflectionTestUtils.setField(service, "productMapper", productMapper);
+        ReflectionTestUtils.setField(service, "counterTtlMillis", 60_000L);
+
+        long start = System.nanoTime();
+        int succeeded = runConcurrently(() -> service.reserve(product(INITIAL_STOCK), 1));
+        long elapsed = System.nanoTime() - start;
+        assertThat(succeeded).isEqualTo(INITIAL_STOCK);
+        return elapsed;
+    }
+
+    private void reset() {
+        dbStock.set(INITIAL_STOCK);
+        dbDecreaseCalls.set(0);
+    }
+
+    private ProductMapper productMapper() {
+        ProductMapper productMapper = mock(ProductMapper.class);
+        when(productMapper.decreaseStock(anyLong(), anyInt())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            dbDecreaseCalls.incrementAndGet();
+            synchronized (dbStock) {
+                LockSupport.parkNanos(100_000);
+                if (dbStock.get() < quantity) {
+                    return 0;
+                }
+                dbStock.addAndGet(-quantity);
+                return 1;
+            }
+        });
+        when(productMapper.selectById(anyLong())).thenAnswer(invocation -> product(dbStock.get()));
+        return productMapper;
+    }
+
+    private int runConcurrently(ReserveCall call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < ORDERS; i++) {
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    if (call.reserve()) {
+                        succeeded.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return succeeded.get();
+    }
+
+    private static double median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static Product product(int stock) {
+        Product product = new Product("云边茉莉", "测试产品", null, stock);
+        product.setId(PRODUCT_ID);
+        return product;
+    }
+
+    @FunctionalInterface
+    private interface ReserveCall {
+        boolean reserve();
+    }
+}
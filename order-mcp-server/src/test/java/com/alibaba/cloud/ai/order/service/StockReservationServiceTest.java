@@ -0,0 +1,160 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.Product;
+import com.alibaba.cloud.ai.order.mapper.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 库存预占并发测试：单个 SKU 上并发下单不超卖，且售罄后的请求不再访问数据库
+ */
+class StockReservationServiceTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    private static final int INITIAL_STOCK = 500;
+
+    private static final int ORDERS = 4000;
+
+    private static final int THREADS = 64;
+
+    /**
+     * 模拟数据库中的库存行，条件扣减在行锁内执行并带有固定耗时
+     */
+    private final AtomicInteger dbStock = new AtomicInteger(INITIAL_STOCK);
+
+    private final AtomicInteger dbDecreaseCalls = new AtomicInteger();
+
+    private ProductMapper productMapper;
+
+    private StockReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        productMapper = mock(ProductMapper.class);
+        when(productMapper.decreaseStock(anyLong(), anyInt())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            dbDecreaseCalls.incrementAndGet();
+            synchronized (dbStock) {
+                LockSupport.parkNanos(100_000);
+                if (dbStock.get() < quantity) {
+                    return 0;
+                }
+                dbStock.addAndGet(-quantity);
+                return 1;
+            }
+        });
+        when(productMapper.selectById(anyLong())).thenAnswer(invocation -> product(dbStock.get()));
+
+        service = new StockReservationService();
+        ReflectionTestUtils.setField(service, "productMapper", productMapper);
+        ReflectionTestUtils.setField(service, "counterTtlMillis", 60_000L);
+    }
+
+    @Test
+    void concurrentOrdersNeverOversell() throws Exception {
+        int succeeded = runConcurrently(() -> service.reserve(product(INITIAL_STOCK), 1));
+
+        assertThat(succeeded).isEqualTo(INITIAL_STOCK);
+        assertThat(dbStock.get()).isZero();
+        // 售罄后的请求在内存计数器上被拒绝，数据库只承受成功的扣减
+        assertThat(dbDecreaseCalls.get()).isEqualTo(INITIAL_STOCK);
+    }
+
+    @Test
+    void rejectsWhenQuantityExceedsStock() {
+        assertThat(service.reserve(product(INITIAL_STOCK), INITIAL_STOCK + 1)).isFalse();
+        assertThat(dbStock.get()).isEqualTo(INITIAL_STOCK);
+    }
+
+    @Test
+    void seedsCounterFromDatabaseInsteadOfCachedProduct() {
+        // 产品缓存中的库存已过时（显示售罄），数据库中实际仍有库存
+        assertThat(service.reserve(product(0), 1)).isTrue();
+        assertThat(dbStock.get()).isEqualTo(INITIAL_STOCK - 1);
+        assertThat(service.currentStock(PRODUCT_ID)).isEqualTo(INITIAL_STOCK - 1);
+    }
+
+    @Test
+    void expiredCounterReloadsFromDatabase() {
+        ReflectionTestUtils.setField(service, "counterTtlMillis", 0L);
+        dbStock.set(1);
+        assertThat(service.reserve(product(INITIAL_STOCK), 1)).isTrue();
+        assertThat(service.reserve(product(INITIAL_STOCK), 1)).isFalse();
+
+        // 补货后计数器过期，按数据库最新库存重新加载
+        dbStock.set(5);
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2));
+        assertThat(service.reserve(product(0), 1)).isTrue();
+        assertThat(dbStock.get()).isEqualTo(4);
+    }
+
+    private int runConcurrently(ReserveCall call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < ORDERS; i++) {
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    if (call.reserve()) {
+                        succeeded.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return succeeded.get();
+    }
+
+    private static Product product(int stock) {
+        Product product = new Product("云边茉莉", "测试产品", null, stock);
+        product.setId(PRODUCT_ID);
+        return product;
+    }
+
+    @FunctionalInterface
+    private interface ReserveCall {
+        boolean reserve();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.User;
+import com.alibaba.cloud.ai.order.mapper.UserMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongPredicate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户校验吞吐基准测试：每次 selectById 与两级缓存（布隆过滤器 + LRU）在不同线程数下每秒完成的校验数及数据库查询数
+ * 数据库查询以固定延迟模拟一次网络往返；请求中 90% 来自活跃用户，10% 为不存在的用户ID
+ * 通过 mvn test -Pbenchmark 运行，结果输出到日志
+ */
+@Tag("benchmark")
+class UserValidationCacheBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserValidationCacheBenchmark.class);
+
+    private static final long DB_LATENCY_NANOS = TimeUnit.MICROSECONDS.toNanos(300);
+
+    private static final long DURATION_MILLIS = 1000;
+
+    private static final int USERS = 100_000;
+
+    private static final int ACTIVE_USERS = 2_000;
+
+    private static final long FIRST_USER_ID = 10_000_000_000L;
+
+    private final LongAdder queries = new LongAdder();
+
+    @Test
+    void validationThroughput() throws Exception {
+        UserMapper userMapper = userMapper();
+        UserValidationCache cache = new UserValidationCache();
+        ReflectionTestUtils.setField(cache, "userMapper", userMapper);
+        ReflectionTestUtils.setField(cache, "expectedUsers", USERS);
+        ReflectionTestUtils.setField(cache, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(cache, "maxEntries", 10_000);
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(cache, "minResyncIntervalMillis", 1000L);
+
+        // 预热，同时完成布隆过滤器全量加载
+        measure(id -> userMapper.selectById(id) != null, 4);
+        measure(id -> cache.find(id) != null, 4);
+        for (int threads : new int[] {1, 8, 32}) {
+            long[] direct = measure(id -> userMapper.selectById(id) != null, threads);
+            long[] cached = measure(id -> cache.find(id) != null, threads);
+            logger.info("threads={}: selectById {} validations/s ({} queries/s), cache {} validations/s ({} queries/s)",
+                    threads, direct[0], direct[1], cached[0], cached[1]);
+        }
+    }
+
+    /**
+     * 返回每秒校验数与每秒数据库查询数
+     */
+    private long[] measure(LongPredicate validator, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        LongAdder validations = new LongAdder();
+        long[] deadline = new long[1];
+        queries.reset();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    startSignal.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long count = 0;
+                    while (System.nanoTime() < deadline[0]) {
+                        long id = random.nextInt(10) == 0
+                                ? FIRST_USER_ID + USERS + random.nextLong(1_000_000_000L)
+                                : FIRST_USER_ID + random.nextInt(ACTIVE_USERS);
+                        validator.test(id);
+                        count++;
+                    }
+                    validations.add(count);
+                    return null;
+                }));
+            }
+            deadline[0] = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+            startSignal.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new long[] {validations.sum() * 1000 / DURATION_MILLIS, queries.sum() * 1000 / DURATION_MILLIS};
+    }
+
+    private UserMapper userMapper() {
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        List<Long> ids = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            ids.add(FIRST_USER_ID + i);
+        }
+        UserMapper userMapper = mock(UserMapper.class);
+        when(userMapper.selectById(anyLong())).thenAnswer(invocation -> {
+            queryDatabase();
+            long id = invocation.getArgument(0);
+            if (id < FIRST_USER_ID || id >= FIRST_USER_ID + USERS) {
+                return null;
+            }
+            User user = new User();
+            user.setId(id);
+            user.setCreatedAt(createdAt);
+            return user;
+        });
+        when(userMapper.selectAllIds()).thenAnswer(invocation -> {
+            queryDatabase();
+            return ids;
+        });
+        when(userMapper.selectMaxCreatedAt()).thenAnswer(invocation -> {
+            queryDatabase();
+            return createdAt;
+        });
+        when(userMapper.selectIdsCreatedSince(any())).thenAnswer(invocation -> {
+            queryDatabase();
+            return List.of();
+        });
+        return userMapper;
+    }
+
+    private void queryDatabase() {
+        queries.increment();
+        LockSupport.parkNanos(DB_LATENCY_NANOS);
+    }
+}
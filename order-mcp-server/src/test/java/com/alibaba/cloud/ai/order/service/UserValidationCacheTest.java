@@ -0,0 +1,194 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.order.service;
+
+import com.alibaba.cloud.ai.order.entity.User;
+import com.alibaba.cloud.ai.order.mapper.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 布隆过滤器不产生假阴性；增量同步以已同步用户的创建时间为水位，同步间隔内的未命中直接判定为不存在，用户写入立即生效
+ */
+class UserValidationCacheTest {
+
+    /**
+     * 模拟用户表：用户ID到创建时间（由写入节点的本地时钟生成）
+     */
+    private final Map<Long, LocalDateTime> table = new ConcurrentHashMap<>();
+
+    private UserMapper userMapper;
+
+    private UserValidationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        userMapper = mock(UserMapper.class);
+        when(userMapper.selectAllIds()).thenAnswer(invocation -> new ArrayList<>(table.keySet()));
+        when(userMapper.selectMaxCreatedAt()).thenAnswer(invocation ->
+                table.values().stream().max(LocalDateTime::compareTo).orElse(null));
+        when(userMapper.selectIdsCreatedSince(any())).thenAnswer(invocation -> {
+            LocalDateTime since = invocation.getArgument(0);
+            return table.entrySet().stream()
+                    .filter(entry -> !entry.getValue().isBefore(since))
+                    .map(entry -> user(entry.getKey(), entry.getValue()))
+                    .toList();
+        });
+        when(userMapper.selectById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return table.containsKey(id) ? user(id, table.get(id)) : null;
+        });
+
+        cache = new UserValidationCache();
+        ReflectionTestUtils.setField(cache, "userMapper", userMapper);
+        ReflectionTestUtils.setField(cache, "expectedUsers", 1000);
+        ReflectionTestUtils.setField(cache, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(cache, "minResyncIntervalMillis", 0L);
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegatives() {
+        UserValidationCache.BloomFilter filter = new UserValidationCache.BloomFilter(100_000, 0.01);
+        Random random = new Random(7);
+        Set<Long> added = new HashSet<>();
+        while (added.size() < 100_000) {
+            // 与线上一致的 11 位随机用户ID
+            added.add(10_000_000_000L + (long) (random.nextDouble() * 89_999_999_999L));
+        }
+        added.forEach(filter::add);
+
+        for (long id : added) {
+            assertThat(filter.mightContain(id)).as("id %d", id).isTrue();
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            long id = 100_000_000_000L + i;
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / (double) probes).isLessThan(0.02);
+    }
+
+    @Test
+    void userCreatedWithSkewedClockIsFoundAfterResync() {
+        table.put(10000000001L, LocalDateTime.now());
+        assertThat(cache.find(10000000001L)).isNotNull();
+
+        // 另一节点时钟慢 30 秒，新用户的创建时间早于本节点上次同步的时间
+        table.put(10000000002L, LocalDateTime.now().minusSeconds(30));
+
+        assertThat(cache.find(10000000002L)).isNotNull();
+    }
+
+    @Test
+    void missWithinResyncIntervalIsRejectedWithoutAnyQuery() {
+        ReflectionTestUtils.setField(cache, "minResyncIntervalMillis", 60_000L);
+        table.put(10000000001L, LocalDateTime.now());
+        cache.find(10000000001L);
+
+        for (long id = 99999999000L; id < 99999999100L; id++) {
+            assertThat(cache.find(id)).isNull();
+        }
+        verify(userMapper, never()).selectById(99999999050L);
+        verify(userMapper, never()).selectIdsCreatedSince(any());
+    }
+
+    @Test
+    void unknownUserIsRejectedAfterOneResyncQuery() {
+        table.put(10000000001L, LocalDateTime.now());
+        cache.find(10000000001L);
+
+        assertThat(cache.find(99999999999L)).isNull();
+        verify(userMapper, never()).selectById(99999999999L);
+        verify(userMapper, times(1)).selectIdsCreatedSince(any());
+        // 水位只在全量加载时读取一次，增量同步不再单独查询
+        verify(userMapper, times(1)).selectMaxCreatedAt();
+    }
+
+    @Test
+    void resyncFailureFallsBackToDatabase() {
+        table.put(10000000001L, LocalDateTime.now());
+        cache.find(10000000001L);
+        when(userMapper.selectIdsCreatedSince(any())).thenThrow(new IllegalStateException("db down"));
+
+        table.put(10000000003L, LocalDateTime.now());
+        assertThat(cache.find(10000000003L)).isNotNull();
+        verify(userMapper, times(1)).selectById(10000000003L);
+    }
+
+    @Test
+    void insertedUserIsVisibleImmediatelyWithinResyncInterval() {
+        ReflectionTestUtils.setField(cache, "minResyncIntervalMillis", 60_000L);
+        table.put(10000000001L, LocalDateTime.now());
+        cache.find(10000000001L);
+        when(userMapper.insert(any())).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            table.put(user.getId(), user.getCreatedAt());
+            return 1;
+        });
+
+        cache.insertUser(user(10000000004L, LocalDateTime.now()));
+
+        assertThat(cache.find(10000000004L)).isNotNull();
+        verify(userMapper, never()).selectIdsCreatedSince(any());
+    }
+
+    @Test
+    void updatedUserIsReloaded() {
+        table.put(10000000001L, LocalDateTime.now());
+        cache.find(10000000001L);
+        cache.find(10000000001L);
+        verify(userMapper, times(1)).selectById(10000000001L);
+
+        cache.updateUser(user(10000000001L, table.get(10000000001L)));
+
+        cache.find(10000000001L);
+        verify(userMapper).update(any());
+        verify(userMapper, times(2)).selectById(10000000001L);
+    }
+
+    private static User user(Long id, LocalDateTime createdAt) {
+        User user = new User();
+        user.setId(id);
+        user.setCreatedAt(createdAt);
+        user.setUsername("user-" + id);
+        return user;
+    }
+}
@@ -18,8 +18,10 @@ package com.alibaba.cloud.ai.demo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SupervisorAgentApplication
 {
     public static void main( String[] args )
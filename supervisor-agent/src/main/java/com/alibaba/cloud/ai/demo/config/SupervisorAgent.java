@@ -16,6 +16,8 @@
 
 package com.alibaba.cloud.ai.demo.config;
 
+import com.alibaba.cloud.ai.demo.service.SubAgentCardRegistry;
+import com.alibaba.cloud.ai.graph.CompileConfig;
 import com.alibaba.cloud.ai.graph.KeyStrategy;
 import com.alibaba.cloud.ai.graph.KeyStrategyFactory;
 import com.alibaba.cloud.ai.graph.agent.a2a.A2aRemoteAgent;
@@ -41,11 +43,33 @@ public class SupervisorAgent {
     @Autowired
     private SupervisorAgentPromptConfig promptConfig;
 
+    @Bean
+    public A2aRemoteAgent consultAgent(SubAgentCardRegistry cardRegistry, CompileConfig compileConfig)
+            throws Exception {
+        return remoteAgent(cardRegistry.cardProvider(), compileConfig, "consult_agent", "处理奶茶相关产品、活动等咨询问题");
+    }
+
+    @Bean
+    public A2aRemoteAgent feedbackAgent(SubAgentCardRegistry cardRegistry, CompileConfig compileConfig)
+            throws Exception {
+        return remoteAgent(cardRegistry.cardProvider(), compileConfig, "feedback_agent", "云边奶茶铺反馈处理助手");
+    }
+
+    @Bean
+    public A2aRemoteAgent orderAgent(SubAgentCardRegistry cardRegistry, CompileConfig compileConfig)
+            throws Exception {
+        return remoteAgent(cardRegistry.cardProvider(), compileConfig, "order_agent", "云边奶茶铺智能订单处理助手");
+    }
+
     @Bean
     public LlmRoutingAgent supervisorAgentBean(ChatModel chatModel,
                                                @Autowired
                                                //@Qualifier("nacosAgentCardProvider")
-                                               AgentCardProvider agentCardProvider) throws Exception {
+                                               AgentCardProvider agentCardProvider,
+                                               @Qualifier("consultAgent") A2aRemoteAgent consultAgent,
+                                               @Qualifier("feedbackAgent") A2aRemoteAgent feedbackAgent,
+                                               @Qualifier("orderAgent") A2aRemoteAgent orderAgent,
+                                               CompileConfig compileConfig) throws Exception {
         logger.info("agent card provider: {}", agentCardProvider);
 
         KeyStrategyFactory stateFactory = () -> {
@@ -57,42 +81,6 @@ public class SupervisorAgent {
             return keyStrategyHashMap;
         };
 
-        AgentCard consultAgentCard = agentCardProvider.getAgentCard("consult_agent").getAgentCard();
-        if (consultAgentCard != null) {
-            logger.info("consult agent card info: {}", consultAgentCard);
-        } else {
-            logger.warn("consult agent card not found!");
-        }
-        A2aRemoteAgent consultAgent = A2aRemoteAgent.builder()
-                .name("consult_agent")
-                .agentCardProvider(agentCardProvider)
-                .description("处理奶茶相关产品、活动等咨询问题")
-                .build();
-
-        AgentCard feedbackAgentCard = agentCardProvider.getAgentCard("feedback_agent").getAgentCard();
-        if (feedbackAgentCard != null) {
-            logger.info("feedback agent card info: {}", feedbackAgentCard);
-        } else {
-            logger.warn("feedback agent card not found!");
-        }
-        A2aRemoteAgent feedbackAgent = A2aRemoteAgent.builder()
-                .name("feedback_agent")
-                .agentCardProvider(agentCardProvider)
-                .description("云边奶茶铺反馈处理助手")
-                .build();
-
-        AgentCard orderAgentCard = agentCardProvider.getAgentCard("order_agent").getAgentCard();
-        if (orderAgentCard != null) {
-            logger.info("order agent card info: {}", orderAgentCard);
-        } else {
-            logger.warn("order agent card not found!");
-        }
-        A2aRemoteAgent orderAgent = A2aRemoteAgent.builder()
-                .name("order_agent")
-                .agentCardProvider(agentCardProvider)
-                .description("云边奶茶铺智能订单处理助手")
-                .build();
-
         logger.info("supervisor_agent initialized with A2A client service");
         
         try {
@@ -104,10 +92,33 @@ public class SupervisorAgent {
                     .inputKey("input")
                     .outputKey("messages")
                     .subAgents(List.of(consultAgent, feedbackAgent, orderAgent))
+                    .compileConfig(compileConfig)
                     .build();
         } catch (Exception e) {
             logger.error("Failed to create LlmRoutingAgent: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to initialize supervisor agent", e);
         }
     }
+
+    /**
+     * 创建 A2A 远程子智能体；子智能体同时作为 LlmRoutingAgent 的路由目标和快速路由的直连目标，
+     * AgentCard 由 SubAgentCardRegistry 缓存并在多个实例间负载均衡；
+     * 使用与监督者相同的 compileConfig，快速路由直接编译的子图也写入检查点存储，
+     * 会话 ID 由 SupervisorAgentController 按 chat_id 和子智能体名称区分，不与监督者图的状态混用
+     */
+    private A2aRemoteAgent remoteAgent(AgentCardProvider agentCardProvider, CompileConfig compileConfig, String name,
+                                       String description) throws Exception {
+        AgentCard agentCard = agentCardProvider.getAgentCard(name).getAgentCard();
+        if (agentCard != null) {
+            logger.info("{} card info: {}", name, agentCard);
+        } else {
+            logger.warn("{} card not found!", name);
+        }
+        return A2aRemoteAgent.builder()
+                .name(name)
+                .agentCardProvider(agentCardProvider)
+                .description(description)
+                .compileConfig(compileConfig)
+                .build();
+    }
 }
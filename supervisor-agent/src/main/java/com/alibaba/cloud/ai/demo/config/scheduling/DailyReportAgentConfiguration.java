@@ -25,16 +25,20 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.alibaba.cloud.ai.demo.entity.Feedback;
-import com.alibaba.cloud.ai.demo.entity.Order;
+import com.alibaba.cloud.ai.demo.entity.OrderSummary;
 import com.alibaba.cloud.ai.demo.entity.Product;
+import com.alibaba.cloud.ai.demo.entity.ProductSalesStat;
+import com.alibaba.cloud.ai.demo.entity.RatingCount;
 import com.alibaba.cloud.ai.demo.mapper.FeedbackMapper;
 import com.alibaba.cloud.ai.demo.mapper.OrderMapper;
-import com.alibaba.cloud.ai.demo.mapper.ProductMapper;
+import com.alibaba.cloud.ai.demo.service.ProductDimensionCache;
 import com.alibaba.cloud.ai.graph.CompiledGraph;
 import com.alibaba.cloud.ai.graph.KeyStrategy;
 import com.alibaba.cloud.ai.graph.StateGraph;
@@ -48,6 +52,7 @@ import com.xxl.job.core.util.GsonTool;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -64,9 +69,17 @@ import static com.alibaba.cloud.ai.graph.action.AsyncNodeAction.node_async;
 @Configuration
 public class DailyReportAgentConfiguration {
 
+	/**
+	 * 日报中提供给模型分析的评价原文最大条数
+	 */
+	private static final int FEEDBACK_SAMPLE_LIMIT = 200;
+
 	@Value("${agent.dingtalk.access-token}")
 	private String accessToken;
 
+	@Autowired
+	private DingWebhookClient dingWebhookClient;
+
 	private static final String DAILY_REPORT = """
 			你是一个经营日报助手，能根据用户提供的核心数据信息进行分析总结，并按指定格式生成对应报告。
 			
@@ -149,7 +162,7 @@ public class DailyReportAgentConfiguration {
 	public CompiledGraph dailyReportAgent(ChatModel chatModel,
 												 FeedbackMapper feedbackMapper,
 												 OrderMapper orderMapper,
-												 ProductMapper productMapper
+												 ProductDimensionCache productDimensionCache
 	) throws GraphStateException {
 
 		ChatClient chatClient = ChatClient.builder(chatModel).defaultAdvisors(new SimpleLoggerAdvisor()).build();
@@ -184,33 +197,35 @@ public class DailyReportAgentConfiguration {
 
 					
 					String content = "";
-					List<Feedback> list = feedbackMapper.selectByTimeRange(startTime, endTime);
+					// 评价原文仅用于模型分析，只取最近的部分记录；统计数据全部由数据库聚合
+					List<Feedback> list = feedbackMapper.selectLatestByTimeRange(startTime, endTime, FEEDBACK_SAMPLE_LIMIT);
 					List<String> feedbacks = list.stream().map(Feedback::toFormattedString).toList();
-					// 计算好评差评中评比例，5分属于好评，4～3分属于中评价，3分以下属于差评
-					// Filter out feedbacks with null ratings
-					List<Feedback> validFeedbacks = list.stream()
-							.filter(f -> f.getRating() != null)
-							.collect(Collectors.toList());
 					content += "用户评价反馈信息：\n" + feedbacks.stream().collect(Collectors.joining("\n"));
+
+					// 计算好评差评中评比例，5分属于好评，4～3分属于中评价，3分以下属于差评
+					// Calculate rating distribution (1-5 stars)
+					long[] ratingDistribution = new long[5];
+					for (RatingCount ratingCount : feedbackMapper.countByRatingAndTimeRange(startTime, endTime)) {
+						int rating = ratingCount.getRating();
+						if (rating >= 1 && rating <= 5) {
+							ratingDistribution[rating - 1] = ratingCount.getCount();
+						}
+					}
 					
 					// Calculate review statistics
-					int totalValidFeedbacks = validFeedbacks.size();
-					long positiveCount = validFeedbacks.stream().filter(f -> f.getRating() == 5).count();
-					long neutralCount = validFeedbacks.stream().filter(f -> f.getRating() >= 3 && f.getRating() <= 4).count();
-					long negativeCount = validFeedbacks.stream().filter(f -> f.getRating() < 3).count();
+					long totalValidFeedbacks = 0;
+					for (long count : ratingDistribution) {
+						totalValidFeedbacks += count;
+					}
+					long positiveCount = ratingDistribution[4];
+					long neutralCount = ratingDistribution[2] + ratingDistribution[3];
+					long negativeCount = ratingDistribution[0] + ratingDistribution[1];
 					
 					// Calculate percentages
 					double positiveRate = totalValidFeedbacks > 0 ? (positiveCount * 100.0 / totalValidFeedbacks) : 0;
 					double neutralRate = totalValidFeedbacks > 0 ? (neutralCount * 100.0 / totalValidFeedbacks) : 0;
 					double negativeRate = totalValidFeedbacks > 0 ? (negativeCount * 100.0 / totalValidFeedbacks) : 0;
 					
-					// Calculate rating distribution (1-5 stars)
-					long[] ratingDistribution = new long[5];
-					for (int i = 0; i < 5; i++) {
-						final int rating = i + 1;
-						ratingDistribution[i] = validFeedbacks.stream().filter(f -> f.getRating() != null && f.getRating() == rating).count();
-					}
-					
 					// Calculate percentage distribution
 					double[] ratingPercentage = new double[5];
 					for (int i = 0; i < 5; i++) {
@@ -218,32 +233,21 @@ public class DailyReportAgentConfiguration {
 					}
 
 
-					List<Order> todayOrders = orderMapper.findOrdersByTimeRange(startTime, endTime);
-					int todayOrderCount = todayOrders.size();
-					BigDecimal totalRevenue = todayOrders.stream().map(Order::getTotalPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+					OrderSummary todaySummary = orderMapper.summarizeOrdersByTimeRange(startTime, endTime);
+					int todayOrderCount = todaySummary.getOrderCount().intValue();
+					BigDecimal totalRevenue = todaySummary.getTotalRevenue();
 
 					Date yesterdayStartTime = new Date(startTime.getTime() - (365L * 24 * 60 * 60 * 1000)); // One year ago
 					Date yesterdayEndTime = startTime;
-					List<Order> yesterdayOrders = orderMapper.findOrdersByTimeRange(yesterdayStartTime, yesterdayEndTime);
-					int yesterdayOrderCount = yesterdayOrders.size();
-					BigDecimal yesterdayTotalRevenue = yesterdayOrders.stream().map(Order::getTotalPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+					OrderSummary yesterdaySummary = orderMapper.summarizeOrdersByTimeRange(yesterdayStartTime, yesterdayEndTime);
+					int yesterdayOrderCount = yesterdaySummary.getOrderCount().intValue();
+					BigDecimal yesterdayTotalRevenue = yesterdaySummary.getTotalRevenue();
 
-					// 分类计算今日销量
-					Map<Long, Integer> productSalesCountMap = todayOrders.stream().collect(Collectors.groupingBy(Order::getProductId,
-							Collectors.summingInt(Order::getQuantity)));
-					Map<Long, BigDecimal> productSalesRevenueMap = todayOrders.stream().collect(Collectors.groupingBy(Order::getProductId,
-							Collectors.reducing(BigDecimal.ZERO, Order::getTotalPrice, BigDecimal::add)));
 					// 找出销量最大的前3个产品
-					List<Map.Entry<Long, Integer>> top3BySalesCount = productSalesCountMap.entrySet().stream()
-							.sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
-							.limit(3)
-							.collect(Collectors.toList());
+					List<ProductSalesStat> top3BySalesCount = orderMapper.selectTopProductsByQuantity(startTime, endTime, 3);
 					
 					// 找出销售额最大的前3个产品
-					List<Map.Entry<Long, BigDecimal>> top3ByRevenue = productSalesRevenueMap.entrySet().stream()
-							.sorted(Map.Entry.<Long, BigDecimal>comparingByValue().reversed())
-							.limit(3)
-							.collect(Collectors.toList());
+					List<ProductSalesStat> top3ByRevenue = orderMapper.selectTopProductsByRevenue(startTime, endTime, 3);
 					
 					// Prepare data for template variables
 					Map<String, Object> templateData = new HashMap<>();
@@ -275,30 +279,35 @@ public class DailyReportAgentConfiguration {
 						templateData.put("star" + (i + 1) + "_rate", String.format("%.0f", ratingPercentage[i]));
 					}
 					
+					// 两个榜单涉及的产品一次性批量获取
+					Set<Long> productIds = new HashSet<>();
+					top3ByRevenue.forEach(stat -> productIds.add(stat.getProductId()));
+					top3BySalesCount.forEach(stat -> productIds.add(stat.getProductId()));
+					Map<Long, Product> products = Map.of();
+					try {
+						products = productDimensionCache.getProducts(productIds);
+					} catch (Exception e) {
+						// Use default name if products can not be loaded
+					}
+
 					// Add top 3 products by sales count
 					content += "\n产品销量说明：\n" ;
 					for (int i = 0; i < 3; i++) {
 						if (i < top3ByRevenue.size()) {
-							Map.Entry<Long, BigDecimal> entry = top3ByRevenue.get(i);
-							// Get product name from productMapper or use a default name
-							String productName = "Product " + entry.getKey();
-							Product product = null;
-							try {
-								// Try to get the actual product name
-								product = productMapper.selectById(entry.getKey());
-								if (product != null && product.getName() != null) {
-									productName = product.getName();
-								}
-							} catch (Exception e) {
-								// Use default name if product not found
+							ProductSalesStat entry = top3ByRevenue.get(i);
+							// Get product name from the product cache or use a default name
+							String productName = "Product " + entry.getProductId();
+							Product product = products.get(entry.getProductId());
+							if (product != null && product.getName() != null) {
+								productName = product.getName();
 							}
 							templateData.put("r_product" + (i + 1), productName);
-							templateData.put("r_product" + (i + 1) + "_quantity", String.format("%.2f", entry.getValue()));
+							templateData.put("r_product" + (i + 1) + "_quantity", String.format("%.2f", entry.getTotalRevenue()));
 							// Calculate percentage of total sales
-							double percentage = (entry.getValue().doubleValue() * 100.0) / totalRevenue.doubleValue();
+							double percentage = (entry.getTotalRevenue().doubleValue() * 100.0) / totalRevenue.doubleValue();
 							templateData.put("r_product" + (i + 1) + "_percentage", String.format("%.1f", percentage));
 
-							content += productName + " 销售额排名第" + (i + 1) + "，销售额为 " + String.format("%.2f", entry.getValue()) + "，占比为 " + String.format("%.1f", percentage)
+							content += productName + " 销售额排名第" + (i + 1) + "，销售额为 " + String.format("%.2f", entry.getTotalRevenue()) + "，占比为 " + String.format("%.1f", percentage)
 									+ "%, 产品单价："+ (product != null ? product.getPrice() : "")
 									+ ", 产品描述："+ (product != null ? product.getDescription() : "") +"\n" ;
 						} else {
@@ -310,25 +319,19 @@ public class DailyReportAgentConfiguration {
 
 					for (int i = 0; i < 3; i++) {
 						if (i < top3BySalesCount.size()) {
-							Map.Entry<Long, Integer> entry = top3BySalesCount.get(i);
-							// Get product name from productMapper or use a default name
-							String productName = "Product " + entry.getKey();
-							Product product = null;
-							try {
-								// Try to get the actual product name
-								product = productMapper.selectById(entry.getKey());
-								if (product != null && product.getName() != null) {
-									productName = product.getName();
-								}
-							} catch (Exception e) {
-								// Use default name if product not found
+							ProductSalesStat entry = top3BySalesCount.get(i);
+							// Get product name from the product cache or use a default name
+							String productName = "Product " + entry.getProductId();
+							Product product = products.get(entry.getProductId());
+							if (product != null && product.getName() != null) {
+								productName = product.getName();
 							}
 							templateData.put("product" + (i + 1), productName);
-							templateData.put("product" + (i + 1) + "_quantity", entry.getValue());
+							templateData.put("product" + (i + 1) + "_quantity", entry.getTotalQuantity());
 							// Calculate percentage of total sales
-							double percentage = (entry.getValue() * 100.0) / todayOrderCount;
+							double percentage = (entry.getTotalQuantity() * 100.0) / todayOrderCount;
 							templateData.put("product" + (i + 1) + "_percentage", String.format("%.1f", percentage));
-							content += productName + " 销售量排名第" + (i + 1) + "，销量为 " + entry.getValue() + "，占比为 " + String.format("%.1f", percentage) + "%, 产品描述："+ (product != null ? product.getDescription() : "") +"\n" ;
+							content += productName + " 销售量排名第" + (i + 1) + "，销量为 " + entry.getTotalQuantity() + "，占比为 " + String.format("%.1f", percentage) + "%, 产品描述："+ (product != null ? product.getDescription() : "") +"\n" ;
 						} else {
 							templateData.put("product" + (i + 1), "N/A");
 							templateData.put("product" + (i + 1) + "_quantity", 0);
@@ -389,6 +392,7 @@ public class DailyReportAgentConfiguration {
 				.messageContentKey(messageContentKey)
 				.resultKey(resultKey)
 				.title(title)
+				.webhookClient(dingWebhookClient)
 				.build();
 	}
 }
\ No newline at end of file
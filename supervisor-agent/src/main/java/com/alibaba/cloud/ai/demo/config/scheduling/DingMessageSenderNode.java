@@ -31,21 +31,13 @@
  */
 package com.alibaba.cloud.ai.demo.config.scheduling;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import com.alibaba.cloud.ai.graph.OverAllState;
 import com.alibaba.cloud.ai.graph.action.NodeAction;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.springframework.ai.chat.messages.AssistantMessage;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * DingDingMessageSenderNode is a NodeAction implementation for sending messages to DingDing webhook.
@@ -87,6 +79,11 @@ public class DingMessageSenderNode implements NodeAction {
 	 */
 	private final String customWebhookUrl;
 
+	/**
+	 * Shared webhook client used to deliver messages
+	 */
+	private final DingWebhookClient webhookClient;
+
 	/**
 	 * Constructor for DingDingMessageSenderNode
 	 *
@@ -109,6 +106,21 @@ public class DingMessageSenderNode implements NodeAction {
 	 * @param customWebhookUrl  custom webhook URL (optional)
 	 */
 	public DingMessageSenderNode(String accessToken, String accessTokenKey, String messageContentKey, String resultKey, String title, String customWebhookUrl) {
+		this(accessToken, accessTokenKey, messageContentKey, resultKey, title, customWebhookUrl, null);
+	}
+
+	/**
+	 * Constructor for DingDingMessageSenderNode with custom webhook URL and webhook client
+	 *
+	 * @param accessToken       the access token for DingDing webhook
+	 * @param messageContentKey the key in the state from which to retrieve the message content
+	 * @param resultKey         the key in the state where to store the result
+	 * @param title             the title of the DingDing message
+	 * @param customWebhookUrl  custom webhook URL (optional)
+	 * @param webhookClient     shared webhook client (optional, a default pooled client is used if null)
+	 */
+	public DingMessageSenderNode(String accessToken, String accessTokenKey, String messageContentKey, String resultKey, String title, String customWebhookUrl, DingWebhookClient webhookClient) {
+		this.webhookClient = webhookClient != null ? webhookClient : DefaultClientHolder.INSTANCE;
 		this.accessToken = accessToken;
 		this.messageContentKey = messageContentKey;
 		this.resultKey = resultKey;
@@ -148,40 +160,18 @@ public class DingMessageSenderNode implements NodeAction {
 	 *
 	 * @param messageContent the content of the message to send
 	 * @return the response from the DingDing webhook
-	 * @throws JsonProcessingException if there's an error processing JSON
 	 */
-	private String sendMessage(String accessToken, String messageContent) throws JsonProcessingException {
+	private String sendMessage(String accessToken, String messageContent) {
 		String webhookUrl = StringUtils.hasLength(customWebhookUrl) ? customWebhookUrl : String.format(DEFAULT_WEBHOOK_URL_TEMPLATE, accessToken);
-
-		RestTemplate restTemplate = new RestTemplate();
-		HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.APPLICATION_JSON);
-
-		Map<String, Object> requestBody = createRequestBody(messageContent);
-		String requestBodyJson = new ObjectMapper().writeValueAsString(requestBody);
-
-		HttpEntity<String> request = new HttpEntity<>(requestBodyJson, headers);
-		ResponseEntity<String> response = restTemplate.postForEntity(webhookUrl, request, String.class);
-
-		return response.getBody();
+		return webhookClient.send(webhookUrl, title, messageContent).join();
 	}
 
 	/**
-	 * Create the request body for the DingDing webhook
-	 *
-	 * @param messageContent the content of the message
-	 * @return the request body as a Map
+	 * Lazily created pooled client for nodes built without an injected client
 	 */
-	private Map<String, Object> createRequestBody(String messageContent) {
-		Map<String, Object> requestBody = new HashMap<>();
-		requestBody.put("msgtype", "markdown");
-
-		Map<String, String> markdown = new HashMap<>();
-		markdown.put("title", title);
-		markdown.put("text", messageContent);
-		requestBody.put("markdown", markdown);
-
-		return requestBody;
+	private static class DefaultClientHolder {
+		private static final DingWebhookClient INSTANCE = new DingWebhookClient(
+				DingWebhookClient.pooledRestTemplate(5000, 10000), 3, 1000, 0, 100, 4);
 	}
 
 	/**
@@ -194,6 +184,7 @@ public class DingMessageSenderNode implements NodeAction {
 		private String resultKey = "dingding_message_result";
 		private String title = "Notification";
 		private String customWebhookUrl;
+		private DingWebhookClient webhookClient;
 
 		public Builder accessToken(String accessToken) {
 			this.accessToken = accessToken;
@@ -225,8 +216,13 @@ public class DingMessageSenderNode implements NodeAction {
 			return this;
 		}
 
+		public Builder webhookClient(DingWebhookClient webhookClient) {
+			this.webhookClient = webhookClient;
+			return this;
+		}
+
 		public DingMessageSenderNode build() {
-			return new DingMessageSenderNode(accessToken, accessTokenKey, messageContentKey, resultKey, title, customWebhookUrl);
+			return new DingMessageSenderNode(accessToken, accessTokenKey, messageContentKey, resultKey, title, customWebhookUrl, webhookClient);
 		}
 	}
 
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.demo.config.scheduling;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * DingWebhookClient is a shared HTTP client for DingDing webhooks.
+ * It reuses pooled keep-alive connections, retries failed deliveries with exponential backoff,
+ * bounds the number of pending deliveries, and can coalesce messages with the same title sent to the
+ * same webhook within a short batch window into a single markdown message.
+ * DingDing reports most failures with HTTP 200 and a non-zero errcode in the body, so the body is
+ * checked as well; only throttling and busy errcodes are retried.
+ */
+public class DingWebhookClient {
+
+	private static final Logger logger = LoggerFactory.getLogger(DingWebhookClient.class);
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	/**
+	 * Separator between coalesced messages
+	 */
+	private static final String BATCH_SEPARATOR = "\n\n---\n\n";
+
+	/**
+	 * Errcode returned when the robot is busy
+	 */
+	private static final int ERRCODE_SYSTEM_BUSY = -1;
+
+	/**
+	 * Errcode returned when more than 20 messages are sent to one robot within a minute
+	 */
+	private static final int ERRCODE_SEND_TOO_FAST = 130101;
+
+	private final RestTemplate restTemplate;
+
+	/**
+	 * Only fires batch windows and retry timers, never blocks on HTTP
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * Runs the blocking webhook posts
+	 */
+	private final ExecutorService deliveryExecutor;
+
+	private final int maxAttempts;
+
+	private final long initialBackoffMillis;
+
+	private final long batchWindowMillis;
+
+	private final Semaphore pendingPermits;
+
+	private final ConcurrentMap<String, Batch> batches = new ConcurrentHashMap<>();
+
+	public DingWebhookClient(RestTemplate restTemplate, int maxAttempts, long initialBackoffMillis,
+			long batchWindowMillis, int queueCapacity, int deliveryThreads) {
+		this.restTemplate = restTemplate;
+		this.maxAttempts = Math.max(1, maxAttempts);
+		this.initialBackoffMillis = Math.max(0, initialBackoffMillis);
+		this.batchWindowMillis = Math.max(0, batchWindowMillis);
+		this.pendingPermits = new Semaphore(Math.max(1, queueCapacity));
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "ding-webhook-timer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		AtomicInteger threadIndex = new AtomicInteger();
+		this.deliveryExecutor = Executors.newFixedThreadPool(Math.max(1, deliveryThreads), r -> {
+			Thread thread = new Thread(r, "ding-webhook-" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Create a RestTemplate backed by the JDK HttpClient, which keeps connections alive and reuses them
+	 * across requests
+	 *
+	 * @param connectTimeoutMillis connect timeout in milliseconds
+	 * @param readTimeoutMillis    read timeout in milliseconds
+	 * @return a pooled RestTemplate
+	 */
+	public static RestTemplate pooledRestTemplate(long connectTimeoutMillis, long readTimeoutMillis) {
+		HttpClient httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+				.build();
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+		requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+		return new RestTemplate(requestFactory);
+	}
+
+	/**
+	 * Send a markdown message to the webhook
+	 *
+	 * @param webhookUrl     the webhook URL
+	 * @param title          the title of the message
+	 * @param messageContent the markdown content
+	 * @return a future completed with the webhook response, or exceptionally when the queue is full or all
+	 * attempts failed
+	 */
+	public CompletableFuture<String> send(String webhookUrl, String title, String messageContent) {
+		CompletableFuture<String> future = new CompletableFuture<>();
+		if (!pendingPermits.tryAcquire()) {
+			future.completeExceptionally(new IllegalStateException("DingDing delivery queue is full"));
+			return future;
+		}
+		future.whenComplete((response, error) -> pendingPermits.release());
+
+		if (batchWindowMillis == 0) {
+			deliver(webhookUrl, title, messageContent, 1, future);
+			return future;
+		}
+
+		batches.compute(webhookUrl + '\n' + title, (key, batch) -> {
+			if (batch == null) {
+				batch = new Batch(webhookUrl, title);
+				scheduler.schedule(() -> flush(key), batchWindowMillis, TimeUnit.MILLISECONDS);
+			}
+			batch.add(messageContent, future);
+			return batch;
+		});
+		return future;
+	}
+
+	/**
+	 * Stop the background delivery threads
+	 */
+	public void shutdown() {
+		scheduler.shutdown();
+		deliveryExecutor.shutdown();
+	}
+
+	private void flush(String batchKey) {
+		Batch batch = batches.remove(batchKey);
+		if (batch == null) {
+			return;
+		}
+		if (batch.contents.size() > 1) {
+			logger.info("Coalesced {} DingDing messages into one delivery", batch.contents.size());
+		}
+		CompletableFuture<String> delivery = new CompletableFuture<>();
+		delivery.whenComplete((response, error) -> {
+			for (CompletableFuture<String> future : batch.futures) {
+				if (error != null) {
+					future.completeExceptionally(error);
+				}
+				else {
+					future.complete(response);
+				}
+			}
+		});
+		deliver(batch.webhookUrl, batch.title, String.join(BATCH_SEPARATOR, batch.contents), 1, delivery);
+	}
+
+	private void deliver(String webhookUrl, String title, String messageContent, int attempt,
+			CompletableFuture<String> future) {
+		deliveryExecutor.execute(() -> {
+			try {
+				future.complete(post(webhookUrl, title, messageContent));
+			}
+			catch (Exception e) {
+				if (attempt >= maxAttempts || !isRetryable(e)) {
+					logger.error("DingDing delivery failed after {} attempt(s): {}", attempt, e.getMessage());
+					future.completeExceptionally(e);
+					return;
+				}
+				long backoff = initialBackoffMillis << (attempt - 1);
+				logger.warn("DingDing delivery attempt {} failed, retry in {} ms: {}", attempt, backoff, e.getMessage());
+				scheduler.schedule(() -> deliver(webhookUrl, title, messageContent, attempt + 1, future), backoff,
+						TimeUnit.MILLISECONDS);
+			}
+		});
+	}
+
+	private String post(String webhookUrl, String title, String messageContent) throws JsonProcessingException {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		String requestBodyJson = OBJECT_MAPPER.writeValueAsString(createRequestBody(title, messageContent));
+
+		HttpEntity<String> request = new HttpEntity<>(requestBodyJson, headers);
+		ResponseEntity<String> response = restTemplate.postForEntity(webhookUrl, request, String.class);
+
+		String body = response.getBody();
+		JsonNode errcode = errcode(body);
+		if (errcode != null && errcode.asInt() != 0) {
+			throw new DingWebhookException(errcode.asInt(), body);
+		}
+		return body;
+	}
+
+	private static JsonNode errcode(String body) {
+		if (body == null) {
+			return null;
+		}
+		try {
+			return OBJECT_MAPPER.readTree(body).get("errcode");
+		}
+		catch (JsonProcessingException e) {
+			// Custom webhooks may not answer with JSON, rely on the HTTP status then
+			return null;
+		}
+	}
+
+	/**
+	 * Client errors and errcodes such as an invalid token or a keyword mismatch fail the same way on
+	 * every attempt, so only throttling, busy errcodes, server errors and I/O failures are retried
+	 */
+	private static boolean isRetryable(Exception e) {
+		if (e instanceof DingWebhookException dingError) {
+			return dingError.errcode == ERRCODE_SEND_TOO_FAST || dingError.errcode == ERRCODE_SYSTEM_BUSY;
+		}
+		if (e instanceof HttpClientErrorException clientError) {
+			return clientError.getStatusCode().value() == 429;
+		}
+		return !(e instanceof JsonProcessingException);
+	}
+
+	/**
+	 * Create the request body for the DingDing webhook
+	 *
+	 * @param title          the title of the message
+	 * @param messageContent the content of the message
+	 * @return the request body as a Map
+	 */
+	private Map<String, Object> createRequestBody(String title, String messageContent) {
+		Map<String, Object> requestBody = new HashMap<>();
+		requestBody.put("msgtype", "markdown");
+
+		Map<String, String> markdown = new HashMap<>();
+		markdown.put("title", title);
+		markdown.put("text", messageContent);
+		requestBody.put("markdown", markdown);
+
+		return requestBody;
+	}
+
+	/**
+	 * Non-zero errcode returned by the webhook with HTTP 200
+	 */
+	public static class DingWebhookException extends RuntimeException {
+
+		private final int errcode;
+
+		DingWebhookException(int errcode, String responseBody) {
+			super("DingDing webhook returned errcode " + errcode + ": " + responseBody);
+			this.errcode = errcode;
+		}
+
+		public int getErrcode() {
+			return errcode;
+		}
+
+	}
+
+	/**
+	 * Messages waiting to be coalesced for one webhook and title
+	 */
+	private static class Batch {
+
+		private final String webhookUrl;
+
+		private final String title;
+
+		private final List<String> contents = new ArrayList<>();
+
+		private final List<CompletableFuture<String>> futures = new ArrayList<>();
+
+		Batch(String webhookUrl, String title) {
+			this.webhookUrl = webhookUrl;
+			this.title = title;
+		}
+
+		void add(String content, CompletableFuture<String> future) {
+			contents.add(content);
+			futures.add(future);
+		}
+
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.demo.config.scheduling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * DingWebhookClientConfiguration
+ * 所有钉钉消息发送节点共享同一个连接池化的客户端
+ **/
+@Configuration
+public class DingWebhookClientConfiguration {
+
+	@Bean(destroyMethod = "shutdown")
+	public DingWebhookClient dingWebhookClient(
+			@Value("${agent.dingtalk.client.connect-timeout-ms:5000}") long connectTimeoutMillis,
+			@Value("${agent.dingtalk.client.read-timeout-ms:10000}") long readTimeoutMillis,
+			@Value("${agent.dingtalk.client.max-attempts:3}") int maxAttempts,
+			@Value("${agent.dingtalk.client.initial-backoff-ms:1000}") long initialBackoffMillis,
+			@Value("${agent.dingtalk.client.batch-window-ms:0}") long batchWindowMillis,
+			@Value("${agent.dingtalk.client.queue-capacity:100}") int queueCapacity,
+			@Value("${agent.dingtalk.client.delivery-threads:4}") int deliveryThreads) {
+		return new DingWebhookClient(DingWebhookClient.pooledRestTemplate(connectTimeoutMillis, readTimeoutMillis),
+				maxAttempts, initialBackoffMillis, batchWindowMillis, queueCapacity, deliveryThreads);
+	}
+}
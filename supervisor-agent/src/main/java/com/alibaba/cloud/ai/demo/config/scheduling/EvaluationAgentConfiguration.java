@@ -28,11 +28,9 @@ import com.alibaba.cloud.ai.demo.entity.Feedback;
 import com.alibaba.cloud.ai.demo.mapper.FeedbackMapper;
 import com.alibaba.cloud.ai.graph.CompiledGraph;
 import com.alibaba.cloud.ai.graph.KeyStrategy;
-import com.alibaba.cloud.ai.graph.KeyStrategyFactory;
 import com.alibaba.cloud.ai.graph.StateGraph;
 import com.alibaba.cloud.ai.graph.action.AsyncNodeAction;
 import com.alibaba.cloud.ai.graph.exception.GraphStateException;
-import com.alibaba.cloud.ai.graph.node.IterationNode;
 import com.alibaba.cloud.ai.graph.node.LlmNode;
 import com.alibaba.cloud.ai.graph.state.strategy.ReplaceStrategy;
 import com.google.gson.Gson;
@@ -43,6 +41,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -62,24 +61,26 @@ public class EvaluationAgentConfiguration {
 	@Value("${agent.dingtalk.access-token}")
 	private String accessToken;
 
+	@Autowired
+	private DingWebhookClient dingWebhookClient;
+
+	@Value("${agent.evaluation.iteration.concurrency:4}")
+	private int iterationConcurrency;
+
+	@Value("${agent.evaluation.iteration.rate-per-second:5}")
+	private double iterationRatePerSecond;
+
+	@Value("${agent.evaluation.iteration.checkpoint-dir:data/evaluation-checkpoints}")
+	private String iterationCheckpointDir;
+
 	@Bean
 	public CompiledGraph evaluationAnalysisAgent(ChatModel chatModel,
 					 FeedbackMapper feedbackMapper) throws GraphStateException {
 
 		ChatClient chatClient = ChatClient.builder(chatModel).defaultAdvisors(new SimpleLoggerAdvisor()).build();
 
-		// 配置子图：START -> iterator -> END
-		KeyStrategyFactory subFactory1 = () -> {
-			Map<String, KeyStrategy> map = new HashMap<>();
-			map.put("iterator_item", new ReplaceStrategy());
-			map.put("session_analysis_result", new ReplaceStrategy());
-			return map;
-		};
-
 		EvaluationClassifierNode sessionAnalysis = EvaluationClassifierNode.builder()
 				.chatClient(chatClient)
-				.inputTextKey("iterator_item")
-				.outputKey("session_analysis_result")
 				.categories(List.of("yes", "no"))
 				.classificationInstructions(
 						List.of("结果仅需返回JSON字符串，不能有其他不符合JSON格式字符出现，包含字段:user、time、complaint、satisfaction、summary。",
@@ -88,11 +89,6 @@ public class EvaluationAgentConfiguration {
 								"summary: 提炼本条核心吐槽点，以及可以改进的方向"))
 				.build();
 
-		StateGraph sessionAnalysisGraph = new StateGraph("session_analysis", subFactory1)
-				.addNode("iterator", node_async(sessionAnalysis))
-				.addEdge(StateGraph.START, "iterator")
-				.addEdge("iterator", StateGraph.END);
-
 		AsyncNodeAction sessionLoaderNode = node_async(
 				(state) -> {
 					XxlJobContext xxlJobContext = (XxlJobContext)state.value("xxl-job-context").orElse( null);
@@ -198,36 +194,27 @@ public class EvaluationAgentConfiguration {
 				""")
 				.build();
 
-		StateGraph iterationNode = IterationNode.converter()
-				.inputArrayJsonKey("sessions")
-				.tempIndexKey("iteration_index1")
-				.outputArrayJsonKey("analysis_results")
-				.iteratorItemKey("iterator_item")
-				.iteratorResultKey("session_analysis_result")
-				.tempArrayKey("test_temp_array1")
-				.tempStartFlagKey("test_temp_start1")
-				.tempEndFlagKey("test_temp_end1")
-				.subGraph(sessionAnalysisGraph)
-				.convertToStateGraph();
-
+		// 并发逐条分析评价，结果按原顺序写入 analysis_results，失败后重跑可从检查点继续
+		ParallelIterationNode iterationNode = ParallelIterationNode.builder()
+				.inputArrayKey("sessions")
+				.outputArrayKey("analysis_results")
+				.itemProcessor(sessionAnalysis::classify)
+				.concurrency(iterationConcurrency)
+				.ratePerSecond(iterationRatePerSecond)
+				.checkpointDir(iterationCheckpointDir)
+				.build();
 
 		StateGraph stateGraph = new StateGraph("ReviewAnalysisAgent", () -> {
 			Map<String, KeyStrategy> strategies = new HashMap<>();
-			strategies.put("iterator_item", new ReplaceStrategy());
-			strategies.put("session_analysis_result", new ReplaceStrategy());
 			strategies.put("sessions", new ReplaceStrategy());
-			strategies.put("iteration_index1", new ReplaceStrategy());
 			strategies.put("analysis_results", new ReplaceStrategy());
-			strategies.put("test_temp_array1", new ReplaceStrategy());
-			strategies.put("test_temp_start1", new ReplaceStrategy());
-			strategies.put("test_temp_end1", new ReplaceStrategy());
 			strategies.put("summary_message", new ReplaceStrategy());
 			strategies.put("summary_message_to_sender", new ReplaceStrategy());
 			strategies.put("message_sender_result", new ReplaceStrategy());
 			strategies.put("access_token", new ReplaceStrategy());
 			return strategies;
 		}).addNode("session_loader_node", sessionLoaderNode)
-				.addNode("iteration_session_analysis_node", iterationNode)
+				.addNode("iteration_session_analysis_node", node_async(iterationNode))
 				.addNode("session_result_summary_node", sessionResultSummaryNode)
 				.addNode("message_parse", node_async(llmNode))
 				.addNode("message_sender", node_async(generateMessageSender()))
@@ -253,6 +240,7 @@ public class EvaluationAgentConfiguration {
 				.messageContentKey(messageContentKey)
 				.resultKey(resultKey)
 				.title(title)
+				.webhookClient(dingWebhookClient)
 				.build();
 	}
 }
\ No newline at end of file
@@ -64,8 +64,6 @@ public class EvaluationClassifierNode implements NodeAction {
 
 	private ChatClient chatClient;
 
-	private String inputText;
-
 	private List<String> categories;
 
 	private List<String> classificationInstructions;
@@ -86,16 +84,12 @@ public class EvaluationClassifierNode implements NodeAction {
 
 	@Override
 	public Map<String, Object> apply(OverAllState state) throws Exception {
+		String inputText = null;
 		if (StringUtils.hasLength(inputTextKey)) {
-			this.inputText = (String) state.value(inputTextKey).orElse(this.inputText);
+			inputText = (String) state.value(inputTextKey).orElse(null);
 		}
 
-		ChatResponse response = chatClient.prompt()
-			.system(systemPromptTemplate.render(Map.of("inputText", inputText, "categories", categories,
-					"classificationInstructions", classificationInstructions)))
-			.user(inputText)
-			.call()
-			.chatResponse();
+		ChatResponse response = call(inputText);
 
 		Map<String, Object> updatedState = new HashMap<>();
 		updatedState.put(outputKey, response.getResult().getOutput().getText());
@@ -107,6 +101,24 @@ public class EvaluationClassifierNode implements NodeAction {
 		return updatedState;
 	}
 
+	/**
+	 * 对单条评价进行分类，不读写节点状态，可被多个线程并发调用
+	 * @param inputText 评价内容
+	 * @return 分类结果JSON字符串
+	 */
+	public String classify(String inputText) {
+		return call(inputText).getResult().getOutput().getText();
+	}
+
+	private ChatResponse call(String inputText) {
+		return chatClient.prompt()
+			.system(systemPromptTemplate.render(Map.of("inputText", inputText, "categories", categories,
+					"classificationInstructions", classificationInstructions)))
+			.user(inputText)
+			.call()
+			.chatResponse();
+	}
+
 	public static Builder builder() {
 		return new Builder();
 	}
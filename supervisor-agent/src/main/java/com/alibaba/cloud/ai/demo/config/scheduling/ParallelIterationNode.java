@@ -0,0 +1,344 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.demo.config.scheduling;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import com.alibaba.cloud.ai.graph.action.NodeAction;
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ParallelIterationNode 并发处理列表中的每个元素，结果按输入顺序汇总为JSON数组。
+ * 支持最大并发数、每秒请求数限制，以及基于本地文件的断点续跑：
+ * 每处理完一个元素即追加写入检查点文件，任务失败后重新执行时跳过已完成的元素，全部完成后删除检查点。
+ */
+public class ParallelIterationNode implements NodeAction {
+
+	private static final Logger logger = LoggerFactory.getLogger(ParallelIterationNode.class);
+
+	private static final Gson GSON = new Gson();
+
+	/**
+	 * The key in the state from which to retrieve the input list
+	 */
+	private final String inputArrayKey;
+
+	/**
+	 * The key in the state where to store the ordered results as a JSON array string
+	 */
+	private final String outputArrayKey;
+
+	/**
+	 * Function applied to every item
+	 */
+	private final Function<String, String> itemProcessor;
+
+	/**
+	 * Maximum number of items processed at the same time
+	 */
+	private final int concurrency;
+
+	/**
+	 * Maximum number of items started per second, 0 or less means unlimited
+	 */
+	private final double ratePerSecond;
+
+	/**
+	 * Directory of checkpoint files, null disables checkpointing
+	 */
+	private final Path checkpointDir;
+
+	public ParallelIterationNode(String inputArrayKey, String outputArrayKey, Function<String, String> itemProcessor,
+			int concurrency, double ratePerSecond, Path checkpointDir) {
+		this.inputArrayKey = inputArrayKey;
+		this.outputArrayKey = outputArrayKey;
+		this.itemProcessor = itemProcessor;
+		this.concurrency = Math.max(1, concurrency);
+		this.ratePerSecond = ratePerSecond;
+		this.checkpointDir = checkpointDir;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Map<String, Object> apply(OverAllState state) throws Exception {
+		List<String> items = (List<String>) state.value(inputArrayKey).orElse(List.of());
+		String[] results = new String[items.size()];
+
+		String[] itemKeys = itemKeys(items);
+		Path checkpoint = checkpointFile();
+		int restored = restoreCheckpoint(checkpoint, itemKeys, results);
+		if (restored > 0) {
+			logger.info("Resuming iteration from checkpoint {}, {} of {} items already processed", checkpoint, restored,
+					items.size());
+		}
+
+		RateLimiter rateLimiter = new RateLimiter(ratePerSecond);
+		AtomicInteger threadIndex = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(concurrency, r -> {
+			Thread thread = new Thread(r, "parallel-iteration-" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try (CheckpointWriter writer = new CheckpointWriter(checkpoint)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < items.size(); i++) {
+				if (results[i] != null) {
+					continue;
+				}
+				int index = i;
+				futures.add(executor.submit(() -> {
+					rateLimiter.acquire();
+					String result = itemProcessor.apply(items.get(index));
+					results[index] = result;
+					writer.append(itemKeys[index], result);
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				}
+				catch (ExecutionException e) {
+					futures.forEach(f -> f.cancel(true));
+					throw new IllegalStateException("Iteration failed, rerun to resume from checkpoint " + checkpoint,
+							e.getCause());
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		if (checkpoint != null) {
+			Files.deleteIfExists(checkpoint);
+		}
+
+		Map<String, Object> updatedState = new HashMap<>();
+		updatedState.put(outputArrayKey, GSON.toJson(Arrays.asList(results)));
+		return updatedState;
+	}
+
+	/**
+	 * 每个元素按内容摘要记录检查点，重新执行时即使列表顺序变化或增减了元素，已处理过的元素仍可命中
+	 */
+	static String[] itemKeys(List<String> items) throws NoSuchAlgorithmException {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		String[] keys = new String[items.size()];
+		for (int i = 0; i < items.size(); i++) {
+			keys[i] = HexFormat.of().formatHex(digest.digest(items.get(i).getBytes(StandardCharsets.UTF_8)));
+		}
+		return keys;
+	}
+
+	/**
+	 * 同一个节点的检查点固定写入以输出键命名的文件
+	 */
+	private Path checkpointFile() throws IOException {
+		if (checkpointDir == null) {
+			return null;
+		}
+		Files.createDirectories(checkpointDir);
+		return checkpointDir.resolve("iteration-" + outputArrayKey + ".ckpt");
+	}
+
+	private int restoreCheckpoint(Path checkpoint, String[] itemKeys, String[] results) throws IOException {
+		if (checkpoint == null || !Files.exists(checkpoint)) {
+			return 0;
+		}
+		Map<String, String> processed = new HashMap<>();
+		for (String line : Files.readAllLines(checkpoint, StandardCharsets.UTF_8)) {
+			if (line.isBlank()) {
+				continue;
+			}
+			try {
+				CheckpointEntry entry = GSON.fromJson(line, CheckpointEntry.class);
+				if (entry.key != null) {
+					processed.put(entry.key, entry.result);
+				}
+			}
+			catch (Exception e) {
+				// 最后一行可能在进程中断时只写入了一半，忽略即可
+				logger.warn("Skip broken checkpoint line in {}", checkpoint);
+			}
+		}
+		int restored = 0;
+		for (int i = 0; i < itemKeys.length; i++) {
+			String result = processed.get(itemKeys[i]);
+			if (result != null) {
+				results[i] = result;
+				restored++;
+			}
+		}
+		return restored;
+	}
+
+	private static class CheckpointEntry {
+
+		String key;
+
+		String result;
+
+		CheckpointEntry(String key, String result) {
+			this.key = key;
+			this.result = result;
+		}
+
+	}
+
+	/**
+	 * 追加写入检查点，每条记录写入后立即刷盘
+	 */
+	private static class CheckpointWriter implements AutoCloseable {
+
+		private final BufferedWriter writer;
+
+		CheckpointWriter(Path checkpoint) throws IOException {
+			this.writer = checkpoint == null ? null : Files.newBufferedWriter(checkpoint, StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		}
+
+		synchronized void append(String key, String result) throws IOException {
+			if (writer == null) {
+				return;
+			}
+			writer.write(GSON.toJson(new CheckpointEntry(key, result)));
+			writer.newLine();
+			writer.flush();
+		}
+
+		@Override
+		public synchronized void close() throws IOException {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+
+	}
+
+	/**
+	 * 按固定间隔发放许可的简单限流器
+	 */
+	private static class RateLimiter {
+
+		private final long intervalNanos;
+
+		private long nextSlot = System.nanoTime();
+
+		RateLimiter(double ratePerSecond) {
+			this.intervalNanos = ratePerSecond > 0 ? (long) (1_000_000_000L / ratePerSecond) : 0;
+		}
+
+		void acquire() throws InterruptedException {
+			if (intervalNanos == 0) {
+				return;
+			}
+			long waitNanos;
+			synchronized (this) {
+				long now = System.nanoTime();
+				long slot = Math.max(now, nextSlot);
+				nextSlot = slot + intervalNanos;
+				waitNanos = slot - now;
+			}
+			if (waitNanos > 0) {
+				Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+			}
+		}
+
+	}
+
+	/**
+	 * Builder class for ParallelIterationNode
+	 */
+	public static class Builder {
+
+		private String inputArrayKey;
+
+		private String outputArrayKey;
+
+		private Function<String, String> itemProcessor;
+
+		private int concurrency = 4;
+
+		private double ratePerSecond = 0;
+
+		private Path checkpointDir;
+
+		public Builder inputArrayKey(String inputArrayKey) {
+			this.inputArrayKey = inputArrayKey;
+			return this;
+		}
+
+		public Builder outputArrayKey(String outputArrayKey) {
+			this.outputArrayKey = outputArrayKey;
+			return this;
+		}
+
+		public Builder itemProcessor(Function<String, String> itemProcessor) {
+			this.itemProcessor = itemProcessor;
+			return this;
+		}
+
+		public Builder concurrency(int concurrency) {
+			this.concurrency = concurrency;
+			return this;
+		}
+
+		public Builder ratePerSecond(double ratePerSecond) {
+			this.ratePerSecond = ratePerSecond;
+			return this;
+		}
+
+		public Builder checkpointDir(String checkpointDir) {
+			this.checkpointDir = checkpointDir == null || checkpointDir.isBlank() ? null : Paths.get(checkpointDir);
+			return this;
+		}
+
+		public ParallelIterationNode build() {
+			return new ParallelIterationNode(inputArrayKey, outputArrayKey, itemProcessor, concurrency, ratePerSecond,
+					checkpointDir);
+		}
+
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+}
@@ -16,31 +16,101 @@
 
 package com.alibaba.cloud.ai.demo.controller;
 
+import com.alibaba.cloud.ai.demo.service.AgentStreamMetrics;
+import com.alibaba.cloud.ai.demo.service.IntentRouter;
+import com.alibaba.cloud.ai.demo.service.SubAgentCardRegistry;
 import com.alibaba.cloud.ai.graph.CompiledGraph;
 import com.alibaba.cloud.ai.graph.NodeOutput;
 import com.alibaba.cloud.ai.graph.RunnableConfig;
+import com.alibaba.cloud.ai.graph.agent.a2a.A2aRemoteAgent;
 import com.alibaba.cloud.ai.graph.agent.flow.agent.LlmRoutingAgent;
 import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Sinks;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 
 @RequestMapping("/api/assistant/")
 @RestController
 public class SupervisorAgentController {
 
     private static final Logger logger = LoggerFactory.getLogger(SupervisorAgentController.class);
-    private final LlmRoutingAgent supervisorAgent;
+    private final CompiledGraph compiledGraph;
+    private final Map<String, CompiledGraph> subAgentGraphs = new HashMap<>();
+    private final IntentRouter intentRouter;
+    private final AgentStreamMetrics streamMetrics;
+    private final SubAgentCardRegistry cardRegistry;
 
-    public SupervisorAgentController(@Qualifier("supervisorAgentBean") LlmRoutingAgent supervisorAgent) {
-        this.supervisorAgent = supervisorAgent;
+    private static final String ERROR_MESSAGE = "系统处理出现错误，请稍后重试。";
+    private static final String TIMEOUT_MESSAGE = "处理超时，请稍后重试。";
+    private static final String SUBMITTED_STATE = "Agent State: submitted";
+    private static final String SUPERVISOR_GRAPH = "supervisor_agent";
+
+    /**
+     * 合并小块输出的时间窗口，窗口内的多个 token 合并为一个 SSE 事件
+     */
+    @Value("${agent.supervisor.stream.coalesce-ms:50}")
+    private long coalesceMillis;
+
+    @Value("${agent.supervisor.stream.max-chunks-per-frame:64}")
+    private int maxChunksPerFrame;
+
+    /**
+     * 客户端消费过慢时最多缓存的输出块数，超出后结束本次对话
+     */
+    @Value("${agent.supervisor.stream.max-buffered-chunks:1024}")
+    private int maxBufferedChunks;
+
+    @Value("${agent.supervisor.stream.heartbeat-ms:15000}")
+    private long heartbeatMillis;
+
+    @Value("${agent.supervisor.stream.first-chunk-timeout-ms:60000}")
+    private long firstChunkTimeoutMillis;
+
+    @Value("${agent.supervisor.stream.idle-timeout-ms:30000}")
+    private long idleTimeoutMillis;
+
+    @Value("${agent.supervisor.stream.total-timeout-ms:300000}")
+    private long totalTimeoutMillis;
+
+    public SupervisorAgentController(@Qualifier("supervisorAgentBean") LlmRoutingAgent supervisorAgent,
+                                     List<A2aRemoteAgent> subAgents,
+                                     IntentRouter intentRouter,
+                                     AgentStreamMetrics streamMetrics,
+                                     SubAgentCardRegistry cardRegistry) {
+        this.intentRouter = intentRouter;
+        this.streamMetrics = streamMetrics;
+        this.cardRegistry = cardRegistry;
+        // 启动时编译一次路由图并在所有请求间共享，每个请求的状态仅通过 RunnableConfig 和 input 传递
+        long start = System.currentTimeMillis();
+        try {
+            this.compiledGraph = supervisorAgent.getAndCompileGraph();
+        } catch (Exception e) {
+            logger.error("Failed to compile supervisor agent graph: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to compile supervisor agent graph", e);
+        }
+        // 快速路由命中时跳过大模型路由，直接执行对应子智能体的图
+        for (A2aRemoteAgent subAgent : subAgents) {
+            try {
+                subAgentGraphs.put(subAgent.name(), subAgent.getAndCompileGraph());
+            } catch (Exception e) {
+                logger.warn("Failed to compile {} graph, fast routing to it is disabled: {}", subAgent.name(), e.getMessage());
+            }
+        }
+        logger.info("supervisor_agent graph compiled in {} ms", System.currentTimeMillis() - start);
     }
 
     @GetMapping(path="/chat", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -50,52 +120,84 @@ public class SupervisorAgentController {
         logger.info("Received user query: {}", userQuery);
 
         try {
-            RunnableConfig runnableConfig = RunnableConfig.builder().threadId(chatID).addMetadata("user_id", userID).build();
-
             String userInput = userQuery + "<userId>" + userID + "</userId>";
             Map<String, Object> input = Map.of(
                     "input", userInput, "chat_id", chatID, "user_id", userID);
-            Sinks.Many<ServerSentEvent<String>> sink = Sinks.many().unicast().onBackpressureBuffer();
             //Flux<NodeOutput> result = supervisorAgent.stream(input);
 
-            CompiledGraph compiledGraph = supervisorAgent.getAndCompileGraph();
-            Flux<NodeOutput> result = compiledGraph.fluxStream(input, runnableConfig);
-            processStream(result, sink);
+            Optional<String> fastRoute = intentRouter.route(userQuery).filter(subAgentGraphs::containsKey);
+            fastRoute.ifPresent(agent -> logger.info("Fast routed to {}", agent));
 
-            return sink.asFlux()
-                    .doOnCancel(() -> logger.info("Client disconnected from stream"))
-                    .doOnError(e -> logger.error("Error occurred during streaming", e));
+            RunnableConfig runnableConfig = RunnableConfig.builder()
+                    .threadId(threadId(chatID, fastRoute.orElse(SUPERVISOR_GRAPH)))
+                    .addMetadata("user_id", userID)
+                    .build();
+            CompiledGraph graph = fastRoute.map(subAgentGraphs::get).orElse(compiledGraph);
+            Flux<NodeOutput> outputs = cardRegistry.track(() -> graph.fluxStream(input, runnableConfig),
+                    fastRoute.orElse(null));
+            Flux<NodeOutput> result = streamMetrics.observeNodes(outputs, fastRoute.orElse(null));
+
+            return streamMetrics.observeStream(processStream(result)
+                    .doOnCancel(() -> logger.info("Client disconnected from stream, upstream cancelled")));
         } catch  (Exception e) {
             logger.error("Failed to process user query: {}", userQuery, e);
-            return Flux.just(ServerSentEvent.builder("系统处理出现错误，请稍后重试。").build());
+            return Flux.just(ServerSentEvent.builder(ERROR_MESSAGE).build());
         }
     }
 
-    public void processStream(Flux<NodeOutput> generator, Sinks.Many<ServerSentEvent<String>> sink) {
-        generator
-            .doOnNext(output -> logger.info("output = {}", output))
-            .filter(output -> "a2aNode".equals(output.node()) && output instanceof StreamingOutput)
-            .cast(StreamingOutput.class)
-            .map(StreamingOutput::chunk)
-            .filter(content -> content != null && !content.isEmpty() && !content.equals("Agent State: submitted"))
-            .map(content -> ServerSentEvent.builder(content).build())
-            .doOnNext(sink::tryEmitNext)
-            .doOnError(e -> {
-                logger.error("Unexpected error in stream processing: {}", e.getMessage(), e);
-                sink.tryEmitNext(ServerSentEvent.builder("系统处理出现错误，请稍后重试。").build());
-            })
-            .doOnComplete(() -> {
-                logger.info("Stream processing completed successfully");
-                sink.tryEmitComplete();
-            })
-            .subscribe(
-                // onNext - 已经在doOnNext中处理
-                null,
-                // onError
-                e -> {
-                    logger.error("Stream processing failed: {}", e.getMessage(), e);
-                    sink.tryEmitError(e);
-                }
-            );
+    /**
+     * 检查点会话 ID：监督者路由图与快速路由直连的子智能体图状态结构不同，按 chat_id 和图名分别保存，互不覆盖
+     */
+    static String threadId(String chatID, String graph) {
+        return chatID + ":" + graph;
+    }
+
+    /**
+     * 子智能体实例的健康状态和未完成请求数
+     */
+    @GetMapping("/agents/instances")
+    public Map<String, List<Map<String, Object>>> agentInstances() {
+        return cardRegistry.stats();
+    }
+
+    /**
+     * 将路由图输出直接转换为 SSE 事件流，由 WebFlux 订阅：
+     * 有界缓冲小块输出并按 coalesce-ms 合并成帧，空闲时发送心跳注释，首块/空闲/总时长超时后结束对话；
+     * 客户端断开时取消订阅会一路传递到路由图，停止子智能体和大模型调用。
+     */
+    public Flux<ServerSentEvent<String>> processStream(Flux<NodeOutput> generator) {
+        return Flux.defer(() -> {
+            long deadline = System.currentTimeMillis() + totalTimeoutMillis;
+            Flux<ServerSentEvent<String>> frames = generator
+                    .doOnNext(output -> logger.debug("output = {}", output))
+                    .filter(output -> "a2aNode".equals(output.node()) && output instanceof StreamingOutput)
+                    .cast(StreamingOutput.class)
+                    .map(StreamingOutput::chunk)
+                    .filter(content -> content != null && !content.isEmpty() && !content.equals(SUBMITTED_STATE))
+                    .timeout(Mono.delay(Duration.ofMillis(Math.min(firstChunkTimeoutMillis, totalTimeoutMillis))),
+                            content -> Mono.delay(Duration.ofMillis(Math.max(0,
+                                    Math.min(idleTimeoutMillis, deadline - System.currentTimeMillis())))))
+                    .onBackpressureBuffer(maxBufferedChunks, BufferOverflowStrategy.ERROR)
+                    .bufferTimeout(maxChunksPerFrame, Duration.ofMillis(coalesceMillis), true)
+                    .map(frame -> ServerSentEvent.builder(String.join("", frame)).build())
+                    .doOnComplete(() -> logger.info("Stream processing completed successfully"))
+                    .onErrorResume(e -> {
+                        if (e instanceof TimeoutException) {
+                            logger.warn("Stream timed out ({}), upstream cancelled",
+                                    System.currentTimeMillis() >= deadline ? "total" : "idle");
+                            return Flux.just(ServerSentEvent.builder(TIMEOUT_MESSAGE).build());
+                        }
+                        logger.error("Stream processing failed: {}", e.getMessage(), e);
+                        return Flux.just(ServerSentEvent.builder(ERROR_MESSAGE).build());
+                    });
+
+            // 心跳以 SSE 注释发送，浏览器 EventSource 会忽略，只用于保持连接不被代理断开；
+            // publish 与 merge 只预取一帧，慢客户端积压的内容以 max-buffered-chunks 为界，而不是默认预取队列；客户端未读取时丢弃心跳
+            return frames.publish(shared -> Flux.merge(1, shared,
+                    Flux.interval(Duration.ofMillis(heartbeatMillis))
+                            .onBackpressureDrop()
+                            .map(tick -> ServerSentEvent.<String>builder().comment("heartbeat").build())
+                            .takeUntilOther(shared.then())), 1);
+        });
     }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * 时间范围内的订单汇总（订单数、销售额）
+ */
+public class OrderSummary {
+    
+    private Long orderCount;
+    
+    private BigDecimal totalRevenue;
+    
+    public Long getOrderCount() {
+        return orderCount;
+    }
+    
+    public void setOrderCount(Long orderCount) {
+        this.orderCount = orderCount;
+    }
+    
+    public BigDecimal getTotalRevenue() {
+        return totalRevenue;
+    }
+    
+    public void setTotalRevenue(BigDecimal totalRevenue) {
+        this.totalRevenue = totalRevenue;
+    }
+    
+    @Override
+    public String toString() {
+        return "OrderSummary{" +
+                "orderCount=" + orderCount +
+                ", totalRevenue=" + totalRevenue +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * 按产品分组的销量与销售额统计
+ */
+public class ProductSalesStat {
+    
+    private Long productId;
+    
+    private Integer totalQuantity;
+    
+    private BigDecimal totalRevenue;
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Integer getTotalQuantity() {
+        return totalQuantity;
+    }
+    
+    public void setTotalQuantity(Integer totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+    
+    public BigDecimal getTotalRevenue() {
+        return totalRevenue;
+    }
+    
+    public void setTotalRevenue(BigDecimal totalRevenue) {
+        this.totalRevenue = totalRevenue;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductSalesStat{" +
+                "productId=" + productId +
+                ", totalQuantity=" + totalQuantity +
+                ", totalRevenue=" + totalRevenue +
+                '}';
+    }
+}
@@ -20,6 +20,7 @@ import java.util.Date;
 import java.util.List;
 
 import com.alibaba.cloud.ai.demo.entity.Feedback;
+import com.alibaba.cloud.ai.demo.entity.RatingCount;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Result;
@@ -51,6 +52,35 @@ public interface FeedbackMapper {
 	})
 	List<Feedback> selectByTimeRange(@Param("startTime") Date startTime, @Param("endTime") Date endTime);
 	
+	/**
+	 * 根据时间范围查询最近的N条反馈数据
+	 */
+	@Select("SELECT * FROM feedback WHERE created_at BETWEEN #{startTime} AND #{endTime} ORDER BY created_at DESC LIMIT #{limit}")
+	@Results({
+			@Result(property = "id", column = "id"),
+			@Result(property = "orderId", column = "order_id"),
+			@Result(property = "userId", column = "user_id"),
+			@Result(property = "feedbackType", column = "feedback_type"),
+			@Result(property = "rating", column = "rating"),
+			@Result(property = "content", column = "content"),
+			@Result(property = "solution", column = "solution"),
+			@Result(property = "createdAt", column = "created_at"),
+			@Result(property = "updatedAt", column = "updated_at")
+	})
+	List<Feedback> selectLatestByTimeRange(@Param("startTime") Date startTime, @Param("endTime") Date endTime,
+			@Param("limit") int limit);
+	
+	/**
+	 * 统计时间范围内各评分的反馈条数（忽略无评分的反馈）
+	 */
+	@Select("SELECT rating, COUNT(*) AS rating_count FROM feedback " +
+			"WHERE created_at BETWEEN #{startTime} AND #{endTime} AND rating IS NOT NULL GROUP BY rating")
+	@Results({
+			@Result(property = "rating", column = "rating"),
+			@Result(property = "count", column = "rating_count")
+	})
+	List<RatingCount> countByRatingAndTimeRange(@Param("startTime") Date startTime, @Param("endTime") Date endTime);
+	
 	/**
 	 * 获取反馈表中created_at的最大月份
 	 */
@@ -20,6 +20,8 @@ import java.util.Date;
 import java.util.List;
 
 import com.alibaba.cloud.ai.demo.entity.Order;
+import com.alibaba.cloud.ai.demo.entity.OrderSummary;
+import com.alibaba.cloud.ai.demo.entity.ProductSalesStat;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Result;
@@ -109,4 +111,56 @@ public interface OrderMapper {
     int countOrdersByUserIdAndTimeRange(@Param("userId") Long userId, 
                                         @Param("startTime") Date startTime,
                                         @Param("endTime") Date endTime);
+    
+    /**
+     * 汇总时间范围内的订单数量和销售额
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 订单汇总
+     */
+    @Select("SELECT COUNT(*) AS order_count, COALESCE(SUM(total_price), 0) AS total_revenue " +
+            "FROM orders WHERE created_at BETWEEN #{startTime} AND #{endTime}")
+    @Results({
+        @Result(property = "orderCount", column = "order_count"),
+        @Result(property = "totalRevenue", column = "total_revenue")
+    })
+    OrderSummary summarizeOrdersByTimeRange(@Param("startTime") Date startTime, @Param("endTime") Date endTime);
+    
+    /**
+     * 按产品分组统计时间范围内的销量和销售额，取销量最高的前N个产品
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param limit 返回的产品数量
+     * @return 产品销售统计列表
+     */
+    @Select("SELECT product_id, SUM(quantity) AS total_quantity, SUM(total_price) AS total_revenue " +
+            "FROM orders WHERE created_at BETWEEN #{startTime} AND #{endTime} " +
+            "GROUP BY product_id ORDER BY total_quantity DESC LIMIT #{limit}")
+    @Results({
+        @Result(property = "productId", column = "product_id"),
+        @Result(property = "totalQuantity", column = "total_quantity"),
+        @Result(property = "totalRevenue", column = "total_revenue")
+    })
+    List<ProductSalesStat> selectTopProductsByQuantity(@Param("startTime") Date startTime,
+                                                       @Param("endTime") Date endTime,
+                                                       @Param("limit") int limit);
+    
+    /**
+     * 按产品分组统计时间范围内的销量和销售额，取销售额最高的前N个产品
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param limit 返回的产品数量
+     * @return 产品销售统计列表
+     */
+    @Select("SELECT product_id, SUM(quantity) AS total_quantity, SUM(total_price) AS total_revenue " +
+            "FROM orders WHERE created_at BETWEEN #{startTime} AND #{endTime} " +
+            "GROUP BY product_id ORDER BY total_revenue DESC LIMIT #{limit}")
+    @Results({
+        @Result(property = "productId", column = "product_id"),
+        @Result(property = "totalQuantity", column = "total_quantity"),
+        @Result(property = "totalRevenue", column = "total_revenue")
+    })
+    List<ProductSalesStat> selectTopProductsByRevenue(@Param("startTime") Date startTime,
+                                                      @Param("endTime") Date endTime,
+                                                      @Param("limit") int limit);
 }
\ No newline at end of file
@@ -16,8 +16,12 @@
 
 package com.alibaba.cloud.ai.demo.mapper;
 
+import java.util.Collection;
+import java.util.List;
+
 import com.alibaba.cloud.ai.demo.entity.Product;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Result;
 import org.apache.ibatis.annotations.Results;
 import org.apache.ibatis.annotations.Select;
@@ -50,4 +54,30 @@ public interface ProductMapper {
             @Result(property = "updatedAt", column = "updated_at")
     })
     Product selectById(Long id);
+
+    /**
+     * 根据ID列表批量查找产品
+     */
+    @Select("<script>" +
+            "SELECT * FROM products WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    @Results({
+            @Result(property = "id", column = "id"),
+            @Result(property = "name", column = "name"),
+            @Result(property = "description", column = "description"),
+            @Result(property = "price", column = "price"),
+            @Result(property = "stock", column = "stock"),
+            @Result(property = "shelfTime", column = "shelf_time"),
+            @Result(property = "preparationTime", column = "preparation_time"),
+            @Result(property = "isSeasonal", column = "is_seasonal"),
+            @Result(property = "seasonStart", column = "season_start"),
+            @Result(property = "seasonEnd", column = "season_end"),
+            @Result(property = "isRegional", column = "is_regional"),
+            @Result(property = "availableRegions", column = "available_regions"),
+            @Result(property = "status", column = "status"),
+            @Result(property = "createdAt", column = "created_at"),
+            @Result(property = "updatedAt", column = "updated_at")
+    })
+    List<Product> selectByIds(@Param("ids") Collection<Long> ids);
 }
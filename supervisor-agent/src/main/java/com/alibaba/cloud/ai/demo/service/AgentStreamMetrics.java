@@ -0,0 +1,131 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.cloud.ai.graph.NodeOutput;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 监督者对话流指标
+ * sse.stream.duration：SSE 对话流从订阅到结束的耗时，按结束方式（complete/error/cancel）打标签；
+ * sse.stream.events：每次对话推送给前端的事件数；
+ * subagent.stream.duration：子智能体阶段耗时，按节点输出推断处理本次对话的子智能体，从首个 a2aNode 输出之前最后一次路由输出起，
+ * 到对话流结束为止；包含监督者转发与前端消费的时间，不是单次 A2A 请求的客户端延迟。
+ * 单次 A2A 调用的客户端耗时由 SubAgentCardRegistry 在实例占用与归还时记录为 a2a.client.requests。
+ */
+@Component
+public class AgentStreamMetrics {
+
+    private static final String A2A_NODE = "a2aNode";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> subAgents;
+
+    public AgentStreamMetrics(MeterRegistry meterRegistry,
+            @Value("${agent.supervisor.sub-agents:consult_agent,feedback_agent,order_agent}") List<String> subAgents) {
+        this.meterRegistry = meterRegistry;
+        this.subAgents = Set.copyOf(subAgents);
+    }
+
+    /**
+     * 观察路由图的节点输出，识别处理本次对话的子智能体并记录子智能体阶段耗时
+     */
+    public Flux<NodeOutput> observeNodes(Flux<NodeOutput> outputs) {
+        return observeNodes(outputs, null);
+    }
+
+    /**
+     * 观察节点输出并记录子智能体阶段耗时
+     *
+     * @param routedAgent 已由快速路由确定的子智能体，为空时从节点输出中识别
+     */
+    public Flux<NodeOutput> observeNodes(Flux<NodeOutput> outputs, String routedAgent) {
+        return Flux.defer(() -> {
+            AtomicLong lastRoutingAt = new AtomicLong(System.nanoTime());
+            AtomicLong a2aStartedAt = new AtomicLong();
+            AtomicReference<String> agent = new AtomicReference<>(routedAgent != null ? routedAgent : "unknown");
+            return outputs
+                    .doOnNext(output -> {
+                        String node = output.node();
+                        if (subAgents.contains(node)) {
+                            agent.set(node);
+                        }
+                        if (A2A_NODE.equals(node)) {
+                            a2aStartedAt.compareAndSet(0, lastRoutingAt.get());
+                        } else if (a2aStartedAt.get() == 0) {
+                            lastRoutingAt.set(System.nanoTime());
+                        }
+                    })
+                    .doFinally(signal -> {
+                        long startedAt = a2aStartedAt.get();
+                        if (startedAt != 0) {
+                            Timer.builder("subagent.stream.duration")
+                                    .description("子智能体阶段耗时（路由完成至对话流结束）")
+                                    .tag("agent", agent.get())
+                                    .tag("outcome", outcome(signal))
+                                    .register(meterRegistry)
+                                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * 记录 SSE 对话流的持续时间和推送事件数
+     */
+    public <T> Flux<T> observeStream(Flux<T> events) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicLong count = new AtomicLong();
+            return events
+                    .doOnNext(event -> count.incrementAndGet())
+                    .doFinally(signal -> {
+                        sample.stop(Timer.builder("sse.stream.duration")
+                                .description("SSE 对话流持续时间")
+                                .tag("outcome", outcome(signal))
+                                .register(meterRegistry));
+                        DistributionSummary.builder("sse.stream.events")
+                                .description("每次对话推送的 SSE 事件数")
+                                .register(meterRegistry)
+                                .record(count.get());
+                    });
+        });
+    }
+
+    static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "complete";
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancel";
+            default -> signal.name().toLowerCase();
+        };
+    }
+}
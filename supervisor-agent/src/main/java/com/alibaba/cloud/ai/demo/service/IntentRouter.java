@@ -0,0 +1,231 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 监督者快速意图路由
+ * 在调用大模型路由之前，用本地关键词打分加逻辑回归的方式识别意图明确的请求（如"下单"、ORDER_ 开头的订单号、投诉类关键词），
+ * 置信度达到阈值时直接交给对应的子智能体处理，否则返回空，由 LlmRoutingAgent 继续走大模型路由。
+ * 关键词按长度从长到短匹配，已被较长关键词覆盖的位置不再重复计分（如"取消订单"不会再额外计一次"订单"）；
+ * 订单信号与投诉类信号同时出现时（如"我要投诉订单ORDER_123"）视为意图不明确，不走快速路由。
+ */
+@Component
+public class IntentRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntentRouter.class);
+
+    private static final Pattern ORDER_ID_PATTERN = Pattern.compile("ORDER_\\d+");
+
+    /**
+     * 订单号是最强的订单意图信号
+     */
+    private static final double ORDER_ID_WEIGHT = 5.0;
+
+    /**
+     * 逻辑回归偏置：最高分必须明显领先第二名才会得到较高置信度
+     */
+    private static final double BIAS = -2.0;
+
+    /**
+     * 同时命中即视为意图不明确的子智能体组合：订单信号与投诉、退款类信号并存时可能是查单也可能是投诉
+     */
+    private static final Set<Set<String>> AMBIGUOUS_PAIRS = Set.of(Set.of("order_agent", "feedback_agent"));
+
+    private static final Map<String, Map<String, Double>> KEYWORD_WEIGHTS = new LinkedHashMap<>();
+
+    /**
+     * 各子智能体的关键词，按长度从长到短排列
+     */
+    private static final Map<String, List<Map.Entry<String, Double>>> KEYWORDS_BY_LENGTH = new LinkedHashMap<>();
+
+    static {
+        KEYWORD_WEIGHTS.put("order_agent", Map.ofEntries(
+                Map.entry("下单", 4.0),
+                Map.entry("订单", 3.0),
+                Map.entry("取消订单", 4.0),
+                Map.entry("修改订单", 4.0),
+                Map.entry("来一杯", 3.0),
+                Map.entry("点一杯", 3.0),
+                Map.entry("我要买", 3.0),
+                Map.entry("备注", 1.5),
+                Map.entry("少糖", 1.0),
+                Map.entry("去冰", 1.0)));
+        KEYWORD_WEIGHTS.put("feedback_agent", Map.ofEntries(
+                Map.entry("投诉", 4.0),
+                Map.entry("差评", 4.0),
+                Map.entry("难喝", 3.0),
+                Map.entry("不满意", 3.0),
+                Map.entry("态度差", 3.0),
+                Map.entry("退款", 3.0),
+                Map.entry("反馈", 3.0),
+                Map.entry("建议", 2.0)));
+        KEYWORD_WEIGHTS.put("consult_agent", Map.ofEntries(
+                Map.entry("推荐", 2.5),
+                Map.entry("活动", 2.5),
+                Map.entry("优惠", 2.5),
+                Map.entry("新品", 2.5),
+                Map.entry("冲泡", 3.0),
+                Map.entry("热量", 3.0),
+                Map.entry("卡路里", 3.0),
+                Map.entry("多少钱", 2.0),
+                Map.entry("介绍", 2.0),
+                Map.entry("有哪些", 1.5)));
+
+        KEYWORD_WEIGHTS.forEach((agent, weights) -> {
+            List<Map.Entry<String, Double>> keywords = new ArrayList<>(weights.entrySet());
+            keywords.sort(Comparator.comparingInt((Map.Entry<String, Double> keyword) -> keyword.getKey().length())
+                    .reversed());
+            KEYWORDS_BY_LENGTH.put(agent, List.copyOf(keywords));
+        });
+    }
+
+    private final boolean enabled;
+
+    private final double confidenceThreshold;
+
+    private final MeterRegistry meterRegistry;
+
+    public IntentRouter(@Value("${agent.supervisor.fast-route.enabled:true}") boolean enabled,
+                        @Value("${agent.supervisor.fast-route.confidence-threshold:0.8}") double confidenceThreshold,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.confidenceThreshold = confidenceThreshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 对用户输入做快速意图识别
+     *
+     * @param userQuery 原始用户输入（不含 userId 标记）
+     * @return 置信度达到阈值时返回目标子智能体名称，否则为空
+     */
+    public Optional<String> route(String userQuery) {
+        return decide(userQuery).fastRoute();
+    }
+
+    /**
+     * 对用户输入打分，返回得分最高的两个子智能体及最高者的置信度
+     *
+     * @param userQuery 原始用户输入（不含 userId 标记）
+     */
+    public RouteDecision decide(String userQuery) {
+        if (!enabled || userQuery == null || userQuery.isBlank()) {
+            return new RouteDecision(null, 0, null, 0, 0, false);
+        }
+
+        long start = System.nanoTime();
+        String best = null;
+        String second = null;
+        double bestScore = 0;
+        double secondScore = 0;
+        for (Map.Entry<String, List<Map.Entry<String, Double>>> agent : KEYWORDS_BY_LENGTH.entrySet()) {
+            double score = score(userQuery, agent.getKey(), agent.getValue());
+            if (score > bestScore) {
+                second = best;
+                secondScore = bestScore;
+                best = agent.getKey();
+                bestScore = score;
+            } else if (score > secondScore) {
+                second = agent.getKey();
+                secondScore = score;
+            }
+        }
+
+        double confidence = best == null ? 0 : 1.0 / (1.0 + Math.exp(-(bestScore - secondScore + BIAS)));
+        boolean ambiguous = second != null && AMBIGUOUS_PAIRS.contains(Set.of(best, second));
+        boolean hit = !ambiguous && confidence >= confidenceThreshold;
+        if (logger.isDebugEnabled()) {
+            logger.debug("Fast route: query={}, agent={}, runnerUp={}, confidence={}, ambiguous={}, cost={}us",
+                    userQuery, best, second, confidence, ambiguous, (System.nanoTime() - start) / 1000);
+        }
+
+        Counter.builder("supervisor.routing")
+                .description("监督者路由决策次数")
+                .tag("path", hit ? "fast" : "llm")
+                .tag("agent", hit ? best : "unknown")
+                .register(meterRegistry)
+                .increment();
+        return new RouteDecision(best, bestScore, second, secondScore, confidence, hit);
+    }
+
+    /**
+     * 按关键词从长到短计分，每个关键词最多计一次，且只计与已命中关键词不重叠的出现位置
+     */
+    private double score(String query, String agent, List<Map.Entry<String, Double>> keywords) {
+        double score = 0;
+        boolean[] covered = new boolean[query.length()];
+        for (Map.Entry<String, Double> keyword : keywords) {
+            if (matchUncovered(query, keyword.getKey(), covered)) {
+                score += keyword.getValue();
+            }
+        }
+        if ("order_agent".equals(agent) && ORDER_ID_PATTERN.matcher(query).find()) {
+            score += ORDER_ID_WEIGHT;
+        }
+        return score;
+    }
+
+    private static boolean matchUncovered(String query, String keyword, boolean[] covered) {
+        for (int from = query.indexOf(keyword); from >= 0; from = query.indexOf(keyword, from + 1)) {
+            int end = from + keyword.length();
+            boolean overlaps = false;
+            for (int i = from; i < end && !overlaps; i++) {
+                overlaps = covered[i];
+            }
+            if (!overlaps) {
+                for (int i = from; i < end; i++) {
+                    covered[i] = true;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 快速路由的打分结果
+     *
+     * @param agent       得分最高的子智能体，没有命中任何关键词时为空
+     * @param runnerUp    得分第二的子智能体，可能为空
+     * @param confidence  最高者相对第二名的置信度
+     * @param fast        置信度是否达到快速路由阈值，且不属于意图不明确的组合
+     */
+    public record RouteDecision(String agent, double score, String runnerUp, double runnerUpScore,
+                                double confidence, boolean fast) {
+
+        public Optional<String> fastRoute() {
+            return fast ? Optional.of(agent) : Optional.empty();
+        }
+    }
+}
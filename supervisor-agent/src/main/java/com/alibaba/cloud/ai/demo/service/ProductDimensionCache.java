@@ -0,0 +1,108 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.cloud.ai.demo.entity.Product;
+import com.alibaba.cloud.ai.demo.mapper.ProductMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 产品维度缓存
+ * 报表组装时按产品ID批量取产品信息，未命中的ID通过一次批量查询补齐；
+ * 已缓存的产品按固定间隔整体刷新，保证名称、价格等信息不会长期过期。
+ */
+@Component
+public class ProductDimensionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductDimensionCache.class);
+
+    private final ProductMapper productMapper;
+
+    /**
+     * 不可变快照，写入时整体替换，读取无需加锁
+     */
+    private volatile Map<Long, Product> snapshot = Map.of();
+
+    public ProductDimensionCache(ProductMapper productMapper) {
+        this.productMapper = productMapper;
+    }
+
+    /**
+     * 批量获取产品信息，最多产生一次数据库查询
+     * @param ids 产品ID集合
+     * @return 产品ID到产品的映射，不存在的产品不包含在结果中
+     */
+    public Map<Long, Product> getProducts(Collection<Long> ids) {
+        Map<Long, Product> current = snapshot;
+        Map<Long, Product> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long id : ids) {
+            Product product = current.get(id);
+            if (product != null) {
+                result.put(id, product);
+            } else if (id != null) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<Product> loaded = productMapper.selectByIds(missing);
+            loaded.forEach(product -> result.put(product.getId(), product));
+            merge(loaded);
+        }
+        return result;
+    }
+
+    /**
+     * 定时刷新已缓存的产品
+     */
+    @Scheduled(fixedDelayString = "${agent.product-cache.refresh-interval-ms:600000}")
+    public synchronized void refresh() {
+        Set<Long> ids = snapshot.keySet();
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            List<Product> loaded = productMapper.selectByIds(ids);
+            Map<Long, Product> refreshed = new HashMap<>();
+            loaded.forEach(product -> refreshed.put(product.getId(), product));
+            snapshot = Map.copyOf(refreshed);
+            logger.info("Product dimension cache refreshed, {} products", refreshed.size());
+        } catch (Exception e) {
+            logger.warn("Failed to refresh product dimension cache, keep previous snapshot", e);
+        }
+    }
+
+    private synchronized void merge(List<Product> loaded) {
+        if (loaded.isEmpty()) {
+            return;
+        }
+        Map<Long, Product> merged = new HashMap<>(snapshot);
+        loaded.forEach(product -> merged.put(product.getId(), product));
+        snapshot = Map.copyOf(merged);
+    }
+}
@@ -0,0 +1,617 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.cloud.ai.graph.NodeOutput;
+import com.alibaba.cloud.ai.graph.agent.a2a.AgentCardProvider;
+import com.alibaba.cloud.ai.graph.agent.a2a.AgentCardWrapper;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.a2a.spec.AgentCard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * 子智能体 AgentCard 缓存与实例负载均衡
+ * 1. 本地缓存从 Nacos 获取的 AgentCard，后台按固定间隔刷新，版本（version + url）变化时才替换；
+ * 2. 每个子智能体可有多个实例（AgentCard 中的地址加上 agent.a2a.instances 中配置的地址），
+ *    后台探测各实例的 AgentCard 地址，连续失败达到阈值的实例被摘除，恢复后自动加回；
+ * 3. 实例在 A2A 请求选取 AgentCard 时占用：每轮对话由 {@link #track} 登记，A2A 节点读取 AgentCard 时为该轮占用
+ *    一个未完成请求数最少的健康实例（least-outstanding-requests）并返回这一实例，选中的实例与占用的实例始终一致；
+ *    同一轮之后的读取返回同一实例，对话流结束（完成、出错或取消）时归还。
+ *    在本轮对话的订阅和拉取过程中读取时直接归属本轮；其他线程上的读取（如大模型路由完成后在模型回调线程上发起的
+ *    子智能体调用）归属最早登记、尚未占用且可路由到该子智能体的一轮，并发的大模型路由对话之间可能互换归属，
+ *    但每次占用都对应一次实际发起的 A2A 请求，并在某一轮结束时归还。没有等待占用的对话时（如启动时打印 AgentCard）
+ *    读取不占用实例。全部实例不健康时回退到 Nacos 返回的 AgentCard，保证路由不中断。
+ * 4. 每次占用从选取实例到对话流结束的耗时记录为 a2a.client.requests（标签：agent、instance、outcome），
+ *    即监督者侧观察到的单次 A2A 调用延迟。
+ */
+@Component
+public class SubAgentCardRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubAgentCardRegistry.class);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * 当前线程正在处理的对话
+     */
+    private static final ThreadLocal<Turn> BOUND_TURN = new ThreadLocal<>();
+
+    private final AgentCardProvider delegate;
+
+    private final Environment environment;
+
+    private final MeterRegistry meterRegistry;
+
+    private final HttpClient httpClient;
+
+    private final Map<String, SubAgent> subAgents = new ConcurrentHashMap<>();
+
+    /**
+     * 已登记但尚未占用实例的对话，按登记顺序排列
+     */
+    private final Queue<Turn> pendingTurns = new ConcurrentLinkedQueue<>();
+
+    private final AgentCardProvider cardProvider = new CachedCardProvider();
+
+    private final ScheduledExecutorService scheduler;
+
+    @Value("${agent.a2a.card-path:/.well-known/agent.json}")
+    private String cardPath;
+
+    @Value("${agent.a2a.health-timeout-ms:1000}")
+    private long healthTimeoutMillis;
+
+    @Value("${agent.a2a.unhealthy-threshold:2}")
+    private int unhealthyThreshold;
+
+    public SubAgentCardRegistry(AgentCardProvider agentCardProvider, Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${agent.a2a.card-refresh-ms:30000}") long cardRefreshMillis,
+            @Value("${agent.a2a.health-interval-ms:5000}") long healthIntervalMillis) {
+        this.delegate = agentCardProvider;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(1000))
+                .build();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(1, r -> {
+            Thread thread = new Thread(r, "agent-card-registry-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshCards, cardRefreshMillis, cardRefreshMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::probeInstances, healthIntervalMillis, healthIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 供 A2aRemoteAgent 使用的 AgentCardProvider，按名称返回带负载均衡的 AgentCard
+     */
+    public AgentCardProvider cardProvider() {
+        return cardProvider;
+    }
+
+    /**
+     * 跟踪一轮对话：登记本轮，A2A 请求读取 AgentCard 时为本轮占用实例，对话流结束时归还，每轮最多占用一次
+     *
+     * @param outputs     创建本轮对话节点输出流，在订阅时调用，以便图执行期间的读取归属本轮
+     * @param routedAgent 已由快速路由确定的子智能体，为空时本轮可占用任一子智能体的实例
+     */
+    public Flux<NodeOutput> track(Callable<Flux<NodeOutput>> outputs, String routedAgent) {
+        return Flux.defer(() -> {
+            Turn turn = new Turn(routedAgent);
+            pendingTurns.add(turn);
+            Publisher<NodeOutput> bound = subscriber -> turn.bind(() -> {
+                Flux<NodeOutput> source;
+                try {
+                    source = outputs.call();
+                } catch (Exception e) {
+                    source = Flux.error(e);
+                }
+                source.subscribe(new TurnBindingSubscriber<>(subscriber, turn));
+            });
+            return Flux.from(bound)
+                    .doFinally(signal -> {
+                        pendingTurns.remove(turn);
+                        turn.release(AgentStreamMetrics.outcome(signal));
+                    });
+        });
+    }
+
+    /**
+     * 各子智能体实例的当前状态，用于排查
+     */
+    public Map<String, List<Map<String, Object>>> stats() {
+        Map<String, List<Map<String, Object>>> stats = new LinkedHashMap<>();
+        subAgents.forEach((name, subAgent) -> {
+            List<Map<String, Object>> instances = new ArrayList<>();
+            for (Instance instance : subAgent.instances.values()) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("baseUri", instance.baseUri.toString());
+                item.put("healthy", instance.healthy);
+                item.put("outstanding", instance.outstanding.get());
+                item.put("consecutiveFailures", instance.failures);
+                instances.add(item);
+            }
+            stats.put(name, instances);
+        });
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private SubAgent register(String name) {
+        return subAgents.computeIfAbsent(name, key -> {
+            SubAgent subAgent = new SubAgent(key);
+            subAgent.refresh();
+            String configured = environment.getProperty("agent.a2a.instances." + key, "");
+            Arrays.stream(configured.split(","))
+                    .map(String::trim)
+                    .filter(url -> !url.isEmpty())
+                    .forEach(subAgent::addInstance);
+            return subAgent;
+        });
+    }
+
+    private void refreshCards() {
+        for (SubAgent subAgent : subAgents.values()) {
+            try {
+                subAgent.refresh();
+            } catch (Exception e) {
+                // 刷新失败时继续使用本地缓存的 AgentCard
+                logger.warn("Failed to refresh agent card of {}, keep cached card: {}", subAgent.name, e.getMessage());
+            }
+        }
+    }
+
+    private void probeInstances() {
+        for (SubAgent subAgent : subAgents.values()) {
+            for (Instance instance : subAgent.instances.values()) {
+                probe(subAgent.name, instance);
+            }
+        }
+    }
+
+    private void probe(String name, Instance instance) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(instance.baseUri.resolve(cardPath))
+                    .timeout(Duration.ofMillis(healthTimeoutMillis))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("HTTP " + response.statusCode());
+            }
+            instance.card = OBJECT_MAPPER.readValue(response.body(), AgentCard.class);
+            instance.failures = 0;
+            if (!instance.healthy) {
+                instance.healthy = true;
+                logger.info("Sub-agent instance {} of {} is healthy again", instance.baseUri, name);
+            }
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            instance.failures++;
+            if (instance.healthy && instance.failures >= unhealthyThreshold) {
+                instance.healthy = false;
+                logger.warn("Ejected sub-agent instance {} of {} after {} failed health checks: {}", instance.baseUri,
+                        name, instance.failures, e.getMessage());
+            }
+        }
+    }
+
+    private static URI baseUri(String url) {
+        URI uri = URI.create(url);
+        return URI.create(uri.getScheme() + "://" + uri.getRawAuthority());
+    }
+
+    /**
+     * 委托原有 AgentCardProvider，按名称返回缓存并负载均衡的 AgentCard
+     */
+    private class CachedCardProvider implements AgentCardProvider {
+
+        public AgentCardWrapper getAgentCard() {
+            return delegate.getAgentCard();
+        }
+
+        @Override
+        public AgentCardWrapper getAgentCard(String name) {
+            SubAgent subAgent = register(name);
+            return new BalancedAgentCardWrapper(subAgent);
+        }
+
+        public boolean supportGetAgentCardByName() {
+            return true;
+        }
+    }
+
+    /**
+     * 读取 AgentCard 即选取本次 A2A 请求的实例：返回为所属对话占用的实例，不属于任何对话时返回当前负载最低的实例
+     */
+    private static class BalancedAgentCardWrapper extends AgentCardWrapper {
+
+        private final SubAgent subAgent;
+
+        BalancedAgentCardWrapper(SubAgent subAgent) {
+            super(subAgent.cachedCard);
+            this.subAgent = subAgent;
+        }
+
+        @Override
+        public AgentCard getAgentCard() {
+            return subAgent.select();
+        }
+    }
+
+    /**
+     * 单个子智能体的缓存 AgentCard 和实例集合
+     */
+    private class SubAgent {
+
+        private final String name;
+
+        private final Map<URI, Instance> instances = new ConcurrentHashMap<>();
+
+        private volatile AgentCard cachedCard;
+
+        private volatile String version;
+
+        SubAgent(String name) {
+            this.name = name;
+        }
+
+        void refresh() {
+            AgentCardWrapper wrapper = delegate.getAgentCard(name);
+            AgentCard card = wrapper != null ? wrapper.getAgentCard() : null;
+            if (card == null) {
+                return;
+            }
+            String latest = card.version() + "@" + card.url();
+            if (!latest.equals(version)) {
+                logger.info("Agent card of {} updated: {} -> {}", name, version, latest);
+                cachedCard = card;
+                version = latest;
+                addInstance(card.url());
+            }
+        }
+
+        void addInstance(String url) {
+            URI baseUri = baseUri(url);
+            instances.computeIfAbsent(baseUri, key -> {
+                Instance instance = new Instance(key);
+                scheduler.execute(() -> probe(name, instance));
+                return instance;
+            });
+        }
+
+        /**
+         * 为所属对话占用（或沿用已占用的）实例并返回；当前线程未绑定对话时归属最早登记、尚未占用的对话，
+         * 没有可归属的对话时返回负载最低的健康实例，不占用
+         */
+        AgentCard select() {
+            Turn turn = BOUND_TURN.get();
+            Lease lease = turn != null && turn.accepts(this) ? turn.leaseFor(this) : null;
+            if (lease == null && (turn == null || !turn.accepts(this))) {
+                lease = claimPendingTurn();
+            }
+            if (lease != null) {
+                return lease.instance.card;
+            }
+            Instance selected = leastOutstanding();
+            return selected != null ? selected.card : cachedCard;
+        }
+
+        /**
+         * 为最早登记、尚未占用的对话占用实例；并发读取争用同一轮时，未争到的读取继续归属下一轮
+         */
+        private Lease claimPendingTurn() {
+            for (Turn pending : pendingTurns) {
+                if (!pending.accepts(this) || pending.hasLease()) {
+                    continue;
+                }
+                Lease acquired = acquire();
+                if (acquired == null) {
+                    return null;
+                }
+                if (pending.claim(acquired)) {
+                    pendingTurns.remove(pending);
+                    return acquired;
+                }
+                acquired.release();
+            }
+            return null;
+        }
+
+        /**
+         * 占用负载最低的健康实例，没有可用实例时返回空
+         */
+        Lease acquire() {
+            Instance selected = leastOutstanding();
+            if (selected == null) {
+                return null;
+            }
+            selected.outstanding.incrementAndGet();
+            return new Lease(this, selected, System.nanoTime());
+        }
+
+        private Instance leastOutstanding() {
+            return instances.values().stream()
+                    .filter(instance -> instance.healthy && instance.card != null)
+                    .min(Comparator.comparingInt(instance -> instance.outstanding.get()))
+                    .orElse(null);
+        }
+    }
+
+    private static class Instance {
+
+        private final URI baseUri;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        /**
+         * 实例自身暴露的 AgentCard，探测成功前为空，此时不参与负载均衡
+         */
+        private volatile AgentCard card;
+
+        private volatile boolean healthy = true;
+
+        private volatile int failures;
+
+        Instance(URI baseUri) {
+            this.baseUri = baseUri;
+        }
+    }
+
+    /**
+     * 一轮对话对某个实例的占用，只归还一次
+     */
+    private final class Lease {
+
+        private final SubAgent subAgent;
+
+        private final Instance instance;
+
+        private final long acquiredAt;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Lease(SubAgent subAgent, Instance instance, long acquiredAt) {
+            this.subAgent = subAgent;
+            this.instance = instance;
+            this.acquiredAt = acquiredAt;
+        }
+
+        /**
+         * 归还未被使用的占用（争用失败或对话已结束），不计入 A2A 调用耗时
+         */
+        void release() {
+            release(null);
+        }
+
+        /**
+         * 归还占用，outcome 不为空时记录本次 A2A 调用耗时
+         */
+        void release(String outcome) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            instance.outstanding.decrementAndGet();
+            if (outcome != null) {
+                Timer.builder("a2a.client.requests")
+                        .description("监督者发起的 A2A 子智能体调用耗时（选取实例至对话流结束）")
+                        .tag("agent", subAgent.name)
+                        .tag("instance", instance.baseUri.getRawAuthority())
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * 一轮对话的占用状态：最多占用一次，结束后归还且不再占用
+     */
+    private static final class Turn {
+
+        /**
+         * 快速路由确定的子智能体，为空时可占用任一子智能体的实例
+         */
+        private final String routedAgent;
+
+        private final AtomicReference<Lease> lease = new AtomicReference<>();
+
+        private volatile boolean finished;
+
+        Turn(String routedAgent) {
+            this.routedAgent = routedAgent;
+        }
+
+        boolean hasLease() {
+            return lease.get() != null;
+        }
+
+        /**
+         * 本轮是否可以由该子智能体的请求占用
+         */
+        boolean accepts(SubAgent subAgent) {
+            if (finished || (routedAgent != null && !routedAgent.equals(subAgent.name))) {
+                return false;
+            }
+            Lease acquired = lease.get();
+            return acquired == null || acquired.subAgent == subAgent;
+        }
+
+        /**
+         * 返回本轮对该子智能体的占用，尚未占用时占用负载最低的健康实例；占用的实例已被摘除或无可用实例时返回空
+         */
+        Lease leaseFor(SubAgent subAgent) {
+            if (lease.get() == null) {
+                Lease acquired = subAgent.acquire();
+                if (acquired != null && !claim(acquired)) {
+                    acquired.release();
+                }
+            }
+            Lease current = lease.get();
+            return current != null && current.subAgent == subAgent && current.instance.healthy ? current : null;
+        }
+
+        /**
+         * 将占用记为本轮的占用，本轮已有占用或已结束时返回 false，由调用方归还
+         */
+        boolean claim(Lease acquired) {
+            if (finished || !lease.compareAndSet(null, acquired)) {
+                return false;
+            }
+            if (finished) {
+                // 与 release 并发：本轮已结束，撤回刚记下的占用
+                lease.compareAndSet(acquired, null);
+                return false;
+            }
+            return true;
+        }
+
+        void release() {
+            release(null);
+        }
+
+        /**
+         * 结束本轮并归还占用，outcome 为对话流的结束方式
+         */
+        void release(String outcome) {
+            finished = true;
+            Lease acquired = lease.getAndSet(null);
+            if (acquired != null) {
+                acquired.release(outcome);
+            }
+        }
+
+        /**
+         * 在当前线程上绑定本轮对话后执行
+         */
+        void bind(Runnable action) {
+            Turn previous = BOUND_TURN.get();
+            BOUND_TURN.set(this);
+            try {
+                action.run();
+            } finally {
+                if (previous != null) {
+                    BOUND_TURN.set(previous);
+                } else {
+                    BOUND_TURN.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 在订阅和每次拉取期间绑定本轮对话，使图执行中同步读取 AgentCard 的节点归属本轮
+     */
+    private static final class TurnBindingSubscriber<T> implements CoreSubscriber<T>, Subscription {
+
+        private final CoreSubscriber<? super T> actual;
+
+        private final Turn turn;
+
+        private Subscription upstream;
+
+        TurnBindingSubscriber(Subscriber<? super T> actual, Turn turn) {
+            this.actual = Operators.toCoreSubscriber(actual);
+            this.turn = turn;
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.upstream = subscription;
+            actual.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T value) {
+            actual.onNext(value);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            actual.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            turn.bind(() -> upstream.request(n));
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.demo.config.scheduling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 使用本地桩 webhook 验证钉钉 errcode 处理、重试和按标题合并
+ */
+class DingWebhookClientTest {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private HttpServer server;
+
+	private String webhookUrl;
+
+	/**
+	 * 依次返回的响应体，用完后返回成功
+	 */
+	private final Queue<String> responses = new ConcurrentLinkedQueue<>();
+
+	private final Queue<JsonNode> received = new ConcurrentLinkedQueue<>();
+
+	private DingWebhookClient client;
+
+	@BeforeEach
+	void startStubWebhook() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/robot/send", exchange -> {
+			received.add(OBJECT_MAPPER.readTree(exchange.getRequestBody()));
+			String body = responses.poll();
+			byte[] bytes = (body == null ? "{\"errcode\":0,\"errmsg\":\"ok\"}" : body).getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		});
+		server.start();
+		webhookUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/robot/send?access_token=test";
+	}
+
+	@AfterEach
+	void stopStubWebhook() {
+		if (client != null) {
+			client.shutdown();
+		}
+		server.stop(0);
+	}
+
+	@Test
+	void failsWithoutRetryOnNonRetryableErrcode() {
+		client = new DingWebhookClient(DingWebhookClient.pooledRestTemplate(1000, 1000), 3, 10, 0, 10, 2);
+		responses.add("{\"errcode\":310000,\"errmsg\":\"keywords not in content\"}");
+
+		assertThatThrownBy(() -> client.send(webhookUrl, "日报", "内容").join())
+			.isInstanceOf(CompletionException.class)
+			.hasCauseInstanceOf(DingWebhookClient.DingWebhookException.class);
+		assertThat(received).hasSize(1);
+	}
+
+	@Test
+	void retriesThrottledDeliveryUntilAccepted() {
+		client = new DingWebhookClient(DingWebhookClient.pooledRestTemplate(1000, 1000), 3, 10, 0, 10, 2);
+		responses.add("{\"errcode\":130101,\"errmsg\":\"send too fast\"}");
+
+		String response = client.send(webhookUrl, "日报", "内容").join();
+
+		assertThat(response).contains("\"errcode\":0");
+		assertThat(received).hasSize(2);
+	}
+
+	@Test
+	void givesUpAfterMaxAttempts() {
+		client = new DingWebhookClient(DingWebhookClient.pooledRestTemplate(1000, 1000), 2, 10, 0, 10, 2);
+		responses.add("{\"errcode\":-1,\"errmsg\":\"system busy\"}");
+		responses.add("{\"errcode\":-1,\"errmsg\":\"system busy\"}");
+		responses.add("{\"errcode\":-1,\"errmsg\":\"system busy\"}");
+
+		assertThatThrownBy(() -> client.send(webhookUrl, "日报", "内容").join())
+			.hasCauseInstanceOf(DingWebhookClient.DingWebhookException.class);
+		assertThat(received).hasSize(2);
+	}
+
+	@Test
+	void coalescesOnlyMessagesWithTheSameTitle() {
+		client = new DingWebhookClient(DingWebhookClient.pooledRestTemplate(1000, 1000), 1, 10, 200, 10, 2);
+
+		List<CompletableFuture<String>> futures = List.of(client.send(webhookUrl, "经营日报", "门店A"),
+				client.send(webhookUrl, "经营日报", "门店B"), client.send(webhookUrl, "评价分析", "评价汇总"));
+		CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+		assertThat(received).hasSize(2);
+		assertThat(received).anySatisfy(body -> {
+			assertThat(body.at("/markdown/title").asText()).isEqualTo("经营日报");
+			assertThat(body.at("/markdown/text").asText()).contains("门店A").contains("门店B");
+		});
+		assertThat(received).anySatisfy(body -> {
+			assertThat(body.at("/markdown/title").asText()).isEqualTo("评价分析");
+			assertThat(body.at("/markdown/text").asText()).isEqualTo("评价汇总");
+		});
+	}
+
+}
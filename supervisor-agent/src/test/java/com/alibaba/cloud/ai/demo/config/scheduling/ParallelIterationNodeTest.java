@@ -0,0 +1,77 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.demo.config.scheduling;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.cloud.ai.graph.OverAllState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 检查点按元素内容记录，输入列表变化后已处理的元素仍然跳过
+ */
+class ParallelIterationNodeTest {
+
+	@TempDir
+	Path checkpointDir;
+
+	@Test
+	void resumesProcessedItemsAfterListChanges() throws Exception {
+		Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+		AtomicInteger failOn = new AtomicInteger(3);
+		ParallelIterationNode node = ParallelIterationNode.builder()
+			.inputArrayKey("items")
+			.outputArrayKey("results")
+			.concurrency(1)
+			.checkpointDir(checkpointDir.toString())
+			.itemProcessor(item -> {
+				calls.computeIfAbsent(item, k -> new AtomicInteger()).incrementAndGet();
+				if (item.equals("item-" + failOn.get())) {
+					throw new IllegalStateException("model unavailable");
+				}
+				return item.toUpperCase();
+			})
+			.build();
+
+		List<String> firstRun = List.of("item-0", "item-1", "item-2", "item-3", "item-4");
+		assertThatThrownBy(() -> node.apply(new OverAllState(Map.of("items", firstRun))))
+			.isInstanceOf(IllegalStateException.class);
+
+		// 第二次执行时列表顺序变化并追加了新元素，模拟评价查询窗口随执行时间移动
+		failOn.set(-1);
+		List<String> secondRun = new ArrayList<>(List.of("item-5", "item-2", "item-1", "item-0", "item-3", "item-4"));
+		Map<String, Object> output = node.apply(new OverAllState(Map.of("items", secondRun)));
+
+		assertThat((String) output.get("results"))
+			.isEqualTo("[\"ITEM-5\",\"ITEM-2\",\"ITEM-1\",\"ITEM-0\",\"ITEM-3\",\"ITEM-4\"]");
+		assertThat(calls.get("item-0").get()).isEqualTo(1);
+		assertThat(calls.get("item-1").get()).isEqualTo(1);
+		assertThat(calls.get("item-2").get()).isEqualTo(1);
+		assertThat(calls.get("item-3").get()).isEqualTo(2);
+		assertThat(calls.get("item-5").get()).isEqualTo(1);
+		assertThat(checkpointDir.resolve("iteration-results.ckpt")).doesNotExist();
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.controller;
+
+import com.alibaba.cloud.ai.graph.RunnableConfig;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 路由图只在启动时编译一次，并发请求共享同一个 CompiledGraph，每个请求的会话按 chat_id 和图名传入
+ */
+class CompiledGraphReuseTest {
+
+    private static final int REQUESTS = 1000;
+
+    @Test
+    void concurrentChatsShareTheGraphCompiledAtStartup() throws Exception {
+        SupervisorControllerFixture fixture = new SupervisorControllerFixture(input -> Flux.empty());
+        SupervisorAgentController controller = fixture.controller();
+
+        Flux.range(0, REQUESTS)
+                .flatMap(i -> Mono.fromCallable(() -> controller.chat("chat-" + i, "你好", "user-" + i))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMapMany(events -> events), 64)
+                .blockLast(Duration.ofSeconds(30));
+
+        verify(fixture.supervisorAgent, times(1)).getAndCompileGraph();
+        verify(fixture.routingGraph, times(REQUESTS)).fluxStream(anyMap(), any());
+    }
+
+    @Test
+    void routingGraphCheckpointsUnderItsOwnThreadOfTheChat() throws Exception {
+        SupervisorControllerFixture fixture = new SupervisorControllerFixture(input -> Flux.empty());
+
+        fixture.controller().chat("chat-1", "你好", "user-1").blockLast(Duration.ofSeconds(5));
+
+        ArgumentCaptor<RunnableConfig> config = ArgumentCaptor.forClass(RunnableConfig.class);
+        verify(fixture.routingGraph).fluxStream(anyMap(), config.capture());
+        assertThat(config.getValue().threadId()).contains("chat-1:supervisor_agent");
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.controller;
+
+import com.alibaba.cloud.ai.graph.NodeOutput;
+import com.alibaba.cloud.ai.graph.streaming.StreamingOutput;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 1000 个慢客户端同时对话：子智能体快速推送小块输出，客户端每隔一段时间才拉取一帧。
+ * 合并成帧后每个客户端都收到完整内容且帧数远少于块数；不读取的客户端在缓冲达到上限后收到错误提示，上游被取消。
+ */
+class SlowClientLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowClientLoadTest.class);
+
+    private static final int CLIENTS = 1000;
+
+    private static final int CHUNKS_PER_CHAT = 200;
+
+    private static final String CHUNK = "0123456789";
+
+    /**
+     * 慢客户端每收到一帧后等待的时间
+     */
+    private static final Duration CLIENT_READ_INTERVAL = Duration.ofMillis(100);
+
+    private final StreamingOutput chunk = streamingChunk(CHUNK);
+
+    @Test
+    void thousandSlowClientsReceiveCompleteCoalescedStreams() throws Exception {
+        AtomicInteger activeStreams = new AtomicInteger();
+        AtomicInteger peakActiveStreams = new AtomicInteger();
+        SupervisorControllerFixture fixture = new SupervisorControllerFixture(input ->
+                Flux.interval(Duration.ofMillis(5))
+                        .take(CHUNKS_PER_CHAT)
+                        .<NodeOutput>map(i -> chunk)
+                        .doOnSubscribe(subscription ->
+                                peakActiveStreams.accumulateAndGet(activeStreams.incrementAndGet(), Math::max))
+                        .doFinally(signal -> activeStreams.decrementAndGet()));
+        SupervisorAgentController controller = fixture.controller();
+
+        int threadsBefore = Thread.activeCount();
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        List<SlowClient> clients = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < CLIENTS; i++) {
+            SlowClient client = new SlowClient(done);
+            clients.add(client);
+            controller.chat("chat-" + i, "你好", "user-" + i).subscribe(client);
+        }
+
+        assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int threadsDuring = Thread.activeCount();
+
+        String expected = CHUNK.repeat(CHUNKS_PER_CHAT);
+        int maxFrames = 0;
+        long totalFrames = 0;
+        for (SlowClient client : clients) {
+            assertThat(client.error).isNull();
+            assertThat(client.content.toString()).isEqualTo(expected);
+            maxFrames = Math.max(maxFrames, client.frames);
+            totalFrames += client.frames;
+        }
+        logger.info("slow clients={}, elapsed={}ms, peak concurrent streams={}, frames/client avg={} max={}, "
+                        + "threads before={} during={}", CLIENTS, elapsedMillis, peakActiveStreams.get(),
+                totalFrames / (double) CLIENTS, maxFrames, threadsBefore, threadsDuring);
+
+        assertThat(peakActiveStreams.get()).isGreaterThan(CLIENTS / 2);
+        assertThat(maxFrames).isLessThan(CHUNKS_PER_CHAT / 4);
+        // 慢客户端不占用线程
+        assertThat(threadsDuring - threadsBefore).isLessThan(CLIENTS / 10);
+        assertThat(activeStreams.get()).isZero();
+    }
+
+    @Test
+    void stalledClientsHitTheBufferLimitAndCancelUpstream() throws Exception {
+        AtomicInteger cancelled = new AtomicInteger();
+        SupervisorControllerFixture fixture = new SupervisorControllerFixture(input ->
+                Flux.interval(Duration.ofMillis(1))
+                        .<NodeOutput>map(i -> chunk)
+                        .doOnCancel(cancelled::incrementAndGet));
+        SupervisorAgentController controller = fixture.controller();
+        ReflectionTestUtils.setField(controller, "maxBufferedChunks", 64);
+        ReflectionTestUtils.setField(controller, "maxChunksPerFrame", 16);
+
+        int stalled = 100;
+        List<StalledClient> clients = new ArrayList<>();
+        for (int i = 0; i < stalled; i++) {
+            StalledClient client = new StalledClient();
+            clients.add(client);
+            controller.chat("stalled-" + i, "你好", "user-" + i).subscribe(client);
+        }
+
+        // 客户端只拉取了一帧，子智能体持续推送，缓冲达到上限后上游被取消
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (cancelled.get() < stalled && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(cancelled.get()).isEqualTo(stalled);
+
+        // 客户端恢复读取后收到剩余帧和错误提示，对话正常结束
+        clients.forEach(client -> client.request(Long.MAX_VALUE));
+        for (StalledClient client : clients) {
+            assertThat(client.done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(client.events).isNotEmpty();
+            assertThat(client.events.get(client.events.size() - 1)).isEqualTo("系统处理出现错误，请稍后重试。");
+            // 每个客户端积压的块数以缓冲上限加少量已合并的帧为界
+            assertThat(String.join("", client.events).length() / CHUNK.length()).isLessThanOrEqualTo(64 + 16 * 6);
+        }
+    }
+
+    private static StreamingOutput streamingChunk(String text) {
+        StreamingOutput output = mock(StreamingOutput.class);
+        when(output.node()).thenReturn("a2aNode");
+        when(output.chunk()).thenReturn(text);
+        return output;
+    }
+
+    /**
+     * 拉取一帧后停止读取，直到测试主动恢复
+     */
+    private static final class StalledClient extends BaseSubscriber<ServerSentEvent<String>> {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            request(1);
+        }
+
+        @Override
+        protected void hookOnNext(ServerSentEvent<String> event) {
+            if (event.data() != null) {
+                events.add(event.data());
+            }
+        }
+
+        @Override
+        protected void hookFinally(SignalType type) {
+            done.countDown();
+        }
+    }
+
+    /**
+     * 每收到一帧后等待 CLIENT_READ_INTERVAL 再拉取下一帧的客户端
+     */
+    private static final class SlowClient extends BaseSubscriber<ServerSentEvent<String>> {
+
+        private final CountDownLatch done;
+
+        private final StringBuilder content = new StringBuilder();
+
+        private volatile int frames;
+
+        private volatile Throwable error;
+
+        SlowClient(CountDownLatch done) {
+            this.done = done;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            request(1);
+        }
+
+        @Override
+        protected void hookOnNext(ServerSentEvent<String> event) {
+            if (event.data() != null) {
+                synchronized (content) {
+                    content.append(event.data());
+                }
+                frames++;
+            }
+            Schedulers.parallel().schedule(() -> request(1), CLIENT_READ_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        protected void hookFinally(SignalType type) {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.controller;
+
+import com.alibaba.cloud.ai.demo.service.AgentStreamMetrics;
+import com.alibaba.cloud.ai.demo.service.IntentRouter;
+import com.alibaba.cloud.ai.demo.service.SubAgentCardRegistry;
+import com.alibaba.cloud.ai.graph.CompiledGraph;
+import com.alibaba.cloud.ai.graph.NodeOutput;
+import com.alibaba.cloud.ai.graph.agent.flow.agent.LlmRoutingAgent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 构造使用桩路由图的 SupervisorAgentController，供控制器测试共用
+ */
+final class SupervisorControllerFixture {
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    final LlmRoutingAgent supervisorAgent = mock(LlmRoutingAgent.class);
+
+    final CompiledGraph routingGraph = mock(CompiledGraph.class);
+
+    final SubAgentCardRegistry cardRegistry = mock(SubAgentCardRegistry.class);
+
+    SupervisorControllerFixture(Function<Map<String, Object>, Flux<NodeOutput>> graphOutput) throws Exception {
+        when(supervisorAgent.getAndCompileGraph()).thenReturn(routingGraph);
+        when(routingGraph.fluxStream(anyMap(), any())).thenAnswer(invocation -> graphOutput.apply(invocation.getArgument(0)));
+        when(cardRegistry.track(any(), nullable(String.class)))
+                .thenAnswer(invocation -> Flux.defer(() -> {
+                    try {
+                        return invocation.<Callable<Flux<NodeOutput>>>getArgument(0).call();
+                    } catch (Exception e) {
+                        return Flux.error(e);
+                    }
+                }));
+    }
+
+    SupervisorAgentController controller() {
+        SupervisorAgentController controller = new SupervisorAgentController(supervisorAgent, List.of(),
+                new IntentRouter(false, 0.8, meterRegistry),
+                new AgentStreamMetrics(meterRegistry, List.of("consult_agent", "feedback_agent", "order_agent")),
+                cardRegistry);
+        ReflectionTestUtils.setField(controller, "coalesceMillis", 50L);
+        ReflectionTestUtils.setField(controller, "maxChunksPerFrame", 64);
+        ReflectionTestUtils.setField(controller, "maxBufferedChunks", 1024);
+        ReflectionTestUtils.setField(controller, "heartbeatMillis", 15_000L);
+        ReflectionTestUtils.setField(controller, "firstChunkTimeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(controller, "idleTimeoutMillis", 30_000L);
+        ReflectionTestUtils.setField(controller, "totalTimeoutMillis", 300_000L);
+        return controller;
+    }
+}
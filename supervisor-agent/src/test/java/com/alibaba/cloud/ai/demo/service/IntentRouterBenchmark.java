@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 快速意图路由基准测试：在标注样本与领域外客服会话上统计路由覆盖率、误判数，以及每次路由决策的耗时分位数
+ * 快速路由位于每轮对话的关键路径上，未命中时还要再走一次大模型路由，因此关注的是决策本身的额外耗时
+ * 通过 mvn test -Pbenchmark 运行，结果输出到日志
+ */
+@Tag("benchmark")
+class IntentRouterBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntentRouterBenchmark.class);
+
+    private static final int WARMUP_ROUNDS = 200;
+
+    private static final int MEASURED_ROUNDS = 1_000;
+
+    @Test
+    void routingAccuracyAndLatency() throws Exception {
+        IntentRouter router = new IntentRouter(true, 0.8, new SimpleMeterRegistry());
+        List<IntentRoutingCorpus.Sample> samples = IntentRoutingCorpus.labelled();
+        List<String> outOfDomain = IntentRoutingCorpus.outOfDomain();
+
+        IntentRoutingCorpus.Evaluation evaluation = IntentRoutingCorpus.evaluate(router, samples, outOfDomain);
+        logger.info("Fast routing accuracy: labelled={}, outOfDomain={}, fastRouted={}/{} ({}%), misrouted={}",
+                samples.size(), outOfDomain.size(), evaluation.fastRouted(), evaluation.routable(),
+                Math.round(evaluation.coverage() * 100), evaluation.misrouted());
+
+        List<String> queries = new ArrayList<>();
+        samples.forEach(sample -> queries.add(sample.query()));
+        queries.addAll(outOfDomain);
+        int fast = 0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (String query : queries) {
+                fast += router.decide(query).fast() ? 1 : 0;
+            }
+        }
+
+        long[] nanos = new long[MEASURED_ROUNDS * queries.size()];
+        int index = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            for (String query : queries) {
+                long start = System.nanoTime();
+                fast += router.decide(query).fast() ? 1 : 0;
+                nanos[index++] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        logger.info("Fast routing latency over {} decisions: p50={}us, p99={}us, p99.9={}us, max={}us",
+                nanos.length, micros(nanos, 0.50), micros(nanos, 0.99), micros(nanos, 0.999),
+                nanos[nanos.length - 1] / 1000.0);
+        assertThat(fast).isPositive();
+    }
+
+    private static double micros(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1000.0;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 快速意图路由：重叠关键词不重复计分，订单与投诉信号并存时交给大模型，
+ * 独立编写的标注样本与领域外客服会话上快速路由不误判
+ */
+class IntentRouterTest {
+
+    /**
+     * 快速路由以不误判为先，标注样本多数不含关键词、交给大模型；低于实测覆盖率（约 20%）即视为回退
+     */
+    private static final double MIN_FAST_ROUTE_COVERAGE = 0.15;
+
+    private final IntentRouter router = new IntentRouter(true, 0.8, new SimpleMeterRegistry());
+
+    @Test
+    void longerKeywordCoversItsSubstrings() {
+        IntentRouter.RouteDecision decision = router.decide("我想取消订单");
+
+        assertThat(decision.agent()).isEqualTo("order_agent");
+        assertThat(decision.score()).isEqualTo(4.0);
+    }
+
+    @Test
+    void repeatedKeywordOutsideCoveredRangeStillCounts() {
+        // "订单" 在"取消订单"之外单独出现，按一次计分
+        assertThat(router.decide("我的订单能取消订单吗").score()).isEqualTo(7.0);
+    }
+
+    @Test
+    void complaintAboutAnOrderIsAmbiguous() {
+        IntentRouter.RouteDecision decision = router.decide("我要投诉订单ORDER_123");
+
+        assertThat(decision.agent()).isEqualTo("order_agent");
+        assertThat(decision.runnerUp()).isEqualTo("feedback_agent");
+        assertThat(decision.confidence()).isGreaterThan(0.8);
+        assertThat(decision.fast()).isFalse();
+        assertThat(router.route("我要投诉订单ORDER_123")).isEmpty();
+    }
+
+    @Test
+    void unambiguousRequestsAreFastRouted() {
+        assertThat(router.route("查一下订单ORDER_1723456789")).contains("order_agent");
+        assertThat(router.route("我要投诉你们店员态度差")).contains("feedback_agent");
+        assertThat(router.route("最近有什么新品和优惠活动")).contains("consult_agent");
+    }
+
+    @Test
+    void fastRoutesAreNeverWrongOnLabelledAndOutOfDomainSamples() throws IOException {
+        List<IntentRoutingCorpus.Sample> samples = IntentRoutingCorpus.labelled();
+        List<String> outOfDomain = IntentRoutingCorpus.outOfDomain();
+        assertThat(samples).hasSizeGreaterThan(80);
+        assertThat(outOfDomain).hasSizeGreaterThan(50);
+
+        IntentRoutingCorpus.Evaluation evaluation = IntentRoutingCorpus.evaluate(router, samples, outOfDomain);
+
+        assertThat(evaluation.misrouted()).isEmpty();
+        assertThat(evaluation.coverage()).isGreaterThanOrEqualTo(MIN_FAST_ROUTE_COVERAGE);
+    }
+}
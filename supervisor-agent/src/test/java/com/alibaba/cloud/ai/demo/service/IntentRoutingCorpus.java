@@ -0,0 +1,128 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 快速路由评测语料，供准确率测试与延迟基准共用
+ * 领域内样本为按真实意图标注的顾客说法（routing/intent-samples.tsv）；领域外样本取自 data/sessions.txt 中
+ * 云产品客服会话的顾客发言，不属于任何子智能体，快速路由一条都不应命中。
+ */
+final class IntentRoutingCorpus {
+
+    static final String LLM = "llm";
+
+    private IntentRoutingCorpus() {
+    }
+
+    /**
+     * 领域内标注样本
+     */
+    static List<Sample> labelled() throws IOException {
+        List<Sample> samples = new ArrayList<>();
+        for (String line : readLines("/routing/intent-samples.tsv")) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t", 2);
+            samples.add(new Sample(columns[0], columns[1]));
+        }
+        return samples;
+    }
+
+    /**
+     * 领域外的顾客发言
+     */
+    static List<String> outOfDomain() throws IOException {
+        List<String> queries = new ArrayList<>();
+        for (String line : readLines("/data/sessions.txt")) {
+            if (line.startsWith("customer>")) {
+                queries.add(line.substring("customer>".length()).trim());
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * 在语料上评估快速路由
+     */
+    static Evaluation evaluate(IntentRouter router, List<Sample> samples, List<String> outOfDomain) {
+        int routable = 0;
+        int fastRouted = 0;
+        List<String> misrouted = new ArrayList<>();
+        for (Sample sample : samples) {
+            IntentRouter.RouteDecision decision = router.decide(sample.query());
+            if (!LLM.equals(sample.expected())) {
+                routable++;
+            }
+            if (decision.fast()) {
+                if (decision.agent().equals(sample.expected())) {
+                    fastRouted++;
+                } else {
+                    misrouted.add(sample.query() + " -> " + decision.agent() + "（期望 " + sample.expected() + "）");
+                }
+            }
+        }
+        for (String query : outOfDomain) {
+            IntentRouter.RouteDecision decision = router.decide(query);
+            if (decision.fast()) {
+                misrouted.add(query + " -> " + decision.agent() + "（期望 " + LLM + "）");
+            }
+        }
+        return new Evaluation(routable, fastRouted, misrouted);
+    }
+
+    private static List<String> readLines(String resource) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = IntentRoutingCorpus.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing corpus resource " + resource);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @param expected 应处理该请求的子智能体，意图不明确时为 llm
+     */
+    record Sample(String expected, String query) {
+    }
+
+    /**
+     * @param routable   应由某个子智能体处理的领域内样本数
+     * @param fastRouted 其中被快速路由到正确子智能体的样本数
+     * @param misrouted  快速路由到错误子智能体，或本应交给大模型却被快速路由的请求
+     */
+    record Evaluation(int routable, int fastRouted, List<String> misrouted) {
+
+        double coverage() {
+            return routable == 0 ? 0 : (double) fastRouted / routable;
+        }
+    }
+}
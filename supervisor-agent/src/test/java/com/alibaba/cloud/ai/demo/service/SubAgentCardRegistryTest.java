@@ -0,0 +1,355 @@
+/*
+ * Copyright 2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.demo.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import com.alibaba.cloud.ai.graph.NodeOutput;
+import com.alibaba.cloud.ai.graph.agent.a2a.AgentCardProvider;
+import com.alibaba.cloud.ai.graph.agent.a2a.AgentCardWrapper;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.a2a.spec.AgentCard;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 使用两个本地桩 A2A 服务验证实例占用：没有对话时读取 AgentCard 不占用；对话中读取 AgentCard（无论在订阅线程还是
+ * 其他线程）即占用返回的实例，每轮只占用一次并在结束时归还同一占用
+ */
+class SubAgentCardRegistryTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final String AGENT = "order_agent";
+
+    private final List<StubA2aServer> servers = new ArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SubAgentCardRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StubA2aServer primary = startServer();
+        StubA2aServer secondary = startServer();
+
+        AgentCardProvider nacos = mock(AgentCardProvider.class);
+        AgentCard nacosCard = primary.card();
+        when(nacos.getAgentCard(anyString())).thenAnswer(invocation -> new AgentCardWrapper(nacosCard));
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("agent.a2a.instances." + AGENT, secondary.url());
+
+        registry = new SubAgentCardRegistry(nacos, environment, meterRegistry, 60_000, 50);
+        ReflectionTestUtils.setField(registry, "cardPath", "/.well-known/agent.json");
+        ReflectionTestUtils.setField(registry, "healthTimeoutMillis", 500L);
+        ReflectionTestUtils.setField(registry, "unhealthyThreshold", 2);
+
+        // 注册子智能体并等待两个实例都完成探测
+        readCardUrl();
+        await(() -> servers.stream().allMatch(server -> server.probes.get() >= 2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+        servers.forEach(server -> server.http.stop(0));
+    }
+
+    @Test
+    void readingAgentCardDoesNotTakeLeases() {
+        for (int i = 0; i < 100; i++) {
+            readCardUrl();
+        }
+
+        assertThat(outstanding()).containsOnly(0);
+    }
+
+    @Test
+    void concurrentTurnsLeaseDifferentInstancesAndReleaseTheirOwn() {
+        Sinks.Many<NodeOutput> first = Sinks.many().unicast().onBackpressureBuffer();
+        Sinks.Many<NodeOutput> second = Sinks.many().unicast().onBackpressureBuffer();
+        List<String> firstReads = new ArrayList<>();
+        List<String> secondReads = new ArrayList<>();
+
+        Disposable firstTurn = registry.track(() -> {
+            // 图执行过程中同一轮可能多次读取 AgentCard
+            firstReads.add(readCardUrl());
+            firstReads.add(readCardUrl());
+            return first.asFlux();
+        }, AGENT).subscribe();
+        Disposable secondTurn = registry.track(() -> {
+            secondReads.add(readCardUrl());
+            secondReads.add(readCardUrl());
+            return second.asFlux();
+        }, AGENT).subscribe();
+
+        assertThat(firstReads).hasSize(2).containsOnly(firstReads.get(0));
+        assertThat(secondReads).hasSize(2).containsOnly(secondReads.get(0));
+        assertThat(firstReads.get(0)).isNotEqualTo(secondReads.get(0));
+        assertThat(outstanding()).containsExactlyInAnyOrder(1, 1);
+
+        first.tryEmitNext(output("a2aNode"));
+        first.tryEmitComplete();
+        assertThat(outstanding()).containsExactlyInAnyOrder(0, 1);
+        assertThat(outstandingOf(firstReads.get(0))).isZero();
+        assertThat(outstandingOf(secondReads.get(0))).isEqualTo(1);
+
+        // 客户端断开同样归还
+        secondTurn.dispose();
+        assertThat(outstanding()).containsOnly(0);
+        firstTurn.dispose();
+    }
+
+    @Test
+    void leaseIsReleasedWhenNoA2aOutputIsSeen() {
+        registry.track(Flux::empty, AGENT).blockLast(Duration.ofSeconds(5));
+        assertThat(outstanding()).containsOnly(0);
+
+        assertThatThrownBy(() -> registry.track(() -> {
+            throw new IllegalStateException("graph failed");
+        }, AGENT).blockLast(Duration.ofSeconds(5))).hasMessageContaining("graph failed");
+        assertThat(outstanding()).containsOnly(0);
+    }
+
+    @Test
+    void leasedTurnsAreTimedAsA2aClientRequests() {
+        Sinks.Many<NodeOutput> completed = Sinks.many().unicast().onBackpressureBuffer();
+        List<String> completedReads = new ArrayList<>();
+        Disposable completedTurn = registry.track(() -> {
+            completedReads.add(readCardUrl());
+            return completed.asFlux();
+        }, AGENT).subscribe();
+        completed.tryEmitNext(output("a2aNode"));
+        completed.tryEmitComplete();
+
+        Disposable cancelledTurn = registry.track(() -> {
+            readCardUrl();
+            return Flux.never();
+        }, AGENT).subscribe();
+        cancelledTurn.dispose();
+
+        // 未读取 AgentCard 的对话没有发起 A2A 调用，不计时
+        registry.track(Flux::empty, AGENT).blockLast(Duration.ofSeconds(5));
+
+        Timer complete = meterRegistry.find("a2a.client.requests")
+                .tags("agent", AGENT, "outcome", "complete")
+                .timer();
+        assertThat(complete).isNotNull();
+        assertThat(complete.count()).isEqualTo(1);
+        assertThat(complete.getId().getTag("instance")).isEqualTo(URI.create(completedReads.get(0)).getRawAuthority());
+        assertThat(meterRegistry.find("a2a.client.requests").tags("outcome", "cancel").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("a2a.client.requests").timers().stream().mapToLong(Timer::count).sum())
+                .isEqualTo(2);
+        completedTurn.dispose();
+    }
+
+    @Test
+    void llmRoutedTurnLeasesTheInstanceReadOnAnotherThread() throws Exception {
+        ExecutorService modelCallbacks = Executors.newSingleThreadExecutor();
+        Sinks.Many<NodeOutput> outputs = Sinks.many().unicast().onBackpressureBuffer();
+        try {
+            Disposable turn = registry.track(outputs::asFlux, null).subscribe();
+            assertThat(outstanding()).containsOnly(0);
+
+            // 大模型路由完成后在模型回调线程上发起 A2A 请求，读取 AgentCard 时占用的正是返回的实例
+            String url = modelCallbacks.submit(this::readCardUrl).get(5, TimeUnit.SECONDS);
+            assertThat(outstandingOf(url)).isEqualTo(1);
+            assertThat(outstanding().stream().mapToInt(Integer::intValue).sum()).isEqualTo(1);
+
+            // 同一轮之后的读取沿用同一实例，不再占用
+            assertThat(modelCallbacks.submit(this::readCardUrl).get(5, TimeUnit.SECONDS)).isEqualTo(url);
+            assertThat(outstanding().stream().mapToInt(Integer::intValue).sum()).isEqualTo(1);
+
+            outputs.tryEmitNext(output("a2aNode"));
+            outputs.tryEmitComplete();
+            assertThat(outstanding()).containsOnly(0);
+            turn.dispose();
+        } finally {
+            modelCallbacks.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentLlmRoutedTurnsLeaseSeparateInstancesAcrossThreads() throws Exception {
+        ExecutorService modelCallbacks = Executors.newFixedThreadPool(2);
+        Sinks.Many<NodeOutput> first = Sinks.many().unicast().onBackpressureBuffer();
+        Sinks.Many<NodeOutput> second = Sinks.many().unicast().onBackpressureBuffer();
+        try {
+            Disposable firstTurn = registry.track(first::asFlux, null).subscribe();
+            Disposable secondTurn = registry.track(second::asFlux, null).subscribe();
+
+            Future<String> firstUrl = modelCallbacks.submit(this::readCardUrl);
+            String secondUrl = modelCallbacks.submit(this::readCardUrl).get(5, TimeUnit.SECONDS);
+
+            assertThat(firstUrl.get(5, TimeUnit.SECONDS)).isNotEqualTo(secondUrl);
+            assertThat(outstanding()).containsExactlyInAnyOrder(1, 1);
+            // 没有等待占用的对话时，读取不再占用
+            readCardUrl();
+            assertThat(outstanding()).containsExactlyInAnyOrder(1, 1);
+
+            first.tryEmitComplete();
+            assertThat(outstanding()).containsExactlyInAnyOrder(0, 1);
+            secondTurn.dispose();
+            assertThat(outstanding()).containsOnly(0);
+            firstTurn.dispose();
+        } finally {
+            modelCallbacks.shutdownNow();
+        }
+    }
+
+    @Test
+    void stoppedInstanceIsEjectedFromSelection() {
+        StubA2aServer stopped = servers.get(1);
+        stopped.http.stop(0);
+
+        await(() -> registry.stats().get(AGENT).stream()
+                .anyMatch(instance -> Boolean.FALSE.equals(instance.get("healthy"))));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(registry.track(() -> Flux.just(readCardUrl()).map(this::output), AGENT)
+                    .blockLast(Duration.ofSeconds(5))
+                    .node()).isEqualTo(servers.get(0).url());
+        }
+        assertThat(outstanding()).containsOnly(0);
+    }
+
+    private String readCardUrl() {
+        return registry.cardProvider().getAgentCard(AGENT).getAgentCard().url();
+    }
+
+    private List<Integer> outstanding() {
+        return registry.stats().get(AGENT).stream()
+                .map(instance -> (Integer) instance.get("outstanding"))
+                .toList();
+    }
+
+    private int outstandingOf(String url) {
+        return registry.stats().get(AGENT).stream()
+                .filter(instance -> url.startsWith((String) instance.get("baseUri")))
+                .map(instance -> (Integer) instance.get("outstanding"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private NodeOutput output(String node) {
+        NodeOutput output = mock(NodeOutput.class);
+        when(output.node()).thenReturn(node);
+        return output;
+    }
+
+    private StubA2aServer startServer() throws IOException {
+        StubA2aServer server = new StubA2aServer();
+        servers.add(server);
+        return server;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("condition not met within 10s");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    /**
+     * 只提供 AgentCard 地址的桩 A2A 服务，AgentCard 的 url 指向自身
+     */
+    private static final class StubA2aServer {
+
+        private final HttpServer http;
+
+        private final AtomicInteger probes = new AtomicInteger();
+
+        StubA2aServer() throws IOException {
+            http = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            http.createContext("/.well-known/agent.json", exchange -> {
+                probes.incrementAndGet();
+                byte[] body = cardJson().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            http.start();
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + http.getAddress().getPort() + "/";
+        }
+
+        String cardJson() {
+            try {
+                return OBJECT_MAPPER.writeValueAsString(Map.of(
+                        "name", AGENT,
+                        "description", "订单子智能体桩服务",
+                        "url", url(),
+                        "version", "1.0.0",
+                        "protocolVersion", "0.2.5",
+                        "capabilities", Map.of("streaming", true),
+                        "defaultInputModes", List.of("text"),
+                        "defaultOutputModes", List.of("text"),
+                        "skills", List.of()));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        AgentCard card() throws IOException {
+            return OBJECT_MAPPER.readValue(cardJson(), AgentCard.class);
+        }
+    }
+}